@@ -22,6 +22,7 @@ package org.apache.fop.afp.modca;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.apache.fop.afp.Completable;
 import org.apache.fop.afp.util.BinaryUtils;
 
 /**
@@ -29,8 +30,11 @@ import org.apache.fop.afp.util.BinaryUtils;
  * become active for the document. An Invoke Medium Map structured field affects
  * the document's current environment. The Medium Map's effect on current environment
  * parameter values lasts until a new Medium Map is invoked.
+ * <p>
+ * An Invoke Medium Map is complete as soon as it has been created, so it does not hold
+ * back the pages following it in a document or page group from being written.
  */
-public class InvokeMediumMap extends AbstractNamedAFPObject {
+public class InvokeMediumMap extends AbstractNamedAFPObject implements Completable {
 
     /**
      * Constructor for the Invoke Medium Map
@@ -54,4 +58,14 @@ public class InvokeMediumMap extends AbstractNamedAFPObject {
 
         os.write(data);
     }
+
+    /** {@inheritDoc} */
+    public boolean isComplete() {
+        return true; //always complete
+    }
+
+    /** {@inheritDoc} */
+    public void setComplete(boolean complete) {
+        //ignore
+    }
 }
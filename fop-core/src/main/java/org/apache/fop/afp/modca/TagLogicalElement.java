@@ -22,6 +22,7 @@ package org.apache.fop.afp.modca;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.apache.fop.afp.Completable;
 import org.apache.fop.afp.modca.triplets.AttributeQualifierTriplet;
 import org.apache.fop.afp.modca.triplets.AttributeValueTriplet;
 import org.apache.fop.afp.modca.triplets.EncodingTriplet;
@@ -45,8 +46,11 @@ import org.apache.fop.afp.util.BinaryUtils;
  * embedded in, the same page or page group. The Tag Logical Element structured
  * field does not provide any presentation specifications and therefore has no
  * effect on the appearance of a document when it is presented.
+ * <p>
+ * A Tag Logical Element is complete as soon as it has been created, so it does not hold
+ * back the pages following it in a document or page group from being written.
  */
-public class TagLogicalElement extends AbstractTripletStructuredObject {
+public class TagLogicalElement extends AbstractTripletStructuredObject implements Completable {
 
     /**
      * the params of the TLE
@@ -108,6 +112,16 @@ public class TagLogicalElement extends AbstractTripletStructuredObject {
         writeTriplets(os);
     }
 
+    /** {@inheritDoc} */
+    public boolean isComplete() {
+        return true; //always complete
+    }
+
+    /** {@inheritDoc} */
+    public void setComplete(boolean complete) {
+        //ignore
+    }
+
     /**
      *
      * Holds the attribute state of a TLE
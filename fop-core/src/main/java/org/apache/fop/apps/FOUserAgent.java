@@ -56,6 +56,7 @@ import org.apache.fop.events.LoggingEventListener;
 import org.apache.fop.fo.ElementMappingRegistry;
 import org.apache.fop.fo.FOEventHandler;
 import org.apache.fop.fonts.FontManager;
+import org.apache.fop.fonts.truetype.TTFSubSetCache;
 import org.apache.fop.hyphenation.HyphenationTreeCache;
 import org.apache.fop.layoutmgr.LayoutManagerMaker;
 import org.apache.fop.render.ImageHandlerRegistry;
@@ -68,6 +69,7 @@ import org.apache.fop.render.XMLHandlerRegistry;
 import org.apache.fop.render.intermediate.IFDocumentHandler;
 import org.apache.fop.util.ColorSpaceCache;
 import org.apache.fop.util.ContentHandlerFactoryRegistry;
+import org.apache.fop.util.WorkerPool;
 
 /**
  * This is the user agent for FOP.
@@ -105,6 +107,7 @@ public class FOUserAgent {
     private FOEventHandler foEventHandlerOverride;
     private boolean locatorEnabled = true; // true by default (for error messages).
     private boolean conserveMemoryPolicy;
+    private long streamCacheMemoryLimit;
     private EventBroadcaster eventBroadcaster = new FOPEventBroadcaster();
     private StructureTreeEventHandler structureTreeEventHandler
             = DummyStructureTreeEventHandler.INSTANCE;
@@ -148,6 +151,7 @@ public class FOUserAgent {
         this.factory = factory;
         this.resourceResolver = resourceResolver;
         setTargetResolution(factory.getTargetResolution());
+        setStreamCacheMemoryLimit(factory.getStreamCacheMemoryLimit());
         setAccessibility(factory.isAccessibilityEnabled());
         setKeepEmptyTags(factory.isKeepEmptyTags());
         imageSessionContext = new AbstractImageSessionContext(factory.getFallbackResolver()) {
@@ -641,6 +645,47 @@ public class FOUserAgent {
         this.conserveMemoryPolicy = conserveMemoryPolicy;
     }
 
+    /**
+     * Returns the number of bytes of memory the stream caches of an output document may use
+     * before finished stream data is spilled to a temporary file.
+     *
+     * @return the memory limit in bytes, or a negative value for no limit
+     */
+    public long getStreamCacheMemoryLimit() {
+        return this.streamCacheMemoryLimit;
+    }
+
+    /**
+     * Returns the cache of font subsets shared by the documents of the factory.
+     *
+     * @return the font subset cache, or null if font subsets are not cached
+     */
+    public TTFSubSetCache getFontSubsetCache() {
+        return factory.getFontSubsetCache();
+    }
+
+    /**
+     * Returns the pool of threads shared by the documents of the factory for work done in
+     * parallel.
+     *
+     * @return the worker pool, or null if all work is done on the rendering threads
+     */
+    public WorkerPool getWorkerPool() {
+        return factory.getWorkerPool();
+    }
+
+    /**
+     * Sets the number of bytes of memory the stream caches of an output document may use.
+     * Once the limit is reached, the oldest finished stream data is spilled to a single
+     * temporary file per document. The last 32 KB of a stream that is still being written
+     * stay in memory, so the limit is exceeded if there are many such streams.
+     *
+     * @param memoryLimit the memory limit in bytes, or a negative value for no limit
+     */
+    public void setStreamCacheMemoryLimit(long memoryLimit) {
+        this.streamCacheMemoryLimit = memoryLimit;
+    }
+
     /**
      * Check whether complex script features are enabled.
      *
@@ -44,6 +44,7 @@ import org.apache.fop.configuration.Configuration;
 import org.apache.fop.fo.ElementMapping;
 import org.apache.fop.fo.ElementMappingRegistry;
 import org.apache.fop.fonts.FontManager;
+import org.apache.fop.fonts.truetype.TTFSubSetCache;
 import org.apache.fop.hyphenation.HyphenationTreeCache;
 import org.apache.fop.layoutmgr.LayoutManagerMaker;
 import org.apache.fop.render.ImageHandlerRegistry;
@@ -53,6 +54,7 @@ import org.apache.fop.render.RendererFactory;
 import org.apache.fop.render.XMLHandlerRegistry;
 import org.apache.fop.util.ColorSpaceCache;
 import org.apache.fop.util.ContentHandlerFactoryRegistry;
+import org.apache.fop.util.WorkerPool;
 
 /**
  * Factory class which instantiates new Fop and FOUserAgent instances. This
@@ -89,6 +91,10 @@ public final class FopFactory implements ImageContext {
 
     private final Map<String, RendererConfig> rendererConfig;
 
+    private final TTFSubSetCache fontSubsetCache;
+
+    private final WorkerPool workerPool;
+
     private HyphenationTreeCache hyphenationTreeCache;
 
     private FopFactory(FopFactoryConfig config) {
@@ -101,6 +107,10 @@ public final class FopFactory implements ImageContext {
         this.xmlHandlers = new XMLHandlerRegistry();
         this.imageHandlers = new ImageHandlerRegistry();
         rendererConfig = new HashMap<String, RendererConfig>();
+        this.fontSubsetCache = config.getFontSubsetCacheSize() > 0
+                ? new TTFSubSetCache(config.getFontSubsetCacheSize()) : null;
+        this.workerPool = config.getWorkerThreadCount() > 0
+                ? new WorkerPool(config.getWorkerThreadCount()) : null;
     }
 
     /**
@@ -367,6 +377,30 @@ public final class FopFactory implements ImageContext {
         return config.getTargetResolution();
     }
 
+    /** @see FopFactoryConfig#getStreamCacheMemoryLimit() */
+    public long getStreamCacheMemoryLimit() {
+        return config.getStreamCacheMemoryLimit();
+    }
+
+    /**
+     * Returns the cache of font subsets shared by the documents created by this factory.
+     * @return the font subset cache, or null if font subsets are not cached
+     * @see FopFactoryConfig#getFontSubsetCacheSize()
+     */
+    public TTFSubSetCache getFontSubsetCache() {
+        return fontSubsetCache;
+    }
+
+    /**
+     * Returns the pool of threads shared by the documents created by this factory for work
+     * done in parallel.
+     * @return the worker pool, or null if all work is done on the rendering threads
+     * @see FopFactoryConfig#getWorkerThreadCount()
+     */
+    public WorkerPool getWorkerPool() {
+        return workerPool;
+    }
+
     public InternalResourceResolver getHyphenationResourceResolver() {
         return config.getHyphenationResourceResolver();
     }
@@ -250,6 +250,46 @@ public final class FopFactoryBuilder {
         return this;
     }
 
+    /**
+     * Sets the number of bytes of memory the stream caches of an output document may use.
+     * Once the limit is reached, the oldest finished stream data is spilled to a single
+     * temporary file per document. The last 32 KB of a stream that is still being written
+     * stay in memory, so the limit is exceeded if there are many such streams. A negative
+     * value, the default, keeps all data in memory.
+     *
+     * @param memoryLimit the memory limit in bytes, or a negative value for no limit
+     * @return <code>this</code>
+     */
+    public FopFactoryBuilder setStreamCacheMemoryLimit(long memoryLimit) {
+        fopFactoryConfigBuilder.setStreamCacheMemoryLimit(memoryLimit);
+        return this;
+    }
+
+    /**
+     * Sets the maximum total size of the font subsets that are kept to be embedded again in
+     * later documents created by the factory. The default is 16 MB.
+     *
+     * @param maxSize the maximum size in bytes, 0 to not cache font subsets
+     * @return <code>this</code>
+     */
+    public FopFactoryBuilder setFontSubsetCacheSize(int maxSize) {
+        fopFactoryConfigBuilder.setFontSubsetCacheSize(maxSize);
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of threads that the documents created by the factory share
+     * for work done in parallel, such as encoding page content streams or large images. The
+     * default is the number of available processors.
+     *
+     * @param threadCount the number of threads, 0 to do all work on the rendering threads
+     * @return <code>this</code>
+     */
+    public FopFactoryBuilder setWorkerThreadCount(int threadCount) {
+        fopFactoryConfigBuilder.setWorkerThreadCount(threadCount);
+        return this;
+    }
+
     /**
      * Sets the page height of the paginated output.
      *
@@ -354,6 +394,12 @@ public final class FopFactoryBuilder {
 
         private float targetResolution = FopFactoryConfig.DEFAULT_TARGET_RESOLUTION;
 
+        private long streamCacheMemoryLimit = FopFactoryConfig.DEFAULT_STREAM_CACHE_MEMORY_LIMIT;
+
+        private int fontSubsetCacheSize = FopFactoryConfig.DEFAULT_FONT_SUBSET_CACHE_SIZE;
+
+        private int workerThreadCount = FopFactoryConfig.DEFAULT_WORKER_THREAD_COUNT;
+
         private String pageHeight = FopFactoryConfig.DEFAULT_PAGE_HEIGHT;
 
         private String pageWidth = FopFactoryConfig.DEFAULT_PAGE_WIDTH;
@@ -440,6 +486,18 @@ public final class FopFactoryBuilder {
             return targetResolution;
         }
 
+        public long getStreamCacheMemoryLimit() {
+            return streamCacheMemoryLimit;
+        }
+
+        public int getFontSubsetCacheSize() {
+            return fontSubsetCacheSize;
+        }
+
+        public int getWorkerThreadCount() {
+            return workerThreadCount;
+        }
+
         /** {@inheritDoc} */
         public String getPageHeight() {
             return pageHeight;
@@ -514,6 +572,12 @@ public final class FopFactoryBuilder {
 
         void setTargetResolution(float dpi);
 
+        void setStreamCacheMemoryLimit(long memoryLimit);
+
+        void setFontSubsetCacheSize(int maxSize);
+
+        void setWorkerThreadCount(int threadCount);
+
         void setPageHeight(String pageHeight);
 
         void setPageWidth(String pageWidth);
@@ -581,6 +645,18 @@ public final class FopFactoryBuilder {
             throwIllegalStateException();
         }
 
+        public void setStreamCacheMemoryLimit(long memoryLimit) {
+            throwIllegalStateException();
+        }
+
+        public void setFontSubsetCacheSize(int maxSize) {
+            throwIllegalStateException();
+        }
+
+        public void setWorkerThreadCount(int threadCount) {
+            throwIllegalStateException();
+        }
+
         public void setPageHeight(String pageHeight) {
             throwIllegalStateException();
         }
@@ -665,6 +741,18 @@ public final class FopFactoryBuilder {
             config.targetResolution = dpi;
         }
 
+        public void setStreamCacheMemoryLimit(long memoryLimit) {
+            config.streamCacheMemoryLimit = memoryLimit;
+        }
+
+        public void setFontSubsetCacheSize(int maxSize) {
+            config.fontSubsetCacheSize = maxSize;
+        }
+
+        public void setWorkerThreadCount(int threadCount) {
+            config.workerThreadCount = threadCount;
+        }
+
         public void setPageHeight(String pageHeight) {
             config.pageHeight = pageHeight;
         }
@@ -61,6 +61,15 @@ public interface FopFactoryConfig {
     /** Defines the default target resolution (72dpi) for FOP */
     float DEFAULT_TARGET_RESOLUTION = 72.0f; //dpi
 
+    /** Defines the default stream cache memory limit (unlimited, nothing is spilled to disk) */
+    long DEFAULT_STREAM_CACHE_MEMORY_LIMIT = -1;
+
+    /** Defines the default maximum total size of the cached font subsets (16 MB) */
+    int DEFAULT_FONT_SUBSET_CACHE_SIZE = 16 * 1024 * 1024;
+
+    /** Defines the default number of worker threads (the number of available processors) */
+    int DEFAULT_WORKER_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+
     /**
      * Whether accessibility features are switched on.
      *
@@ -113,6 +122,27 @@ public interface FopFactoryConfig {
     /** @return the resolution for resolution-dependent output */
     float getTargetResolution();
 
+    /**
+     * Returns the number of bytes of memory the stream caches of an output document may use
+     * before finished stream data is spilled to a temporary file.
+     * @return the memory limit in bytes, or a negative value for no limit
+     */
+    long getStreamCacheMemoryLimit();
+
+    /**
+     * Returns the maximum total size of the font subsets that are kept to be embedded again
+     * in later documents.
+     * @return the maximum size in bytes, 0 if font subsets are not cached
+     */
+    int getFontSubsetCacheSize();
+
+    /**
+     * Returns the maximum number of threads that the documents share for work done in
+     * parallel, such as encoding page content streams or large images.
+     * @return the number of threads, 0 if all work is done on the rendering threads
+     */
+    int getWorkerThreadCount();
+
     /**
      * Gets the default page-height to use as fallback,
      * in case page-height="auto"
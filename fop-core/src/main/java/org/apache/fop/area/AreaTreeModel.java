@@ -28,6 +28,8 @@ import org.xml.sax.SAXException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.apache.fop.fo.flow.Marker;
+
 /**
  * This is the model for the area tree object.
  * The model implementation can handle the page sequence,
@@ -39,6 +41,7 @@ import org.apache.commons.logging.LogFactory;
 public class AreaTreeModel {
     private List<PageSequence> pageSequenceList;
     private int currentPageIndex;
+    private final MarkerIndex markerIndex = new MarkerIndex();
 
     /** the current page sequence */
     protected PageSequence currentPageSequence;
@@ -76,6 +79,7 @@ public class AreaTreeModel {
         page.setPageIndex(currentPageIndex
                 + currentPageSequence.getPageCount() - 1);
         page.setPageSequence(currentPageSequence);
+        markerIndex.addPage(page.getPageIndex(), page.releaseMarkers());
     }
 
     /**
@@ -98,6 +102,18 @@ public class AreaTreeModel {
         return this.currentPageSequence;
     }
 
+    /**
+     * Returns the marker of the given class that last ended on the pages added so far, as
+     * resolved with the position last-ending-within-page.
+     * @param className the marker class name
+     * @param document true to look at all pages of the document, false to look at the pages
+     * of the current page-sequence only
+     * @return the marker, or null if there is none
+     */
+    public Marker getLastEndingMarker(String className, boolean document) {
+        return markerIndex.getLastEnding(className, document ? 0 : currentPageIndex);
+    }
+
     /**
      * Get the page sequence count.
      * @return the number of page sequences in the document.
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.area;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.fop.fo.flow.Marker;
+
+/**
+ * An index of the markers on the finished pages of a document, used to resolve
+ * retrieve-markers whose own page has no qualifying marker.
+ * <p>
+ * Markers are then looked up on the preceding pages with the position
+ * last-ending-within-page, and the last page that has a marker of the requested class wins.
+ * So for each marker class only the last such marker and the index of its page are kept,
+ * and lookups take constant time whatever the length of the document. The marker maps of
+ * indexed pages are no longer needed.
+ */
+final class MarkerIndex {
+
+    private final Map<String, Entry> lastEnding = new HashMap<String, Entry>();
+
+    /**
+     * Adds the markers of a finished page. Pages must be added in document order.
+     * @param pageIndex the index of the page in the document
+     * @param markers the markers of the page that last-ending-within-page resolves to, by
+     * class name
+     */
+    void addPage(int pageIndex, Map<String, Marker> markers) {
+        for (Map.Entry<String, Marker> marker : markers.entrySet()) {
+            lastEnding.put(marker.getKey(), new Entry(pageIndex, marker.getValue()));
+        }
+    }
+
+    /**
+     * Returns the marker of the given class that last ended on a page added so far.
+     * @param className the marker class name
+     * @param firstPageIndex the index of the first page to consider
+     * @return the marker, or null if no page from the first page on has one
+     */
+    Marker getLastEnding(String className, int firstPageIndex) {
+        Entry entry = lastEnding.get(className);
+        return entry != null && entry.pageIndex >= firstPageIndex ? entry.marker : null;
+    }
+
+    private static final class Entry {
+
+        private final int pageIndex;
+
+        private final Marker marker;
+
+        Entry(int pageIndex, Marker marker) {
+            this.pageIndex = pageIndex;
+            this.marker = marker;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -387,6 +388,20 @@ public class PageViewport extends AreaTreeObject implements Resolvable {
         return pageMarkers.resolve(rm);
     }
 
+    /**
+     * Returns the markers of this page that last-ending-within-page resolves to and releases
+     * the marker data of this page. Called once the page is finished.
+     * @return the markers by class name
+     */
+    Map<String, Marker> releaseMarkers() {
+        if (pageMarkers == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Marker> lastEnding = pageMarkers.getLastEndingMarkers();
+        pageMarkers = null;
+        return lastEnding;
+    }
+
     /** Dumps the current marker data to the logger. */
     public void dumpMarkers() {
         if (pageMarkers != null) {
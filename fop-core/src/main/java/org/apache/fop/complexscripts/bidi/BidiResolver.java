@@ -53,6 +53,13 @@ public final class BidiResolver {
      * @param ps a page sequence FO instance
      */
     public static void resolveInlineDirectionality(PageSequence ps) {
+        if (!ps.isBidiRequired()) {
+            // all text is left-to-right, so no levels would be assigned
+            if (log.isDebugEnabled()) {
+                log.debug("BD: SKIP: " + ps);
+            }
+            return;
+        }
         if (log.isDebugEnabled()) {
             log.debug("BD: RESOLVE: " + ps);
         }
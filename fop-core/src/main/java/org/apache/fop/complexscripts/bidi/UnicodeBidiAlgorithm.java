@@ -697,6 +697,30 @@ public final class UnicodeBidiAlgorithm implements BidiConstants {
         }
     }
 
+    /**
+     * Determine if any character of a character sequence triggers bidirectional processing,
+     * as determined by {@link #triggersBidi(int)}.
+     * @return true if the sequence contains a character that triggers bidirectional processing
+     * @param cs a UTF-16 encoded character sequence
+     */
+    public static boolean triggersBidi(CharSequence cs) {
+        for (int i = 0, n = cs.length(); i < n; i++) {
+            char c = cs.charAt(i);
+            // no character below the hebrew block triggers bidi processing
+            if (c >= 0x0590) {
+                int ch = c;
+                if (java.lang.Character.isHighSurrogate(c) && (i + 1) < n
+                        && java.lang.Character.isLowSurrogate(cs.charAt(i + 1))) {
+                    ch = java.lang.Character.toCodePoint(c, cs.charAt(++i));
+                }
+                if (triggersBidi(ch)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Determine of character CH triggers bidirectional processing. Bidirectional
      * processing is deemed triggerable if CH is a strong right-to-left character,
@@ -32,8 +32,6 @@ import org.apache.fop.complexscripts.util.ScriptContextTester;
  */
 public abstract class GlyphPositioningSubtable extends GlyphSubtable implements GlyphPositioning {
 
-    private static final GlyphPositioningState STATE = new GlyphPositioningState();
-
     /**
      * Instantiate a <code>GlyphPositioningSubtable</code>.
      * @param id subtable identifier
@@ -122,9 +120,7 @@ public abstract class GlyphPositioningSubtable extends GlyphSubtable implements
      * @return true if a non-zero adjustment occurred
      */
     public static final boolean position(GlyphSequence gs, String script, String language, String feature, int fontSize, GlyphPositioningSubtable[] sta, int[] widths, int[][] adjustments, ScriptContextTester sct) {
-        synchronized (STATE) {
-            return position(STATE.reset(gs, script, language, feature, fontSize, widths, adjustments, sct), sta, -1);
-        }
+        return position(new GlyphPositioningState(gs, script, language, feature, fontSize, widths, adjustments, sct), sta, -1);
     }
 
 }
@@ -88,6 +88,25 @@ public class GlyphPositioningTable extends GlyphTable {
         }
     }
 
+    /**
+     * Instantiate a <code>GlyphPositioningTable</code> object using the specified lookups
+     * and a loader which reads the subtables of a lookup table when it is first used.
+     * @param gdef glyph definition table that applies
+     * @param lookups a map of lookup specifications to subtable identifier strings
+     * @param loader a loader of the glyph positioning subtables of a lookup table
+     * @param numLookups number of lookup tables, identified as "lu0" to "lu<i>n-1</i>"
+     * @param processors script processors
+     */
+    public GlyphPositioningTable(GlyphDefinitionTable gdef, Map lookups, LookupTableLoader loader, int numLookups,
+                                 Map<String, ScriptProcessor> processors) {
+        super(gdef, lookups, processors);
+        if (loader == null) {
+            throw new AdvancedTypographicTableFormatException("loader must be non-null");
+        } else {
+            setLookupTableLoader(loader, numLookups);
+        }
+    }
+
     /**
      * Map a lookup type name to its constant (integer) value.
      * @param name lookup type name
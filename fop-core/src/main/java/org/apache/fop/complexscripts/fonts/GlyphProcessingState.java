@@ -97,21 +97,7 @@ public class GlyphProcessingState {
         this.indexLast = gs.getGlyphCount();
         this.sct = sct;
         this.gct = (sct != null) ? sct.getTester(feature) : null;
-        this.ignoreBase = new GlyphTester() {
-                public boolean test(int gi, int flags) {
-                    return isIgnoredBase(gi, flags);
-                }
-            };
-        this.ignoreLigature = new GlyphTester() {
-                public boolean test(int gi, int flags) {
-                    return isIgnoredLigature(gi, flags);
-                }
-            };
-        this.ignoreMark = new GlyphTester() {
-                public boolean test(int gi, int flags) {
-                    return isIgnoredMark(gi, flags);
-                }
-            };
+        createGlyphTesters();
     }
 
     /**
@@ -146,6 +132,16 @@ public class GlyphProcessingState {
         this.classMatchSet = 0; // @SuppressFBWarnings("URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD")
         this.sct = sct;
         this.gct = (sct != null) ? sct.getTester(feature) : null;
+        if (this.ignoreBase == null) {
+            // the testers only depend on this state, so they can be kept across resets
+            createGlyphTesters();
+        }
+        this.ignoreDefault = null;
+        this.subtable = null;
+        return this;
+    }
+
+    private void createGlyphTesters() {
         this.ignoreBase = new GlyphTester() {
                 public boolean test(int gi, int flags) {
                     return isIgnoredBase(gi, flags);
@@ -161,9 +157,6 @@ public class GlyphProcessingState {
                     return isIgnoredMark(gi, flags);
                 }
             };
-        this.ignoreDefault = null;
-        this.subtable = null;
-        return this;
     }
 
     /**
@@ -46,6 +46,12 @@ public class GlyphSubstitutionState extends GlyphProcessingState {
     private List oal;
     /** character association predications */
     private boolean predications;
+    /** true while the output is the same as the input from outputStart to the current position */
+    private boolean unchanged;
+    /** index of the first input glyph that belongs to the output */
+    private int outputStart;
+    /** true if the output buffers are used by a glyph sequence returned by getOutput() */
+    private boolean outputShared;
 
     /**
      * Construct default (reset) glyph substitution state.
@@ -63,9 +69,8 @@ public class GlyphSubstitutionState extends GlyphProcessingState {
      */
     public GlyphSubstitutionState(GlyphSequence gs, String script, String language, String feature, ScriptContextTester sct) {
         super(gs, script, language, feature, sct);
-        this.ogb = IntBuffer.allocate(gs.getGlyphCount());
-        this.oal = new ArrayList(gs.getGlyphCount());
         this.predications = gs.getPredications();
+        this.unchanged = true;
     }
 
     /**
@@ -75,8 +80,8 @@ public class GlyphSubstitutionState extends GlyphProcessingState {
      */
     public GlyphSubstitutionState(GlyphSubstitutionState ss) {
         super(ss);
-        this.ogb = IntBuffer.allocate(indexLast);
-        this.oal = new ArrayList(indexLast);
+        this.unchanged = true;
+        this.outputStart = index;
     }
 
     /**
@@ -90,9 +95,9 @@ public class GlyphSubstitutionState extends GlyphProcessingState {
     public GlyphSubstitutionState reset(GlyphSequence gs, String script, String language, String feature, ScriptContextTester sct) {
         super.reset(gs, script, language, feature, sct);
         this.alternatesIndex = null;
-        this.ogb = IntBuffer.allocate(gs.getGlyphCount());
-        this.oal = new ArrayList(gs.getGlyphCount());
         this.predications = gs.getPredications();
+        this.unchanged = true;
+        this.outputStart = 0;
         return this;
     }
 
@@ -130,6 +135,9 @@ public class GlyphSubstitutionState extends GlyphProcessingState {
      * @param predication a predication value to add to association A if predications enabled
      */
     public void putGlyph(int glyph, CharAssociation a, Object predication) {
+        if (unchanged) {
+            startOutput();
+        }
         if (!ogb.hasRemaining()) {
             ogb = growBuffer(ogb);
         }
@@ -161,10 +169,21 @@ public class GlyphSubstitutionState extends GlyphProcessingState {
      * characters, output glyphs, and output associations
      */
     public GlyphSequence getOutput() {
+        if (unchanged) {
+            if (index == outputStart) {
+                return igs;
+            } else if ((outputStart == 0) && (index == igs.getGlyphCount())) {
+                // no substitution took place, so the input glyphs and associations can be shared
+                return new GlyphSequence(igs.getCharacters(), igs.getGlyphs().duplicate(), igs.getAssociations());
+            } else {
+                startOutput();
+            }
+        }
         int position = ogb.position();
         if (position > 0) {
             ogb.limit(position);
             ogb.rewind();
+            outputShared = true;
             return new GlyphSequence(igs.getCharacters(), ogb, oal);
         } else {
             return igs;
@@ -184,7 +203,13 @@ public class GlyphSubstitutionState extends GlyphProcessingState {
     public boolean apply(GlyphSubstitutionSubtable st) {
         assert st != null;
         updateSubtableState(st);
+        int start = index;
         boolean applied = st.substitute(this);
+        if (applied && unchanged) {
+            // input glyphs may have been consumed without being written, so only the
+            // input preceding the position at which the subtable applied is copied
+            startOutput(start);
+        }
         return applied;
     }
 
@@ -203,6 +228,9 @@ public class GlyphSubstitutionState extends GlyphProcessingState {
         int nlg = indexLast - (index + nig);
         int nog = 0;
         if ((lookups != null) && (lookups.length > 0)) {
+            if (unchanged) {
+                startOutput();
+            }
             // apply each rule lookup to extracted input glyph array
             for (GlyphTable.RuleLookup l : lookups) {
                 if (l != null) {
@@ -236,11 +264,49 @@ public class GlyphSubstitutionState extends GlyphProcessingState {
     public void applyDefault() {
         super.applyDefault();
         int gi = getGlyph();
-        if (gi != 65535) {
+        if (gi == 65535) {
+            if (unchanged) {
+                startOutput();
+            }
+        } else if (!unchanged) {
             putGlyph(gi, getAssociation(), null);
         }
     }
 
+    /**
+     * Start writing to the output buffers, which are only used once the output differs
+     * from the input. The buffers of a previous substitution are reused unless they were
+     * returned as part of its output. Input glyphs preceding the current position that
+     * belong to the output are written first.
+     */
+    private void startOutput() {
+        startOutput(index);
+    }
+
+    /**
+     * Start writing to the output buffers, copying the input glyphs from the start of the
+     * output up to (but not including) the given index.
+     * @param end index of the first input glyph not to copy
+     */
+    private void startOutput(int end) {
+        int capacity = Math.max(indexLast, 1);
+        if ((ogb == null) || outputShared || (ogb.capacity() < capacity)) {
+            ogb = IntBuffer.allocate(capacity);
+        } else {
+            ogb.clear();
+        }
+        if ((oal == null) || outputShared) {
+            oal = new ArrayList(capacity);
+        } else {
+            oal.clear();
+        }
+        outputShared = false;
+        unchanged = false;
+        for (int i = outputStart; i < end; i++) {
+            putGlyph(igs.getGlyph(i), igs.getAssociation(i), null);
+        }
+    }
+
     private static IntBuffer growBuffer(IntBuffer ib) {
         int capacity = ib.capacity();
         int capacityNew = capacity * 2;
@@ -87,6 +87,25 @@ public class GlyphSubstitutionTable extends GlyphTable {
         }
     }
 
+    /**
+     * Instantiate a <code>GlyphSubstitutionTable</code> object using the specified lookups
+     * and a loader which reads the subtables of a lookup table when it is first used.
+     * @param gdef glyph definition table that applies
+     * @param lookups a map of lookup specifications to subtable identifier strings
+     * @param loader a loader of the glyph substitution subtables of a lookup table
+     * @param numLookups number of lookup tables, identified as "lu0" to "lu<i>n-1</i>"
+     * @param processors script processors
+     */
+    public GlyphSubstitutionTable(GlyphDefinitionTable gdef, Map lookups, LookupTableLoader loader, int numLookups,
+                                  Map<String, ScriptProcessor> processors) {
+        super(gdef, lookups, processors);
+        if (loader == null) {
+            throw new AdvancedTypographicTableFormatException("loader must be non-null");
+        } else {
+            setLookupTableLoader(loader, numLookups);
+        }
+    }
+
     /**
      * Perform substitution processing using all matching lookups.
      * @param gs an input glyph sequence
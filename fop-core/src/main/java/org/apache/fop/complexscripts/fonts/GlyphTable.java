@@ -19,9 +19,11 @@
 
 package org.apache.fop.complexscripts.fonts;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -75,6 +77,12 @@ public class GlyphTable {
     // if true, then prevent further subtable addition
     private boolean frozen;
 
+    // (optional) loader of lookup tables that are read when first used
+    private LookupTableLoader loader;
+
+    // identifiers of lookup tables not yet read by loader
+    private Set<String> pendingLookups;
+
     protected Map<String, ScriptProcessor> processors;
 
     /**
@@ -119,6 +127,9 @@ public class GlyphTable {
      * @return (possibly empty) ordered list of all lookup tables
      */
     public List<LookupTable> getLookupTables() {
+        if (loader != null) {
+            loadAllLookupTables();
+        }
         TreeSet<String> lids = new TreeSet<String>(lookupTables.keySet());
         List<LookupTable> ltl = new ArrayList<LookupTable>(lids.size());
         for (Object lid1 : lids) {
@@ -135,9 +146,58 @@ public class GlyphTable {
      * @return table associated with lookup id or null if none
      */
     public LookupTable getLookupTable(String lid) {
+        if (loader != null) {
+            return loadLookupTable(lid);
+        } else {
+            return lookupTables.get(lid);
+        }
+    }
+
+    /**
+     * Use a loader to read lookup tables when they are first used instead of adding all
+     * subtables up front. The lookup tables must be identified as "lu0" to "lu<i>n-1</i>".
+     * @param loader a (non-null) lookup table loader
+     * @param numLookups number of lookup tables the loader can read
+     */
+    protected void setLookupTableLoader(LookupTableLoader loader, int numLookups) {
+        if (frozen) {
+            throw new IllegalStateException("glyph table is frozen, subtable addition prohibited");
+        }
+        Set<String> lids = new HashSet<String>();
+        for (int i = 0; i < numLookups; i++) {
+            lids.add("lu" + i);
+        }
+        this.loader = loader;
+        this.pendingLookups = lids;
+        this.frozen = true;
+    }
+
+    private synchronized LookupTable loadLookupTable(String lid) {
+        if (pendingLookups.remove(lid)) {
+            LookupTable lt = null;
+            for (GlyphSubtable st : loader.loadSubtables(lid)) {
+                st.setTable(this);
+                if (lt == null) {
+                    lt = new LookupTable(lid, st);
+                } else {
+                    lt.addSubtable(st);
+                }
+            }
+            if (lt != null) {
+                // register before freezing, so (possibly circular) references resolve to it
+                lookupTables.put(lid, lt);
+                lt.freezeSubtables(new LoadingLookupTables());
+            }
+        }
         return lookupTables.get(lid);
     }
 
+    private synchronized void loadAllLookupTables() {
+        for (String lid : new ArrayList<String>(pendingLookups)) {
+            loadLookupTable(lid);
+        }
+    }
+
     /**
      * Add a subtable.
      * @param subtable a (non-null) glyph subtable
@@ -246,7 +306,7 @@ public class GlyphTable {
             for (Object id : ids) {
                 String lid = (String) id;
                 LookupTable lt;
-                if ((lt = lookupTables.get(lid)) != null) {
+                if ((lt = getLookupTable(lid)) != null) {
                     lts.add(lt);
                 }
             }
@@ -345,6 +405,38 @@ public class GlyphTable {
         }
     }
 
+    /**
+     * Reads the subtables of a lookup table when the lookup table is first used.
+     */
+    public interface LookupTableLoader {
+
+        /**
+         * Read the subtables of a lookup table.
+         * @param lid lookup identifier, e.g. "lu4"
+         * @return (possibly empty) list of subtables of the identified lookup table
+         */
+        List<GlyphSubtable> loadSubtables(String lid);
+
+    }
+
+    /**
+     * Map view of the lookup tables which reads a lookup table when it is first obtained;
+     * used to resolve references from a newly read lookup table to other lookup tables.
+     */
+    private final class LoadingLookupTables extends AbstractMap<String, LookupTable> {
+
+        /** {@inheritDoc} */
+        public LookupTable get(Object lid) {
+            return (lid instanceof String) ? loadLookupTable((String) lid) : null;
+        }
+
+        /** {@inheritDoc} */
+        public Set<Map.Entry<String, LookupTable>> entrySet() {
+            return lookupTables.entrySet();
+        }
+
+    }
+
     /**
      * A structure class encapsulating a lookup specification as a &lt;script,language,feature&gt; tuple.
      */
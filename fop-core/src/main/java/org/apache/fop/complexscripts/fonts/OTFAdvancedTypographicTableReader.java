@@ -19,8 +19,10 @@
 
 package org.apache.fop.complexscripts.fonts;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +42,10 @@ import org.apache.fop.fonts.truetype.OpenFont;
  * <p>OpenType Font (OTF) advanced typographic table reader. Used by @{Link org.apache.fop.fonts.truetype.TTFFile}
  * to read advanced typographic tables (GDEF, GSUB, GPOS).</p>
  *
+ * <p>The GDEF table and the script, feature and lookup lists of the GSUB and GPOS tables
+ * are read by {@link #readAll()}; the lookup tables of GSUB and GPOS are read from a copy
+ * of the table data when they are first used.</p>
+ *
  * <p>This work was originally authored by Glenn Adams (gadams@apache.org).</p>
  */
 public final class OTFAdvancedTypographicTableReader {
@@ -49,6 +55,8 @@ public final class OTFAdvancedTypographicTableReader {
     // instance state
     private OpenFont otf;                                        // parent font file reader
     private FontFileReader in;                                  // input reader
+    private final String fontName;                              // full name of parent font
+    private final int upem;                                     // units per em of parent font
     private GlyphDefinitionTable gdef;                          // glyph definition table
     private GlyphSubstitutionTable gsub;                        // glyph substitution table
     private GlyphPositioningTable gpos;                         // glyph positioning table
@@ -71,6 +79,8 @@ public final class OTFAdvancedTypographicTableReader {
         assert in != null;
         this.otf = otf;
         this.in = in;
+        this.fontName = otf.getFullName();
+        this.upem = otf.getUnitsPerEm();
     }
 
     /**
@@ -90,6 +100,9 @@ public final class OTFAdvancedTypographicTableReader {
             throw new AdvancedTypographicTableFormatException(e.getMessage(), e);
         } finally {
             resetATState();
+            // lookup tables are read from copies of the table data
+            otf = null;
+            in = null;
         }
     }
 
@@ -1729,28 +1742,28 @@ public final class OTFAdvancedTypographicTableReader {
         // XPlacement
         int xp;
         if ((valueFormat & GlyphPositioningTable.Value.X_PLACEMENT) != 0) {
-            xp = otf.convertTTFUnit2PDFUnit(in.readTTFShort());
+            xp = convertTTFUnit2PDFUnit(in.readTTFShort());
         } else {
             xp = 0;
         }
         // YPlacement
         int yp;
         if ((valueFormat & GlyphPositioningTable.Value.Y_PLACEMENT) != 0) {
-            yp = otf.convertTTFUnit2PDFUnit(in.readTTFShort());
+            yp = convertTTFUnit2PDFUnit(in.readTTFShort());
         } else {
             yp = 0;
         }
         // XAdvance
         int xa;
         if ((valueFormat & GlyphPositioningTable.Value.X_ADVANCE) != 0) {
-            xa = otf.convertTTFUnit2PDFUnit(in.readTTFShort());
+            xa = convertTTFUnit2PDFUnit(in.readTTFShort());
         } else {
             xa = 0;
         }
         // YAdvance
         int ya;
         if ((valueFormat & GlyphPositioningTable.Value.Y_ADVANCE) != 0) {
-            ya = otf.convertTTFUnit2PDFUnit(in.readTTFShort());
+            ya = convertTTFUnit2PDFUnit(in.readTTFShort());
         } else {
             ya = 0;
         }
@@ -2022,23 +2035,23 @@ public final class OTFAdvancedTypographicTableReader {
         int af = in.readTTFUShort();
         if (af == 1) {
             // read x coordinate
-            int x = otf.convertTTFUnit2PDFUnit(in.readTTFShort());
+            int x = convertTTFUnit2PDFUnit(in.readTTFShort());
             // read y coordinate
-            int y = otf.convertTTFUnit2PDFUnit(in.readTTFShort());
+            int y = convertTTFUnit2PDFUnit(in.readTTFShort());
             a = new GlyphPositioningTable.Anchor(x, y);
         } else if (af == 2) {
             // read x coordinate
-            int x = otf.convertTTFUnit2PDFUnit(in.readTTFShort());
+            int x = convertTTFUnit2PDFUnit(in.readTTFShort());
             // read y coordinate
-            int y = otf.convertTTFUnit2PDFUnit(in.readTTFShort());
+            int y = convertTTFUnit2PDFUnit(in.readTTFShort());
             // read anchor point index
             int ap = in.readTTFUShort();
             a = new GlyphPositioningTable.Anchor(x, y, ap);
         } else if (af == 3) {
             // read x coordinate
-            int x = otf.convertTTFUnit2PDFUnit(in.readTTFShort());
+            int x = convertTTFUnit2PDFUnit(in.readTTFShort());
             // read y coordinate
-            int y = otf.convertTTFUnit2PDFUnit(in.readTTFShort());
+            int y = convertTTFUnit2PDFUnit(in.readTTFShort());
             // read x device table offset
             int xdo = in.readTTFUShort();
             // read y device table offset
@@ -3191,31 +3204,23 @@ public final class OTFAdvancedTypographicTableReader {
         }
     }
 
-    private void readLookupList(OFTableName tableTag, long lookupList) throws IOException {
+    private long[] readLookupList(OFTableName tableTag, long lookupList) throws IOException {
         in.seekSet(lookupList);
         // read lookup record count
         int nl = in.readTTFUShort();
         if (log.isDebugEnabled()) {
             log.debug(tableTag + " lookup list record count: " + nl);
         }
-        if (nl > 0) {
-            int[] loa = new int[nl];
-            // read lookup records
-            for (int i = 0, n = nl; i < n; i++) {
-                int lo = in.readTTFUShort();
-                if (log.isDebugEnabled()) {
-                    log.debug(tableTag + " lookup table offset: " + lo);
-                }
-                loa[i] = lo;
-            }
-            // read lookup tables
-            for (int i = 0, n = nl; i < n; i++) {
-                if (log.isDebugEnabled()) {
-                    log.debug(tableTag + " lookup index: " + i);
-                }
-                readLookupTable(tableTag, i, lookupList + loa [ i ]);
+        long[] loa = new long[nl];
+        // read lookup records
+        for (int i = 0, n = nl; i < n; i++) {
+            int lo = in.readTTFUShort();
+            if (log.isDebugEnabled()) {
+                log.debug(tableTag + " lookup table offset: " + lo);
             }
+            loa[i] = lookupList + lo;
         }
+        return loa;
     }
 
     /**
@@ -3224,9 +3229,10 @@ public final class OTFAdvancedTypographicTableReader {
      * @param scriptList offset to script list from beginning of font file
      * @param featureList offset to feature list from beginning of font file
      * @param lookupList offset to lookup list from beginning of font file
+     * @return offsets to lookup tables from beginning of font file
      * @throws IOException In case of a I/O problem
      */
-    private void readCommonLayoutTables(OFTableName tableTag, long scriptList, long featureList, long lookupList) throws IOException {
+    private long[] readCommonLayoutTables(OFTableName tableTag, long scriptList, long featureList, long lookupList) throws IOException {
         if (scriptList > 0) {
             readScriptList(tableTag, scriptList);
         }
@@ -3234,7 +3240,9 @@ public final class OTFAdvancedTypographicTableReader {
             readFeatureList(tableTag, featureList);
         }
         if (lookupList > 0) {
-            readLookupList(tableTag, lookupList);
+            return readLookupList(tableTag, lookupList);
+        } else {
+            return new long[0];
         }
     }
 
@@ -3457,9 +3465,9 @@ public final class OTFAdvancedTypographicTableReader {
                 log.debug(tableTag + " lookup list offset: " + llo);
             }
             long to = dirTab.getOffset();
-            readCommonLayoutTables(tableTag, to + slo, to + flo, to + llo);
+            long[] loa = readCommonLayoutTables(tableTag, to + slo, to + flo, to + llo);
             GlyphSubstitutionTable gsub;
-            if ((gsub = constructGSUB()) != null) {
+            if ((gsub = constructGSUB(new LookupTableReader(tableTag, dirTab, loa))) != null) {
                 this.gsub = gsub;
             }
         }
@@ -3494,9 +3502,9 @@ public final class OTFAdvancedTypographicTableReader {
                 log.debug(tableTag + " lookup list offset: " + llo);
             }
             long to = dirTab.getOffset();
-            readCommonLayoutTables(tableTag, to + slo, to + flo, to + llo);
+            long[] loa = readCommonLayoutTables(tableTag, to + slo, to + flo, to + llo);
             GlyphPositioningTable gpos;
-            if ((gpos = constructGPOS()) != null) {
+            if ((gpos = constructGPOS(new LookupTableReader(tableTag, dirTab, loa))) != null) {
                 this.gpos = gpos;
             }
         }
@@ -3522,17 +3530,15 @@ public final class OTFAdvancedTypographicTableReader {
     /**
      * Construct the (internal representation of the) GSUB table based on previously
      * parsed state.
+     * @param ltr reader of the lookup tables
      * @returns glyph substitution table or null if insufficient or invalid state
      */
-    private GlyphSubstitutionTable constructGSUB() {
+    private GlyphSubstitutionTable constructGSUB(LookupTableReader ltr) {
         GlyphSubstitutionTable gsub = null;
         Map lookups;
         if ((lookups = constructLookups()) != null) {
-            List subtables;
-            if ((subtables = constructGSUBSubtables()) != null) {
-                if ((lookups.size() > 0) && (subtables.size() > 0)) {
-                    gsub = new GlyphSubstitutionTable(gdef, lookups, subtables, processors);
-                }
+            if ((lookups.size() > 0) && (ltr.getLookupCount() > 0)) {
+                gsub = new GlyphSubstitutionTable(gdef, lookups, ltr, ltr.getLookupCount(), processors);
             }
         }
         resetATState();
@@ -3542,17 +3548,15 @@ public final class OTFAdvancedTypographicTableReader {
     /**
      * Construct the (internal representation of the) GPOS table based on previously
      * parsed state.
+     * @param ltr reader of the lookup tables
      * @returns glyph positioning table or null if insufficient or invalid state
      */
-    private GlyphPositioningTable constructGPOS() {
+    private GlyphPositioningTable constructGPOS(LookupTableReader ltr) {
         GlyphPositioningTable gpos = null;
         Map lookups;
         if ((lookups = constructLookups()) != null) {
-            List subtables;
-            if ((subtables = constructGPOSSubtables()) != null) {
-                if ((lookups.size() > 0) && (subtables.size() > 0)) {
-                    gpos = new GlyphPositioningTable(gdef, lookups, subtables, processors);
-                }
+            if ((lookups.size() > 0) && (ltr.getLookupCount() > 0)) {
+                gpos = new GlyphPositioningTable(gdef, lookups, ltr, ltr.getLookupCount(), processors);
             }
         }
         resetATState();
@@ -3775,6 +3779,70 @@ public final class OTFAdvancedTypographicTableReader {
         gpos = null;
     }
 
+    private int convertTTFUnit2PDFUnit(int n) {
+        return OpenFont.convertTTFUnit2PDFUnit(n, upem);
+    }
+
+    /**
+     * Reads the lookup tables of a GSUB or GPOS table when they are first used. The table
+     * data is copied, so the font file need not be retained.
+     */
+    private final class LookupTableReader implements GlyphTable.LookupTableLoader {
+
+        private final OFTableName tableTag;
+        private final FontFileReader tableReader;
+        private final long[] lookupOffsets;     // offsets to lookup tables from beginning of table
+
+        LookupTableReader(OFTableName tableTag, OFDirTabEntry dirTab, long[] lookupTables) throws IOException {
+            long to = dirTab.getOffset();
+            this.tableTag = tableTag;
+            this.tableReader = new FontFileReader(
+                new ByteArrayInputStream(in.getAllBytes(), (int) to, (int) dirTab.getLength()));
+            this.lookupOffsets = new long [ lookupTables.length ];
+            for (int i = 0, n = lookupTables.length; i < n; i++) {
+                lookupOffsets [ i ] = lookupTables [ i ] - to;
+            }
+        }
+
+        int getLookupCount() {
+            return lookupOffsets.length;
+        }
+
+        /** {@inheritDoc} */
+        public List<GlyphSubtable> loadSubtables(String lid) {
+            int ln = Integer.parseInt(lid.substring(2));
+            synchronized (OTFAdvancedTypographicTableReader.this) {
+                initATState();
+                in = tableReader;
+                try {
+                    readLookupTable(tableTag, ln, lookupOffsets [ ln ]);
+                    if (tableTag.equals(OFTableName.GSUB)) {
+                        return constructGSUBSubtables();
+                    } else {
+                        return constructGPOSSubtables();
+                    }
+                } catch (IOException e) {
+                    warnIgnoredLookup(lid, e);
+                } catch (AdvancedTypographicTableFormatException e) {
+                    warnIgnoredLookup(lid, e);
+                } finally {
+                    resetATState();
+                    in = null;
+                }
+                return Collections.emptyList();
+            }
+        }
+
+        private void warnIgnoredLookup(String lid, Exception e) {
+            log.warn(
+                "Encountered format constraint violation in advanced (typographic) table (AT) "
+                + tableTag + " lookup '" + lid + "' in font '" + fontName + "', ignoring lookup: "
+                + e.getMessage()
+            );
+        }
+
+    }
+
     /** helper method for formatting an integer array for output */
     private String toString(int[] ia) {
         StringBuffer sb = new StringBuffer();
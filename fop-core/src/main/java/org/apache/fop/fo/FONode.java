@@ -44,6 +44,7 @@ import org.apache.fop.fo.extensions.ExtensionElementMapping;
 import org.apache.fop.fo.extensions.InternalElementMapping;
 import org.apache.fop.fo.extensions.svg.SVGElementMapping;
 import org.apache.fop.fo.flow.ChangeBar;
+import org.apache.fop.fo.pagination.PageSequence;
 import org.apache.fop.fo.pagination.Root;
 import org.apache.fop.util.CharUtilities;
 import org.apache.fop.util.ContentHandlerFactory;
@@ -949,6 +950,17 @@ public abstract class FONode implements Cloneable {
         return true;
     }
 
+    /**
+     * Notifies the page-sequence being parsed that it contains content which
+     * requires bidirectional processing.
+     */
+    protected void notifyBidiRequired() {
+        PageSequence pageSequence = getRoot().getLastPageSequence();
+        if (pageSequence != null) {
+            pageSequence.setBidiRequired();
+        }
+    }
+
     /**
      * Collect the sequence of delimited text ranges, where each new
      * range is pushed onto RANGES.
@@ -31,6 +31,7 @@ import org.xml.sax.Locator;
 import org.apache.fop.accessibility.StructureTreeElement;
 import org.apache.fop.apps.FOPException;
 import org.apache.fop.complexscripts.bidi.DelimitedTextRange;
+import org.apache.fop.complexscripts.bidi.UnicodeBidiAlgorithm;
 import org.apache.fop.datatypes.Length;
 import org.apache.fop.fo.flow.Block;
 import org.apache.fop.fo.pagination.PageSequence;
@@ -204,6 +205,10 @@ public class FOText extends FONode implements CharSequence, TextFragment {
     public void endOfNode() throws FOPException {
         if (charBuffer != null) {
             charBuffer.rewind();
+            if (getUserAgent().isComplexScriptFeaturesEnabled()
+                    && UnicodeBidiAlgorithm.triggersBidi(charBuffer)) {
+                notifyBidiRequired();
+            }
         }
         super.endOfNode();
         getFOEventHandler().characters(this);
@@ -19,8 +19,13 @@
 
 package org.apache.fop.fo.expr;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.xmlgraphics.util.UnitConv;
 
@@ -42,7 +47,6 @@ import org.apache.fop.fo.properties.StringProperty;
  * XT, an XSLT processor.
  */
 public final class PropertyParser extends PropertyTokenizer {
-    private PropertyInfo propInfo;    // Maker and propertyList related info
 
     private static final String RELUNIT = "em";
     private static final HashMap FUNCTION_TABLE = new HashMap();
@@ -78,8 +82,25 @@ public final class PropertyParser extends PropertyTokenizer {
     }
 
 
+    /** The functions whose result only depends on their arguments. */
+    private static final Set<String> CONTEXT_FREE_FUNCTIONS = new HashSet<String>(
+            Arrays.asList("ceiling", "floor", "round", "min", "max", "abs"));
+
+    /** The maximum number of compiled expressions kept in {@link #EXPRESSION_CACHE}. */
+    private static final int MAX_CACHED_EXPRESSIONS = 4096;
+
+    /** The compiled expressions, keyed by the expression string. */
+    private static final ConcurrentMap<String, Expression> EXPRESSION_CACHE
+            = new ConcurrentHashMap<String, Expression>();
+
     /**
      * Public entrypoint to the Property expression parser.
+     * <p>
+     * Each expression is compiled once into a tree which is then evaluated for every
+     * occurrence of the expression. Sub-expressions which do not depend on the context,
+     * such as <code>2pt + 3pt</code> or <code>max(1, 2)</code>, are evaluated when the
+     * expression is compiled, so that only the parts depending on the font size, the
+     * percent base or the enclosing formatting objects are evaluated each time.
      * @param expr The specified value (attribute on the xml element).
      * @param propInfo A PropertyInfo object representing the context in
      * which the property expression is to be evaluated.
@@ -89,79 +110,74 @@ public final class PropertyParser extends PropertyTokenizer {
     public static Property parse(String expr, PropertyInfo propInfo)
             throws PropertyException {
         try {
-            return new PropertyParser(expr, propInfo).parseProperty();
+            return compile(expr).eval(propInfo);
         } catch (PropertyException exc) {
             exc.setPropertyInfo(propInfo);
             throw exc;
         }
     }
 
+    private static Expression compile(String expr) throws PropertyException {
+        Expression compiled = EXPRESSION_CACHE.get(expr);
+        if (compiled == null) {
+            compiled = new PropertyParser(expr).parseProperty();
+            if (EXPRESSION_CACHE.size() < MAX_CACHED_EXPRESSIONS) {
+                EXPRESSION_CACHE.putIfAbsent(expr, compiled);
+            }
+        }
+        return compiled;
+    }
+
 
     /**
      * Private constructor. Called by the static parse() method.
      * @param propExpr The specified value (attribute on the xml element).
-     * @param pInfo A PropertyInfo object representing the context in
-     * which the property expression is to be evaluated.
      */
-    private PropertyParser(String propExpr, PropertyInfo pInfo) {
+    private PropertyParser(String propExpr) {
         super(propExpr);
-        this.propInfo = pInfo;
     }
 
     /**
      * Parse the property expression described in the instance variables.
      * Note: If the property expression String is empty, a StringProperty
      * object holding an empty String is returned.
-     * @return A Property object holding the parsed result.
+     * @return An Expression object evaluating to the parsed result.
      * @throws PropertyException If the "expr" cannot be parsed as a Property.
      */
-    private Property parseProperty() throws PropertyException {
+    private Expression parseProperty() throws PropertyException {
         next();
         if (currentToken == TOK_EOF) {
             // if prop value is empty string, force to StringProperty
-            return StringProperty.getInstance("");
+            return new Constant(StringProperty.getInstance(""));
         }
-        ListProperty propList = null;
+        List<Expression> propList = new java.util.ArrayList<Expression>();
         while (true) {
-            Property prop = parseAdditiveExpr();
+            propList.add(parseAdditiveExpr());
             if (currentToken == TOK_EOF) {
-                if (propList != null) {
-                    propList.addProperty(prop);
-                    return propList;
-                } else {
-                    return prop;
-                }
-            } else {
-                if (propList == null) {
-                    propList = new ListProperty(prop);
+                if (propList.size() > 1) {
+                    return new ListExpression(
+                            propList.toArray(new Expression[propList.size()]));
                 } else {
-                    propList.addProperty(prop);
+                    return propList.get(0);
                 }
             }
-            // throw new PropertyException("unexpected token");
         }
-        // return prop;
     }
 
     /**
      * Try to parse an addition or subtraction expression and return the
-     * resulting Property.
+     * resulting Expression.
      */
-    private Property parseAdditiveExpr() throws PropertyException {
-        // Evaluate and put result on the operand stack
-        Property prop = parseMultiplicativeExpr();
+    private Expression parseAdditiveExpr() throws PropertyException {
+        Expression prop = parseMultiplicativeExpr();
         loop:
         while (true) {
             switch (currentToken) {
             case TOK_PLUS:
-                next();
-                prop = evalAddition(prop.getNumeric(),
-                                    parseMultiplicativeExpr().getNumeric());
-                break;
             case TOK_MINUS:
+                int operator = currentToken;
                 next();
-                prop = evalSubtraction(prop.getNumeric(),
-                                    parseMultiplicativeExpr().getNumeric());
+                prop = fold(new Operation(operator, prop, parseMultiplicativeExpr()));
                 break;
             default:
                 break loop;
@@ -172,27 +188,19 @@ public final class PropertyParser extends PropertyTokenizer {
 
     /**
      * Try to parse a multiply, divide or modulo expression and return
-     * the resulting Property.
+     * the resulting Expression.
      */
-    private Property parseMultiplicativeExpr() throws PropertyException {
-        Property prop = parseUnaryExpr();
+    private Expression parseMultiplicativeExpr() throws PropertyException {
+        Expression prop = parseUnaryExpr();
         loop:
         while (true) {
             switch (currentToken) {
             case TOK_DIV:
-                next();
-                prop = evalDivide(prop.getNumeric(),
-                                  parseUnaryExpr().getNumeric());
-                break;
             case TOK_MOD:
-                next();
-                prop = evalModulo(prop.getNumber(),
-                                  parseUnaryExpr().getNumber());
-                break;
             case TOK_MULTIPLY:
+                int operator = currentToken;
                 next();
-                prop = evalMultiply(prop.getNumeric(),
-                                    parseUnaryExpr().getNumeric());
+                prop = fold(new Operation(operator, prop, parseUnaryExpr()));
                 break;
             default:
                 break loop;
@@ -203,12 +211,12 @@ public final class PropertyParser extends PropertyTokenizer {
 
     /**
      * Try to parse a unary minus expression and return the
-     * resulting Property.
+     * resulting Expression.
      */
-    private Property parseUnaryExpr() throws PropertyException {
+    private Expression parseUnaryExpr() throws PropertyException {
         if (currentToken == TOK_MINUS) {
             next();
-            return evalNegate(parseUnaryExpr().getNumeric());
+            return fold(new Negation(parseUnaryExpr()));
         }
         return parsePrimaryExpr();
     }
@@ -227,14 +235,14 @@ public final class PropertyParser extends PropertyTokenizer {
 
     /**
      * Try to parse a primary expression and return the
-     * resulting Property.
+     * resulting Expression.
      * A primary expression is either a parenthesized expression or an
      * expression representing a primitive Property datatype, such as a
      * string literal, an NCname, a number or a unit expression, or a
      * function call expression.
      */
-    private Property parsePrimaryExpr() throws PropertyException {
-        Property prop;
+    private Expression parsePrimaryExpr() throws PropertyException {
+        Expression prop;
         if (currentToken == TOK_COMMA) {
             //Simply skip commas, for example for font-family
             next();
@@ -247,57 +255,25 @@ public final class PropertyParser extends PropertyTokenizer {
             return prop;
 
         case TOK_LITERAL:
-            prop = StringProperty.getInstance(currentTokenValue);
+            prop = new Constant(StringProperty.getInstance(currentTokenValue));
             break;
 
         case TOK_NCNAME:
             // Interpret this in context of the property or do it later?
-            prop = new NCnameProperty(currentTokenValue);
+            prop = new Constant(new NCnameProperty(currentTokenValue));
             break;
 
         case TOK_FLOAT:
-            prop = NumberProperty.getInstance(Double.valueOf(currentTokenValue));
+            prop = new Constant(NumberProperty.getInstance(Double.valueOf(currentTokenValue)));
             break;
 
         case TOK_INTEGER:
-            prop = NumberProperty.getInstance(Integer.valueOf(currentTokenValue));
+            prop = new Constant(NumberProperty.getInstance(Integer.valueOf(currentTokenValue)));
             break;
 
         case TOK_PERCENT:
-            /*
-             * Get the length base value object from the Maker. If null, then
-             * this property can't have % values. Treat it as a real number.
-             */
-            double pcval = Double.parseDouble(
-                    currentTokenValue.substring(0, currentTokenValue.length() - 1)) / 100.0;
-            PercentBase pcBase = this.propInfo.getPercentBase();
-            if (pcBase != null) {
-                if (pcBase.getDimension() == 0) {
-                    prop = NumberProperty.getInstance(pcval * pcBase.getBaseValue());
-                } else if (pcBase.getDimension() == 1) {
-                    if (pcBase instanceof LengthBase) {
-                        if (pcval == 0.0) {
-                            prop = FixedLength.ZERO_FIXED_LENGTH;
-                            break;
-                        }
-
-                        //If the base of the percentage is known
-                        //and absolute, it can be resolved by the
-                        //parser
-                        Length base = ((LengthBase)pcBase).getBaseLength();
-                        if (base != null && base.isAbsolute()) {
-                            prop = FixedLength.getInstance(pcval * base.getValue());
-                            break;
-                        }
-                    }
-                    prop = new PercentLength(pcval, pcBase);
-                } else {
-                    throw new PropertyException("Illegal percent dimension value");
-                }
-            } else {
-                // WARNING? Interpret as a decimal fraction, eg. 50% = .5
-                prop = NumberProperty.getInstance(pcval);
-            }
+            prop = new Percentage(Double.parseDouble(
+                    currentTokenValue.substring(0, currentTokenValue.length() - 1)) / 100.0);
             break;
 
         case TOK_NUMERIC:
@@ -305,28 +281,16 @@ public final class PropertyParser extends PropertyTokenizer {
             int numLen = currentTokenValue.length() - currentUnitLength;
             String unitPart = currentTokenValue.substring(numLen);
             double numPart = Double.parseDouble(currentTokenValue.substring(0, numLen));
-            if (RELUNIT.equals(unitPart)) {
-                prop = (Property) NumericOp.multiply(
-                                    NumberProperty.getInstance(numPart),
-                                    propInfo.currentFontSize());
+            if (RELUNIT.equals(unitPart) || "px".equals(unitPart)) {
+                prop = new RelativeLength(numPart, unitPart);
             } else {
-                if ("px".equals(unitPart)) {
-                    //pass the ratio between target-resolution and
-                    //the default resolution of 72dpi
-                    float resolution = propInfo.getPropertyList().getFObj()
-                            .getUserAgent().getSourceResolution();
-                    prop = FixedLength.getInstance(
-                            numPart, unitPart,
-                             UnitConv.IN2PT / resolution);
-                } else {
-                    //use default resolution of 72dpi
-                    prop = FixedLength.getInstance(numPart, unitPart);
-                }
+                //use default resolution of 72dpi
+                prop = new Constant(FixedLength.getInstance(numPart, unitPart));
             }
             break;
 
         case TOK_COLORSPEC:
-            prop = ColorProperty.getInstance(propInfo.getUserAgent(), currentTokenValue);
+            prop = new ColorSpecification(currentTokenValue);
             break;
 
         case TOK_FUNCTION_LPAR:
@@ -335,12 +299,10 @@ public final class PropertyParser extends PropertyTokenizer {
                 throw new PropertyException("no such function: "
                                             + currentTokenValue);
             }
+            String name = currentTokenValue;
             next();
-            // Push new function (for function context: getPercentBase())
-            propInfo.pushFunction(function);
-            prop = function.eval(parseArgs(function), propInfo);
-            propInfo.popFunction();
-            return prop;
+            return fold(new FunctionCall(function, parseArgs(function),
+                    CONTEXT_FREE_FUNCTIONS.contains(name)));
 
         default:
             // TODO: add the token or the expr to the error message.
@@ -355,21 +317,21 @@ public final class PropertyParser extends PropertyTokenizer {
      * may itself be an expression. This method consumes the closing right
      * parenthesis of the argument list.
      * @param function The function object for which the arguments are collected.
-     * @return An array of Property objects representing the arguments found.
+     * @return An array of Expression objects representing the arguments found.
      * @throws PropertyException If the number of arguments found isn't equal
      * to the number expected or if another argument parsing error occurs.
      */
-    Property[] parseArgs(Function function) throws PropertyException {
+    Expression[] parseArgs(Function function) throws PropertyException {
         int numReq = function.getRequiredArgsCount();   // # required args
         int numOpt = function.getOptionalArgsCount();   // # optional args
         boolean hasVar = function.hasVariableArgs();    // has variable args
-        List<Property> args = new java.util.ArrayList<Property>(numReq + numOpt);
+        List<Expression> args = new java.util.ArrayList<Expression>(numReq + numOpt);
         if (currentToken == TOK_RPAR) {
             // No args: func()
             next();
         } else {
             while (true) {
-                Property p = parseAdditiveExpr();
+                Expression p = parseAdditiveExpr();
                 int i = args.size();
                 if ((i < numReq) || ((i - numReq) < numOpt) || hasVar) {
                     args.add(p);
@@ -388,14 +350,272 @@ public final class PropertyParser extends PropertyTokenizer {
         if (numArgs < numReq) {
             throw new PropertyException("Expected " + numReq + " required arguments, but only "
                     + numArgs + " specified");
-        } else {
-            for (int i = 0; i < numOpt; i++) {
-                if (args.size() < (numReq + i + 1)) {
-                    args.add(function.getOptionalArgDefault(i, propInfo));
+        }
+        return args.toArray(new Expression[args.size()]);
+    }
+
+    /**
+     * Evaluates the given expression if it does not depend on the context, so it is
+     * evaluated only once.
+     * @param expression the expression
+     * @return a constant expression if the expression could be evaluated, the expression
+     * itself otherwise
+     */
+    private static Expression fold(Expression expression) {
+        if (expression.isContextFree()) {
+            try {
+                return new Constant(expression.eval(null));
+            } catch (PropertyException e) {
+                // evaluate again, and report the error, for every occurrence
+            }
+        }
+        return expression;
+    }
+
+    /**
+     * A compiled property expression.
+     */
+    private abstract static class Expression {
+
+        /**
+         * Evaluates the expression.
+         * @param propInfo the context of the evaluation, null if the expression
+         * is context-free
+         * @return the resulting property
+         * @throws PropertyException if the expression cannot be evaluated
+         */
+        abstract Property eval(PropertyInfo propInfo) throws PropertyException;
+
+        /**
+         * Indicates whether the result of the expression only depends on the
+         * expression itself.
+         * @return true if the expression can be evaluated without a context
+         */
+        boolean isContextFree() {
+            return false;
+        }
+    }
+
+    /** An expression which always evaluates to the same property. */
+    private static final class Constant extends Expression {
+
+        private final Property property;
+
+        Constant(Property property) {
+            this.property = property;
+        }
+
+        Property eval(PropertyInfo propInfo) {
+            return property;
+        }
+
+        boolean isContextFree() {
+            return true;
+        }
+    }
+
+    /** A list of expressions, for example for font-family. */
+    private static final class ListExpression extends Expression {
+
+        private final Expression[] items;
+
+        ListExpression(Expression[] items) {
+            this.items = items;
+        }
+
+        Property eval(PropertyInfo propInfo) throws PropertyException {
+            // a new list is created every time since ListProperty is mutable
+            ListProperty propList = new ListProperty(items[0].eval(propInfo));
+            for (int i = 1; i < items.length; i++) {
+                propList.addProperty(items[i].eval(propInfo));
+            }
+            return propList;
+        }
+    }
+
+    /** A percentage, which is resolved against the percent base of the context. */
+    private static final class Percentage extends Expression {
+
+        private final double pcval;
+
+        Percentage(double pcval) {
+            this.pcval = pcval;
+        }
+
+        Property eval(PropertyInfo propInfo) throws PropertyException {
+            /*
+             * Get the length base value object from the Maker. If null, then
+             * this property can't have % values. Treat it as a real number.
+             */
+            PercentBase pcBase = propInfo.getPercentBase();
+            if (pcBase != null) {
+                if (pcBase.getDimension() == 0) {
+                    return NumberProperty.getInstance(pcval * pcBase.getBaseValue());
+                } else if (pcBase.getDimension() == 1) {
+                    if (pcBase instanceof LengthBase) {
+                        if (pcval == 0.0) {
+                            return FixedLength.ZERO_FIXED_LENGTH;
+                        }
+
+                        //If the base of the percentage is known
+                        //and absolute, it can be resolved by the
+                        //parser
+                        Length base = ((LengthBase)pcBase).getBaseLength();
+                        if (base != null && base.isAbsolute()) {
+                            return FixedLength.getInstance(pcval * base.getValue());
+                        }
+                    }
+                    return new PercentLength(pcval, pcBase);
+                } else {
+                    throw new PropertyException("Illegal percent dimension value");
+                }
+            } else {
+                // WARNING? Interpret as a decimal fraction, eg. 50% = .5
+                return NumberProperty.getInstance(pcval);
+            }
+        }
+    }
+
+    /** A length in em or px, which depends on the font size or the source resolution. */
+    private static final class RelativeLength extends Expression {
+
+        private final double numPart;
+        private final String unitPart;
+
+        RelativeLength(double numPart, String unitPart) {
+            this.numPart = numPart;
+            this.unitPart = unitPart;
+        }
+
+        Property eval(PropertyInfo propInfo) throws PropertyException {
+            if (RELUNIT.equals(unitPart)) {
+                return (Property) NumericOp.multiply(
+                                    NumberProperty.getInstance(numPart),
+                                    propInfo.currentFontSize());
+            } else {
+                //pass the ratio between target-resolution and
+                //the default resolution of 72dpi
+                float resolution = propInfo.getPropertyList().getFObj()
+                        .getUserAgent().getSourceResolution();
+                return FixedLength.getInstance(
+                        numPart, unitPart,
+                         UnitConv.IN2PT / resolution);
+            }
+        }
+    }
+
+    /** A color specification, which depends on the color maps of the user agent. */
+    private static final class ColorSpecification extends Expression {
+
+        private final String value;
+
+        ColorSpecification(String value) {
+            this.value = value;
+        }
+
+        Property eval(PropertyInfo propInfo) throws PropertyException {
+            return ColorProperty.getInstance(propInfo.getUserAgent(), value);
+        }
+    }
+
+    /** A numeric operation on two operands. */
+    private static final class Operation extends Expression {
+
+        private final int operator;
+        private final Expression op1;
+        private final Expression op2;
+
+        Operation(int operator, Expression op1, Expression op2) {
+            this.operator = operator;
+            this.op1 = op1;
+            this.op2 = op2;
+        }
+
+        Property eval(PropertyInfo propInfo) throws PropertyException {
+            Property prop1 = op1.eval(propInfo);
+            switch (operator) {
+            case TOK_PLUS:
+                return evalAddition(prop1.getNumeric(), op2.eval(propInfo).getNumeric());
+            case TOK_MINUS:
+                return evalSubtraction(prop1.getNumeric(), op2.eval(propInfo).getNumeric());
+            case TOK_DIV:
+                return evalDivide(prop1.getNumeric(), op2.eval(propInfo).getNumeric());
+            case TOK_MOD:
+                return evalModulo(prop1.getNumber(), op2.eval(propInfo).getNumber());
+            default:
+                return evalMultiply(prop1.getNumeric(), op2.eval(propInfo).getNumeric());
+            }
+        }
+
+        boolean isContextFree() {
+            return op1.isContextFree() && op2.isContextFree();
+        }
+    }
+
+    /** A unary minus operation. */
+    private static final class Negation extends Expression {
+
+        private final Expression op;
+
+        Negation(Expression op) {
+            this.op = op;
+        }
+
+        Property eval(PropertyInfo propInfo) throws PropertyException {
+            return evalNegate(op.eval(propInfo).getNumeric());
+        }
+
+        boolean isContextFree() {
+            return op.isContextFree();
+        }
+    }
+
+    /** A function call. */
+    private static final class FunctionCall extends Expression {
+
+        private final Function function;
+        private final Expression[] args;
+        private final boolean contextFree;
+
+        FunctionCall(Function function, Expression[] args, boolean contextFree) {
+            this.function = function;
+            this.args = args;
+            this.contextFree = contextFree;
+        }
+
+        Property eval(PropertyInfo propInfo) throws PropertyException {
+            // Push new function (for function context: getPercentBase())
+            if (propInfo != null) {
+                propInfo.pushFunction(function);
+            }
+            int numOpt = function.getOptionalArgsCount();
+            Property[] values = new Property[Math.max(args.length,
+                    function.getRequiredArgsCount() + numOpt)];
+            for (int i = 0; i < args.length; i++) {
+                values[i] = args[i].eval(propInfo);
+            }
+            for (int i = args.length; i < values.length; i++) {
+                values[i] = function.getOptionalArgDefault(
+                        i - function.getRequiredArgsCount(), propInfo);
+            }
+            Property prop = function.eval(values, propInfo);
+            if (propInfo != null) {
+                propInfo.popFunction();
+            }
+            return prop;
+        }
+
+        boolean isContextFree() {
+            if (!contextFree) {
+                return false;
+            }
+            for (Expression arg : args) {
+                if (!arg.isContextFree()) {
+                    return false;
                 }
             }
+            return true;
         }
-        return args.toArray(new Property [ args.size() ]);
     }
 
     /**
@@ -407,7 +627,7 @@ public final class PropertyParser extends PropertyTokenizer {
      * the sum of the two operands.
      * @throws PropertyException If either operand is null.
      */
-    private Property evalAddition(Numeric op1,
+    private static Property evalAddition(Numeric op1,
                                   Numeric op2) throws PropertyException {
         if (op1 == null || op2 == null) {
             throw new PropertyException("Non numeric operand in addition");
@@ -424,7 +644,7 @@ public final class PropertyParser extends PropertyTokenizer {
      * the difference of the two operands.
      * @throws PropertyException If either operand is null.
      */
-    private Property evalSubtraction(Numeric op1,
+    private static Property evalSubtraction(Numeric op1,
                                      Numeric op2) throws PropertyException {
         if (op1 == null || op2 == null) {
             throw new PropertyException("Non numeric operand in subtraction");
@@ -440,7 +660,7 @@ public final class PropertyParser extends PropertyTokenizer {
      * the negative of the operand (multiplication by *1).
      * @throws PropertyException If the operand is null.
      */
-    private Property evalNegate(Numeric op) throws PropertyException {
+    private static Property evalNegate(Numeric op) throws PropertyException {
         if (op == null) {
             throw new PropertyException("Non numeric operand to unary minus");
         }
@@ -456,7 +676,7 @@ public final class PropertyParser extends PropertyTokenizer {
      * the product of the two operands.
      * @throws PropertyException If either operand is null.
      */
-    private Property evalMultiply(Numeric op1,
+    private static Property evalMultiply(Numeric op1,
                                   Numeric op2) throws PropertyException {
         if (op1 == null || op2 == null) {
             throw new PropertyException("Non numeric operand in multiplication");
@@ -474,7 +694,7 @@ public final class PropertyParser extends PropertyTokenizer {
      * op1 divided by op2.
      * @throws PropertyException If either operand is null.
      */
-    private Property evalDivide(Numeric op1,
+    private static Property evalDivide(Numeric op1,
                                 Numeric op2) throws PropertyException {
         if (op1 == null || op2 == null) {
             throw new PropertyException("Non numeric operand in division");
@@ -491,7 +711,7 @@ public final class PropertyParser extends PropertyTokenizer {
      * op1 mod op2.
      * @throws PropertyException If either operand is null.
      */
-    private Property evalModulo(Number op1,
+    private static Property evalModulo(Number op1,
                                 Number op2) throws PropertyException {
         if (op1 == null || op2 == null) {
             throw new PropertyException("Non number operand to modulo");
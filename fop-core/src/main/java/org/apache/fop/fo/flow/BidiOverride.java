@@ -61,6 +61,9 @@ public class BidiOverride extends Inline {
         wordSpacing = pList.get(PR_WORD_SPACING);
         direction = pList.get(PR_DIRECTION).getEnum();
         unicodeBidi = pList.get(PR_UNICODE_BIDI).getEnum();
+        if (direction == Constants.EN_RTL) {
+            notifyBidiRequired();
+        }
     }
 
     /** @return the "letter-spacing" trait */
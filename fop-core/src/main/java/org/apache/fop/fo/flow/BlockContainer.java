@@ -100,6 +100,9 @@ public class BlockContainer extends FObj implements BreakPropertySet, WritingMod
         writingModeTraits = new WritingModeTraits(
             WritingMode.valueOf(pList.get(PR_WRITING_MODE).getEnum()),
             pList.getExplicit(PR_WRITING_MODE) != null);
+        if (writingModeTraits.getInlineProgressionDirection() == Direction.RL) {
+            notifyBidiRequired();
+        }
         disableColumnBalancing = pList.get(PR_X_DISABLE_COLUMN_BALANCING).getEnum();
     }
 
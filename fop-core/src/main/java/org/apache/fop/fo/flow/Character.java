@@ -28,6 +28,7 @@ import org.xml.sax.Locator;
 import org.apache.fop.accessibility.StructureTreeElement;
 import org.apache.fop.apps.FOPException;
 import org.apache.fop.complexscripts.bidi.DelimitedTextRange;
+import org.apache.fop.complexscripts.bidi.UnicodeBidiAlgorithm;
 import org.apache.fop.datatypes.Length;
 import org.apache.fop.fo.CharIterator;
 import org.apache.fop.fo.FONode;
@@ -105,6 +106,9 @@ public class Character extends FObj implements StructureTreeElementHolder {
         alignmentBaseline = pList.get(PR_ALIGNMENT_BASELINE).getEnum();
         baselineShift = pList.get(PR_BASELINE_SHIFT).getLength();
         character = pList.get(PR_CHARACTER).getCharacter();
+        if (UnicodeBidiAlgorithm.triggersBidi(String.valueOf(character))) {
+            notifyBidiRequired();
+        }
         color = pList.get(PR_COLOR).getColor(getUserAgent());
         dominantBaseline = pList.get(PR_DOMINANT_BASELINE).getEnum();
         keepWithNext = pList.get(PR_KEEP_WITH_NEXT).getKeep();
@@ -358,7 +358,7 @@ public class Marker extends FObjMixed {
     public static final class MarkerAttribute {
 
         private static final PropertyCache<MarkerAttribute> CACHE
-                = new PropertyCache<MarkerAttribute>();
+                = new PropertyCache<MarkerAttribute>(MarkerAttribute.class);
 
         /** namespace */
         private String namespace;
@@ -200,6 +200,21 @@ public final class Markers {
         return mark;
     }
 
+    /**
+     * Returns the markers that "last-ending-within-page" resolves to.
+     * @return a map of markers by class name
+     */
+    public Map<String, Marker> getLastEndingMarkers() {
+        Map<String, Marker> markers = new HashMap<String, Marker>();
+        if (lastQualifyingIsAny != null) {
+            markers.putAll(lastQualifyingIsAny);
+        }
+        if (lastQualifyingIsLast != null) {
+            markers.putAll(lastQualifyingIsLast);
+        }
+        return markers;
+    }
+
     /** Dumps the current marker data to the logger. */
     public void dump() {
         if (log.isTraceEnabled()) {
@@ -21,19 +21,29 @@ package org.apache.fop.fo.flow.table;
 
 import org.apache.fop.fo.Constants;
 import org.apache.fop.fo.properties.CommonBorderPaddingBackground;
+import org.apache.fop.fo.properties.PropertyCache;
 import org.apache.fop.fo.properties.CommonBorderPaddingBackground.BorderInfo;
 
 /**
  * A border's informations, along with the FO element which declared it. Used for border
  * resolution in the collapsing-border model.
+ * <p>
+ * Instances are immutable. Those obtained through {@link #getInstance(BorderInfo, int)} are
+ * shared, so that all the cells of a table that declare the same border refer to the same
+ * specification and the resolution of two identical borders can stop at an identity check.
  */
 public/*TODO*/ class BorderSpecification {
 
+    private static final PropertyCache<BorderSpecification> CACHE
+            = new PropertyCache<BorderSpecification>(BorderSpecification.class);
+
     private static BorderSpecification defaultBorder;
 
-    private BorderInfo borderInfo;
+    private final BorderInfo borderInfo;
+
+    private final int holder;
 
-    private int holder;
+    private int hash = -1;
 
     /**
      * Creates a new border specification.
@@ -46,10 +56,21 @@ public/*TODO*/ class BorderSpecification {
         this.holder = holder;
     }
 
+    /**
+     * Returns a cached border specification.
+     *
+     * @param borderInfo the border's informations
+     * @param holder the FO element declaring this border
+     * @return the cached instance equal to the given values
+     */
+    public static BorderSpecification getInstance(BorderInfo borderInfo, int holder) {
+        return CACHE.fetch(new BorderSpecification(borderInfo, holder));
+    }
+
     static synchronized BorderSpecification getDefaultBorder() {
         if (defaultBorder == null) {
-            defaultBorder = new BorderSpecification(CommonBorderPaddingBackground
-                    .getDefaultBorderInfo(), Constants.FO_TABLE_CELL);
+            defaultBorder = getInstance(CommonBorderPaddingBackground.getDefaultBorderInfo(),
+                    Constants.FO_TABLE_CELL);
         }
         return defaultBorder;
     }
@@ -75,6 +96,29 @@ public/*TODO*/ class BorderSpecification {
         return holder;
     }
 
+    /** {@inheritDoc} */
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof BorderSpecification)) {
+            return false;
+        }
+        BorderSpecification other = (BorderSpecification) obj;
+        return holder == other.holder && borderInfo.equals(other.borderInfo);
+    }
+
+    /** {@inheritDoc} */
+    public int hashCode() {
+        if (hash == -1) {
+            int hash = 17;
+            hash = 37 * hash + borderInfo.hashCode();
+            hash = 37 * hash + holder;
+            this.hash = hash;
+        }
+        return hash;
+    }
+
     /** {@inheritDoc} */
     public String toString() {
         String holderName = "";
@@ -19,11 +19,13 @@
 
 package org.apache.fop.fo.flow.table;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.fop.fo.Constants;
 import org.apache.fop.fo.FONode;
 import org.apache.fop.fo.properties.CommonBorderPaddingBackground;
+import org.apache.fop.fo.properties.CommonBorderPaddingBackground.BorderInfo;
 import org.apache.fop.layoutmgr.ElementListUtils;
 import org.apache.fop.layoutmgr.Keep;
 import org.apache.fop.layoutmgr.table.TableCellLayoutManager;
@@ -47,6 +49,11 @@ public class PrimaryGridUnit extends GridUnit {
 
     /** Links to the spanned grid units. (List of GridUnit arrays, one array represents a row) */
     private List<GridUnit[]> rows;
+    /**
+     * The collapsed before and after border widths of each row-span, computed on first use.
+     * (cached values, -1 if not computed yet)
+     */
+    private int[] collapsedBorderWidths;
     /** The calculated size of the cell's content. (cached value) */
     private int contentLength = -1;
 
@@ -172,12 +179,7 @@ public class PrimaryGridUnit extends GridUnit {
                 }
             }
         } else {
-            int width = 0;
-            for (GridUnit gu : rows.get(rowIndex)) {
-                width = Math.max(width,
-                        gu.getBorderBefore(which).getRetainedWidth());
-            }
-            return width / 2;
+            return getCollapsedBorderWidth(rowIndex, which, true);
         }
     }
 
@@ -217,14 +219,32 @@ public class PrimaryGridUnit extends GridUnit {
                 }
             }
         } else {
-            int width = 0;
-            GridUnit[] row = rows.get(rowIndex);
-            for (GridUnit gu : row) {
-                width = Math.max(width,
-                        gu.getBorderAfter(which).getRetainedWidth());
+            return getCollapsedBorderWidth(rowIndex, which, false);
+        }
+    }
+
+    /**
+     * Returns half the width of the widest resolved border segment among the grid units of
+     * the given row-span. Borders are resolved once the table has been entirely read, so
+     * the value is computed only once per row-span and side; layout asks for it repeatedly.
+     */
+    private int getCollapsedBorderWidth(int rowIndex, int which, boolean before) {
+        if (collapsedBorderWidths == null) {
+            collapsedBorderWidths = new int[rows.size() * 6];
+            Arrays.fill(collapsedBorderWidths, -1);
+        }
+        int index = (rowIndex * 3 + which) * 2 + (before ? 0 : 1);
+        int width = collapsedBorderWidths[index];
+        if (width < 0) {
+            width = 0;
+            for (GridUnit gu : rows.get(rowIndex)) {
+                BorderInfo border = before ? gu.getBorderBefore(which) : gu.getBorderAfter(which);
+                width = Math.max(width, border.getRetainedWidth());
             }
-            return width / 2;
+            width /= 2;
+            collapsedBorderWidths[index] = width;
         }
+        return width;
     }
 
     /**
@@ -339,6 +359,16 @@ public class PrimaryGridUnit extends GridUnit {
         cellLM = new TableCellLayoutManager(cell, this);
     }
 
+    /**
+     * Releases the layout manager and the Knuth elements of the cell. To be called once
+     * all the areas of the cell have been added, so that the memory they use can be
+     * reclaimed while the remainder of the table is being added to the area tree.
+     */
+    public void releaseCellLM() {
+        cellLM = null;
+        elements = null;
+    }
+
     /**
      * Returns the strength of the keep constraint if the first child block (or its descendants)
      * of this cell has keep-with-previous.
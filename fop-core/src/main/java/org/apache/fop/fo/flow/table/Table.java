@@ -141,6 +141,9 @@ public class Table extends TableFObj implements ColumnNumberManagerHolder, Break
         writingModeTraits = new WritingModeTraits(
             WritingMode.valueOf(pList.get(PR_WRITING_MODE).getEnum()),
             pList.getExplicit(PR_WRITING_MODE) != null);
+        if (writingModeTraits.getInlineProgressionDirection() == Direction.RL) {
+            notifyBidiRequired();
+        }
 
         //Bind extension properties
         widowContentLimit = pList.get(PR_X_WIDOW_CONTENT_LIMIT).getLength();
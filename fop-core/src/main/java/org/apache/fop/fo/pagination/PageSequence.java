@@ -85,6 +85,11 @@ public class PageSequence extends AbstractPageSequence implements WritingModeTra
      */
     private final List<ChangeBar> changeBarList = new LinkedList<ChangeBar>();
 
+    /**
+     * True if content was found that requires bidirectional processing
+     */
+    private boolean bidiRequired;
+
     /**
      * Create a PageSequence instance that is a child of the
      * given {@link FONode}.
@@ -364,6 +369,24 @@ public class PageSequence extends AbstractPageSequence implements WritingModeTra
         }
     }
 
+    /**
+     * Records that this page-sequence contains content which requires bidirectional
+     * processing, i.e. right-to-left text, right-to-left embeddings or overrides, or a
+     * right-to-left writing mode.
+     */
+    public void setBidiRequired() {
+        bidiRequired = true;
+    }
+
+    /**
+     * Determines if this page-sequence requires bidirectional processing. If not, all its
+     * text is left-to-right and resolving bidi levels would not change anything.
+     * @return true if bidirectional processing is required
+     */
+    public boolean isBidiRequired() {
+        return bidiRequired || getInlineProgressionDirection() == Direction.RL;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -51,7 +51,7 @@ public class CommonBorderPaddingBackground {
      *  (w/ absolute background-position-* and padding-*)
      */
     private static final PropertyCache<CommonBorderPaddingBackground> CACHE
-            = new PropertyCache<CommonBorderPaddingBackground>();
+            = new PropertyCache<CommonBorderPaddingBackground>(CommonBorderPaddingBackground.class);
 
     private int hash = -1;
 
@@ -109,7 +109,7 @@ public class CommonBorderPaddingBackground {
 
         /** cache holding all canonical instances */
         private static final PropertyCache<BorderInfo> CACHE
-                = new PropertyCache<BorderInfo>();
+                = new PropertyCache<BorderInfo>(BorderInfo.class);
 
         private int mStyle; // Enum for border style
         private Color mColor; // Border color
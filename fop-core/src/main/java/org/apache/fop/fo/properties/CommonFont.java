@@ -38,7 +38,7 @@ public final class CommonFont {
 
     /** cache holding canonical CommonFont instances (only those with
      *  absolute font-size and font-size-adjust) */
-    private static final PropertyCache<CommonFont> CACHE = new PropertyCache<CommonFont>();
+    private static final PropertyCache<CommonFont> CACHE = new PropertyCache<CommonFont>(CommonFont.class);
 
     /** hashcode of this instance */
     private int hash = -1;
@@ -35,7 +35,7 @@ public class CondLengthProperty extends Property implements CompoundDatatype {
 
     /** cache holding canonical instances (for absolute conditional lengths) */
     private static final PropertyCache<CondLengthProperty> CACHE
-            = new PropertyCache<CondLengthProperty>();
+            = new PropertyCache<CondLengthProperty>(CondLengthProperty.class);
 
     /** components */
     private Property length;
@@ -30,7 +30,7 @@ public final class FontFamilyProperty extends ListProperty {
 
     /** cache holding all canonical FontFamilyProperty instances */
     private static final PropertyCache<FontFamilyProperty> CACHE
-            = new PropertyCache<FontFamilyProperty>();
+            = new PropertyCache<FontFamilyProperty>(FontFamilyProperty.class);
 
     /**
      * Inner class for creating instances of ListProperty
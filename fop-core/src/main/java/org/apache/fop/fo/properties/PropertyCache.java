@@ -19,14 +19,23 @@
 
 package org.apache.fop.fo.properties;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,38 +44,61 @@ import org.apache.commons.logging.LogFactory;
  * Thread-safe cache that minimizes the memory requirements by fetching an instance from the cache
  * that is equal to the given one. Internally the instances are stored in WeakReferences in order to
  * be reclaimed when they are no longer referenced.
+ * <p>
+ * Each cache keeps statistics about its use, which are available through {@link #getCaches()}
+ * or, once {@link #registerMBeans(MBeanServer)} has been called, through JMX.
  * @param <T> The type of values that are cached
  */
-public final class PropertyCache<T> {
+public final class PropertyCache<T> implements PropertyCacheMXBean {
 
     private static final Log LOG = LogFactory.getLog(PropertyCache.class);
 
+    /** All caches in use, for statistics. */
+    private static final Map<PropertyCache<?>, Boolean> CACHES
+            = new WeakHashMap<PropertyCache<?>, Boolean>();
+
+    /** The server the caches are registered with, null if they are not registered. */
+    private static MBeanServer mbeanServer;
+
     /**
      * Determines if the cache is used based on the value of the system property
      * org.apache.fop.fo.properties.use-cache
      */
     private final boolean useCache;
 
-    /**
-     * The underlying map that stores WeakReferences to the cached entries. The map keys are the
-     * hashCode of the cached entries. The map values are a WeakRefence to the cached entries. When
-     * two cached entries have the same hash code, the last one is kept but this should be an
-     * exception case (otherwise the hashCode() method of T needs to be fixed).
-     */
-    private final ConcurrentMap<Integer, WeakReference<T>> map;
+    /** The name of the type of the cached values. */
+    private volatile String type;
 
     /**
-     * Counts the number of entries put in the map in order to periodically check and remove the
-     * entries whose referents have been reclaimed.
+     * The underlying map. The map keys are the hashCode of the cached entries. The map values
+     * are the chains of WeakReferences to the cached entries with that hash code. Chains are
+     * never modified, but replaced by new ones, so they can be read without locking.
      */
-    private final AtomicInteger putCounter;
+    private final ConcurrentMap<Integer, Entry<T>[]> map;
 
-    /**
-     * Lock to prevent concurrent cleanup of the map.
-     */
-    private final Lock cleanupLock;
+    /** The queue receiving the references whose referents have been reclaimed. */
+    private final ReferenceQueue<T> queue;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
 
-    private final AtomicInteger hashCodeCollisionCounter;
+    private final AtomicLong collisions = new AtomicLong();
+
+    private volatile int maxSize = Integer.MAX_VALUE;
+
+    /** A reference to a cached value, which remembers the hash code of the value. */
+    private static final class Entry<T> extends WeakReference<T> {
+
+        private final int hash;
+
+        Entry(T referent, int hash, ReferenceQueue<? super T> queue) {
+            super(referent, queue);
+            this.hash = hash;
+        }
+    }
 
     /**
      * Creates a new cache. The "org.apache.fop.fo.properties.use-cache" system
@@ -76,6 +108,16 @@ public final class PropertyCache<T> {
      * (case insensitive).
      */
     public PropertyCache() {
+        this(null);
+    }
+
+    /**
+     * Creates a new cache for values of the given type. The type is used to identify the
+     * cache in its statistics.
+     * @param type the type of the cached values
+     * @see #PropertyCache()
+     */
+    public PropertyCache(Class<T> type) {
         boolean useCache;
         try {
             useCache = Boolean.valueOf(
@@ -85,16 +127,19 @@ public final class PropertyCache<T> {
             LOG.info("Unable to access org.apache.fop.fo.properties.use-cache"
                    + " due to security restriction; defaulting to 'true'.");
         }
+        this.type = type != null ? type.getName() : null;
         if (useCache) {
-            this.map = new ConcurrentHashMap<Integer, WeakReference<T>>();
-            this.putCounter = new AtomicInteger();
-            this.cleanupLock = new ReentrantLock();
-            this.hashCodeCollisionCounter = new AtomicInteger();
+            this.map = new ConcurrentHashMap<Integer, Entry<T>[]>();
+            this.queue = new ReferenceQueue<T>();
+            synchronized (CACHES) {
+                CACHES.put(this, Boolean.TRUE);
+                if (mbeanServer != null && type != null) {
+                    registerMBean(mbeanServer);
+                }
+            }
         } else {
             this.map = null;
-            this.putCounter = null;
-            this.cleanupLock = null;
-            this.hashCodeCollisionCounter = null;
+            this.queue = null;
         }
         this.useCache = useCache;
     }
@@ -115,80 +160,192 @@ public final class PropertyCache<T> {
             return null;
         }
 
+        expungeStaleEntries();
         Integer hashCode = obj.hashCode();
-
-        WeakReference<T> weakRef = map.get(hashCode);
-        if (weakRef == null) {
-            weakRef = map.putIfAbsent(hashCode, new WeakReference<T>(obj));
-            attemptCleanup();
-
-            if (weakRef == null) {
+        Entry<T> entry = null;
+        while (true) {
+            Entry<T>[] chain = map.get(hashCode);
+            boolean collision = false;
+            if (chain != null) {
+                for (Entry<T> e : chain) {
+                    T cached = e.get();
+                    if (cached != null) {
+                        if (eq(cached, obj)) {
+                            hits.incrementAndGet();
+                            return cached;
+                        }
+                        collision = true;
+                    }
+                }
+            }
+            if (entry == null) {
+                if (type == null) {
+                    type = obj.getClass().getName();
+                }
+                if (size.get() >= maxSize) {
+                    misses.incrementAndGet();
+                    return obj;
+                }
+                entry = new Entry<T>(obj, hashCode, queue);
+            }
+            boolean added;
+            if (chain == null) {
+                added = map.putIfAbsent(hashCode, newChain(entry)) == null;
+            } else {
+                added = map.replace(hashCode, chain, append(chain, entry));
+            }
+            if (added) {
+                size.incrementAndGet();
+                misses.incrementAndGet();
+                if (collision) {
+                    collisions.incrementAndGet();
+                }
                 return obj;
             }
-            // else another thread added a value, continue.
+            // else another thread changed the chain, look again
         }
+    }
+
+    /**
+     * Removes the entries whose referents have been reclaimed.
+     */
+    private void expungeStaleEntries() {
+        Reference<? extends T> ref;
+        while ((ref = queue.poll()) != null) {
+            removeEntry((Entry<T>) ref);
+        }
+    }
 
-        T cached = weakRef.get();
-        if (cached != null) {
-            if (eq(cached, obj)) {
-                return cached;
+    private void removeEntry(Entry<T> entry) {
+        Integer hashCode = entry.hash;
+        while (true) {
+            Entry<T>[] chain = map.get(hashCode);
+            int index = chain != null ? indexOf(chain, entry) : -1;
+            if (index < 0) {
+                return;
+            }
+            boolean removed;
+            if (chain.length == 1) {
+                removed = map.remove(hashCode, chain);
             } else {
-                /*
-                 * Log a message when obj.getClass() does not implement correctly the equals() or
-                 * hashCode() method. It is expected that only very few objects will have the
-                 * same hashCode but will not be equal.
-                 */
-                if ((hashCodeCollisionCounter.incrementAndGet() % 10) == 0) {
-                    LOG.info(hashCodeCollisionCounter.get() + " hashCode() collisions for "
-                            + obj.getClass().getName());
-                }
+                removed = map.replace(hashCode, chain, remove(chain, index));
+            }
+            if (removed) {
+                size.decrementAndGet();
+                return;
             }
+        }
+    }
 
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] newChain(Entry<T> entry) {
+        return new Entry[] {entry};
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] append(Entry<T>[] chain, Entry<T> entry) {
+        Entry<T>[] newChain = new Entry[chain.length + 1];
+        System.arraycopy(chain, 0, newChain, 0, chain.length);
+        newChain[chain.length] = entry;
+        return newChain;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] remove(Entry<T>[] chain, int index) {
+        Entry<T>[] newChain = new Entry[chain.length - 1];
+        System.arraycopy(chain, 0, newChain, 0, index);
+        System.arraycopy(chain, index + 1, newChain, index, newChain.length - index);
+        return newChain;
+    }
+
+    private static int indexOf(Entry<?>[] chain, Entry<?> entry) {
+        for (int i = 0; i < chain.length; i++) {
+            if (chain[i] == entry) {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        // Adds a new or replaces an existing entry with obj that has the same hash code
-        map.put(hashCode, new WeakReference<T>(obj));
-        attemptCleanup();
-        return obj;
+    private boolean eq(Object p, Object q) {
+        return (p == q || p.equals(q));
+    }
+
+    /** {@inheritDoc} */
+    public String getType() {
+        return type;
+    }
 
-        /*
-         * Another thread might add first. We could check this using map.replace() instead of
-         * map.put() and then recursively call fetch(obj). But if in the meantime, garbage
-         * collection kicks in, we might end up with a StackOverflowException. Not caching an entry
-         * is tolerable, after all it's configurable.
-         */
+    /** {@inheritDoc} */
+    public long getHits() {
+        return hits.get();
     }
 
+    /** {@inheritDoc} */
+    public long getMisses() {
+        return misses.get();
+    }
 
-    private void attemptCleanup() {
-        if ((putCounter.incrementAndGet() % 10000) != 0) {
-            return;
+    /** {@inheritDoc} */
+    public long getCollisions() {
+        return collisions.get();
+    }
+
+    /** {@inheritDoc} */
+    public int getSize() {
+        if (useCache) {
+            expungeStaleEntries();
         }
+        return size.get();
+    }
 
-        // Lock as there is no need for concurrent cleanup and protect us, on JDK5, from
-        // http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6312056
-        if (cleanupLock.tryLock()) {
-            try {
-                cleanReclaimedMapEntries();
-            } finally {
-                cleanupLock.unlock();
-            }
+    /** {@inheritDoc} */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** {@inheritDoc} */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the caches in use, so their statistics can be inspected.
+     * @return the caches
+     */
+    public static List<PropertyCacheMXBean> getCaches() {
+        synchronized (CACHES) {
+            return new ArrayList<PropertyCacheMXBean>(CACHES.keySet());
         }
     }
 
-    private void cleanReclaimedMapEntries() {
-        Iterator<Map.Entry<Integer, WeakReference<T>>> iterator = map.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<Integer, WeakReference<T>> entry = iterator.next();
-            WeakReference<T> weakRef = entry.getValue();
-            T r = weakRef.get();
-            if (r == null) {
-                iterator.remove();
+    /**
+     * Registers the caches created for a given type with the given MBean server, so their
+     * statistics and size bounds are available through JMX. Caches created later are
+     * registered as well. The object names have the form
+     * <code>org.apache.fop:type=PropertyCache,name=&lt;type name&gt;</code>.
+     * @param server the MBean server
+     */
+    public static void registerMBeans(MBeanServer server) {
+        synchronized (CACHES) {
+            mbeanServer = server;
+            for (PropertyCache<?> cache : CACHES.keySet()) {
+                if (cache.type != null) {
+                    cache.registerMBean(server);
+                }
             }
         }
     }
 
-    private boolean eq(Object p, Object q) {
-        return (p == q || p.equals(q));
+    private void registerMBean(MBeanServer server) {
+        try {
+            ObjectName name = new ObjectName("org.apache.fop:type=PropertyCache,name="
+                    + ObjectName.quote(type));
+            server.registerMBean(this, name);
+        } catch (InstanceAlreadyExistsException e) {
+            LOG.debug("A property cache for " + type + " is already registered");
+        } catch (JMException e) {
+            LOG.warn("Unable to register the property cache for " + type + ": " + e.getMessage());
+        }
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fo.properties;
+
+/**
+ * Management interface of a {@link PropertyCache}, giving access to its statistics and
+ * size bound.
+ */
+public interface PropertyCacheMXBean {
+
+    /**
+     * Returns the name of the type of the cached values.
+     * @return the type name, or null if the cache has not been used yet
+     */
+    String getType();
+
+    /**
+     * Returns the number of fetches that returned an equal instance from the cache.
+     * @return the number of hits
+     */
+    long getHits();
+
+    /**
+     * Returns the number of fetches that did not find an equal instance in the cache.
+     * @return the number of misses
+     */
+    long getMisses();
+
+    /**
+     * Returns the number of misses for which the cache held other, unequal instances with
+     * the same hash code.
+     * @return the number of collisions
+     */
+    long getCollisions();
+
+    /**
+     * Returns the number of instances in the cache.
+     * @return the size of the cache
+     */
+    int getSize();
+
+    /**
+     * Returns the maximum number of instances in the cache.
+     * @return the size bound
+     */
+    int getMaxSize();
+
+    /**
+     * Sets the maximum number of instances in the cache. Once it is reached, new instances
+     * are returned without being cached until others have been reclaimed.
+     * @param maxSize the size bound
+     */
+    void setMaxSize(int maxSize);
+}
@@ -79,7 +79,7 @@ public final class StringProperty extends Property {
 
     /** cache containing all canonical StringProperty instances */
     private static final PropertyCache<StringProperty> CACHE
-            = new PropertyCache<StringProperty>();
+            = new PropertyCache<StringProperty>(StringProperty.class);
 
     /** canonical instance for empty strings */
     public static final StringProperty EMPTY_STRING_PROPERTY = new StringProperty("");
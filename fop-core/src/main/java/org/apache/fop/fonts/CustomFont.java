@@ -147,6 +147,18 @@ public abstract class CustomFont extends Typeface
         return embedFileURI;
     }
 
+    /**
+     * Returns the URI of the embeddable font file resolved against the base URI of the
+     * resource resolver.
+     * @return the resolved URI, or null if there is no font file
+     */
+    public URI getResolvedEmbedFileURI() {
+        if (embedFileURI == null || resourceResolver == null) {
+            return embedFileURI;
+        }
+        return resourceResolver.resolveFromBase(embedFileURI);
+    }
+
     /**
 
      * Returns the embedding mode for this font.
@@ -19,7 +19,9 @@
 
 package org.apache.fop.fonts;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -68,6 +70,9 @@ public class Font implements Substitutable, Positionable {
     public static final FontTriplet DEFAULT_FONT = new FontTriplet(
                     "any", STYLE_NORMAL, WEIGHT_NORMAL, PRIORITY_DEFAULT);
 
+    /** The maximum number of word mappings kept by a font instance. */
+    private static final int MAX_WORD_MAPPINGS = 1024;
+
     /** logger */
     private  static Log log = LogFactory.getLog(Font.class);
 
@@ -82,6 +87,21 @@ public class Font implements Substitutable, Positionable {
 
     private final FontMetrics metric;
 
+    /**
+     * The widths of the BMP characters measured so far, in pages of 256 characters. Each
+     * width is stored plus one so that 0 means not measured yet.
+     */
+    private final int[][] charWidths = new int[256][];
+
+    /** The kerning pairs scaled to the font size, created on first use. */
+    private KerningTable kerningTable;
+
+    /**
+     * The most recently used word mappings, created on first use. Font instances are shared
+     * per document, so the mappings live as long as the font state they were computed from.
+     */
+    private Map<GlyphMapping.WordKey, GlyphMapping.MappedWord> wordMappings;
+
     /**
      * Main constructor
      * @param key key of the font
@@ -204,14 +224,93 @@ public class Font implements Substitutable, Positionable {
             return 0;
         }
 
-        Map<Integer, Integer> kernPair = getKerning().get(ch1);
-        if (kernPair != null) {
-            Integer width = kernPair.get(ch2);
-            if (width != null) {
-                return width * getFontSize() / 1000;
+        KerningTable table = kerningTable;
+        if (table == null) {
+            table = new KerningTable(getKerning(), fontSize);
+            kerningTable = table;
+        }
+        return table.get(ch1, ch2);
+    }
+
+    /**
+     * The kerning pairs of a font at a given size, in an open-addressing hash table of
+     * primitive values so that looking up a pair needs neither boxing nor nested maps.
+     */
+    private static final class KerningTable {
+
+        private static final long EMPTY = -1L;
+
+        private final long[] pairs;
+        private final int[] values;
+        private final int mask;
+
+        KerningTable(Map<Integer, Map<Integer, Integer>> kerning, int fontSize) {
+            int count = 0;
+            for (Map<Integer, Integer> kernPair : kerning.values()) {
+                count += kernPair.size();
+            }
+            int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+            pairs = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+            Arrays.fill(pairs, EMPTY);
+            for (Map.Entry<Integer, Map<Integer, Integer>> first : kerning.entrySet()) {
+                int ch1 = first.getKey();
+                for (Map.Entry<Integer, Integer> second : first.getValue().entrySet()) {
+                    long pair = pair(ch1, second.getKey());
+                    int index = indexOf(pair);
+                    pairs[index] = pair;
+                    values[index] = second.getValue() * fontSize / 1000;
+                }
+            }
+        }
+
+        private static long pair(int ch1, int ch2) {
+            return ((long) ch1 << 32) | (ch2 & 0xFFFFFFFFL);
+        }
+
+        /** Returns the slot of the given pair, or the empty slot where it belongs. */
+        private int indexOf(long pair) {
+            long h = pair * 0x9E3779B97F4A7C15L;
+            int index = (int) (h ^ (h >>> 32)) & mask;
+            while (pairs[index] != pair && pairs[index] != EMPTY) {
+                index = (index + 1) & mask;
             }
+            return index;
+        }
+
+        int get(int ch1, int ch2) {
+            long pair = pair(ch1, ch2);
+            int index = indexOf(pair);
+            return pairs[index] == pair ? values[index] : 0;
         }
-        return 0;
+    }
+
+    /**
+     * Returns the cached result of mapping a word with this font.
+     * @param key the word and mapping parameters
+     * @return the mapped word, or null if it is not cached
+     */
+    GlyphMapping.MappedWord getWordMapping(GlyphMapping.WordKey key) {
+        return wordMappings != null ? wordMappings.get(key) : null;
+    }
+
+    /**
+     * Caches the result of mapping a word with this font.
+     * @param key the word and mapping parameters
+     * @param mappedWord the mapped word
+     */
+    void putWordMapping(GlyphMapping.WordKey key, GlyphMapping.MappedWord mappedWord) {
+        if (wordMappings == null) {
+            wordMappings = new LinkedHashMap<GlyphMapping.WordKey, GlyphMapping.MappedWord>(
+                    16, 0.75f, true) {
+                protected boolean removeEldestEntry(
+                        Map.Entry<GlyphMapping.WordKey, GlyphMapping.MappedWord> eldest) {
+                    return size() > MAX_WORD_MAPPINGS;
+                }
+            };
+        }
+        wordMappings.put(key, mappedWord);
     }
 
     /**
@@ -352,6 +451,22 @@ public class Font implements Substitutable, Positionable {
      * @return the width of the character or -1 if no width available
      */
     public int getCharWidth(char c) {
+        int[] page = charWidths[c >> 8];
+        if (page == null) {
+            page = new int[256];
+            charWidths[c >> 8] = page;
+        }
+        int width = page[c & 0xFF] - 1;
+        if (width < 0) {
+            width = computeCharWidth(c);
+            if (width >= 0) {
+                page[c & 0xFF] = width + 1;
+            }
+        }
+        return width;
+    }
+
+    private int computeCharWidth(char c) {
         int width;
 
         if ((c == '\n') || (c == '\r') || (c == '\t') || (c == '\u00A0')) {
@@ -443,12 +558,35 @@ public class Font implements Substitutable, Positionable {
         if (word == null) {
             return 0;
         }
-        int wordLength = word.length();
         int width = 0;
-        char[] characters = new char[wordLength];
-        word.getChars(0, wordLength, characters, 0);
-        for (int i = 0; i < wordLength; i++) {
-            width += getCharWidth(characters[i]);
+        for (int i = 0, n = word.length(); i < n; i++) {
+            width += getCharWidth(word.charAt(i));
+        }
+        return width;
+    }
+
+    /**
+     * Measures a range of text: returns the sum of the widths of its code points, without
+     * kerning. Code points which have no width in this font count as 0.
+     * @param text the text to measure
+     * @param start the index of the first character to measure
+     * @param end the index after the last character to measure
+     * @return the width of the text range in millipoints
+     */
+    public int measure(CharSequence text, int start, int end) {
+        int width = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            int w;
+            if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                w = getCharWidth(Character.toCodePoint(c, text.charAt(++i)));
+            } else {
+                w = getCharWidth(c);
+            }
+            if (w > 0) {
+                width += w;
+            }
         }
         return width;
     }
@@ -117,6 +117,20 @@ public class GlyphMapping {
         // 1. extract unmapped character sequence.
         CharSequence ics = text.subSequence(startIndex, endIndex);
 
+        // words recur often; reuse the result of mapping the same word with the same font
+        // unless the caller needs the character associations, which are not kept
+        WordKey key = null;
+        if (!retainAssociations) {
+            key = new WordKey(ics.toString(), script, language, dontOptimizeForIdentityMapping,
+                    retainControls);
+            MappedWord mappedWord = font.getWordMapping(key);
+            if (mappedWord != null) {
+                return new GlyphMapping(startIndex, endIndex, 0, nLS, mappedWord.ipd, endsWithHyphen,
+                        false, breakOpportunityChar != 0, font, level, mappedWord.gpa,
+                        mappedWord.mapping, null);
+            }
+        }
+
         // 2. if script is not specified (by FO property) or it is specified as 'auto',
         // then compute dominant script.
         if ((script == null) || "auto".equals(script)) {
@@ -156,30 +170,103 @@ public class GlyphMapping {
         mcs = font.reorderCombiningMarks(mcs, gpa, script, language, associations);
 
         // 6. compute word ipd based on final position adjustments.
-        MinOptMax ipd = MinOptMax.ZERO;
-        for (int i = 0, n = mcs.length(); i < n; i++) {
-            int c = mcs.charAt(i);
+        MinOptMax ipd;
+        if (gpa == null) {
+            ipd = MinOptMax.getInstance(font.measure(mcs, 0, mcs.length()));
+        } else {
+            ipd = MinOptMax.ZERO;
+            for (int i = 0, n = mcs.length(); i < n; i++) {
+                int c = mcs.charAt(i);
 
-            if (CharUtilities.containsSurrogatePairAt(mcs, i)) {
-                c = Character.toCodePoint((char) c, mcs.charAt(++i));
-            }
+                if (CharUtilities.containsSurrogatePairAt(mcs, i)) {
+                    c = Character.toCodePoint((char) c, mcs.charAt(++i));
+                }
 
-            int w = font.getCharWidth(c);
-            if (w < 0) {
-                w = 0;
-            }
-            if (gpa != null) {
+                int w = font.getCharWidth(c);
+                if (w < 0) {
+                    w = 0;
+                }
                 w += gpa[i][GlyphPositioningTable.Value.IDX_X_ADVANCE];
+                ipd = ipd.plus(w);
             }
-            ipd = ipd.plus(w);
         }
 
         // [TBD] - handle letter spacing
 
+        String mapping = !dontOptimizeForIdentityMapping && CharUtilities.isSameSequence(mcs, ics)
+                ? null : mcs.toString();
+        if (key != null) {
+            font.putWordMapping(key, new MappedWord(ipd, gpa, mapping));
+        }
         return new GlyphMapping(startIndex, endIndex, 0, nLS, ipd, endsWithHyphen, false,
-                breakOpportunityChar != 0, font, level, gpa,
-                !dontOptimizeForIdentityMapping && CharUtilities.isSameSequence(mcs, ics) ? null : mcs.toString(),
-                associations);
+                breakOpportunityChar != 0, font, level, gpa, mapping, associations);
+    }
+
+    /**
+     * Identifies the mapping of a word by a font: the word and the parameters of
+     * {@link #doGlyphMapping} the mapped characters and positions depend on.
+     */
+    static final class WordKey {
+
+        private final String word;
+        private final String script;
+        private final String language;
+        private final boolean dontOptimizeForIdentityMapping;
+        private final boolean retainControls;
+        private final int hash;
+
+        WordKey(String word, String script, String language,
+                boolean dontOptimizeForIdentityMapping, boolean retainControls) {
+            this.word = word;
+            this.script = script;
+            this.language = language;
+            this.dontOptimizeForIdentityMapping = dontOptimizeForIdentityMapping;
+            this.retainControls = retainControls;
+            int hash = word.hashCode();
+            hash = 31 * hash + (script == null ? 0 : script.hashCode());
+            hash = 31 * hash + (language == null ? 0 : language.hashCode());
+            hash = 31 * hash + (dontOptimizeForIdentityMapping ? 1 : 0);
+            hash = 31 * hash + (retainControls ? 1 : 0);
+            this.hash = hash;
+        }
+
+        /** {@inheritDoc} */
+        public boolean equals(Object obj) {
+            if (!(obj instanceof WordKey)) {
+                return false;
+            }
+            WordKey other = (WordKey) obj;
+            return hash == other.hash
+                    && word.equals(other.word)
+                    && (script == null ? other.script == null : script.equals(other.script))
+                    && (language == null ? other.language == null
+                            : language.equals(other.language))
+                    && dontOptimizeForIdentityMapping == other.dontOptimizeForIdentityMapping
+                    && retainControls == other.retainControls;
+        }
+
+        /** {@inheritDoc} */
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The result of mapping a word: its width, glyph position adjustments and mapped
+     * characters. The adjustments are shared by all the mappings of the word and must not
+     * be modified.
+     */
+    static final class MappedWord {
+
+        private final MinOptMax ipd;
+        private final int[][] gpa;
+        private final String mapping;
+
+        MappedWord(MinOptMax ipd, int[][] gpa, String mapping) {
+            this.ipd = ipd;
+            this.gpa = gpa;
+            this.mapping = mapping;
+        }
     }
 
     private static boolean useKerningAdjustments(final Font font, String script, String language) {
@@ -246,15 +333,12 @@ public class GlyphMapping {
         }
 
         CharSequence ics = text.subSequence(startIndex, endIndex);
-        int offset = 0;
-        for (int currentChar : CharUtilities.codepointsIter(ics)) {
-
-            // character width
-            int charWidth = font.getCharWidth(currentChar);
-            wordIPD = wordIPD.plus(charWidth);
+        wordIPD = wordIPD.plus(font.measure(ics, 0, ics.length()));
 
-            // kerning
-            if (kerning) {
+        // kerning
+        if (kerning) {
+            int offset = 0;
+            for (int currentChar : CharUtilities.codepointsIter(ics)) {
                 int kern = 0;
                 if (offset > 0) {
                     int previousChar = Character.codePointAt(ics, offset - 1);
@@ -266,8 +350,8 @@ public class GlyphMapping {
                     addToLetterAdjust(letterSpaceAdjustArray, startIndex + offset, kern);
                     wordIPD = wordIPD.plus(kern);
                 }
+                offset++;
             }
-            offset++;
         }
         if (kerning
                 && (breakOpportunityChar != 0)
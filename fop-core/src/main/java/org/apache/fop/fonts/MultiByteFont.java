@@ -23,7 +23,6 @@ import java.awt.Rectangle;
 import java.io.InputStream;
 import java.nio.CharBuffer;
 import java.nio.IntBuffer;
-import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -700,7 +699,8 @@ public class MultiByteFont extends CIDFont implements Substitutable, Positionabl
     private CharSequence mapGlyphsToChars(GlyphSequence gs) {
         int ng = gs.getGlyphCount();
         int ccMissing = Typeface.NOT_FOUND;
-        List<Character> chars = new ArrayList<Character>(gs.getUTF16CharacterCount());
+        char[] chars = new char[ng * 2];
+        int nc = 0;
 
         for (int i = 0, n = ng; i < n; i++) {
             int gi = gs.getGlyph(i);
@@ -718,21 +718,14 @@ public class MultiByteFont extends CIDFont implements Substitutable, Positionabl
                 cc -= 0x10000;
                 sh = ((cc >> 10) & 0x3FF) + 0xD800;
                 sl = ((cc >>  0) & 0x3FF) + 0xDC00;
-                chars.add((char) sh);
-                chars.add((char) sl);
+                chars[nc++] = (char) sh;
+                chars[nc++] = (char) sl;
             } else {
-                chars.add((char) cc);
+                chars[nc++] = (char) cc;
             }
         }
 
-        CharBuffer cb = CharBuffer.allocate(chars.size());
-
-        for (char c : chars) {
-            cb.put(c);
-        }
-
-        cb.flip();
-        return cb;
+        return CharBuffer.wrap(chars, 0, nc);
     }
 
     private CharSequence normalize(CharSequence cs, List associations) {
@@ -371,14 +371,24 @@ public abstract class OpenFont {
      * @return pdf unit
      */
     public int convertTTFUnit2PDFUnit(int n) {
+        return convertTTFUnit2PDFUnit(n, upem);
+    }
+
+    /**
+     * Convert from truetype unit to pdf unit.
+     * @param n truetype unit
+     * @param unitsPerEm the unitsPerEm of the font
+     * @return pdf unit
+     */
+    public static int convertTTFUnit2PDFUnit(int n, int unitsPerEm) {
         int ret;
         if (n < 0) {
-            long rest1 = n % upem;
+            long rest1 = n % unitsPerEm;
             long storrest = 1000 * rest1;
             long ledd2 = (storrest != 0 ? rest1 / storrest : 0);
-            ret = -((-1000 * n) / upem - (int)ledd2);
+            ret = -((-1000 * n) / unitsPerEm - (int)ledd2);
         } else {
-            ret = (n / upem) * 1000 + ((n % upem) * 1000) / upem;
+            ret = (n / unitsPerEm) * 1000 + ((n % unitsPerEm) * 1000) / unitsPerEm;
         }
 
         return ret;
@@ -2044,6 +2054,14 @@ public abstract class OpenFont {
         }
     }
 
+    /**
+     * Returns the unitsPerEm field of the "head" table.
+     * @return the units per em
+     */
+    public int getUnitsPerEm() {
+        return upem;
+    }
+
     /**
      * Returns the GSUB table or null if none present.
      * @return the GSUB table
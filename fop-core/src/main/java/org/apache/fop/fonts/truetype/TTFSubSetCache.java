@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts.truetype;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of finished TrueType subsets. Documents which embed the same glyphs of a font
+ * with the same subset glyph indexes get the same subset, so it is created only once and
+ * then reused. The cache holds the least recently used subsets up to a total size.
+ * <p>
+ * Subsets are keyed by the URI of the font file, the version of its content, the TTC name
+ * and the complete mapping of original to subset glyph indexes. The version of a local
+ * file is its modification time and length, so a cached subset can be found with
+ * {@link #getCachedSubset(URI, String, Map)} before the file is read. The version of
+ * other fonts is a digest of their content. This class is thread-safe.
+ */
+public final class TTFSubSetCache {
+
+    /** Default maximum total size of the cached subsets (16 MB). */
+    public static final int DEFAULT_MAX_SIZE = 16 * 1024 * 1024;
+
+    private final int maxSize;
+
+    private final Map<SubsetKey, byte[]> subsets = new LinkedHashMap<SubsetKey, byte[]>(16, 0.75f, true);
+
+    private int size;
+
+    /**
+     * Creates a new cache.
+     * @param maxSize the maximum total size of the cached subsets in bytes
+     */
+    public TTFSubSetCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached subset of a local font file without reading the file.
+     * @param fontURI the absolute URI of the font file
+     * @param name Name to be checked for in the font file
+     * @param glyphs Map of glyphs (glyphs has old index as (Integer) key and
+     * new index as (Integer) value)
+     * @return the font subset, or null if it is not cached or the font is not a local file
+     */
+    public byte[] getCachedSubset(URI fontURI, String name, Map<Integer, Integer> glyphs) {
+        String version = getFileVersion(fontURI);
+        if (version == null) {
+            return null;
+        }
+        return get(new SubsetKey(fontURI.toString(), version, name, glyphs));
+    }
+
+    /**
+     * Returns the subset of a font, creating it with {@link TTFSubSetFile} if it has not
+     * been cached yet. The returned array is shared and must not be modified.
+     * @param fontURI the absolute URI of the font file
+     * @param in FontFileReader to read from
+     * @param name Name to be checked for in the font file
+     * @param header the header of the font file
+     * @param glyphs Map of glyphs (glyphs has old index as (Integer) key and
+     * new index as (Integer) value)
+     * @return the font subset
+     * @throws IOException in case of an I/O problem
+     */
+    public byte[] getFontSubset(URI fontURI, FontFileReader in, String name, String header,
+            Map<Integer, Integer> glyphs) throws IOException {
+        String version = getFileVersion(fontURI);
+        if (version == null) {
+            version = getContentVersion(in.getAllBytes());
+        }
+        SubsetKey key = new SubsetKey(fontURI.toString(), version, name, glyphs);
+        byte[] subset = get(key);
+        if (subset == null) {
+            TTFSubSetFile subsetFile = new TTFSubSetFile();
+            subsetFile.readFont(in, name, header, glyphs);
+            subset = subsetFile.getFontSubset();
+            put(key, subset);
+        }
+        return subset;
+    }
+
+    private static String getFileVersion(URI fontURI) {
+        if (fontURI != null && "file".equals(fontURI.getScheme())) {
+            try {
+                File file = new File(fontURI);
+                if (file.isFile()) {
+                    return "file:" + file.lastModified() + ":" + file.length();
+                }
+            } catch (IllegalArgumentException e) {
+                //not a hierarchical file URI
+            }
+        }
+        return null;
+    }
+
+    private static String getContentVersion(byte[] content) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            //every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+        StringBuilder version = new StringBuilder("sha-256:");
+        for (byte b : digest) {
+            version.append(Character.forDigit((b >> 4) & 0xf, 16));
+            version.append(Character.forDigit(b & 0xf, 16));
+        }
+        return version.toString();
+    }
+
+    private synchronized byte[] get(SubsetKey key) {
+        return subsets.get(key);
+    }
+
+    private synchronized void put(SubsetKey key, byte[] subset) {
+        if (subset.length > maxSize) {
+            return;
+        }
+        byte[] previous = subsets.put(key, subset);
+        if (previous != null) {
+            size -= previous.length;
+        }
+        size += subset.length;
+        Iterator<byte[]> iter = subsets.values().iterator();
+        while (size > maxSize) {
+            size -= iter.next().length;
+            iter.remove();
+        }
+    }
+
+    /** Removes all subsets from the cache. */
+    public synchronized void clear() {
+        subsets.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the number of cached subsets.
+     * @return the number of subsets
+     */
+    public synchronized int getSubsetCount() {
+        return subsets.size();
+    }
+
+    private static final class SubsetKey {
+
+        private final String fontId;
+        private final String version;
+        private final String name;
+        /** pairs of original and subset glyph index, sorted by original index */
+        private final int[] glyphMapping;
+        private final int hash;
+
+        SubsetKey(String fontId, String version, String name, Map<Integer, Integer> glyphs) {
+            this.fontId = fontId;
+            this.version = version;
+            this.name = name;
+            long[] sorted = new long[glyphs.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> glyph : glyphs.entrySet()) {
+                sorted[i++] = ((long) glyph.getKey() << 32) | (glyph.getValue() & 0xffffffffL);
+            }
+            Arrays.sort(sorted);
+            glyphMapping = new int[sorted.length * 2];
+            for (i = 0; i < sorted.length; i++) {
+                glyphMapping[2 * i] = (int) (sorted[i] >> 32);
+                glyphMapping[2 * i + 1] = (int) sorted[i];
+            }
+            int h = fontId.hashCode();
+            h = 31 * h + version.hashCode();
+            h = 31 * h + (name != null ? name.hashCode() : 0);
+            h = 31 * h + Arrays.hashCode(glyphMapping);
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SubsetKey)) {
+                return false;
+            }
+            SubsetKey other = (SubsetKey) obj;
+            return hash == other.hash
+                    && fontId.equals(other.fontId)
+                    && version.equals(other.version)
+                    && (name == null ? other.name == null : name.equals(other.name))
+                    && Arrays.equals(glyphMapping, other.glyphMapping);
+        }
+    }
+}
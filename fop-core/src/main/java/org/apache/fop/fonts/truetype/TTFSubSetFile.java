@@ -145,6 +145,7 @@ public class TTFSubSetFile extends TTFFile {
     }
 
     private void writeTableName(OFTableName tableName) {
+        ensureCapacity(16);
         writeString(tableName.getName());
         offsets.put(tableName, currentPos);
         currentPos += 12;
@@ -169,6 +170,7 @@ public class TTFSubSetFile extends TTFFile {
      */
     protected void createLoca(int size) throws IOException {
         pad4();
+        ensureCapacity(size * 4 + 4);
         locaOffset = currentPos;
         int dirTableOffset = offsets.get(OFTableName.LOCA);
         writeULong(dirTableOffset + 4, currentPos);
@@ -182,7 +184,7 @@ public class TTFSubSetFile extends TTFFile {
         if (entry != null) {
             pad4();
             seekTab(in, tableName, 0);
-            writeBytes(in.getBytes((int) entry.getOffset(), (int) entry.getLength()));
+            writeBytes(in, (int) entry.getOffset(), (int) entry.getLength());
 
             updateCheckSum(currentPos, (int) entry.getLength(), tableName);
             currentPos += (int) entry.getLength();
@@ -231,7 +233,7 @@ public class TTFSubSetFile extends TTFFile {
         if (entry != null) {
             pad4();
             seekTab(in, maxp, 0);
-            writeBytes(in.getBytes((int) entry.getOffset(), (int) entry.getLength()));
+            writeBytes(in, (int) entry.getOffset(), (int) entry.getLength());
             writeUShort(currentPos + 4, size);
 
             updateCheckSum(currentPos, (int)entry.getLength(), maxp);
@@ -249,13 +251,10 @@ public class TTFSubSetFile extends TTFFile {
             pad4();
             seekTab(in, post, 0);
             int newTableSize = 32; // This is the post table size with glyphs truncated
-            byte[] newPostTable = new byte[newTableSize];
             // We only want the first 28 bytes (truncate the glyph names);
-            System.arraycopy(in.getBytes((int) entry.getOffset(), newTableSize),
-                    0, newPostTable, 0, newTableSize);
+            writeBytes(in, (int) entry.getOffset(), newTableSize);
             // set the post table to Format 3.0
-            newPostTable[1] = 0x03;
-            writeBytes(newPostTable);
+            output[currentPos + 1] = 0x03;
             updateCheckSum(currentPos, newTableSize, post);
             currentPos += newTableSize;
             realSize += newTableSize;
@@ -282,7 +281,7 @@ public class TTFSubSetFile extends TTFFile {
         if (entry != null) {
             pad4();
             seekTab(in, OFTableName.HHEA, 0);
-            writeBytes(in.getBytes((int) entry.getOffset(), (int) entry.getLength()));
+            writeBytes(in, (int) entry.getOffset(), (int) entry.getLength());
             writeUShort((int) entry.getLength() + currentPos - 2, size);
 
             updateCheckSum(currentPos, (int) entry.getLength(), OFTableName.HHEA);
@@ -306,7 +305,7 @@ public class TTFSubSetFile extends TTFFile {
         if (entry != null) {
             pad4();
             seekTab(in, head, 0);
-            writeBytes(in.getBytes((int) entry.getOffset(), (int) entry.getLength()));
+            writeBytes(in, (int) entry.getOffset(), (int) entry.getLength());
 
             checkSumAdjustmentOffset = currentPos + 8;
             output[currentPos + 8] = 0;     // Set checkSumAdjustment to 0
@@ -358,12 +357,9 @@ public class TTFSubSetFile extends TTFFile {
                 int glyphOffset = (int)mtxTab[origGlyphIndex].getOffset();
                 int glyphLength = nextOffset - glyphOffset;
 
-                byte[] glyphData = in.getBytes(
-                        (int)entry.getOffset() + glyphOffset,
-                        glyphLength);
                 int endOffset1 = endOffset;
                 // Copy glyph
-                writeBytes(glyphData);
+                writeBytes(in, (int) entry.getOffset() + glyphOffset, glyphLength);
 
 
                 // Update loca table
@@ -384,6 +380,7 @@ public class TTFSubSetFile extends TTFFile {
 
             size = currentPos - startPos;
 
+            ensureCapacity(12);
             currentPos += 12;
             realSize += 12;
             updateCheckSum(startPos, size + 12, glyf);
@@ -430,6 +427,7 @@ public class TTFSubSetFile extends TTFFile {
 
         if (entry != null) {
             pad4();
+            ensureCapacity(hmtxSize);
             //int offset = (int)entry.offset;
             for (Map.Entry<Integer, Integer> glyph : glyphs.entrySet()) {
                 Integer origIndex = glyph.getKey();
@@ -469,8 +467,6 @@ public class TTFSubSetFile extends TTFFile {
         //Copy the Map as we're going to modify it
         Map<Integer, Integer> subsetGlyphs = new HashMap<Integer, Integer>(glyphs);
 
-        output = new byte[in.getFileSize()];
-
         readDirTabs();
         readFontHeader();
         getNumGlyphs();
@@ -480,6 +476,8 @@ public class TTFSubSetFile extends TTFFile {
 
         scanGlyphs(in, subsetGlyphs);
 
+        output = new byte[estimateSubsetSize(subsetGlyphs)];
+
         createDirectory();     // Create the TrueType header and directory
 
         boolean optionalTableFound;
@@ -515,6 +513,39 @@ public class TTFSubSetFile extends TTFFile {
         createCheckSumAdjustment();
     }
 
+    /**
+     * Returns an upper bound of the size of the subset, so the output buffer is sized to
+     * the subset rather than to the whole font file.
+     */
+    private int estimateSubsetSize(Map<Integer, Integer> glyphs) {
+        int glyphCount = glyphs.size();
+        // header and table directory (at most 13 tables); every table may need 3 padding bytes
+        long size = 12 + 16 * 13 + 3;
+        OFTableName[] copiedTables = {OFTableName.CVT, OFTableName.FPGM, OFTableName.OS2,
+                OFTableName.HEAD, OFTableName.HHEA, OFTableName.MAXP, OFTableName.NAME,
+                OFTableName.PREP};
+        for (OFTableName tableName : copiedTables) {
+            OFDirTabEntry entry = dirTabs.get(tableName);
+            if (entry != null) {
+                size += entry.getLength() + 3;
+            }
+        }
+        size += 32 + 3;                     // post
+        size += glyphCount * 4 + 4 + 3;     // loca
+        size += glyphCount * 4 + 3;         // hmtx
+        size += 12 + 3;                     // glyf trailer
+        for (Integer origIndex : glyphs.keySet()) {
+            int nextOffset;
+            if (origIndex >= (mtxTab.length - 1)) {
+                nextOffset = (int) lastLoca;
+            } else {
+                nextOffset = (int) mtxTab[origIndex + 1].getOffset();
+            }
+            size += Math.max(0, nextOffset - (int) mtxTab[origIndex].getOffset());
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
     /**
      * Returns a subset of the fonts (readFont() MUST be called first in order to create the
      * subset).
@@ -596,16 +627,42 @@ public class TTFSubSetFile extends TTFFile {
      * updates currentPost but not realSize
      */
     private void writeByte(byte b) {
+        ensureCapacity(1);
         output[currentPos++] = b;
     }
 
     protected void writeBytes(byte[] b) {
-        if (b.length + currentPos > output.length) {
-            byte[] newoutput = new byte[output.length * 2];
+        ensureCapacity(b.length);
+        System.arraycopy(b, 0, output, currentPos, b.length);
+    }
+
+    /**
+     * Copies a slice of the source font straight into the output array at the current
+     * position, without an intermediate copy. Does not update currentPos.
+     * @param in the source font
+     * @param offset the offset of the slice in the source font
+     * @param length the length of the slice
+     * @throws IOException if the slice exceeds the source font
+     */
+    protected void writeBytes(FontFileReader in, int offset, int length) throws IOException {
+        if (offset + length > in.getFileSize()) {
+            throw new IOException("Reached EOF");
+        }
+        ensureCapacity(length);
+        System.arraycopy(in.getAllBytes(), offset, output, currentPos, length);
+    }
+
+    /**
+     * Makes sure the output array can hold the given number of bytes after the current
+     * position.
+     * @param length the number of bytes to be written
+     */
+    protected void ensureCapacity(int length) {
+        if (length + currentPos > output.length) {
+            byte[] newoutput = new byte[Math.max(output.length * 2, length + currentPos)];
             System.arraycopy(output, 0, newoutput, 0, output.length);
             output = newoutput;
         }
-        System.arraycopy(b, 0, output, currentPos, b.length);
     }
 
     /**
@@ -653,6 +710,7 @@ public class TTFSubSetFile extends TTFFile {
     protected void pad4() {
         int padSize = getPadSize(currentPos);
         if (padSize < 4) {
+            ensureCapacity(padSize);
             for (int i = 0; i < padSize; i++) {
                 output[currentPos++] = 0;
                 realSize++;
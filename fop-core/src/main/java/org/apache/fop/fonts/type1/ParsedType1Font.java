@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts.type1;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.fop.fonts.type1.PostscriptParser.PSElement;
+import org.apache.fop.fonts.type1.Type1SubsetFile.BinaryCoder;
+
+/**
+ * The parsed form of a Type 1 font file as used by {@link Type1SubsetFile}: the PFB
+ * segments, the parsed header, the decrypted and parsed private section and the
+ * charstrings and subroutines decrypted so far. Subsetting the same font again, for the
+ * next document or with other characters, only selects and re-encodes the charstrings
+ * and subroutines it needs instead of parsing and decrypting the whole font again.
+ * <p>
+ * Instances are shared through a cache which holds the least recently used fonts up to a
+ * total file size. Fonts are identified by their content, so a changed font file is
+ * parsed again. The parsed data must not be modified. This class is thread-safe.
+ */
+final class ParsedType1Font {
+
+    /** Maximum total size of the font files whose parsed form is cached (16 MB). */
+    static final int MAX_CACHE_SIZE = 16 * 1024 * 1024;
+
+    private static final Map<FontKey, ParsedType1Font> CACHE
+            = new LinkedHashMap<FontKey, ParsedType1Font>(16, 0.75f, true);
+
+    private static int cacheSize;
+
+    private final byte[] fullFont;
+    private final PFBData pfbData;
+    private final List<PSElement> headerSection;
+    private byte[] decoded;
+    private List<PSElement> mainSection;
+    /** decrypted charstrings and subroutines by their start offset in the private section */
+    private final Map<Integer, byte[]> decryptedEntries = new ConcurrentHashMap<Integer, byte[]>();
+
+    private ParsedType1Font(byte[] fullFont) throws IOException {
+        this.fullFont = fullFont;
+        pfbData = new PFBParser().parsePFB(new ByteArrayInputStream(fullFont));
+        headerSection = new PostscriptParser().parse(pfbData.getHeaderSegment());
+    }
+
+    /**
+     * Returns the parsed form of a font file, parsing it if it has not been cached yet.
+     * @param fullFont the content of the font file, which must not be modified afterwards
+     * @return the parsed font
+     * @throws IOException if the font cannot be parsed
+     */
+    static ParsedType1Font getInstance(byte[] fullFont) throws IOException {
+        FontKey key = new FontKey(fullFont);
+        synchronized (CACHE) {
+            ParsedType1Font font = CACHE.get(key);
+            if (font != null) {
+                return font;
+            }
+        }
+        ParsedType1Font font = new ParsedType1Font(fullFont);
+        put(key, font);
+        return font;
+    }
+
+    private static void put(FontKey key, ParsedType1Font font) {
+        synchronized (CACHE) {
+            if (font.fullFont.length > MAX_CACHE_SIZE) {
+                return;
+            }
+            ParsedType1Font previous = CACHE.put(key, font);
+            if (previous != null) {
+                cacheSize -= previous.fullFont.length;
+            }
+            cacheSize += font.fullFont.length;
+            Iterator<ParsedType1Font> iter = CACHE.values().iterator();
+            while (cacheSize > MAX_CACHE_SIZE) {
+                cacheSize -= iter.next().fullFont.length;
+                iter.remove();
+            }
+        }
+    }
+
+    /** Removes all fonts from the cache. */
+    static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+            cacheSize = 0;
+        }
+    }
+
+    /**
+     * Returns the number of cached fonts.
+     * @return the number of fonts
+     */
+    static int getCacheCount() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    /**
+     * Returns the content of the font file.
+     * @return the font file
+     */
+    byte[] getFullFont() {
+        return fullFont;
+    }
+
+    /**
+     * Returns the segments of the font file.
+     * @return the PFB data
+     */
+    PFBData getPFBData() {
+        return pfbData;
+    }
+
+    /**
+     * Returns the elements of the clear text header section.
+     * @return the header elements
+     */
+    List<PSElement> getHeaderSection() {
+        return headerSection;
+    }
+
+    /**
+     * Returns the decrypted private section. It is decrypted when it is first needed.
+     * @return the decrypted section
+     */
+    synchronized byte[] getDecodedMainSection() {
+        if (decoded == null) {
+            decoded = BinaryCoder.decodeBytes(pfbData.getEncryptedSegment(), 55665, 4);
+        }
+        return decoded;
+    }
+
+    /**
+     * Returns the elements of the private section. It is parsed when it is first needed.
+     * @return the private section elements
+     * @throws IOException if the section cannot be parsed
+     */
+    synchronized List<PSElement> getMainSection() throws IOException {
+        if (mainSection == null) {
+            mainSection = new PostscriptParser().parse(getDecodedMainSection());
+        }
+        return mainSection;
+    }
+
+    /**
+     * Returns a decrypted charstring or subroutine of the private section. Each entry is
+     * decrypted only once.
+     * @param position the start and end position of the entry in the decrypted section
+     * @param skipBytes the number of random bytes at the start of the entry (lenIV)
+     * @return the decrypted entry
+     */
+    byte[] getDecryptedEntry(int[] position, int skipBytes) {
+        Integer start = position[0];
+        byte[] entry = decryptedEntries.get(start);
+        if (entry == null) {
+            byte[] encrypted = Arrays.copyOfRange(getDecodedMainSection(), position[0], position[1]);
+            entry = BinaryCoder.decodeBytes(encrypted, 4330, skipBytes);
+            decryptedEntries.put(start, entry);
+        }
+        return entry;
+    }
+
+    private static final class FontKey {
+
+        private final byte[] fullFont;
+        private final int hash;
+
+        FontKey(byte[] fullFont) {
+            this.fullFont = fullFont;
+            this.hash = Arrays.hashCode(fullFont);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FontKey)) {
+                return false;
+            }
+            FontKey other = (FontKey) obj;
+            return hash == other.hash && Arrays.equals(fullFont, other.fullFont);
+        }
+    }
+}
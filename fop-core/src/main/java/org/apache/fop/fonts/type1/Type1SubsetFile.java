@@ -19,7 +19,6 @@
 
 package org.apache.fop.fonts.type1;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -62,6 +61,7 @@ public class Type1SubsetFile {
     /* An option to determine whether the subroutines are subset */
     protected boolean subsetSubroutines = true;
     private byte[] fullFont;
+    private ParsedType1Font parsedFont;
     //List of parsed Postscript elements
     protected List<PSElement> headerSection;
     protected List<PSElement> mainSection;
@@ -75,6 +75,7 @@ public class Type1SubsetFile {
 
     public byte[] createSubset(InputStream in, SingleByteFont sbfont) throws IOException {
         fullFont = IOUtils.toByteArray(in);
+        parsedFont = ParsedType1Font.getInstance(fullFont);
         byte[] subsetFont = createSubset(sbfont, true);
         //This should never happen but ensure that subset is shorter than original font
         return (subsetFont.length == 0 || subsetFont.length > fullFont.length)
@@ -92,18 +93,15 @@ public class Type1SubsetFile {
      */
     private byte[] createSubset(SingleByteFont sbfont, boolean subsetSubroutines) throws IOException {
         this.subsetSubroutines = subsetSubroutines;
-        InputStream in = new ByteArrayInputStream(fullFont);
         //Initialise resources used for the font creation
         this.sbfont = sbfont;
-        PFBParser pfbParser = new PFBParser();
-        PFBData pfbData = pfbParser.parsePFB(in);
-
-        PostscriptParser psParser = new PostscriptParser();
+        //The font file is only parsed and decrypted once, see ParsedType1Font
+        PFBData pfbData = parsedFont.getPFBData();
         charNames = new ArrayList<String>();
 
-        //Parse the header section of the font
+        //Use the parsed header section of the font
         if (headerSection == null) {
-            headerSection = psParser.parse(pfbData.getHeaderSegment());
+            headerSection = parsedFont.getHeaderSection();
         }
 
         //Read the encoding section
@@ -114,16 +112,16 @@ public class Type1SubsetFile {
         }
         List<String> subsetEncodingEntries = readEncoding(encoding);
 
-        //Decode the main section in preparation for parsing
-        byte[] decoded = BinaryCoder.decodeBytes(pfbData.getEncryptedSegment(), 55665, 4);
+        //The decoded main section
+        byte[] decoded = parsedFont.getDecodedMainSection();
 
         //Initialise the resources used to hold the subset data
         uniqueSubs = new LinkedHashMap<Integer, byte[]>();
         subsetCharStrings = new HashMap<String, byte[]>();
 
-        //Parse the encoded main font section for elements
+        //Use the parsed elements of the main font section
         if (mainSection == null) {
-            mainSection = psParser.parse(decoded);
+            mainSection = parsedFont.getMainSection();
         }
 
         //Process and write the main section
@@ -287,6 +285,18 @@ public class Type1SubsetFile {
         /* Reads and parses the charStrings section to subset the charString
          * and it's referenced subroutines found in the main section for each glyph. */
         PSDictionary charStringsDict = (PSDictionary)charStrings;
+        int skipBytes = 4;
+        PSElement element = getElement("lenIV", mainSection);
+        if (element != null && element instanceof PSVariable) {
+            PSVariable lenIV = (PSVariable)element;
+            try {
+                skipBytes = Integer.parseInt(lenIV.getValue());
+            } catch (NumberFormatException ex) {
+                LOG.warn(String.format("Invalid value `%s` for lenIV found in font %s", lenIV.getValue(),
+                        sbfont.getEmbedFileURI().toString()));
+            }
+        }
+        PSFixedArray subroutines = (PSFixedArray)getElement("/Subrs", mainSection);
         for (String tag : sbfont.getUsedGlyphNames().values()) {
             if (!tag.equals("/.notdef")) {
                 charNames.add(tag);
@@ -296,22 +306,7 @@ public class Type1SubsetFile {
             if (location == null) {
                 continue;
             }
-            byte[] charStringEntry = getBinaryEntry(location, decoded);
-
-            int skipBytes = 4;
-            PSElement element = getElement("lenIV", mainSection);
-            if (element != null && element instanceof PSVariable) {
-                PSVariable lenIV = (PSVariable)element;
-                try {
-                    skipBytes = Integer.parseInt(lenIV.getValue());
-                } catch (NumberFormatException ex) {
-                    LOG.warn(String.format("Invalid value `%s` for lenIV found in font %s", lenIV.getValue(),
-                            sbfont.getEmbedFileURI().toString()));
-                }
-            }
-
-            charStringEntry = BinaryCoder.decodeBytes(charStringEntry, 4330, skipBytes);
-            PSFixedArray subroutines = (PSFixedArray)getElement("/Subrs", mainSection);
+            byte[] charStringEntry = parsedFont.getDecryptedEntry(location, skipBytes);
             if (subsetSubroutines) {
                 /* Recursively scan the charString array for subroutines and if found, copy the
                  * entry to our subset entries and update any references. */
@@ -429,8 +424,7 @@ public class Type1SubsetFile {
             int existingSubrRef, int subrID) {
         if (existingSubrRef == -1) {
             int[] subrData = subroutines.getBinaryEntryByIndex(subrID);
-            byte[] subroutine = getBinaryEntry(subrData, decoded);
-            subroutine = BinaryCoder.decodeBytes(subroutine, 4330, 4);
+            byte[] subroutine = parsedFont.getDecryptedEntry(subrData, 4);
             subroutine = createSubsetCharStrings(decoded, subroutine, subroutines,
                     subsetEncodingEntries);
             if (subroutine.length == 0) {
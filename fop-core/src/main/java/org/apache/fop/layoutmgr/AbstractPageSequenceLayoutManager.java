@@ -211,8 +211,8 @@ public abstract class AbstractPageSequenceLayoutManager extends AbstractLayoutMa
      * Bind the RetrieveMarker to the corresponding Marker subtree.
      * If the boundary is page then it will only check the
      * current page. For page-sequence and document it will
-     * lookup preceding pages from the area tree and try to find
-     * a marker.
+     * look up the marker in the marker index of the area tree, which
+     * holds the last marker of each class ending on a preceding page.
      * If we retrieve a marker from a preceding page,
      * then the containing page does not have a qualifying area,
      * and all qualifying areas have ended.
@@ -232,31 +232,8 @@ public abstract class AbstractPageSequenceLayoutManager extends AbstractLayoutMa
         // get marker from the current markers on area tree
         Marker mark = getCurrentPV().resolveMarker(rm);
         if (mark == null && boundary != EN_PAGE) {
-            // go back over pages until mark found
-            // if document boundary then keep going
-            boolean doc = (boundary == EN_DOCUMENT);
-            int seq = areaTreeModel.getPageSequenceCount();
-            int page = areaTreeModel.getPageCount(seq) - 1;
-            while (page < 0 && doc && seq > 1) {
-                seq--;
-                page = areaTreeModel.getPageCount(seq) - 1;
-            }
-            while (page >= 0) {
-                PageViewport pv = areaTreeModel.getPage(seq, page);
-                int originalPosition = rm.getPosition();
-                rm.changePositionTo(Constants.EN_LEWP);
-                mark = pv.resolveMarker(rm);
-                // this is probably not necessary since the RM will not be used again, but to be safe...
-                rm.changePositionTo(originalPosition);
-                if (mark != null) {
-                    break;
-                }
-                page--;
-                if (page < 0 && doc && seq > 1) {
-                    seq--;
-                    page = areaTreeModel.getPageCount(seq) - 1;
-                }
-            }
+            // look up the last marker ending on a preceding page
+            mark = areaTreeModel.getLastEndingMarker(name, boundary == EN_DOCUMENT);
         }
 
         if (mark == null) {
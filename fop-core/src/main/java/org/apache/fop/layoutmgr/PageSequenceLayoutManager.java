@@ -39,6 +39,7 @@ import org.apache.fop.fo.pagination.RegionBody;
 import org.apache.fop.fo.pagination.SideRegion;
 import org.apache.fop.fo.pagination.StaticContent;
 import org.apache.fop.layoutmgr.inline.ContentLayoutManager;
+import org.apache.fop.text.linebreak.LineBreakScanner;
 import org.apache.fop.traits.MinOptMax;
 
 /**
@@ -63,6 +64,12 @@ public class PageSequenceLayoutManager extends AbstractPageSequenceLayoutManager
     private int startIntrusionAdjustment;
     private int endIntrusionAdjustment;
 
+    /** Areas of static content that are the same on every page */
+    private final StaticContentCache staticContentCache = new StaticContentCache();
+
+    /** Scanner for break opportunities, shared by the text layout managers */
+    private LineBreakScanner lineBreakScanner;
+
     /**
      * Constructor
      *
@@ -94,6 +101,18 @@ public class PageSequenceLayoutManager extends AbstractPageSequenceLayoutManager
         return this;
     }
 
+    /**
+     * Returns the scanner for line break opportunities shared by the text of this
+     * page-sequence, so that its buffers are reused from one text node to the next.
+     * @return the line break scanner
+     */
+    public LineBreakScanner getLineBreakScanner() {
+        if (lineBreakScanner == null) {
+            lineBreakScanner = new LineBreakScanner();
+        }
+        return lineBreakScanner;
+    }
+
     public FlowLayoutManager getFlowLayoutManager() {
         if (pageBreaker == null) {
             throw new IllegalStateException("This method can be called only during layout");
@@ -226,10 +245,19 @@ public class PageSequenceLayoutManager extends AbstractPageSequenceLayoutManager
             return;
         }
 
+        // with accessibility, static content is tagged separately on every page
+        boolean cacheable = !getPageSequence().getUserAgent().isAccessibilityEnabled();
+        if (cacheable && staticContentCache.addCachedAreas(sc, reg, curPage.getPageViewport())) {
+            return;
+        }
+
         StaticContentLayoutManager lm = getLayoutManagerMaker()
                                             .makeStaticContentLayoutManager(
                                                 this, sc, reg);
         lm.doLayout();
+        if (cacheable && !lm.isOverflow()) {
+            staticContentCache.cacheAreas(sc, reg, curPage.getPageViewport());
+        }
     }
 
     /** {@inheritDoc} */
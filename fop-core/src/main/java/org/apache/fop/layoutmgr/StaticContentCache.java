@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.layoutmgr;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.fop.area.Area;
+import org.apache.fop.area.Block;
+import org.apache.fop.area.PageViewport;
+import org.apache.fop.area.RegionReference;
+import org.apache.fop.fo.FONode;
+import org.apache.fop.fo.FObj;
+import org.apache.fop.fo.flow.AbstractPageNumberCitation;
+import org.apache.fop.fo.flow.AbstractRetrieveMarker;
+import org.apache.fop.fo.flow.BasicLink;
+import org.apache.fop.fo.flow.ChangeBar;
+import org.apache.fop.fo.flow.PageNumber;
+import org.apache.fop.fo.pagination.SideRegion;
+import org.apache.fop.fo.pagination.StaticContent;
+
+/**
+ * Keeps the block areas of static content that is laid out the same way on every page,
+ * so it only has to be laid out once per page sequence and region size. The areas are
+ * shared by the regions of all pages using them.
+ * <p>
+ * Static content is page-invariant if it contains no page numbers, page number citations,
+ * retrieved markers, change bars, internal links or formatting objects with an id, all of
+ * which depend on or are registered with the page they appear on.
+ */
+class StaticContentCache {
+
+    private final Map<StaticContent, Boolean> pageInvariant = new HashMap<StaticContent, Boolean>();
+
+    private final Map<List<Object>, List<Area>> regionAreas = new HashMap<List<Object>, List<Area>>();
+
+    /**
+     * Adds previously laid out areas of static content to a region.
+     * @param sc the static content
+     * @param reg the side region the static content is laid out into
+     * @param pv the page viewport of the current page
+     * @return true if the areas were added, false if the static content must be laid out
+     */
+    boolean addCachedAreas(StaticContent sc, SideRegion reg, PageViewport pv) {
+        if (!isPageInvariant(sc)) {
+            return false;
+        }
+        RegionReference region = pv.getRegionReference(reg.getNameId());
+        List<Area> areas = regionAreas.get(createKey(sc, reg, region, pv));
+        if (areas == null) {
+            return false;
+        }
+        for (Area area : areas) {
+            region.addBlock((Block) area);
+        }
+        return true;
+    }
+
+    /**
+     * Keeps the areas of static content that has just been laid out into a region, if
+     * the static content is page-invariant.
+     * @param sc the static content
+     * @param reg the side region the static content was laid out into
+     * @param pv the page viewport of the current page
+     */
+    void cacheAreas(StaticContent sc, SideRegion reg, PageViewport pv) {
+        if (isPageInvariant(sc)) {
+            RegionReference region = pv.getRegionReference(reg.getNameId());
+            regionAreas.put(createKey(sc, reg, region, pv), new ArrayList<Area>(region.getBlocks()));
+        }
+    }
+
+    private List<Object> createKey(StaticContent sc, SideRegion reg, RegionReference region,
+            PageViewport pv) {
+        // absolutely positioned block-containers depend on the size of the page
+        Rectangle viewArea = pv.getViewArea();
+        return Arrays.<Object>asList(sc, reg, region.getIPD(), region.getBPD(),
+                viewArea.width, viewArea.height);
+    }
+
+    /**
+     * Determines whether static content is laid out the same way on every page.
+     * @param sc the static content
+     * @return true if the static content is page-invariant
+     */
+    boolean isPageInvariant(StaticContent sc) {
+        Boolean invariant = pageInvariant.get(sc);
+        if (invariant == null) {
+            invariant = isPageInvariantNode(sc);
+            pageInvariant.put(sc, invariant);
+        }
+        return invariant;
+    }
+
+    private static boolean isPageInvariantNode(FONode node) {
+        if (node instanceof PageNumber
+                || node instanceof AbstractPageNumberCitation
+                || node instanceof AbstractRetrieveMarker
+                || node instanceof ChangeBar
+                || (node instanceof BasicLink && ((BasicLink) node).hasInternalDestination())) {
+            return false;
+        }
+        if (node instanceof FObj) {
+            String id = ((FObj) node).getId();
+            if (id != null && id.length() > 0) {
+                return false;
+            }
+        }
+        for (FONode.FONodeIterator it = node.getChildNodes(); it != null && it.hasNext();) {
+            if (!isPageInvariantNode(it.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
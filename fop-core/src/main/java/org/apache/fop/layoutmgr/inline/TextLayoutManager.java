@@ -45,9 +45,11 @@ import org.apache.fop.layoutmgr.KnuthPenalty;
 import org.apache.fop.layoutmgr.KnuthSequence;
 import org.apache.fop.layoutmgr.LayoutContext;
 import org.apache.fop.layoutmgr.LeafPosition;
+import org.apache.fop.layoutmgr.PageSequenceLayoutManager;
 import org.apache.fop.layoutmgr.Position;
 import org.apache.fop.layoutmgr.PositionIterator;
 import org.apache.fop.layoutmgr.TraitSetter;
+import org.apache.fop.text.linebreak.LineBreakScanner;
 import org.apache.fop.text.linebreak.LineBreakStatus;
 import org.apache.fop.traits.MinOptMax;
 import org.apache.fop.traits.SpaceVal;
@@ -146,6 +148,13 @@ public class TextLayoutManager extends LeafNodeLayoutManager {
         this.userAgent = userAgent;
     }
 
+    /** Returns the line break scanner shared by the text of the page-sequence. */
+    private LineBreakScanner getLineBreakScanner() {
+        PageSequenceLayoutManager pslm = getPSLM();
+        LineBreakScanner scanner = pslm != null ? pslm.getLineBreakScanner() : null;
+        return scanner != null ? scanner : new LineBreakScanner();
+    }
+
     private KnuthPenalty makeZeroWidthPenalty(int penaltyValue) {
         return new KnuthPenalty(0, penaltyValue, false, auxiliaryPosition, true);
     }
@@ -771,7 +780,11 @@ public class TextLayoutManager extends LeafNodeLayoutManager {
         if (LOG.isDebugEnabled()) {
             LOG.debug("GK: [" + nextStart + "," + foText.length() + "]");
         }
-        LineBreakStatus lineBreakStatus = new LineBreakStatus();
+        final int scanStart = nextStart;
+        byte[] breakActions = null;
+        if (!keepTogether) {
+            breakActions = getLineBreakScanner().scan(foText, scanStart, foText.length());
+        }
         thisStart = nextStart;
         boolean inWord = false;
         boolean inWhitespace = false;
@@ -785,7 +798,7 @@ public class TextLayoutManager extends LeafNodeLayoutManager {
             boolean breakOpportunity = false;
             byte breakAction = keepTogether
                     ? LineBreakStatus.PROHIBITED_BREAK
-                    : lineBreakStatus.nextChar(ch);
+                    : breakActions[nextStart - scanStart];
             switch (breakAction) {
                 case LineBreakStatus.COMBINING_PROHIBITED_BREAK:
                 case LineBreakStatus.PROHIBITED_BREAK:
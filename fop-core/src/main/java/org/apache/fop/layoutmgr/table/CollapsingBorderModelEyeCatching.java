@@ -31,16 +31,22 @@ import org.apache.fop.fo.properties.CommonBorderPaddingBackground.BorderInfo;
  */
 public class CollapsingBorderModelEyeCatching extends CollapsingBorderModel {
 
+    /** The winner of two discarded borders. */
+    private static final BorderSpecification DISCARDED = BorderSpecification.getInstance(
+            CommonBorderPaddingBackground.getDefaultBorderInfo(), 0/*TODO*/);
+
     /** {@inheritDoc} */
     public BorderSpecification determineWinner(BorderSpecification border1,
             BorderSpecification border2, boolean discard) {
+        if (border1 == border2 && !(discard && border1.getBorderInfo().getWidth().isDiscard())) {
+            return border1;
+        }
         BorderInfo bi1 = border1.getBorderInfo();
         BorderInfo bi2 = border2.getBorderInfo();
         if (discard) {
             if (bi1.getWidth().isDiscard()) {
                 if (bi2.getWidth().isDiscard()) {
-                    return new BorderSpecification(
-                            CommonBorderPaddingBackground.getDefaultBorderInfo(), 0/*TODO*/);
+                    return DISCARDED;
                 } else {
                     return border2;
                 }
@@ -55,6 +61,11 @@ public class CollapsingBorderModelEyeCatching extends CollapsingBorderModel {
     /** {@inheritDoc} */
     public BorderSpecification determineWinner(BorderSpecification border1,
             BorderSpecification border2) {
+        // Border specifications are shared, so identical borders are usually the same
+        // instance and need no further resolution
+        if (border1 == border2) {
+            return border1;
+        }
         BorderInfo bi1 = border1.getBorderInfo();
         BorderInfo bi2 = border2.getBorderInfo();
         // Rule 1
@@ -19,6 +19,7 @@
 
 package org.apache.fop.layoutmgr.table;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -128,6 +129,25 @@ class RowGroupLayoutManager {
         List elements = tableStepper.getCombinedKnuthElementsForRowGroup(context,
                 rowGroup, bodyType);
         returnList.addAll(elements);
+        compactCellElements();
+    }
+
+    /**
+     * Replaces the element lists of the cells, which are no longer modified once the
+     * combined element list has been created, with array-based copies. They are kept until
+     * the areas of the cells are added, which for long tables means that the elements of
+     * many row groups are held at once, and they are accessed by index when doing so.
+     */
+    private void compactCellElements() {
+        for (EffRow row : rowGroup) {
+            for (Object o : row.getGridUnits()) {
+                GridUnit gu = (GridUnit) o;
+                if (gu.isPrimary()) {
+                    PrimaryGridUnit primary = gu.getPrimary();
+                    primary.setElements(new ArrayList(primary.getElements()));
+                }
+            }
+        }
     }
 
     /**
@@ -35,6 +35,7 @@ import org.apache.fop.fo.flow.table.EmptyGridUnit;
 import org.apache.fop.fo.flow.table.GridUnit;
 import org.apache.fop.fo.flow.table.PrimaryGridUnit;
 import org.apache.fop.fo.flow.table.Table;
+import org.apache.fop.fo.flow.table.TableBody;
 import org.apache.fop.fo.flow.table.TableColumn;
 import org.apache.fop.fo.flow.table.TablePart;
 import org.apache.fop.fo.properties.CommonBorderPaddingBackground;
@@ -311,6 +312,12 @@ class RowPainter {
                         firstCellParts[i].start, lastCellParts[i].end,
                         actualRowHeight, borderBeforeWhich, borderAfterWhich,
                         lastOnPage);
+                if (lastCellParts[i].isLastPart()
+                        && firstCellParts[i].pgu.getTablePart() instanceof TableBody) {
+                    // Unlike those of headers and footers, the areas of body cells are
+                    // added only once
+                    firstCellParts[i].pgu.releaseCellLM();
+                }
                 firstCellParts[i] = null; // why? what about the lastCellParts[i]?
                 Arrays.fill(firstCellOnPage, i, i + currentGU.getCell().getNumberColumnsSpanned(),
                         false);
@@ -289,6 +289,8 @@ public class TableStepper {
         } while (step >= 0);
         assert !returnList.isEmpty();
         lastTCPos.setFlag(TableContentPosition.LAST_IN_ROWGROUP, true);
+        // the row group has been handled, do not keep its cells alive until the next one
+        setup(null);
         return returnList;
     }
 
@@ -20,8 +20,13 @@
 package org.apache.fop.pdf;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.output.CountingOutputStream;
 
@@ -41,6 +46,9 @@ public abstract class AbstractPDFStream extends PDFObject {
 
     private PDFNumber refLength = new PDFNumber();
 
+    /** The stream encoded ahead of its output, see {@link #encodeAhead(ExecutorService)}. */
+    private Future<StreamCache> encodedAhead;
+
     protected AbstractPDFStream() {
         this(true);
     }
@@ -166,7 +174,7 @@ public abstract class AbstractPDFStream extends PDFObject {
      */
     protected StreamCache encodeStream() throws IOException {
         //Allocate a temporary buffer to find out the size of the encoded stream
-        final StreamCache encodedStream = StreamCacheFactory.getInstance()
+        final StreamCache encodedStream = getStreamCacheFactory()
                 .createStreamCache(getSizeHint());
         OutputStream filteredOutput
                 = getFilterList().applyFilters(encodedStream.getOutputStream());
@@ -176,6 +184,16 @@ public abstract class AbstractPDFStream extends PDFObject {
         return encodedStream;
     }
 
+    /**
+     * Returns the factory for the stream caches of this stream, which is that of its
+     * document if it has one.
+     * @return the stream cache factory
+     */
+    protected StreamCacheFactory getStreamCacheFactory() {
+        PDFDocument doc = getDocument();
+        return doc != null ? doc.getStreamCacheFactory() : StreamCacheFactory.getInstance();
+    }
+
     /**
      * Encodes and writes a stream directly to an OutputStream. The length of
      * the stream, in this case, is set on a PDFNumber object that has to be
@@ -210,6 +228,45 @@ public abstract class AbstractPDFStream extends PDFObject {
         return bytesWritten;
     }
 
+    /**
+     * Starts encoding this stream on the given executor, so that the encoded data is ready
+     * when the stream is output. Neither the data nor the dictionary of the stream may change
+     * afterwards. Streams of encrypted documents are encoded when they are output, as usual,
+     * since the encryption keys are derived with state shared by the whole document.
+     *
+     * @param executor the executor to encode the stream with
+     */
+    public void encodeAhead(ExecutorService executor) {
+        if (encodedAhead != null || getDocumentSafely().isEncryptionActive()) {
+            return;
+        }
+        setupFilterList();
+        encodedAhead = executor.submit(new Callable<StreamCache>() {
+            public StreamCache call() throws IOException {
+                return encodeStream();
+            }
+        });
+    }
+
+    private StreamCache getEncodedAhead() throws IOException {
+        try {
+            return encodedAhead.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while encoding a stream");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
     /**
      * Overload the base object method so we don't have to copy
      * byte arrays around so much
@@ -217,14 +274,20 @@ public abstract class AbstractPDFStream extends PDFObject {
      */
     @Override
     public int output(OutputStream stream) throws IOException {
-        setupFilterList();
+        if (encodedAhead == null) {
+            setupFilterList();
+        }
 
         CountingOutputStream cout = new CountingOutputStream(stream);
         StringBuilder textBuffer = new StringBuilder(64);
 
         StreamCache encodedStream = null;
         final Object lengthEntry;
-        if (encodeOnTheFly) {
+        if (encodedAhead != null) {
+            encodedStream = getEncodedAhead();
+            encodedAhead = null;
+            lengthEntry = encodedStream.getSize();
+        } else if (encodeOnTheFly) {
             if (!refLength.hasObjectNumber()) {
                 registerChildren();
             }
@@ -28,6 +28,10 @@ import org.apache.fop.pdf.xref.CompressedObjectReference;
  * Manages a collection of object streams, creating new streams as necessary to keep the
  * number of objects in each stream at the recommended value. Streams are related to each
  * other through the use of the Extends entry in the stream dictionary.
+ * <p>
+ * The streams are normally written with the trailer. When streaming, each stream is instead
+ * handed over for output with the next call to {@link PDFDocument#output} as soon as it is
+ * full, so that the objects in it do not have to be kept in memory.
  */
 class ObjectStreamManager {
 
@@ -41,8 +45,15 @@ class ObjectStreamManager {
 
     private ObjectStream currentObjectStream;
 
+    private final boolean streaming;
+
     ObjectStreamManager(PDFDocument pdfDocument) {
+        this(pdfDocument, false);
+    }
+
+    ObjectStreamManager(PDFDocument pdfDocument, boolean streaming) {
         this.pdfDocument = pdfDocument;
+        this.streaming = streaming;
         createObjectStream();
         compressedObjectReferences = new ArrayList<CompressedObjectReference>();
     }
@@ -56,11 +67,28 @@ class ObjectStreamManager {
     }
 
     private void createObjectStream() {
-        currentObjectStream = currentObjectStream == null
+        ObjectStream previous = currentObjectStream;
+        currentObjectStream = previous == null
                 ? new ObjectStream()
-                : new ObjectStream(currentObjectStream);
+                : new ObjectStream(previous);
         pdfDocument.assignObjectNumber(currentObjectStream);
-        pdfDocument.addTrailerObject(currentObjectStream);
+        if (!streaming) {
+            pdfDocument.addTrailerObject(currentObjectStream);
+        } else if (previous != null) {
+            // refer to the previous stream so it can be released once written
+            currentObjectStream.put("Extends", previous.makeReference());
+            pdfDocument.addObject(previous);
+        }
+    }
+
+    /**
+     * Hands the last object stream over for output when streaming. No more objects may be
+     * added afterwards.
+     */
+    void finish() {
+        if (streaming) {
+            pdfDocument.addObject(currentObjectStream);
+        }
     }
 
     List<CompressedObjectReference> getCompressedObjectReferences() {
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.pdf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Byte-oriented writer for PDF content streams. Text is encoded to ISO-8859-1 (the
+ * encoding of {@link PDFDocument#ENCODING}) while it is copied into an internal buffer,
+ * numbers are formatted directly into that buffer and operators can be written as
+ * pre-encoded byte arrays (see {@link #encode(String)}), so writing content does not
+ * create intermediate strings.
+ * <p>
+ * Numbers are formatted exactly like {@link PDFNumber#doubleOut(double, int)}.
+ * Instances are not thread-safe.
+ */
+public class PDFContentWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The maximum number of bytes a formatted number may take on the fast path. */
+    private static final int MAX_NUMBER_LENGTH = 24;
+
+    private static final byte[] DIGITS = encode("0123456789");
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int count;
+    private StringBuffer numberBuffer;
+    private char[] charBuffer;
+
+    /**
+     * Creates a new writer.
+     * @param out the stream the content is written to when the buffer is flushed
+     */
+    public PDFContentWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Encodes a string (usually a PDF operator) so it can be written with
+     * {@link #write(byte[])}.
+     * @param s the string to encode
+     * @return the encoded bytes
+     */
+    public static byte[] encode(String s) {
+        return PDFDocument.encode(s);
+    }
+
+    /**
+     * Writes pre-encoded bytes.
+     * @param bytes the bytes to write
+     * @return this writer
+     */
+    public PDFContentWriter write(byte[] bytes) {
+        if (bytes.length > buf.length - count) {
+            flushBuffer();
+            if (bytes.length > buf.length) {
+                writeDirect(bytes);
+                return this;
+            }
+        }
+        System.arraycopy(bytes, 0, buf, count, bytes.length);
+        count += bytes.length;
+        return this;
+    }
+
+    /**
+     * Writes a single character.
+     * @param c the character
+     * @return this writer
+     */
+    public PDFContentWriter write(char c) {
+        if (count == buf.length) {
+            flushBuffer();
+        }
+        buf[count++] = encode(c);
+        return this;
+    }
+
+    /**
+     * Writes a character sequence.
+     * @param s the characters to write
+     * @return this writer
+     */
+    public PDFContentWriter write(CharSequence s) {
+        return write(s, 0, s.length());
+    }
+
+    /**
+     * Writes the content of a string buffer.
+     * @param sb the string buffer
+     * @return this writer
+     */
+    public PDFContentWriter write(StringBuffer sb) {
+        int length = sb.length();
+        if (charBuffer == null || charBuffer.length < length) {
+            charBuffer = new char[Math.max(length, 256)];
+        }
+        sb.getChars(0, length, charBuffer, 0);
+        return write(charBuffer, 0, length);
+    }
+
+    /**
+     * Writes part of a character sequence.
+     * @param s the characters to write
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return this writer
+     */
+    public PDFContentWriter write(CharSequence s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                //Unmappable supplementary character
+                i++;
+            }
+            if (count == buf.length) {
+                flushBuffer();
+            }
+            buf[count++] = encode(c);
+        }
+        return this;
+    }
+
+    /**
+     * Writes part of a character array.
+     * @param chars the characters to write
+     * @param off the index of the first character
+     * @param len the number of characters to write
+     * @return this writer
+     */
+    public PDFContentWriter write(char[] chars, int off, int len) {
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            char c = chars[i];
+            if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(chars[i + 1])) {
+                //Unmappable supplementary character
+                i++;
+            }
+            if (count == buf.length) {
+                flushBuffer();
+            }
+            buf[count++] = encode(c);
+        }
+        return this;
+    }
+
+    /**
+     * Writes an integer.
+     * @param value the value
+     * @return this writer
+     */
+    public PDFContentWriter writeInt(long value) {
+        ensureCapacity(MAX_NUMBER_LENGTH);
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                return write(Long.toString(value));
+            }
+            buf[count++] = '-';
+            value = -value;
+        }
+        writeDigits(value, 0);
+        return this;
+    }
+
+    /**
+     * Writes a number with up to 6 decimal places.
+     * @param value the value
+     * @return this writer
+     * @see PDFNumber#doubleOut(double)
+     */
+    public PDFContentWriter writeNumber(double value) {
+        return writeNumber(value, 6);
+    }
+
+    /**
+     * Writes a number with up to the given number of decimal places, trailing zeros
+     * removed.
+     * @param value the value
+     * @param dec the maximum number of decimal places
+     * @return this writer
+     * @see PDFNumber#doubleOut(double, int)
+     */
+    public PDFContentWriter writeNumber(double value, int dec) {
+        long scaled = PDFNumber.toScaledLong(value, dec);
+        if (scaled == PDFNumber.NOT_SCALED) {
+            if (numberBuffer == null) {
+                numberBuffer = new StringBuffer();
+            }
+            numberBuffer.setLength(0);
+            PDFNumber.doubleOut(value, dec, numberBuffer);
+            return write(numberBuffer);
+        }
+        ensureCapacity(MAX_NUMBER_LENGTH);
+        if (scaled < 0) {
+            buf[count++] = '-';
+            scaled = -scaled;
+        }
+        long unit = PDFNumber.tenPow(dec);
+        writeDigits(scaled / unit, 0);
+        long fraction = scaled % unit;
+        if (fraction != 0) {
+            int digits = dec;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            buf[count++] = '.';
+            writeDigits(fraction, digits);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a number followed by a space, as used for operands.
+     * @param value the value
+     * @return this writer
+     */
+    public PDFContentWriter writeOperand(double value) {
+        return writeNumber(value).write(' ');
+    }
+
+    /**
+     * Writes all buffered bytes to the underlying stream.
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        if (count > 0) {
+            out.write(buf, 0, count);
+            count = 0;
+        }
+    }
+
+    private void writeDigits(long value, int minDigits) {
+        int digits = 1;
+        for (long v = value / 10; v != 0; v /= 10) {
+            digits++;
+        }
+        if (digits < minDigits) {
+            for (int i = digits; i < minDigits; i++) {
+                buf[count++] = '0';
+            }
+        }
+        int pos = count + digits;
+        count = pos;
+        do {
+            buf[--pos] = DIGITS[(int) (value % 10)];
+            value /= 10;
+        } while (value != 0);
+    }
+
+    private void ensureCapacity(int length) {
+        if (buf.length - count < length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() {
+        try {
+            flush();
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    private void writeDirect(byte[] bytes) {
+        try {
+            out.write(bytes);
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    private static byte encode(char c) {
+        return (byte) (c < 256 ? c : '?');
+    }
+}
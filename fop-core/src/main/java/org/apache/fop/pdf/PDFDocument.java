@@ -29,6 +29,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +37,7 @@ import java.util.Map;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.apache.fop.fonts.truetype.TTFSubSetCache;
 import org.apache.fop.pdf.StandardStructureAttributes.Table.Scope;
 import org.apache.fop.pdf.xref.CrossReferenceStream;
 import org.apache.fop.pdf.xref.CrossReferenceTable;
@@ -84,6 +86,13 @@ public class PDFDocument {
 
     protected List<PDFStructElem> structureTreeElements;
 
+    /**
+     * The structure elements of the page-sequences still being rendered, by the element of
+     * their page-sequence. Only used if structure tree streaming is enabled.
+     */
+    private final Map<PDFStructElem, List<PDFStructElem>> pageSequenceStructureElements
+            = new IdentityHashMap<PDFStructElem, List<PDFStructElem>>();
+
     /** List of objects to write in the trailer */
     protected List<PDFObject> trailerObjects = new ArrayList<PDFObject>();
 
@@ -176,6 +185,16 @@ public class PDFDocument {
 
     private boolean formXObjectEnabled;
 
+    private boolean structureTreeStreamingEnabled;
+
+    private boolean parallelPageEncodingEnabled;
+
+    private StreamCacheFactory streamCacheFactory = StreamCacheFactory.getInstance();
+
+    private TTFSubSetCache fontSubsetCache;
+
+    private ObjectStreamManager structureTreeObjectStreams;
+
     protected boolean outputStarted;
 
     /**
@@ -384,7 +403,34 @@ public class PDFDocument {
      */
     public void registerStructureElement(PDFStructElem structElem) {
         assignObjectNumber(structElem);
-        structureTreeElements.add(structElem);
+        PDFStructElem pageSequence = isStructureTreeStreamingEnabled()
+                ? getPageSequence(structElem) : null;
+        if (pageSequence == null) {
+            structureTreeElements.add(structElem);
+        } else {
+            List<PDFStructElem> elements = pageSequenceStructureElements.get(pageSequence);
+            if (elements == null) {
+                elements = new ArrayList<PDFStructElem>();
+                pageSequenceStructureElements.put(pageSequence, elements);
+            }
+            elements.add(structElem);
+        }
+    }
+
+    /**
+     * Returns the element of the page-sequence the given element belongs to, that is, its
+     * ancestor-or-self that is a child of the root structure element.
+     */
+    private static PDFStructElem getPageSequence(PDFStructElem structElem) {
+        PDFStructElem parent = structElem.getParentStructElem();
+        if (parent == null) {
+            return null;
+        }
+        while (parent.getParentStructElem() != null) {
+            structElem = parent;
+            parent = parent.getParentStructElem();
+        }
+        return structElem;
     }
 
     /**
@@ -396,6 +442,47 @@ public class PDFDocument {
         versionController.addTableHeaderScopeAttribute(structElem, scope);
     }
 
+    /**
+     * Hands the registered structure elements of the given page-sequence over for output with
+     * the next call to {@link #output(OutputStream)}, if structure tree streaming is enabled.
+     * All the pages of the page-sequence must have been rendered, i.e. no more kids may be
+     * added to its elements.
+     *
+     * @param pageSequence the structure element of a finished page-sequence
+     */
+    public void outputStructureElements(PDFStructElem pageSequence) {
+        List<PDFStructElem> elements = pageSequenceStructureElements.remove(pageSequence);
+        if (elements == null) {
+            return;
+        }
+        for (PDFStructElem structElem : elements) {
+            if (mayCompressStructureTreeElements()) {
+                getStructureTreeObjectStreams().add(structElem);
+            } else {
+                addObject(structElem);
+            }
+        }
+    }
+
+    /**
+     * Moves the elements of page-sequences that were never finished back to the structure
+     * elements written with the trailer.
+     */
+    private void collectPageSequenceStructureElements() {
+        for (List<PDFStructElem> elements : pageSequenceStructureElements.values()) {
+            structureTreeElements.addAll(elements);
+        }
+        pageSequenceStructureElements.clear();
+    }
+
+    private ObjectStreamManager getStructureTreeObjectStreams() {
+        if (structureTreeObjectStreams == null) {
+            structureTreeObjectStreams = new ObjectStreamManager(this,
+                    isStructureTreeStreamingEnabled());
+        }
+        return structureTreeObjectStreams;
+    }
+
     /**
      * Get the {@link PDFInfo} object for this document.
      *
@@ -1003,6 +1090,7 @@ public class PDFDocument {
                 ? new CompressedTrailerOutputHelper()
                 : new UncompressedTrailerOutputHelper();
         if (structureTreeElements != null) {
+            collectPageSequenceStructureElements();
             trailerOutputHelper.outputStructureTreeElements(stream);
         }
         TrailerDictionary trailerDictionary = createTrailerDictionary(mainOffset != 0);
@@ -1116,6 +1204,7 @@ public class PDFDocument {
                 ? new CompressedTrailerOutputHelper()
                 : new UncompressedTrailerOutputHelper();
         if (structureTreeElements != null) {
+            collectPageSequenceStructureElements();
             trailerOutputHelper.outputStructureTreeElements(stream);
         }
         streamIndirectObjects(trailerObjects, stream);
@@ -1185,14 +1274,17 @@ public class PDFDocument {
 
     private class CompressedTrailerOutputHelper implements TrailerOutputHelper {
 
-        private ObjectStreamManager structureTreeObjectStreams;
-
         public void outputStructureTreeElements(OutputStream stream)
                 throws IOException {
             assert structureTreeElements.size() > 0;
-            structureTreeObjectStreams = new ObjectStreamManager(PDFDocument.this);
+            ObjectStreamManager objectStreams = getStructureTreeObjectStreams();
             for (PDFStructElem structElem : structureTreeElements) {
-                structureTreeObjectStreams.add(structElem);
+                objectStreams.add(structElem);
+            }
+            if (isStructureTreeStreamingEnabled()) {
+                //Write out the object streams that are still queued
+                objectStreams.finish();
+                output(stream);
             }
         }
 
@@ -1202,7 +1294,7 @@ public class PDFDocument {
             assert objects.isEmpty();
             new CrossReferenceStream(PDFDocument.this, ++objectcount, trailerDictionary, position,
                     indirectObjectOffsets,
-                    structureTreeObjectStreams.getCompressedObjectReferences())
+                    getStructureTreeObjectStreams().getCompressedObjectReferences())
                     .output(stream);
             return position;
         }
@@ -1238,4 +1330,73 @@ public class PDFDocument {
     public void setFormXObjectEnabled(boolean b) {
         formXObjectEnabled = b;
     }
+
+    /**
+     * Indicates whether finished parts of the structure tree are written out while the
+     * document is being produced, rather than all at once with the trailer. This is not
+     * done when linearization is enabled.
+     *
+     * @return true if the structure tree is streamed
+     */
+    public boolean isStructureTreeStreamingEnabled() {
+        return structureTreeStreamingEnabled && !isLinearizationEnabled();
+    }
+
+    public void setStructureTreeStreamingEnabled(boolean b) {
+        structureTreeStreamingEnabled = b;
+    }
+
+    /**
+     * Indicates whether the content streams of finished pages are encoded on worker threads
+     * while the following pages are being produced. This is not done when linearization is
+     * enabled.
+     *
+     * @return true if page content streams are encoded in parallel
+     */
+    public boolean isParallelPageEncodingEnabled() {
+        return parallelPageEncodingEnabled && !isLinearizationEnabled();
+    }
+
+    public void setParallelPageEncodingEnabled(boolean b) {
+        parallelPageEncodingEnabled = b;
+    }
+
+    /**
+     * Returns the factory for the stream caches holding the data of the streams of this
+     * document.
+     *
+     * @return the stream cache factory
+     */
+    public StreamCacheFactory getStreamCacheFactory() {
+        return streamCacheFactory;
+    }
+
+    /**
+     * Sets the factory for the stream caches holding the data of the streams of this
+     * document. Streams that are added to the document later move their data to a cache
+     * of this factory.
+     *
+     * @param factory the stream cache factory
+     */
+    public void setStreamCacheFactory(StreamCacheFactory factory) {
+        streamCacheFactory = factory;
+    }
+
+    /**
+     * Returns the cache of TrueType font subsets that may be shared with other documents.
+     *
+     * @return the font subset cache, or null if font subsets are not cached
+     */
+    public TTFSubSetCache getFontSubsetCache() {
+        return fontSubsetCache;
+    }
+
+    /**
+     * Sets the cache of TrueType font subsets that may be shared with other documents.
+     *
+     * @param cache the font subset cache, or null to not cache font subsets
+     */
+    public void setFontSubsetCache(TTFSubSetCache cache) {
+        fontSubsetCache = cache;
+    }
 }
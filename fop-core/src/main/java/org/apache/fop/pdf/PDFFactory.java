@@ -62,6 +62,7 @@ import org.apache.fop.fonts.Typeface;
 import org.apache.fop.fonts.truetype.FontFileReader;
 import org.apache.fop.fonts.truetype.OFFontLoader;
 import org.apache.fop.fonts.truetype.OTFSubSetFile;
+import org.apache.fop.fonts.truetype.TTFSubSetCache;
 import org.apache.fop.fonts.truetype.TTFSubSetFile;
 import org.apache.fop.fonts.type1.PFBData;
 import org.apache.fop.fonts.type1.PFBParser;
@@ -1387,10 +1388,20 @@ public class PDFFactory {
             AbstractPDFStream embeddedFont = null;
             if (desc.getFontType() == FontType.TYPE0) {
                 MultiByteFont mbfont = (MultiByteFont) font;
+                boolean isCFF = mbfont.isOTFFile();
+                TTFSubSetCache subsetCache = document.getFontSubsetCache();
+                if (subsetCache != null && !isCFF && font.getEmbeddingMode() != EmbeddingMode.FULL) {
+                    //a subset of a local font file can be found without reading the file
+                    byte[] cachedSubset = subsetCache.getCachedSubset(
+                            mbfont.getResolvedEmbedFileURI(), mbfont.getTTCName(),
+                            mbfont.getUsedGlyphs());
+                    if (cachedSubset != null) {
+                        return getFontStream(font, cachedSubset, false);
+                    }
+                }
                 FontFileReader reader = new FontFileReader(in);
                 byte[] fontBytes;
                 String header = OFFontLoader.readHeader(reader);
-                boolean isCFF = mbfont.isOTFFile();
                 if (font.getEmbeddingMode() == EmbeddingMode.FULL) {
                     fontBytes = reader.getAllBytes();
                     if (isCFF) {
@@ -1472,6 +1483,12 @@ public class PDFFactory {
             OTFSubSetFile otfFile = new OTFSubSetFile();
             otfFile.readFont(reader, fontPrefix + desc.getEmbedFontName(), mbfont);
             return otfFile.getFontSubset();
+        } else if (document.getFontSubsetCache() != null
+                && mbfont.getResolvedEmbedFileURI() != null) {
+            //the same glyphs of a font are often subset again for every document
+            return document.getFontSubsetCache().getFontSubset(
+                    mbfont.getResolvedEmbedFileURI(), reader, mbfont.getTTCName(), header,
+                    mbfont.getUsedGlyphs());
         } else {
             TTFSubSetFile otfFile = new TTFSubSetFile();
             otfFile.readFont(reader, mbfont.getTTCName(), header, mbfont.getUsedGlyphs());
@@ -37,6 +37,8 @@ public class PDFLinearization {
     private Map<PDFPage, Set<PDFObject>> pageObjsMap = new HashMap<PDFPage, Set<PDFObject>>();
     private PDFDictionary linearDict;
     private HintTable hintTable;
+    /** The objects after those of the first page that have not been written yet, in object number order */
+    private Set<PDFObject> pending;
 
     public PDFLinearization(PDFDocument doc) {
         this.doc = doc;
@@ -254,10 +256,10 @@ public class PDFLinearization {
         }
         Set<PDFObject> page1Children = assignNumbers();
         doc.streamIndirectObject(linearDict, new ByteArrayOutputStream());
-        for (PDFObject o : page1Children) {
-            doc.objects.remove(o);
-        }
-        int sizeOfRest = doc.objects.size();
+        pending = new LinkedHashSet<PDFObject>(doc.objects);
+        pending.removeAll(page1Children);
+        doc.objects.clear();
+        int sizeOfRest = pending.size();
 
         ByteArrayOutputStream fakeHeaderTrailerStream = new ByteArrayOutputStream();
         long topTrailer = doc.position;
@@ -265,8 +267,9 @@ public class PDFLinearization {
                 page1Children.size() + sizeOfRest + 1, Long.MAX_VALUE, 0);
         doc.position += fakeHeaderTrailerStream.size();
 
-        ByteArrayOutputStream pageStream = new ByteArrayOutputStream();
-        writeObjects(page1Children, pageStream, sizeOfRest + 1);
+        //The rest of the file goes to a stream cache, which may spill it to disk
+        StreamCache pageStream = doc.getStreamCacheFactory().createStreamCache();
+        writeObjects(page1Children, pageStream.getOutputStream(), sizeOfRest + 1);
         long trailerOffset = doc.position;
         ByteArrayOutputStream footerTrailerStream = new ByteArrayOutputStream();
         doc.writeTrailer(footerTrailerStream, 0, sizeOfRest, sizeOfRest, 0, topTrailer);
@@ -285,7 +288,8 @@ public class PDFLinearization {
                 break;
             }
         }
-        stream.write(pageStream.toByteArray());
+        pageStream.outputContents(stream);
+        pageStream.clear();
         stream.write(footerTrailerStream.toByteArray());
     }
 
@@ -324,8 +328,9 @@ public class PDFLinearization {
                 writePage(page, pageStream);
             }
         }
-        while (!doc.objects.isEmpty()) {
-            PDFObject o = doc.objects.remove(0);
+        while (!pending.isEmpty()) {
+            PDFObject o = pending.iterator().next();
+            pending.remove(o);
             if (o instanceof PDFOutline) {
                 writeObjectGroup("/O", getChildren(o), pageStream);
             } else if (o instanceof PDFDests) {
@@ -354,7 +359,7 @@ public class PDFLinearization {
         values[2] = children.size();
         for (PDFObject o : children) {
             values[3] += doc.streamIndirectObject(o, pageStream);
-            doc.objects.remove(o);
+            pending.remove(o);
         }
     }
 
@@ -406,13 +411,12 @@ public class PDFLinearization {
         int pageLen = 0;
         int objCount = 0;
         for (PDFObject c : children) {
-            if (doc.objects.contains(c)) {
+            if (pending.remove(c)) {
                 int len = doc.streamIndirectObject(c, pageStream);
                 if (c instanceof PDFStream) {
                     hintTable.contentStreamLengths.set(page.pageIndex, len);
                 }
                 pageLen += len;
-                doc.objects.remove(c);
                 objCount++;
             }
         }
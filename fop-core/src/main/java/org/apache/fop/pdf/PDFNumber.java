@@ -27,6 +27,24 @@ import org.apache.xmlgraphics.util.DoubleFormatUtil;
  */
 public class PDFNumber extends PDFObject {
 
+    /** Returned by {@link #toScaledLong(double, int)} if a value has to be formatted precisely. */
+    static final long NOT_SCALED = Long.MIN_VALUE;
+
+    /** Largest scaled value for which the fast path is exact enough (ulp below 1/8000). */
+    private static final double MAX_SCALED = 1e12;
+
+    /** Scaled values this close to a rounding tie are formatted precisely. */
+    private static final double TIE_RANGE = 0.001;
+
+    private static final long[] POWERS_OF_TEN = new long[17];
+
+    static {
+        POWERS_OF_TEN[0] = 1L;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10L;
+        }
+    }
+
     private Number number;
 
     public PDFNumber() {
@@ -87,7 +105,7 @@ public class PDFNumber extends PDFObject {
             throw new IllegalArgumentException("Parameter dec must be between 1 and 16");
         }
         StringBuffer buf = new StringBuffer();
-        DoubleFormatUtil.formatDouble(doubleDown, dec, dec, buf);
+        doubleOut(doubleDown, dec, buf);
         return buf.toString();
     }
 
@@ -105,10 +123,65 @@ public class PDFNumber extends PDFObject {
         if (dec < 0 || dec > 16) {
             throw new IllegalArgumentException("Parameter dec must be between 1 and 16");
         }
-        DoubleFormatUtil.formatDouble(doubleDown, dec, dec, buf);
+        long scaled = toScaledLong(doubleDown, dec);
+        if (scaled == NOT_SCALED) {
+            DoubleFormatUtil.formatDouble(doubleDown, dec, dec, buf);
+        } else {
+            if (scaled < 0) {
+                buf.append('-');
+                scaled = -scaled;
+            }
+            long unit = POWERS_OF_TEN[dec];
+            buf.append(scaled / unit);
+            long fraction = scaled % unit;
+            if (fraction != 0) {
+                int digits = dec;
+                while (fraction % 10 == 0) {
+                    fraction /= 10;
+                    digits--;
+                }
+                buf.append('.');
+                while (fraction < POWERS_OF_TEN[--digits]) {
+                    buf.append('0');
+                }
+                buf.append(fraction);
+            }
+        }
         return buf;
     }
 
+    /**
+     * Rounds a value to the given number of decimal places and returns it scaled by
+     * 10<sup>dec</sup>, using the same half-up rounding of the decimal representation as
+     * {@link DoubleFormatUtil#formatDouble(double, int, int, StringBuffer)}. Values which
+     * cannot be rounded reliably with double arithmetic (very large values, values close to
+     * a rounding tie, NaN and infinity) are not handled.
+     * @param value the value
+     * @param dec the number of decimal places (0 to 16)
+     * @return the rounded and scaled value, or {@link #NOT_SCALED}
+     */
+    static long toScaledLong(double value, int dec) {
+        double scaled = Math.abs(value) * POWERS_OF_TEN[dec];
+        if (!(scaled < MAX_SCALED)) {
+            return NOT_SCALED;
+        }
+        double fraction = scaled - Math.floor(scaled);
+        if (Math.abs(fraction - 0.5) <= TIE_RANGE) {
+            return NOT_SCALED;
+        }
+        long rounded = Math.round(scaled);
+        return value < 0 ? -rounded : rounded;
+    }
+
+    /**
+     * Returns ten to the power of n.
+     * @param n the exponent (0 to 16)
+     * @return 10<sup>n</sup>
+     */
+    static long tenPow(int n) {
+        return POWERS_OF_TEN[n];
+    }
+
     /** {@inheritDoc} */
     protected String toPDFString() {
         if (getNumber() == null) {
@@ -26,6 +26,9 @@ public class PDFParentTree extends PDFNumberTreeNode {
 
     private static final int MAX_NUMS_ARRAY_SIZE = 50;
 
+    /** The number of kids that have been handed over for output. */
+    private int outputKids;
+
     public PDFParentTree() {
         put("Kids", new PDFArray());
     }
@@ -54,10 +57,34 @@ public class PDFParentTree extends PDFNumberTreeNode {
     private void addKid(PDFObject kid) {
         assert getDocument() != null;
         getDocument().assignObjectNumber(kid);
-        getDocument().addTrailerObject(kid);
+        if (!getDocument().isStructureTreeStreamingEnabled()) {
+            getDocument().addTrailerObject(kid);
+        }
         ((PDFArray) get("Kids")).add(kid);
     }
 
+    /**
+     * Hands the kids that can only hold numbers lower than the given one over for output
+     * with the next call to {@link PDFDocument#output}, if the structure tree is streamed.
+     * The Kids array then only keeps references to them. Otherwise the kids are written with
+     * the trailer.
+     *
+     * @param num the lowest number that may still be added to this tree
+     */
+    public void outputKidsBelow(int num) {
+        if (!getDocument().isStructureTreeStreamingEnabled()) {
+            return;
+        }
+        PDFArray kids = getKids();
+        while (outputKids < kids.length()
+                && (long) (outputKids + 1) * MAX_NUMS_ARRAY_SIZE <= num) {
+            PDFObject kid = (PDFObject) kids.get(outputKids);
+            getDocument().addObject(kid);
+            kids.set(outputKids, kid.makeReference());
+            outputKids++;
+        }
+    }
+
     private void insertItemToNumsArray(int array, int num, Object object) {
         assert getKids().get(array) instanceof PDFNumberTreeNode;
         PDFNumberTreeNode numsArray = (PDFNumberTreeNode) getKids().get(array);
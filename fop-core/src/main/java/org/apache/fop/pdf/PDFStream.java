@@ -22,7 +22,6 @@ package org.apache.fop.pdf;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -42,8 +41,26 @@ public class PDFStream extends AbstractPDFStream {
      */
     protected StreamCache data;
 
+    /** The factory that created the data cache */
+    private StreamCacheFactory dataFactory;
+
+    /** Writes to the output stream of the data cache, which may change from call to call */
+    private final transient OutputStream dataOutput = new OutputStream() {
+        public void write(int b) throws IOException {
+            data.getOutputStream().write(b);
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException {
+            data.getOutputStream().write(b, off, len);
+        }
+
+        public void flush() throws IOException {
+            data.getOutputStream().flush();
+        }
+    };
+
+    private transient PDFContentWriter contentWriter;
     private transient Writer streamWriter;
-    private transient char[] charBuffer;
 
     /**
      * Create an empty stream object
@@ -69,11 +86,9 @@ public class PDFStream extends AbstractPDFStream {
 
     private void setUp() {
         try {
-            data = StreamCacheFactory.getInstance().createStreamCache();
-            this.streamWriter = new OutputStreamWriter(
-                    getBufferOutputStream(), PDFDocument.ENCODING);
-            //Buffer to minimize calls to the converter
-            this.streamWriter = new java.io.BufferedWriter(this.streamWriter);
+            dataFactory = StreamCacheFactory.getInstance();
+            data = dataFactory.createStreamCache();
+            this.contentWriter = new PDFContentWriter(dataOutput);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -85,12 +100,7 @@ public class PDFStream extends AbstractPDFStream {
      * @param s the string of PDF to add
      */
     public void add(String s) {
-        try {
-            this.streamWriter.write(s);
-        } catch (IOException ex) {
-            //TODO throw the exception and catch it elsewhere
-            ex.printStackTrace();
-        }
+        this.contentWriter.write(s);
     }
 
     /**
@@ -99,30 +109,20 @@ public class PDFStream extends AbstractPDFStream {
      * @param sb the string buffer of PDF to add
      */
     public void add(StringBuffer sb) {
-        try {
-            int nHave = sb.length();
-            if (charBuffer == null) {
-                charBuffer = new char [ nHave * 2 ];
-            } else {
-                int nAvail = charBuffer.length;
-                if (nAvail < nHave) {
-                    int nAlloc = nAvail;
-                    while (nAlloc < nHave) {
-                        nAlloc *= 2;
-                    }
-                    charBuffer = new char [ nAlloc ];
-                }
-            }
-            sb.getChars(0, nHave, charBuffer, 0);
-            this.streamWriter.write(charBuffer, 0, nHave);
-        } catch (IOException ex) {
-            //TODO throw the exception and catch it elsewhere
-            ex.printStackTrace();
-        }
+        this.contentWriter.write(sb);
+    }
+
+    /**
+     * Returns the writer used to append PDF content to the stream. Text, numbers and
+     * operators written to it go straight into the stream's buffer.
+     * @return the content writer
+     */
+    public PDFContentWriter getContentWriter() {
+        return this.contentWriter;
     }
 
     private void flush() throws IOException {
-        this.streamWriter.flush();
+        this.contentWriter.flush();
     }
 
     /**
@@ -130,6 +130,25 @@ public class PDFStream extends AbstractPDFStream {
      * @return the Writer
      */
     public Writer getBufferWriter() {
+        if (this.streamWriter == null) {
+            this.streamWriter = new Writer() {
+                public void write(char[] cbuf, int off, int len) {
+                    contentWriter.write(cbuf, off, len);
+                }
+
+                public void write(String str) {
+                    contentWriter.write(str);
+                }
+
+                public void flush() throws IOException {
+                    contentWriter.flush();
+                }
+
+                public void close() throws IOException {
+                    contentWriter.flush();
+                }
+            };
+        }
         return this.streamWriter;
     }
 
@@ -140,9 +159,7 @@ public class PDFStream extends AbstractPDFStream {
      * @throws IOException In case of an I/O problem
      */
     public OutputStream getBufferOutputStream() throws IOException {
-        if (this.streamWriter != null) {
-            flush(); //Just to be sure
-        }
+        flush(); //Just to be sure
         return this.data.getOutputStream();
     }
 
@@ -152,6 +169,7 @@ public class PDFStream extends AbstractPDFStream {
      * @throws IOException in case of an I/O problem
      */
     public void setData(byte[] data) throws IOException {
+        flush();
         this.data.clear();
         this.data.write(data);
     }
@@ -194,6 +212,33 @@ public class PDFStream extends AbstractPDFStream {
         return len;
     }
 
+    @Override
+    public void setDocument(PDFDocument doc) {
+        super.setDocument(doc);
+        if (doc != null && doc.getStreamCacheFactory() != dataFactory) {
+            try {
+                moveData(doc.getStreamCacheFactory());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Moves the data written so far to a cache of the given factory, so the stream uses
+     * the caches of its document.
+     */
+    private void moveData(StreamCacheFactory factory) throws IOException {
+        flush();
+        StreamCache newData = factory.createStreamCache();
+        if (data.getSize() > 0) {
+            data.outputContents(newData.getOutputStream());
+        }
+        data.clear();
+        data = newData;
+        dataFactory = factory;
+    }
+
     public String streamHashCode() throws IOException {
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         outputRawStreamData(bos);
@@ -264,7 +264,23 @@ public class PDFStructElem extends StructureHierarchyMember
                 }
             }
         }
-        return super.output(stream);
+        int length = super.output(stream);
+        if (getDocument() != null && getDocument().isStructureTreeStreamingEnabled()) {
+            releaseKids();
+        }
+        return length;
+    }
+
+    /**
+     * Drops the kids and attributes of this element once it has been written, so that the
+     * finished parts of a streamed structure tree can be garbage collected while their
+     * ancestors are still being built.
+     */
+    protected void releaseKids() {
+        kids = null;
+        attributes = null;
+        remove("K");
+        remove("A");
     }
 
     private boolean isBSLE(String type) {
@@ -53,6 +53,9 @@ public abstract class PDFTextUtil {
     private boolean useMultiByte;
     private boolean useCid;
     private StringBuffer bufTJ;
+    /** Buffer for single operators, reused since {@link #write(StringBuffer)} copies its content */
+    private final StringBuffer buf = new StringBuffer();
+    private final double[] matrix = new double[6];
     private int textRenderingMode = TR_FILL;
 
     private String currentFontName;
@@ -78,7 +81,7 @@ public abstract class PDFTextUtil {
     protected abstract void write(StringBuffer code);
 
     private void writeAffineTransform(AffineTransform at, StringBuffer sb) {
-        double[] lt = new double[6];
+        double[] lt = matrix;
         at.getMatrix(lt);
         PDFNumber.doubleOut(lt[0], DEC, sb);
         sb.append(' ');
@@ -93,10 +96,16 @@ public abstract class PDFTextUtil {
         PDFNumber.doubleOut(lt[5], DEC, sb);
     }
 
+    private StringBuffer resetBuffer() {
+        buf.setLength(0);
+        return buf;
+    }
+
     private static void writeChar(int codePoint, StringBuffer sb, boolean multibyte, boolean cid) {
         if (!multibyte) {
             if (cid || codePoint < 32 || codePoint > 127) {
-                sb.append("\\").append(Integer.toOctalString(codePoint));
+                sb.append('\\');
+                appendOctal(codePoint, sb);
             } else {
                 switch (codePoint) {
                 case '(':
@@ -113,6 +122,17 @@ public abstract class PDFTextUtil {
         }
     }
 
+    /** Same as appending {@link Integer#toOctalString(int)}, without creating a string. */
+    private static void appendOctal(int value, StringBuffer sb) {
+        int digits = 1;
+        for (int v = value >>> 3; v != 0; v >>>= 3) {
+            digits++;
+        }
+        for (int shift = 3 * (digits - 1); shift >= 0; shift -= 3) {
+            sb.append((char) ('0' + ((value >>> shift) & 7)));
+        }
+    }
+
     private void writeChar(int codePoint, StringBuffer sb) {
         writeChar(codePoint, sb, useMultiByte, useCid);
     }
@@ -169,7 +189,7 @@ public abstract class PDFTextUtil {
     public void concatMatrix(AffineTransform at) {
         if (!at.isIdentity()) {
             writeTJ();
-            StringBuffer sb = new StringBuffer();
+            StringBuffer sb = resetBuffer();
             writeAffineTransform(at, sb);
             sb.append(" cm\n");
             write(sb);
@@ -183,7 +203,7 @@ public abstract class PDFTextUtil {
      */
     public void writeTf(String fontName, double fontSize) {
         checkInTextObject();
-        StringBuffer sb = new StringBuffer();
+        StringBuffer sb = resetBuffer();
         sb.append('/');
         sb.append(fontName);
         sb.append(' ');
@@ -252,7 +272,7 @@ public abstract class PDFTextUtil {
      * @param localTransform the new text transformation matrix
      */
     public void writeTextMatrix(AffineTransform localTransform) {
-        StringBuffer sb = new StringBuffer();
+        StringBuffer sb = resetBuffer();
         writeAffineTransform(localTransform, sb);
         sb.append(" Tm ");
         write(sb);
@@ -336,7 +356,7 @@ public abstract class PDFTextUtil {
      * @param y coordinate
      */
     public void writeTd(double x, double y) {
-        StringBuffer sb = new StringBuffer();
+        StringBuffer sb = resetBuffer();
         PDFNumber.doubleOut(x, DEC, sb);
         sb.append(' ');
         PDFNumber.doubleOut(y, DEC, sb);
@@ -349,7 +369,7 @@ public abstract class PDFTextUtil {
      * @param ch character code to write
      */
     public void writeTj(char ch, boolean multibyte, boolean cid) {
-        StringBuffer sb = new StringBuffer();
+        StringBuffer sb = resetBuffer();
         sb.append(startText);
         writeChar(ch, sb, multibyte, cid);
         sb.append(endText);
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Provides the memory segments of the {@link SegmentedStreamCache}s of a document and keeps
+ * the memory they use within a limit. Every buffer counts against the limit from the moment
+ * it is allocated. When a new or enlarged buffer would exceed the limit, the oldest full
+ * segments are appended to a spill file, which is shared by all caches of the document, and
+ * their buffers are reused.
+ * <p>
+ * A segment is full once its cache has filled it or its cache's output stream has been
+ * closed. The segment that a cache is still writing to cannot be spilled, so the limit is
+ * exceeded when those segments alone need more memory, that is, by up to
+ * {@link #SEGMENT_SIZE} bytes per stream that is still being written.
+ * <p>
+ * The spill file is deleted by {@link #close()}. If a document is abandoned without
+ * being closed, for example because rendering failed, its spill file is deleted once the
+ * pool has been garbage collected, the next time another pool spills.
+ */
+final class SegmentPool {
+
+    /** The size of a segment. */
+    static final int SEGMENT_SIZE = 32 * 1024;
+
+    private static final Log LOG = LogFactory.getLog(SegmentPool.class);
+
+    /** Receives the spill files of pools that were garbage collected without being closed. */
+    private static final ReferenceQueue<SegmentPool> ABANDONED = new ReferenceQueue<SegmentPool>();
+
+    /** The spill files that have not been deleted yet. */
+    private static final Set<SpillFile> SPILL_FILES
+            = Collections.synchronizedSet(new HashSet<SpillFile>());
+
+    private final long memoryLimit;
+
+    private long memoryUsed;
+
+    private final Deque<ByteBuffer> freeBuffers = new ArrayDeque<ByteBuffer>();
+
+    /** The full segments that are still in memory, oldest first. */
+    private final Set<Segment> fullSegments = new LinkedHashSet<Segment>();
+
+    private SpillFile spillFile;
+
+    private FileChannel spillChannel;
+
+    private long spillLength;
+
+    /**
+     * Creates a new pool.
+     * @param memoryLimit the number of bytes the segments may use in memory
+     */
+    SegmentPool(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * A part of the data of a stream cache, held either in a buffer or in the spill file.
+     */
+    static final class Segment {
+
+        /** The data written so far, null once the segment has been spilled. */
+        private ByteBuffer buffer;
+
+        private long offset;
+
+        private int length;
+
+        private Segment(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Returns the buffer to write to. Only the owner of a segment that has not been
+         * passed to {@link SegmentPool#full(Segment)} may write to it.
+         * @return the buffer
+         */
+        ByteBuffer getBuffer() {
+            return buffer;
+        }
+    }
+
+    /**
+     * Creates a segment backed by a heap buffer, spilling older segments if the memory limit
+     * would be exceeded. Such segments are used for the start of a stream.
+     * @param capacity the capacity of the buffer
+     * @return a new segment
+     * @throws IOException if the spill file cannot be written
+     */
+    synchronized Segment createHeapSegment(int capacity) throws IOException {
+        int size = Math.min(capacity, SEGMENT_SIZE);
+        reserve(size);
+        return new Segment(ByteBuffer.allocate(size));
+    }
+
+    /**
+     * Creates a segment backed by a direct buffer of {@link #SEGMENT_SIZE} bytes, spilling
+     * older segments if the memory limit would be exceeded.
+     * @return a new segment
+     * @throws IOException if the spill file cannot be written
+     */
+    synchronized Segment createSegment() throws IOException {
+        reserve(SEGMENT_SIZE);
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(SEGMENT_SIZE);
+        }
+        return new Segment(buffer);
+    }
+
+    /**
+     * Replaces the heap buffer of a segment that is not full yet by a larger one, spilling
+     * older segments if the memory limit would be exceeded.
+     * @param segment the segment
+     * @throws IOException if the spill file cannot be written
+     */
+    synchronized void grow(Segment segment) throws IOException {
+        ByteBuffer buffer = segment.buffer;
+        int capacity = Math.min(buffer.capacity() * 2, SEGMENT_SIZE);
+        reserve(capacity - buffer.capacity());
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        segment.buffer = larger.put(buffer);
+    }
+
+    /**
+     * Counts the given number of bytes against the memory limit, after spilling the oldest
+     * full segments until they fit. If there are not enough full segments, the limit is
+     * exceeded.
+     */
+    private void reserve(int bytes) throws IOException {
+        Iterator<Segment> oldest = fullSegments.iterator();
+        while (memoryUsed + bytes > memoryLimit && oldest.hasNext()) {
+            Segment segment = oldest.next();
+            oldest.remove();
+            spill(segment);
+        }
+        memoryUsed += bytes;
+    }
+
+    /**
+     * Notifies the pool that no more data is written to a segment, so it may be spilled.
+     * @param segment the segment
+     */
+    synchronized void full(Segment segment) {
+        if (segment.buffer != null) {
+            segment.length = segment.buffer.position();
+            fullSegments.add(segment);
+        }
+    }
+
+    /**
+     * Releases the memory used by a segment. The segment must not be used afterwards.
+     * @param segment the segment
+     */
+    synchronized void release(Segment segment) {
+        if (segment.buffer != null) {
+            fullSegments.remove(segment);
+            releaseBuffer(segment);
+        }
+    }
+
+    private void releaseBuffer(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        segment.buffer = null;
+        memoryUsed -= buffer.capacity();
+        if (buffer.isDirect()) {
+            buffer.clear();
+            freeBuffers.push(buffer);
+        }
+    }
+
+    private void spill(Segment segment) throws IOException {
+        if (spillChannel == null) {
+            deleteAbandonedSpillFiles();
+            File file = File.createTempFile("org.apache.fop.pdf.StreamCache-", ".spill");
+            try {
+                spillChannel = new RandomAccessFile(file, "rw").getChannel();
+            } catch (IOException e) {
+                file.delete();
+                throw e;
+            }
+            spillFile = new SpillFile(this, file, spillChannel);
+        }
+        ByteBuffer data = segment.buffer.duplicate();
+        data.flip();
+        segment.offset = spillLength;
+        while (data.hasRemaining()) {
+            spillLength += spillChannel.write(data, spillLength);
+        }
+        releaseBuffer(segment);
+    }
+
+    /**
+     * Writes the data of a segment to the given stream. Spilled data is read from the
+     * spill file.
+     * @param segment the segment
+     * @param out the stream to write to
+     * @return the number of bytes written
+     * @throws IOException if an I/O error occurs
+     */
+    synchronized int writeTo(Segment segment, OutputStream out) throws IOException {
+        if (segment.buffer == null) {
+            WritableByteChannel channel = Channels.newChannel(out);
+            long position = segment.offset;
+            long end = segment.offset + segment.length;
+            while (position < end) {
+                position += spillChannel.transferTo(position, end - position, channel);
+            }
+            return segment.length;
+        }
+        ByteBuffer buffer = segment.buffer;
+        int length = buffer.position();
+        if (buffer.hasArray()) {
+            out.write(buffer.array(), buffer.arrayOffset(), length);
+        } else {
+            ByteBuffer data = buffer.duplicate();
+            data.flip();
+            WritableByteChannel channel = Channels.newChannel(out);
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns the number of bytes currently held in memory by the segments.
+     * @return the number of bytes
+     */
+    synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+     * Returns the number of bytes written to the spill file.
+     * @return the number of bytes
+     */
+    synchronized long getSpillLength() {
+        return spillLength;
+    }
+
+    /**
+     * Returns the spill file, if data has been spilled and the pool has not been closed.
+     * @return the spill file or null
+     */
+    synchronized File getSpillFile() {
+        return spillFile != null ? spillFile.file : null;
+    }
+
+    /**
+     * Releases all buffers and deletes the spill file. Stream caches using this pool
+     * must not be used afterwards. Closing a pool more than once has no effect.
+     * @throws IOException if the spill file cannot be closed
+     */
+    synchronized void close() throws IOException {
+        fullSegments.clear();
+        freeBuffers.clear();
+        memoryUsed = 0;
+        if (spillFile != null) {
+            SpillFile file = spillFile;
+            spillFile = null;
+            spillChannel = null;
+            file.delete();
+        }
+    }
+
+    /**
+     * Deletes the spill files of pools that were garbage collected without being closed.
+     */
+    static void deleteAbandonedSpillFiles() {
+        Reference<? extends SegmentPool> ref;
+        while ((ref = ABANDONED.poll()) != null) {
+            try {
+                ((SpillFile) ref).delete();
+            } catch (IOException e) {
+                LOG.warn("Could not close abandoned spill file", e);
+            }
+        }
+    }
+
+    /**
+     * The spill file of a pool, which is enqueued once the pool is garbage collected.
+     */
+    private static final class SpillFile extends PhantomReference<SegmentPool> {
+
+        private final File file;
+
+        private final FileChannel channel;
+
+        SpillFile(SegmentPool pool, File file, FileChannel channel) {
+            super(pool, ABANDONED);
+            this.file = file;
+            this.channel = channel;
+            SPILL_FILES.add(this);
+        }
+
+        void delete() throws IOException {
+            SPILL_FILES.remove(this);
+            clear();
+            try {
+                channel.close();
+            } finally {
+                if (!file.delete() && file.exists()) {
+                    LOG.warn("Could not delete spill file " + file);
+                }
+            }
+        }
+    }
+}
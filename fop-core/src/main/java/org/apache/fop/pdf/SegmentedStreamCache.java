@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.pdf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StreamCache implementation that stores the bytes in segments provided by a pool that is
+ * shared by the streams of a document. The pool keeps the memory used within a limit by
+ * moving older segments to a single spill file. Closing the output stream of a cache lets
+ * the pool spill its last, partly filled segment as well.
+ */
+public class SegmentedStreamCache implements StreamCache {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final SegmentPool pool;
+
+    private final int initialCapacity;
+
+    /** The segments, the last one being written to. */
+    private final List<SegmentPool.Segment> segments = new ArrayList<SegmentPool.Segment>();
+
+    private SegmentPool.Segment current;
+
+    private int size;
+
+    private final OutputStream output = new OutputStream() {
+
+        public void write(int b) throws IOException {
+            ensureSpace();
+            current.getBuffer().put((byte) b);
+            size++;
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                ensureSpace();
+                int n = Math.min(len, current.getBuffer().remaining());
+                current.getBuffer().put(b, off, n);
+                off += n;
+                len -= n;
+                size += n;
+            }
+        }
+
+        /**
+         * Marks the data written so far as complete, so that the last segment may be
+         * spilled too. Data written afterwards goes to a new segment.
+         */
+        public void close() throws IOException {
+            if (current != null) {
+                pool.full(current);
+                current = null;
+            }
+        }
+    };
+
+    /**
+     * Creates a new cache.
+     * @param pool the pool providing the segments
+     * @param hintSize a hint about the approximate expected size of the stream
+     */
+    SegmentedStreamCache(SegmentPool pool, int hintSize) {
+        this.pool = pool;
+        this.initialCapacity = Math.max(hintSize, INITIAL_CAPACITY);
+    }
+
+    private void ensureSpace() throws IOException {
+        if (current == null) {
+            current = pool.createHeapSegment(initialCapacity);
+            segments.add(current);
+        } else if (!current.getBuffer().hasRemaining()) {
+            if (current.getBuffer().capacity() < SegmentPool.SEGMENT_SIZE) {
+                pool.grow(current);
+            } else {
+                pool.full(current);
+                current = pool.createSegment();
+                segments.add(current);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    public OutputStream getOutputStream() throws IOException {
+        return output;
+    }
+
+    /** {@inheritDoc} */
+    public void write(byte[] data) throws IOException {
+        output.write(data);
+    }
+
+    /** {@inheritDoc} */
+    public int outputContents(OutputStream out) throws IOException {
+        int length = 0;
+        for (SegmentPool.Segment segment : segments) {
+            length += pool.writeTo(segment, out);
+        }
+        return length;
+    }
+
+    /** {@inheritDoc} */
+    public int getSize() throws IOException {
+        return size;
+    }
+
+    /** {@inheritDoc} */
+    public void clear() throws IOException {
+        for (SegmentPool.Segment segment : segments) {
+            pool.release(segment);
+        }
+        segments.clear();
+        current = null;
+        size = 0;
+    }
+}
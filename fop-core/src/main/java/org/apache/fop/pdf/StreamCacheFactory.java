@@ -26,7 +26,9 @@ import java.io.IOException;
  */
 public final class StreamCacheFactory {
 
-    private static StreamCacheFactory memoryInstance = new StreamCacheFactory();
+    private static StreamCacheFactory memoryInstance = new StreamCacheFactory(null);
+
+    private final SegmentPool segmentPool;
 
     /**
      * Returns an instance of a StreamCacheFactory with the requested features.
@@ -36,31 +38,69 @@ public final class StreamCacheFactory {
         return memoryInstance;
     }
 
+    /**
+     * Returns a new StreamCacheFactory whose stream caches use at most the given number
+     * of bytes of memory altogether, apart from the last segment of each stream that is
+     * still being written. Data beyond that is spilled to a single temporary file, which
+     * is deleted when the factory is closed. A factory is meant to be used for the streams
+     * of one document.
+     * @param memoryLimit the number of bytes the stream caches may hold in memory
+     * @return a new factory
+     */
+    public static StreamCacheFactory newSegmentedInstance(long memoryLimit) {
+        return new StreamCacheFactory(new SegmentPool(memoryLimit));
+    }
+
     /**
      * Creates a new StreamCacheFactory.
-     * @param cacheToFile True if file shall be cached using a temporary file
+     * @param segmentPool the pool for segmented stream caches, null for in-memory caches
      */
-    private StreamCacheFactory() {
+    private StreamCacheFactory(SegmentPool segmentPool) {
+        this.segmentPool = segmentPool;
     }
 
     /**
-     * Get the correct implementation (based on cacheToFile) of
-     * StreamCache.
+     * Get the correct implementation of StreamCache.
      * @throws IOException if there is an IO error
      * @return a new StreamCache for caching streams
      */
     public StreamCache createStreamCache() throws IOException {
+        if (segmentPool != null) {
+            return new SegmentedStreamCache(segmentPool, 0);
+        }
         return new InMemoryStreamCache();
     }
 
     /**
-     * Get the correct implementation (based on cacheToFile) of
-     * StreamCache.
+     * Get the correct implementation of StreamCache.
      * @param hintSize a hint about the approximate expected size of the buffer
      * @throws IOException if there is an IO error
      * @return a new StreamCache for caching streams
      */
     public StreamCache createStreamCache(int hintSize) throws IOException {
+        if (segmentPool != null) {
+            return new SegmentedStreamCache(segmentPool, hintSize);
+        }
         return new InMemoryStreamCache(hintSize);
     }
+
+    /**
+     * Returns the number of bytes of stream data that have been spilled to the temporary
+     * file so far.
+     * @return the number of bytes, 0 if the stream caches only use memory
+     */
+    public long getSpillLength() {
+        return segmentPool != null ? segmentPool.getSpillLength() : 0;
+    }
+
+    /**
+     * Releases the memory and the spill file used by the stream caches of this factory.
+     * The stream caches must not be used afterwards.
+     * @throws IOException if there is an IO error
+     */
+    public void close() throws IOException {
+        if (segmentPool != null) {
+            segmentPool.close();
+        }
+    }
 }
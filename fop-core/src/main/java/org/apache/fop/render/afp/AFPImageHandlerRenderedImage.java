@@ -57,6 +57,8 @@ import org.apache.fop.afp.ioca.ImageContent;
 import org.apache.fop.afp.modca.ResourceObject;
 import org.apache.fop.render.ImageHandler;
 import org.apache.fop.render.RenderingContext;
+import org.apache.fop.util.WorkerPool;
+import org.apache.fop.util.bitmap.BandedImageEncoder;
 import org.apache.fop.util.bitmap.BitmapImageUtil;
 
 /**
@@ -125,7 +127,9 @@ public class AFPImageHandlerRenderedImage extends AFPImageHandler implements Ima
 
         // Image content
         ImageRendered imageRend = (ImageRendered)image;
-        RenderedImageEncoder encoder = new RenderedImageEncoder(imageRend, targetSize);
+        WorkerPool workerPool = context.getUserAgent() != null
+                ? context.getUserAgent().getWorkerPool() : null;
+        RenderedImageEncoder encoder = new RenderedImageEncoder(imageRend, targetSize, workerPool);
         encoder.prepareEncoding(imageObjectInfo, paintingState);
 
         boolean included = afpContext.getResourceManager().tryIncludeObject(imageObjectInfo);
@@ -180,11 +184,13 @@ public class AFPImageHandlerRenderedImage extends AFPImageHandler implements Ima
         private Dimension resampledDim;
         private ImageSize intrinsicSize;
         private ImageSize effIntrinsicSize;
+        private WorkerPool workerPool;
 
-        private RenderedImageEncoder(ImageRendered imageRendered, Dimension targetSize) {
+        private RenderedImageEncoder(ImageRendered imageRendered, Dimension targetSize,
+                WorkerPool workerPool) {
             this.imageRendered = imageRendered;
             this.targetSize = targetSize;
-
+            this.workerPool = workerPool;
         }
 
         private void prepareEncoding(AFPImageObjectInfo imageObjectInfo,
@@ -335,7 +341,7 @@ public class AFPImageHandlerRenderedImage extends AFPImageHandler implements Ima
             }
             if (imageData == null) {
                 log.debug("Encoding image via RGB...");
-                imageData = encodeViaRGB(renderedImage, imageObjectInfo, paintingState, baos);
+                imageData = encodeViaRGB(renderedImage, imageObjectInfo, paintingState);
             }
             // Should image be FS45?
             if (paintingState.getFS45()) {
@@ -352,29 +358,25 @@ public class AFPImageHandlerRenderedImage extends AFPImageHandler implements Ima
         }
 
         private byte[] encodeViaRGB(RenderedImage renderedImage,
-                AFPImageObjectInfo imageObjectInfo, AFPPaintingState paintingState,
-                ByteArrayOutputStream baos) throws IOException {
+                AFPImageObjectInfo imageObjectInfo, AFPPaintingState paintingState) {
             byte[] imageData;
-            //Convert image to 24bit RGB
-            ImageEncodingHelper.encodeRenderedImageAsRGB(renderedImage, baos);
-            imageData = baos.toByteArray();
-            imageObjectInfo.setBitsPerPixel(24);
-
+            BandedImageEncoder encoder = new BandedImageEncoder(renderedImage);
+            if (workerPool != null) {
+                encoder.setExecutor(workerPool.getExecutor(), workerPool.getThreadCount() + 1);
+            }
             boolean colorImages = paintingState.isColorImages();
             imageObjectInfo.setColor(colorImages);
 
-            // convert to grayscale
-            if (!colorImages) {
-                log.debug("Converting RGB image to grayscale...");
-                baos.reset();
+            if (colorImages) {
+                //Convert image to 24bit RGB
+                imageData = encoder.encodeAsRGB();
+                imageObjectInfo.setBitsPerPixel(24);
+            } else {
+                // convert to grayscale
+                log.debug("Converting image to grayscale...");
                 int bitsPerPixel = paintingState.getBitsPerPixel();
                 imageObjectInfo.setBitsPerPixel(bitsPerPixel);
-                //TODO this should be done off the RenderedImage to avoid buffering the
-                //intermediate 24bit image
-                ImageEncodingHelper.encodeRGBAsGrayScale(
-                      imageData, renderedImage.getWidth(), renderedImage.getHeight(),
-                      bitsPerPixel, baos);
-                imageData = baos.toByteArray();
+                imageData = encoder.encodeAsGrayscale(bitsPerPixel);
                 if (bitsPerPixel == 1) {
                     imageObjectInfo.setSubtractive(true);
                 }
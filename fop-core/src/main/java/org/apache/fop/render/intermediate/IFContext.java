@@ -56,6 +56,8 @@ public class IFContext implements PageIndexContext {
 
     private boolean hyphenated;
 
+    private boolean structureTreeStreamed;
+
     private int pageIndex = -1;
 
     private int pageNumber = -1;
@@ -223,6 +225,25 @@ public class IFContext implements PageIndexContext {
         return hyphenated;
     }
 
+    /**
+     * Records whether the document handler writes the structure tree of each page-sequence
+     * once it has been rendered, so that structure tree elements need not be retained beyond
+     * the end of their page-sequence.
+     * @param structureTreeStreamed true if the structure tree is streamed
+     */
+    public void setStructureTreeStreamed(boolean structureTreeStreamed) {
+        this.structureTreeStreamed = structureTreeStreamed;
+    }
+
+    /**
+     * Indicates whether the document handler writes the structure tree of each page-sequence
+     * once it has been rendered.
+     * @return true if the structure tree is streamed
+     */
+    public boolean isStructureTreeStreamed() {
+        return structureTreeStreamed;
+    }
+
     /**
      * Record current page index.
      * @param pageIndex a zero based page index or -1 (no page)
@@ -507,6 +507,11 @@ public class IFParser implements IFConstants {
             public void endElement() throws IFException {
                 documentHandler.endPageSequence();
                 documentHandler.getContext().setLanguage(null);
+                if (documentHandler.getContext().isStructureTreeStreamed()) {
+                    //Structure elements are only referenced from the pages of their
+                    //page-sequence, and the handler has released them
+                    structureTreeElements.clear();
+                }
             }
 
         }
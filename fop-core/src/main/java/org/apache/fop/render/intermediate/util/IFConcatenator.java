@@ -20,35 +20,75 @@
 package org.apache.fop.render.intermediate.util;
 
 import java.awt.Dimension;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.xml.transform.Source;
+import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+
+import org.w3c.dom.Node;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import org.apache.xmlgraphics.xmp.Metadata;
 
+import org.apache.fop.fo.extensions.xmp.XMPMetadata;
 import org.apache.fop.render.intermediate.IFDocumentHandler;
 import org.apache.fop.render.intermediate.IFDocumentNavigationHandler;
 import org.apache.fop.render.intermediate.IFException;
 import org.apache.fop.render.intermediate.IFParser;
+import org.apache.fop.render.intermediate.extensions.AbstractAction;
+import org.apache.fop.render.intermediate.extensions.Bookmark;
+import org.apache.fop.render.intermediate.extensions.BookmarkTree;
+import org.apache.fop.render.intermediate.extensions.GoToXYAction;
+import org.apache.fop.render.intermediate.extensions.Link;
+import org.apache.fop.render.intermediate.extensions.NamedDestination;
+import org.apache.fop.util.WorkerPool;
 
 /**
  * This class allows to concatenate multiple intermediate format files to a single output file
- * in the final format. It is based on the SAX API and is therefore very fast and does not
- * require to load the individual documents into memory as DOM documents, for example.
+ * in the final format. {@link #appendDocument(Source)} is based on the SAX API and is therefore
+ * very fast and does not require to load the individual documents into memory as DOM
+ * documents, for example.
  * <p>
- * Note: This class will filter/ignore any document navigation events. Support for this may be
- * added later.
+ * Document navigation is carried over from all documents: page indices are shifted by the
+ * number of pages of the preceding documents, action IDs are made unique per document,
+ * the bookmark trees are merged into a single tree written by {@link #finish()}, and only
+ * the first named destination of a given name is kept.
  * <p>
- * Note: document-level extensions will only be transferred from the first document passed in.
- * If you need to merge extensions from all the concatenated documents, you may have to merge
- * these manually on the XML level, for example using XSLT.
+ * Document-level extensions are transferred from all documents, except that XMP metadata
+ * is only taken from the first document.
+ * <p>
+ * {@link #appendDocuments(List)} parses the following documents into DOM buffers on the
+ * worker pool of the {@link org.apache.fop.apps.FopFactory} while a document is fed to the
+ * target handler. At most {@link #setMaxBufferedDocuments(int)} documents are held as DOM
+ * documents at any time.
  */
 public class IFConcatenator {
 
+    private static final Log log = LogFactory.getLog(IFConcatenator.class);
+
     private IFDocumentHandler targetHandler;
 
     private int nextPageIndex;
-    private boolean inFirstDocument = true;
+    private int documentCount;
+    private int maxBufferedDocuments;
+
+    private BookmarkTree bookmarkTree;
+    private final Set<String> destinationNames = new HashSet<String>();
 
     /**
      * Creates a new IF concatenator.
@@ -71,8 +111,12 @@ public class IFConcatenator {
     }
 
     private void endDocument() throws IFException {
-        this.targetHandler.startPageTrailer();
-        this.targetHandler.endPageTrailer();
+        this.targetHandler.startDocumentTrailer();
+        IFDocumentNavigationHandler navHandler = targetHandler.getDocumentNavigationHandler();
+        if (bookmarkTree != null && navHandler != null) {
+            navHandler.renderBookmarkTree(bookmarkTree);
+        }
+        this.targetHandler.endDocumentTrailer();
         this.targetHandler.endDocument();
     }
 
@@ -85,8 +129,19 @@ public class IFConcatenator {
     }
 
     /**
-     * Properly finishes the current output file by creating an empty document trailer and calling
-     * {@link IFDocumentHandler#endDocument()}.
+     * Sets the maximum number of documents that {@link #appendDocuments(List)} holds as DOM
+     * documents at the same time, including the one being fed to the target handler. The
+     * default is the number of threads of the worker pool.
+     * @param maxBufferedDocuments the maximum number of documents, 1 to parse each document
+     *          on the calling thread while it is appended
+     */
+    public void setMaxBufferedDocuments(int maxBufferedDocuments) {
+        this.maxBufferedDocuments = Math.max(1, maxBufferedDocuments);
+    }
+
+    /**
+     * Properly finishes the current output file by creating a document trailer containing the
+     * merged bookmark tree and calling {@link IFDocumentHandler#endDocument()}.
      * @throws IFException if an IF-related error occurs
      */
     public void finish() throws IFException {
@@ -94,8 +149,9 @@ public class IFConcatenator {
     }
 
     /**
-     * Appends another intermediate format document to the current output file. All document-level
-     * content (i.e. the document header and trailer) is ignored. This method shall not be called
+     * Appends another intermediate format document to the current output file. The document
+     * header and trailer are ignored except for the extensions and the document navigation
+     * they contain. This method shall not be called
      * after {@link #finish()} has been called.
      * @param src the JAXP Source identifying the input document
      * @throws TransformerException if an XML-related exception occurs during
@@ -107,12 +163,102 @@ public class IFConcatenator {
                 getTargetHandler().getContext().getUserAgent());
     }
 
+    /**
+     * Appends several intermediate format documents to the current output file, in the given
+     * order. The following documents are parsed into DOM buffers on the worker pool while a
+     * document is appended, so this uses more memory than calling
+     * {@link #appendDocument(Source)} for each document, but the target handler does not
+     * have to wait for the XML parser. Without a worker pool, the documents are appended one
+     * by one. This method shall not be called after {@link #finish()} has been called.
+     * @param sources the JAXP Sources identifying the input documents
+     * @throws TransformerException if an XML-related exception occurs during
+     * @throws IFException if an IF-related error occurs
+     */
+    public void appendDocuments(List<? extends Source> sources)
+            throws TransformerException, IFException {
+        WorkerPool workerPool = getTargetHandler().getContext().getUserAgent().getWorkerPool();
+        int maxBuffers = maxBufferedDocuments;
+        if (maxBuffers == 0) {
+            maxBuffers = workerPool != null ? workerPool.getThreadCount() : 1;
+        }
+        if (workerPool == null || maxBuffers <= 1 || sources.size() <= 1) {
+            for (Source src : sources) {
+                appendDocument(src);
+            }
+            return;
+        }
+        TransformerFactory tFactory = TransformerFactory.newInstance();
+        ExecutorService executor = workerPool.getExecutor();
+        Iterator<? extends Source> iter = sources.iterator();
+        Deque<Future<Node>> buffers = new ArrayDeque<Future<Node>>(maxBuffers);
+        try {
+            while (buffers.size() < maxBuffers && iter.hasNext()) {
+                buffers.add(executor.submit(new DocumentBuffer(tFactory.newTransformer(),
+                        iter.next())));
+            }
+            while (!buffers.isEmpty()) {
+                appendDocument(new DOMSource(getBuffer(buffers.removeFirst())));
+                //the appended document is released before the next one is parsed
+                if (iter.hasNext()) {
+                    buffers.add(executor.submit(new DocumentBuffer(tFactory.newTransformer(),
+                            iter.next())));
+                }
+            }
+        } finally {
+            for (Future<Node> buffer : buffers) {
+                buffer.cancel(true);
+            }
+        }
+    }
+
+    private Node getBuffer(Future<Node> buffer) throws TransformerException {
+        try {
+            return buffer.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new TransformerException("Interrupted while parsing an IF document", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof TransformerException) {
+                throw (TransformerException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TransformerException(cause);
+        }
+    }
+
+    /** Parses an IF document into a DOM. */
+    private static final class DocumentBuffer implements Callable<Node> {
+
+        private final Transformer transformer;
+        private final Source src;
+
+        DocumentBuffer(Transformer transformer, Source src) {
+            this.transformer = transformer;
+            this.src = src;
+        }
+
+        public Node call() throws TransformerException {
+            DOMResult result = new DOMResult();
+            transformer.transform(src, result);
+            return result.getNode();
+        }
+    }
+
     private class IFPageSequenceFilter extends IFDocumentHandlerProxy {
 
+        private final int documentIndex;
+        private final int firstPageIndex;
         private boolean inPageSequence;
+        private NavigationFilter navigationFilter;
 
         public IFPageSequenceFilter(IFDocumentHandler delegate) {
             super(delegate);
+            this.documentIndex = documentCount++;
+            this.firstPageIndex = nextPageIndex;
         }
 
         /** {@inheritDoc} */
@@ -167,23 +313,102 @@ public class IFConcatenator {
         /** {@inheritDoc} */
         public void endDocument() throws IFException {
             //ignore
-            inFirstDocument = false;
         }
 
         /** {@inheritDoc} */
         public void handleExtensionObject(Object extension) throws IFException {
-            if (inPageSequence || inFirstDocument) {
-                //Only pass through when inside page-sequence
-                //or for the first document (for document-level extensions).
-                super.handleExtensionObject(extension);
+            if (!inPageSequence && documentIndex > 0
+                    && (extension instanceof Metadata || extension instanceof XMPMetadata)) {
+                //The metadata of the first document describes the result
+                log.debug("Ignoring metadata of document " + (documentIndex + 1));
+                return;
             }
-            //Note:Extensions from non-first documents are ignored!
+            super.handleExtensionObject(extension);
         }
 
         /** {@inheritDoc} */
         public IFDocumentNavigationHandler getDocumentNavigationHandler() {
-            return null; //Document Navigation is filtered!!!
+            if (navigationFilter == null) {
+                IFDocumentNavigationHandler navHandler = super.getDocumentNavigationHandler();
+                if (navHandler != null) {
+                    navigationFilter = new NavigationFilter(navHandler);
+                }
+            }
+            return navigationFilter;
         }
 
+        /**
+         * Moves the navigation of the current document to its place in the output file.
+         */
+        private class NavigationFilter implements IFDocumentNavigationHandler {
+
+            private final IFDocumentNavigationHandler delegate;
+
+            NavigationFilter(IFDocumentNavigationHandler delegate) {
+                this.delegate = delegate;
+            }
+
+            /** {@inheritDoc} */
+            public void renderNamedDestination(NamedDestination destination) throws IFException {
+                rebase(destination.getAction());
+                if (destinationNames.add(destination.getName())) {
+                    delegate.renderNamedDestination(destination);
+                } else {
+                    log.warn("Named destination '" + destination.getName() + "' of document "
+                            + (documentIndex + 1) + " already exists. Ignoring it.");
+                }
+            }
+
+            /** {@inheritDoc} */
+            public void renderBookmarkTree(BookmarkTree tree) throws IFException {
+                if (bookmarkTree == null) {
+                    bookmarkTree = new BookmarkTree();
+                }
+                for (Object o : tree.getBookmarks()) {
+                    Bookmark bookmark = (Bookmark) o;
+                    rebase(bookmark);
+                    bookmarkTree.addBookmark(bookmark);
+                }
+            }
+
+            private void rebase(Bookmark bookmark) {
+                rebase(bookmark.getAction());
+                for (Object o : bookmark.getChildBookmarks()) {
+                    rebase((Bookmark) o);
+                }
+            }
+
+            /** {@inheritDoc} */
+            public void renderLink(Link link) throws IFException {
+                rebase(link.getAction());
+                delegate.renderLink(link);
+            }
+
+            /** {@inheritDoc} */
+            public void addResolvedAction(AbstractAction action) throws IFException {
+                rebase(action);
+                delegate.addResolvedAction(action);
+            }
+
+            /** {@inheritDoc} */
+            public int getPageIndex() {
+                //Actions are parsed relative to the current document and rebased afterwards
+                int pageIndex = delegate.getPageIndex();
+                return pageIndex >= 0 ? pageIndex - firstPageIndex : pageIndex;
+            }
+
+            private void rebase(AbstractAction action) {
+                if (action == null) {
+                    return;
+                }
+                if (action.hasID()) {
+                    action.setID("d" + documentIndex + ":" + action.getID());
+                }
+                if (action instanceof GoToXYAction && action.isComplete()) {
+                    GoToXYAction goTo = (GoToXYAction) action;
+                    goTo.setPageIndex(goTo.getPageIndex() + firstPageIndex);
+                }
+            }
+        }
     }
 }
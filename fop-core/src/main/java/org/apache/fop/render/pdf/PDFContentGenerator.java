@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 import org.apache.fop.pdf.PDFColorHandler;
+import org.apache.fop.pdf.PDFContentWriter;
 import org.apache.fop.pdf.PDFDocument;
 import org.apache.fop.pdf.PDFFilterList;
 import org.apache.fop.pdf.PDFLinearization;
@@ -48,6 +49,17 @@ public class PDFContentGenerator {
     /** Controls whether comments are written to the PDF stream. */
     protected static final boolean WRITE_COMMENTS = true;
 
+    private static final byte[] SAVE_GRAPHICS_STATE = PDFContentWriter.encode("q\n");
+    private static final byte[] RESTORE_GRAPHICS_STATE = PDFContentWriter.encode("Q\n");
+    private static final byte[] END_MARKED_CONTENT = PDFContentWriter.encode("EMC\n");
+    private static final byte[] CONCATENATE = PDFContentWriter.encode("cm\n");
+    private static final byte[] CLIP_RECTANGLE = PDFContentWriter.encode("re W n\n");
+    private static final byte[] LINE_WIDTH = PDFContentWriter.encode("w\n");
+    private static final byte[] CHARACTER_SPACING = PDFContentWriter.encode("Tc\n");
+
+    /** the number of decimal places of the "cm" operands */
+    private static final int MATRIX_DEC = 8;
+
     private PDFDocument document;
     private OutputStream outputStream;
     private PDFResourceContext resourceContext;
@@ -67,6 +79,9 @@ public class PDFContentGenerator {
     private AffineTransform transform;
     private IFContext context;
 
+    private final StringBuffer colorBuffer = new StringBuffer();
+    private final double[] matrix = new double[6];
+
     /**
      * Main constructor. Creates a new PDF stream and additional helper classes for text painting
      * and state management.
@@ -136,6 +151,14 @@ public class PDFContentGenerator {
         return this.currentStream;
     }
 
+    /**
+     * Returns the writer to append content to the current stream with.
+     * @return the content writer
+     */
+    public PDFContentWriter getContentWriter() {
+        return getStream().getContentWriter();
+    }
+
     /**
      * Returns the {@link PDFPaintingState} associated with this instance.
      * @return the PDF state
@@ -169,7 +192,7 @@ public class PDFContentGenerator {
      */
     protected void comment(String text) {
         if (WRITE_COMMENTS) {
-            getStream().add("% " + text + "\n");
+            getContentWriter().write("% ").write(text).write('\n');
         }
     }
 
@@ -177,7 +200,7 @@ public class PDFContentGenerator {
     protected void saveGraphicsState() {
         endTextObject();
         getState().save();
-        getStream().add("q\n");
+        getContentWriter().write(SAVE_GRAPHICS_STATE);
     }
 
     /** Save graphics state with optional layer. */
@@ -185,7 +208,7 @@ public class PDFContentGenerator {
         endTextObject();
         getState().save();
         maybeBeginLayer(layer);
-        getStream().add("q\n");
+        getContentWriter().write(SAVE_GRAPHICS_STATE);
     }
 
     /**
@@ -197,7 +220,7 @@ public class PDFContentGenerator {
         endTextObject();
         getState().save();
         beginMarkedContentSequence(structElemType, sequenceNum);
-        getStream().add("q\n");
+        getContentWriter().write(SAVE_GRAPHICS_STATE);
     }
 
     /**
@@ -244,7 +267,7 @@ public class PDFContentGenerator {
     }
 
     void endMarkedContentSequence() {
-        getStream().add("EMC\n");
+        getContentWriter().write(END_MARKED_CONTENT);
         this.inMarkedContentSequence = false;
         this.inArtifactMode = false;
     }
@@ -256,7 +279,7 @@ public class PDFContentGenerator {
      */
     protected void restoreGraphicsState(boolean popState) {
         endTextObject();
-        getStream().add("Q\n");
+        getContentWriter().write(RESTORE_GRAPHICS_STATE);
         maybeEndLayer();
         if (popState) {
             getState().restore();
@@ -277,7 +300,7 @@ public class PDFContentGenerator {
      */
     protected void restoreGraphicsStateAccess() {
         endTextObject();
-        getStream().add("Q\n");
+        getContentWriter().write(RESTORE_GRAPHICS_STATE);
         if (this.inMarkedContentSequence) {
             endMarkedContentSequence();
         }
@@ -312,7 +335,7 @@ public class PDFContentGenerator {
     }
 
     private void endOptionalContent() {
-        getStream().add("EMC\n");
+        getContentWriter().write(END_MARKED_CONTENT);
     }
 
     /** Indicates the beginning of a text object. */
@@ -368,7 +391,12 @@ public class PDFContentGenerator {
         this.transform = transform;
         if (!transform.isIdentity()) {
             getState().concatenate(transform);
-            getStream().add(CTMHelper.toPDFString(transform, false) + " cm\n");
+            transform.getMatrix(matrix);
+            PDFContentWriter writer = getContentWriter();
+            for (double value : matrix) {
+                writer.writeNumber(value, MATRIX_DEC).write(' ');
+            }
+            writer.write(CONCATENATE);
         }
     }
 
@@ -377,12 +405,12 @@ public class PDFContentGenerator {
      * @param rect the clip rectangle
      */
     public void clipRect(Rectangle rect) {
-        StringBuffer sb = new StringBuffer();
-        sb.append(format(rect.x / 1000f)).append(' ');
-        sb.append(format(rect.y / 1000f)).append(' ');
-        sb.append(format(rect.width / 1000f)).append(' ');
-        sb.append(format(rect.height / 1000f)).append(" re W n\n");
-        add(sb.toString());
+        getContentWriter()
+                .writeOperand(rect.x / 1000f)
+                .writeOperand(rect.y / 1000f)
+                .writeOperand(rect.width / 1000f)
+                .writeOperand(rect.height / 1000f)
+                .write(CLIP_RECTANGLE);
     }
 
     /**
@@ -409,7 +437,7 @@ public class PDFContentGenerator {
     public void updateLineWidth(float width) {
         if (getState().setLineWidth(width)) {
             //Only write if value has changed WRT the current line width
-            getStream().add(format(width) + " w\n");
+            getContentWriter().writeOperand(width).write(LINE_WIDTH);
         }
     }
 
@@ -419,7 +447,7 @@ public class PDFContentGenerator {
      */
     public void updateCharacterSpacing(float value) {
         if (getState().setCharacterSpacing(value)) {
-            getStream().add(format(value) + " Tc\n");
+            getContentWriter().writeOperand(value).write(CHARACTER_SPACING);
         }
     }
 
@@ -431,9 +459,9 @@ public class PDFContentGenerator {
      */
     public void setColor(Color col, boolean fill, PDFStream stream) {
         assert stream != null;
-        StringBuffer sb = new StringBuffer();
-        setColor(col, fill, sb);
-        stream.add(sb.toString());
+        colorBuffer.setLength(0);
+        setColor(col, fill, colorBuffer);
+        stream.add(colorBuffer);
     }
 
     /**
@@ -494,14 +522,27 @@ public class PDFContentGenerator {
      */
     public void placeImage(float x, float y, float w, float h, PDFXObject xobj) {
         saveGraphicsState();
-        add(format(w) + " 0 0 "
-                          + format(-h) + " "
-                          + format(x) + " "
-                          + format(y + h)
-                          + " cm\n" + xobj.getName() + " Do\n");
+        writeImagePlacement(x, y, w, h, xobj);
         restoreGraphicsState();
     }
 
+    /**
+     * Writes the "cm" and "Do" operators placing an image XObject.
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param w width for image
+     * @param h height for image
+     * @param xobj the image XObject
+     */
+    private void writeImagePlacement(float x, float y, float w, float h, PDFXObject xobj) {
+        getContentWriter()
+                .writeOperand(w).write("0 0 ")
+                .writeOperand(-h)
+                .writeOperand(x)
+                .writeNumber(y + h).write(" cm\n")
+                .write(xobj.getName().toString()).write(" Do\n");
+    }
+
     public void placeImage(AffineTransform at, String stream) {
         saveGraphicsState();
         concatenate(at);
@@ -525,11 +566,7 @@ public class PDFContentGenerator {
     public void placeImage(float x, float y, float w, float h, PDFXObject xobj,
             String structElemType, int mcid) {
         saveGraphicsState(structElemType, mcid);
-        add(format(w) + " 0 0 "
-                          + format(-h) + " "
-                          + format(x) + " "
-                          + format(y + h)
-                          + " cm\n" + xobj.getName() + " Do\n");
+        writeImagePlacement(x, y, w, h, xobj);
         restoreGraphicsStateAccess();
     }
 
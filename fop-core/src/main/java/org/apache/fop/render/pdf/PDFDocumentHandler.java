@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -55,6 +56,7 @@ import org.apache.fop.render.intermediate.IFPainter;
 import org.apache.fop.render.pdf.PDFRendererConfig.PDFRendererConfigParser;
 import org.apache.fop.render.pdf.extensions.PDFDictionaryAttachment;
 import org.apache.fop.render.pdf.extensions.PDFEmbeddedFileAttachment;
+import org.apache.fop.util.WorkerPool;
 
 /**
  * {@link org.apache.fop.render.intermediate.IFDocumentHandler} implementation that produces PDF.
@@ -100,6 +102,15 @@ public class PDFDocumentHandler extends AbstractBinaryWritingIFDocumentHandler {
     private Map<Integer, PDFArray> pageNumbers = new HashMap<Integer, PDFArray>();
     private Map<String, PDFReference> contents = new HashMap<String, PDFReference>();
 
+    /** Encodes the content streams of finished pages if parallel page encoding is enabled. */
+    private ExecutorService pageEncoder;
+
+    /** The number of pages whose content stream may be encoded while they wait for output. */
+    private int maxPagesNotWritten;
+
+    /** The number of pages ended since the document was last written. */
+    private int pagesNotWritten;
+
     /**
      * Default constructor.
      */
@@ -160,6 +171,10 @@ public class PDFDocumentHandler extends AbstractBinaryWritingIFDocumentHandler {
             this.accessEnabled = getUserAgent().isAccessibilityEnabled();
             if (accessEnabled) {
                 setupAccessibility();
+                getContext().setStructureTreeStreamed(pdfDoc.isStructureTreeStreamingEnabled());
+            }
+            if (pdfDoc.isParallelPageEncodingEnabled()) {
+                setupPageEncoder();
             }
         } catch (IOException e) {
             throw new IFException("I/O error in startDocument()", e);
@@ -176,6 +191,24 @@ public class PDFDocumentHandler extends AbstractBinaryWritingIFDocumentHandler {
         structureTreeBuilder.setEventBroadcaster(getUserAgent().getEventBroadcaster());
     }
 
+    /**
+     * Sets up the encoding of page content streams on the worker pool of the factory. Pages
+     * are painted on the thread that walks the intermediate format, since painting registers
+     * fonts, images and other resources with the document; once a page has ended, its content
+     * stream is compressed on a worker thread while the following pages are painted, and
+     * written in page order. The pool is shared with the other documents of the factory, so
+     * it is not shut down with the document.
+     */
+    private void setupPageEncoder() {
+        WorkerPool workerPool = getUserAgent().getWorkerPool();
+        if (workerPool == null) {
+            return;
+        }
+        pageEncoder = workerPool.getExecutor();
+        maxPagesNotWritten = 2 * workerPool.getThreadCount();
+        pagesNotWritten = 0;
+    }
+
     /** {@inheritDoc} */
     public void endDocumentHeader() throws IFException {
         pdfUtil.generateDefaultXMPMetadata();
@@ -184,11 +217,20 @@ public class PDFDocumentHandler extends AbstractBinaryWritingIFDocumentHandler {
     /** {@inheritDoc} */
     public void endDocument() throws IFException {
         pdfDoc.getResources().addFonts(pdfDoc, fontInfo);
+        if (accessEnabled) {
+            logicalStructureHandler.endDocument();
+        }
         try {
-            if (pdfDoc.isLinearizationEnabled()) {
-                generator.flushPDFDoc();
-            } else {
-                pdfDoc.outputTrailer(this.outputStream);
+            try {
+                if (pdfDoc.isLinearizationEnabled()) {
+                    generator.flushPDFDoc();
+                } else {
+                    pdfDoc.outputTrailer(this.outputStream);
+                }
+            } finally {
+                //release the stream caches' memory and spill file even if the output failed
+                pdfDoc.getStreamCacheFactory().close();
+                pageEncoder = null;
             }
             this.pdfDoc = null;
 
@@ -208,7 +250,9 @@ public class PDFDocumentHandler extends AbstractBinaryWritingIFDocumentHandler {
 
     /** {@inheritDoc} */
     public void endPageSequence() throws IFException {
-        //nop
+        if (accessEnabled) {
+            structureTreeBuilder.pageSequenceRendered();
+        }
     }
 
     /** {@inheritDoc} */
@@ -296,7 +340,10 @@ public class PDFDocumentHandler extends AbstractBinaryWritingIFDocumentHandler {
             this.pdfDoc.addObject(currentPage);
 
             if (!pdfDoc.isLinearizationEnabled()) {
-                this.generator.flushPDFDoc();
+                if (pageEncoder == null || ++pagesNotWritten >= maxPagesNotWritten) {
+                    this.generator.flushPDFDoc();
+                    pagesNotWritten = 0;
+                }
                 this.generator = null;
             }
         } catch (IOException ioe) {
@@ -309,6 +356,9 @@ public class PDFDocumentHandler extends AbstractBinaryWritingIFDocumentHandler {
         String hash = stream.streamHashCode();
         if (!contents.containsKey(hash)) {
             pdfDoc.registerObject(stream);
+            if (pageEncoder != null) {
+                stream.encodeAhead(pageEncoder);
+            }
             PDFReference ref = new PDFReference(stream);
             contents.put(hash, ref);
         }
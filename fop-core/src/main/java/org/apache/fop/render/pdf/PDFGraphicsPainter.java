@@ -25,6 +25,7 @@ import java.awt.Rectangle;
 import java.io.IOException;
 
 import org.apache.fop.fo.Constants;
+import org.apache.fop.pdf.PDFContentWriter;
 import org.apache.fop.render.intermediate.ArcToBezierCurveTransformer;
 import org.apache.fop.render.intermediate.BezierCurvePainter;
 import org.apache.fop.render.intermediate.BorderPainter;
@@ -232,15 +233,6 @@ public class PDFGraphicsPainter implements GraphicsPainter, BezierCurvePainter {
         restoreGraphicsState();
     }
 
-    private static String format(int coordinate) {
-        //TODO lose scale?
-        return format(coordinate / 1000f);
-    }
-
-    private static String format(float coordinate) {
-        return PDFContentGenerator.format(coordinate);
-    }
-
     /** {@inheritDoc} */
     public void moveTo(int x, int y) {
         generator.moveTo(x, y);
@@ -302,31 +294,53 @@ public class PDFGraphicsPainter implements GraphicsPainter, BezierCurvePainter {
     // TODO consider enriching PDFContentGenerator with part of this API
     private static class PDFContentGeneratorHelper {
 
+        private static final byte[] MOVE_TO = PDFContentWriter.encode("m ");
+        private static final byte[] LINE_TO = PDFContentWriter.encode("l ");
+        private static final byte[] CURVE_TO = PDFContentWriter.encode("c ");
+        private static final byte[] CLOSE_PATH = PDFContentWriter.encode("h ");
+        private static final byte[] CLIP = PDFContentWriter.encode("W\nn\n");
+        private static final byte[] SAVE_GRAPHICS_STATE = PDFContentWriter.encode("q\n");
+        private static final byte[] RESTORE_GRAPHICS_STATE = PDFContentWriter.encode("Q\n");
+        private static final byte[] SOLID_LINE = PDFContentWriter.encode("[] 0 d ");
+        private static final byte[] ROUND_CAP = PDFContentWriter.encode("1 J ");
+        private static final byte[] MOVE_TO_LINE = PDFContentWriter.encode("m\n");
+        private static final byte[] LINE_TO_LINE = PDFContentWriter.encode("l\n");
+        private static final byte[] STROKE_LINE = PDFContentWriter.encode("l S\n");
+        private static final byte[] FILL_PATH = PDFContentWriter.encode("h\nf\n");
+        private static final byte[] LINE_WIDTH = PDFContentWriter.encode("w\n");
+        private static final byte[] DASH_PATTERN = PDFContentWriter.encode("] 0 d ");
+        private static final byte[] CONCATENATE = PDFContentWriter.encode("cm ");
+        private static final byte[] CONCATENATE_LINE = PDFContentWriter.encode("cm\n");
+
         private final PDFContentGenerator generator;
 
         public PDFContentGeneratorHelper(PDFContentGenerator generator) {
             this.generator = generator;
         }
 
+        private PDFContentWriter writer() {
+            return generator.getContentWriter();
+        }
+
         public PDFContentGeneratorHelper moveTo(int x, int y) {
-            return add("m", format(x), format(y));
+            return point(x, y).operator(MOVE_TO);
         }
 
         public PDFContentGeneratorHelper lineTo(int x, int y) {
-            return add("l", format(x), format(y));
+            return point(x, y).operator(LINE_TO);
         }
 
         /** {@inheritDoc} */
         public PDFContentGeneratorHelper cubicBezierTo(int p1x, int p1y, int p2x, int p2y, int p3x, int p3y) {
-            return add("c", format(p1x), format(p1y), format(p2x), format(p2y), format(p3x), format(p3y));
+            return point(p1x, p1y).point(p2x, p2y).point(p3x, p3y).operator(CURVE_TO);
         }
 
         public PDFContentGeneratorHelper closePath() {
-            return add("h");
+            return operator(CLOSE_PATH);
         }
 
         public PDFContentGeneratorHelper clip() {
-            return addLine("W\nn");
+            return operator(CLIP);
         }
 
         public PDFContentGeneratorHelper clipRect(Rectangle rectangle) {
@@ -335,73 +349,65 @@ public class PDFGraphicsPainter implements GraphicsPainter, BezierCurvePainter {
         }
 
         public PDFContentGeneratorHelper saveGraphicsState() {
-            return addLine("q");
+            return operator(SAVE_GRAPHICS_STATE);
         }
 
         public PDFContentGeneratorHelper restoreGraphicsState() {
-            return addLine("Q");
+            return operator(RESTORE_GRAPHICS_STATE);
         }
 
         public PDFContentGeneratorHelper setSolidLine() {
-            generator.add("[] 0 d ");
-            return this;
+            return operator(SOLID_LINE);
         }
 
         public PDFContentGeneratorHelper setRoundCap() {
-            return add("J", "1");
+            return operator(ROUND_CAP);
         }
 
         public PDFContentGeneratorHelper strokeLine(float xStart, float yStart, float xEnd, float yEnd) {
-            add("m", xStart, yStart);
-            return addLine("l S", xEnd, yEnd);
+            writer().writeOperand(xStart).writeOperand(yStart).write(MOVE_TO)
+                    .writeOperand(xEnd).writeOperand(yEnd).write(STROKE_LINE);
+            return this;
         }
 
         public PDFContentGeneratorHelper fillRect(int xStart, int yStart, int xEnd, int yEnd) {
-            String xS = format(xStart);
-            String xE = format(xEnd);
-            String yS = format(yStart);
-            String yE = format(yEnd);
-            return addLine("m", xS, yS)
-                    .addLine("l", xE, yS)
-                    .addLine("l", xE, yE)
-                    .addLine("l", xS, yE)
-                    .addLine("h")
-                    .addLine("f");
+            return point(xStart, yStart).operator(MOVE_TO_LINE)
+                    .point(xEnd, yStart).operator(LINE_TO_LINE)
+                    .point(xEnd, yEnd).operator(LINE_TO_LINE)
+                    .point(xStart, yEnd).operator(LINE_TO_LINE)
+                    .operator(FILL_PATH);
         }
 
         public PDFContentGeneratorHelper fillRidge(RuleStyle style, int xStart, int yStart, int xEnd,
                 int yEnd, int half) {
-            String xS = format(xStart);
-            String xE = format(xEnd);
-            String yS = format(yStart);
             if (style == RuleStyle.GROOVE) {
-                addLine("m", xS, yS)
-                        .addLine("l", xE, yS)
-                        .addLine("l", xE, format(yStart + half))
-                        .addLine("l", format(xStart + half), format(yStart + half))
-                        .addLine("l", xS, format(yStart + 2 * half));
+                point(xStart, yStart).operator(MOVE_TO_LINE)
+                        .point(xEnd, yStart).operator(LINE_TO_LINE)
+                        .point(xEnd, yStart + half).operator(LINE_TO_LINE)
+                        .point(xStart + half, yStart + half).operator(LINE_TO_LINE)
+                        .point(xStart, yStart + 2 * half).operator(LINE_TO_LINE);
             } else {
-                addLine("m", xE, yS)
-                        .addLine("l", xE, format(yStart + 2 * half))
-                        .addLine("l", xS, format(yStart + 2 * half))
-                        .addLine("l", xS, format(yStart + half))
-                        .addLine("l", format(xEnd - half), format(yStart + half));
+                point(xEnd, yStart).operator(MOVE_TO_LINE)
+                        .point(xEnd, yStart + 2 * half).operator(LINE_TO_LINE)
+                        .point(xStart, yStart + 2 * half).operator(LINE_TO_LINE)
+                        .point(xStart, yStart + half).operator(LINE_TO_LINE)
+                        .point(xEnd - half, yStart + half).operator(LINE_TO_LINE);
             }
-            return addLine("h").addLine("f");
+            return operator(FILL_PATH);
         }
 
         public PDFContentGeneratorHelper setLineWidth(float width) {
-            return addLine("w", width);
+            writer().writeOperand(width).write(LINE_WIDTH);
+            return this;
         }
 
         public PDFContentGeneratorHelper setDashLine(float first, float... rest) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("[").append(format(first));
+            PDFContentWriter writer = writer();
+            writer.write('[').writeNumber(first);
             for (float unit : rest) {
-                sb.append(" ").append(format(unit));
+                writer.write(' ').writeNumber(unit);
             }
-            sb.append("] 0 d ");
-            generator.add(sb.toString());
+            writer.write(DASH_PATTERN);
             return this;
         }
 
@@ -417,74 +423,29 @@ public class PDFGraphicsPainter implements GraphicsPainter, BezierCurvePainter {
 
         public PDFContentGeneratorHelper transformFloatCoordinates(float a, float b, float c, float d,
                 float e, float f) {
-            return add("cm", a, b, c, d, e, f);
+            writer().writeOperand(a).writeOperand(b).writeOperand(c).writeOperand(d)
+                    .writeOperand(e).writeOperand(f).write(CONCATENATE);
+            return this;
         }
 
         public PDFContentGeneratorHelper transformCoordinates(int a, int b, int c, int d, int e, int f) {
-            return add("cm", format(a), format(b), format(c), format(d), format(e), format(f));
+            return point(a, b).point(c, d).point(e, f).operator(CONCATENATE);
         }
 
         public PDFContentGeneratorHelper transformCoordinatesLine(int a, int b, int c, int d, int e, int f) {
-            return addLine("cm", format(a), format(b), format(c), format(d), format(e), format(f));
-        }
-
-        public PDFContentGeneratorHelper add(String op) {
-            assert op.equals(op.trim());
-            generator.add(op + " ");
-            return this;
-        }
-
-        private PDFContentGeneratorHelper add(String op, String... args) {
-            add(createArgs(args), op);
-            return this;
+            return point(a, b).point(c, d).point(e, f).operator(CONCATENATE_LINE);
         }
 
-        public PDFContentGeneratorHelper addLine(String op) {
-            assert op.equals(op.trim());
-            generator.add(op + "\n");
+        private PDFContentGeneratorHelper point(int x, int y) {
+            //TODO lose scale?
+            writer().writeOperand(x / 1000f).writeOperand(y / 1000f);
             return this;
         }
 
-        public PDFContentGeneratorHelper addLine(String op, String... args) {
-            addLine(createArgs(args), op);
+        private PDFContentGeneratorHelper operator(byte[] op) {
+            writer().write(op);
             return this;
         }
-
-        private PDFContentGeneratorHelper add(String op, float... args) {
-            add(createArgs(args), op);
-            return this;
-        }
-
-        public PDFContentGeneratorHelper addLine(String op, float... args) {
-            addLine(createArgs(args), op);
-            return this;
-        }
-
-        private StringBuilder createArgs(float... args) {
-            StringBuilder sb = new StringBuilder();
-            for (float arg : args) {
-                sb.append(format(arg)).append(" ");
-            }
-            return sb;
-        }
-
-        private StringBuilder createArgs(String... args) {
-            StringBuilder sb = new StringBuilder();
-            for (String arg : args) {
-                sb.append(arg).append(" ");
-            }
-            return sb;
-        }
-
-        private void add(StringBuilder args, String op) {
-            assert op.equals(op.trim());
-            generator.add(args.append(op).append(" ").toString());
-        }
-
-        private void addLine(StringBuilder args, String op) {
-            assert op.equals(op.trim());
-            generator.add(args.append(op).append("\n").toString());
-        }
     }
 
 }
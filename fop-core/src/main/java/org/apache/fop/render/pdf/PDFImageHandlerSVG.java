@@ -22,9 +22,17 @@ package org.apache.fop.render.pdf;
 import java.awt.Color;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Rectangle2D;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -44,6 +52,14 @@ import org.apache.fop.apps.FOUserAgent;
 import org.apache.fop.events.EventBroadcaster;
 import org.apache.fop.image.loader.batik.BatikImageFlavors;
 import org.apache.fop.image.loader.batik.BatikUtil;
+import org.apache.fop.pdf.PDFArray;
+import org.apache.fop.pdf.PDFDocument;
+import org.apache.fop.pdf.PDFFilterList;
+import org.apache.fop.pdf.PDFFormXObject;
+import org.apache.fop.pdf.PDFResourceContext;
+import org.apache.fop.pdf.PDFResources;
+import org.apache.fop.pdf.PDFStream;
+import org.apache.fop.pdf.PDFXObject;
 import org.apache.fop.pdf.TransparencyDisallowedException;
 import org.apache.fop.render.ImageHandler;
 import org.apache.fop.render.ImageHandlerUtil;
@@ -59,6 +75,9 @@ import org.apache.fop.svg.font.FOPFontFamilyResolverImpl;
 
 /**
  * Image Handler implementation which handles SVG images.
+ * <p>
+ * SVGs without links are painted into form XObjects, so an SVG that appears several
+ * times in a document at the same size is only built and painted once.
  */
 public class PDFImageHandlerSVG implements ImageHandler {
 
@@ -83,31 +102,6 @@ public class PDFImageHandlerSVG implements ImageHandler {
         SVGUserAgent ua = new SVGUserAgent(userAgent, new FOPFontFamilyResolverImpl(pdfContext.getFontInfo()),
                 new AffineTransform());
 
-        GVTBuilder builder = new GVTBuilder();
-
-        //Controls whether text painted by Batik is generated using text or path operations
-        boolean strokeText = PSImageHandlerSVG.shouldStrokeText(imageSVG.getDocument().getChildNodes());
-        //TODO connect with configuration elsewhere.
-
-        BridgeContext ctx = new PDFBridgeContext(ua,
-                (strokeText ? null : pdfContext.getFontInfo()),
-                userAgent.getImageManager(),
-                userAgent.getImageSessionContext(),
-                new AffineTransform());
-
-        //Cloning SVG DOM as Batik attaches non-thread-safe facilities (like the CSS engine)
-        //to it.
-        Document clonedDoc = BatikUtil.cloneSVGDocument(imageSVG.getDocument());
-
-        GraphicsNode root;
-        try {
-            root = builder.build(ctx, clonedDoc);
-        } catch (Exception e) {
-            SVGEventProducer eventProducer = SVGEventProducer.Provider.get(
-                    context.getUserAgent().getEventBroadcaster());
-            eventProducer.svgNotBuilt(this, e, image.getInfo().getOriginalURI());
-            return;
-        }
         // get the 'width' and 'height' attributes of the SVG document
         float w = image.getSize().getWidthMpt();
         float h = image.getSize().getHeightMpt();
@@ -145,29 +139,60 @@ public class PDFImageHandlerSVG implements ImageHandler {
             log.trace("image transform: " + resolutionScaling);
         }
 
-        /*
-         * Clip to the svg area.
-         * Note: To have the svg overlay (under) a text area then use
-         * an fo:block-container
-         */
-        if (log.isTraceEnabled()) {
-            generator.comment("SVG setup");
+        //An SVG that has already been painted at this size is reused as is
+        String formKey = getFormXObjectKey(imageSVG, pos);
+        if (formKey != null) {
+            PDFXObject form = generator.getDocument().getXObject(formKey);
+            if (form != null) {
+                generator.getResourceContext().addXObject(form);
+                placeFormXObject(pdfContext, form, scaling, resolutionScaling);
+                return;
+            }
         }
-        generator.saveGraphicsState();
-        if (context.getUserAgent().isAccessibilityEnabled()) {
-            MarkedContentInfo mci = pdfContext.getMarkedContentInfo();
-            generator.beginMarkedContentSequence(mci.tag, mci.mcid);
+
+        GVTBuilder builder = new GVTBuilder();
+
+        //Controls whether text painted by Batik is generated using text or path operations
+        boolean strokeText = PSImageHandlerSVG.shouldStrokeText(imageSVG.getDocument().getChildNodes());
+        //TODO connect with configuration elsewhere.
+
+        BridgeContext ctx = new PDFBridgeContext(ua,
+                (strokeText ? null : pdfContext.getFontInfo()),
+                userAgent.getImageManager(),
+                userAgent.getImageSessionContext(),
+                new AffineTransform());
+
+        //Cloning SVG DOM as Batik attaches non-thread-safe facilities (like the CSS engine)
+        //to it.
+        Document clonedDoc = BatikUtil.cloneSVGDocument(imageSVG.getDocument());
+
+        GraphicsNode root;
+        try {
+            root = builder.build(ctx, clonedDoc);
+        } catch (Exception e) {
+            SVGEventProducer eventProducer = SVGEventProducer.Provider.get(
+                    context.getUserAgent().getEventBroadcaster());
+            eventProducer.svgNotBuilt(this, e, image.getInfo().getOriginalURI());
+            return;
         }
-        generator.updateColor(Color.black, false, null);
-        generator.updateColor(Color.black, true, null);
 
-        if (!scaling.isIdentity()) {
-            if (log.isTraceEnabled()) {
-                generator.comment("viewbox");
+        //Links create annotations on the current page, so such SVGs are painted in place
+        if (formKey != null && !containsLinks(imageSVG.getDocument())) {
+            PDFXObject form = createFormXObject(pdfContext, imageSVG, root, ctx, formKey,
+                    imageTransform, resolutionScaling, pos);
+            if (form != null) {
+                placeFormXObject(pdfContext, form, scaling, resolutionScaling);
             }
-            generator.add(CTMHelper.toPDFString(scaling, false) + " cm\n");
+            return;
         }
 
+        /*
+         * Clip to the svg area.
+         * Note: To have the svg overlay (under) a text area then use
+         * an fo:block-container
+         */
+        beginSVG(pdfContext, scaling);
+
         //SVGSVGElement svg = ((SVGDocument)doc).getRootElement();
 
         PDFGraphics2D graphics = new PDFGraphics2D(true, pdfContext.getFontInfo(),
@@ -218,7 +243,33 @@ public class PDFImageHandlerSVG implements ImageHandler {
             eventProducer.svgRenderingError(this, e, image.getInfo().getOriginalURI());
         }
         generator.getState().restore();
-        if (context.getUserAgent().isAccessibilityEnabled()) {
+        endSVG(pdfContext);
+    }
+
+    private void beginSVG(PDFRenderingContext pdfContext, AffineTransform scaling) {
+        PDFContentGenerator generator = pdfContext.getGenerator();
+        if (log.isTraceEnabled()) {
+            generator.comment("SVG setup");
+        }
+        generator.saveGraphicsState();
+        if (pdfContext.getUserAgent().isAccessibilityEnabled()) {
+            MarkedContentInfo mci = pdfContext.getMarkedContentInfo();
+            generator.beginMarkedContentSequence(mci.tag, mci.mcid);
+        }
+        generator.updateColor(Color.black, false, null);
+        generator.updateColor(Color.black, true, null);
+
+        if (!scaling.isIdentity()) {
+            if (log.isTraceEnabled()) {
+                generator.comment("viewbox");
+            }
+            generator.add(CTMHelper.toPDFString(scaling, false) + " cm\n");
+        }
+    }
+
+    private void endSVG(PDFRenderingContext pdfContext) {
+        PDFContentGenerator generator = pdfContext.getGenerator();
+        if (pdfContext.getUserAgent().isAccessibilityEnabled()) {
             generator.restoreGraphicsStateAccess();
         } else {
             generator.restoreGraphicsState();
@@ -228,6 +279,135 @@ public class PDFImageHandlerSVG implements ImageHandler {
         }
     }
 
+    /**
+     * Paints an SVG into a new form XObject. The form's coordinate system is the one
+     * established by the scaling and resolution scaling of the image, so the form can be
+     * painted wherever the image appears at the same size.
+     * @return the form XObject or null if the SVG could not be painted
+     */
+    private PDFXObject createFormXObject(PDFRenderingContext pdfContext, ImageXMLDOM imageSVG,
+            GraphicsNode root, BridgeContext ctx, String formKey, AffineTransform imageTransform,
+            AffineTransform resolutionScaling, Rectangle pos) {
+        PDFContentGenerator generator = pdfContext.getGenerator();
+        PDFDocument pdfDoc = generator.getDocument();
+        PDFResources formResources = pdfDoc.getResources();
+        PDFGraphics2D graphics = new PDFGraphics2D(true, pdfContext.getFontInfo(), pdfDoc,
+                new PDFResourceContext(formResources), pdfContext.getPage().makeReference(),
+                "", 0, new TransparencyIgnoredEventListener(pdfContext, imageSVG));
+        graphics.setGraphicContext(new org.apache.xmlgraphics.java2d.GraphicContext());
+        graphics.scale(1.0 / resolutionScaling.getScaleX(), 1.0 / resolutionScaling.getScaleY());
+        graphics.setOutputStream(generator.getOutputStream());
+        try {
+            root.paint(graphics);
+            ctx.dispose();
+        } catch (TransparencyDisallowedException e) {
+            SVGEventProducer eventProducer = SVGEventProducer.Provider.get(
+                    pdfContext.getUserAgent().getEventBroadcaster());
+            eventProducer.bitmapWithTransparency(this, e.getProfile(),
+                    imageSVG.getInfo().getOriginalURI());
+            return null;
+        } catch (Exception e) {
+            SVGEventProducer eventProducer = SVGEventProducer.Provider.get(
+                    pdfContext.getUserAgent().getEventBroadcaster());
+            eventProducer.svgRenderingError(this, e, imageSVG.getInfo().getOriginalURI());
+            return null;
+        }
+
+        //The bounding box covers the viewport and anything painted outside of it
+        Rectangle2D bbox;
+        try {
+            bbox = imageTransform.createInverse().createTransformedShape(new Rectangle2D.Double(
+                    pos.x / 1000.0, pos.y / 1000.0, pos.width / 1000.0, pos.height / 1000.0))
+                    .getBounds2D();
+        } catch (NoninvertibleTransformException e) {
+            bbox = new Rectangle2D.Double();
+        }
+        Rectangle2D bounds = root.getTransformedBounds(graphics.getTransform());
+        if (bounds != null) {
+            bbox.add(bounds);
+        }
+
+        PDFStream contents = pdfDoc.getFactory().makeStream(PDFFilterList.CONTENT_FILTER, false);
+        contents.add(graphics.getBuffer());
+        PDFFormXObject form = pdfDoc.addFormXObject(generator.getResourceContext(), contents,
+                formResources.makeReference(), formKey);
+        form.put("BBox", new PDFArray(form, new double[] {
+                bbox.getMinX(), bbox.getMinY(), bbox.getMaxX(), bbox.getMaxY()}));
+        return form;
+    }
+
+    private void placeFormXObject(PDFRenderingContext pdfContext, PDFXObject form,
+            AffineTransform scaling, AffineTransform resolutionScaling) {
+        PDFContentGenerator generator = pdfContext.getGenerator();
+        beginSVG(pdfContext, scaling);
+        if (!resolutionScaling.isIdentity()) {
+            generator.add(CTMHelper.toPDFString(resolutionScaling, false) + " cm\n");
+        }
+        generator.add(form.getName() + " Do\n");
+        endSVG(pdfContext);
+    }
+
+    /**
+     * Returns the key of the form XObject an SVG is painted into at a given size. SVGs
+     * loaded from a URI are identified by that URI, others (like the content of
+     * instream-foreign-objects) by a digest of their DOM.
+     * @param imageSVG the SVG
+     * @param pos the position and size of the SVG
+     * @return the key or null if the SVG cannot be identified
+     */
+    static String getFormXObjectKey(ImageXMLDOM imageSVG, Rectangle pos) {
+        String id = imageSVG.getInfo().getOriginalURI();
+        if (id == null || id.length() == 0) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                String docURI = imageSVG.getDocument().getDocumentURI();
+                if (docURI != null) {
+                    update(digest, docURI);
+                }
+                update(digest, imageSVG.getDocument().getDocumentElement());
+                id = "#" + new BigInteger(1, digest.digest()).toString(16);
+            } catch (NoSuchAlgorithmException e) {
+                return null;
+            }
+        }
+        return "svg:" + id + ":" + pos.width + "x" + pos.height;
+    }
+
+    private static void update(MessageDigest digest, Node node) {
+        digest.update((byte) node.getNodeType());
+        if (node.getNodeType() == Node.ELEMENT_NODE) {
+            String ns = node.getNamespaceURI();
+            update(digest, ns != null ? ns : "");
+            update(digest, node.getNodeName());
+            NamedNodeMap attributes = node.getAttributes();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Node attribute = attributes.item(i);
+                update(digest, attribute.getNodeName());
+                update(digest, attribute.getNodeValue());
+            }
+            for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                update(digest, child);
+            }
+            digest.update((byte) 0);
+        } else if (node.getNodeValue() != null) {
+            update(digest, node.getNodeValue());
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        try {
+            digest.update(s.getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+        digest.update((byte) 0);
+    }
+
+    private static boolean containsLinks(Document doc) {
+        return doc.getElementsByTagNameNS(SVGDOMImplementation.SVG_NAMESPACE_URI,
+                SVGConstants.SVG_A_TAG).getLength() > 0;
+    }
+
     private static class TransparencyIgnoredEventListener
             implements PDFGraphics2D.TransparencyIgnoredEventListener {
 
@@ -24,6 +24,7 @@ import org.apache.fop.pdf.PDFDictionary;
 import org.apache.fop.pdf.PDFDocument;
 import org.apache.fop.pdf.PDFLink;
 import org.apache.fop.pdf.PDFName;
+import org.apache.fop.pdf.PDFObject;
 import org.apache.fop.pdf.PDFPage;
 import org.apache.fop.pdf.PDFParentTree;
 import org.apache.fop.pdf.PDFStructElem;
@@ -128,7 +129,25 @@ public class PDFLogicalStructureHandler {
         // being output to the PDF.
         // This should really be handled by PDFNumsArray
         pdfDoc.registerObject(pageParentTreeArray);
-        parentTree.addToNums(currentPage.getStructParents(), pageParentTreeArray);
+        parentTree.addToNums(currentPage.getStructParents(), refer(pageParentTreeArray));
+        parentTree.outputKidsBelow(parentTreeKey);
+    }
+
+    /**
+     * Receive notification of the end of the document.
+     */
+    void endDocument() {
+        parentTree.outputKidsBelow(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a reference to the given object if the structure tree is streamed, so that the
+     * parent tree does not keep the object and what it refers to in memory once it has been
+     * written. Returns the object itself otherwise.
+     */
+    private Object refer(PDFObject object) {
+        boolean streaming = pdfDoc != null && pdfDoc.isStructureTreeStreamingEnabled();
+        return streaming ? object.makeReference() : object;
     }
 
     private MarkedContentInfo addToParentTree(PDFStructElem structureTreeElement) {
@@ -136,7 +155,7 @@ public class PDFLogicalStructureHandler {
         while (parent instanceof PDFStructElem.Placeholder) {
             parent = parent.getParentStructElem();
         }
-        pageParentTreeArray.add(parent);
+        pageParentTreeArray.add(refer(parent));
         String type = parent.getStructureType().getName().toString();
         int mcid = pageParentTreeArray.length() - 1;
         return new MarkedContentInfo(type, mcid, structureTreeElement);
@@ -206,7 +225,7 @@ public class PDFLogicalStructureHandler {
         contentItem.put("Type", OBJR);
         contentItem.put("Pg", this.currentPage);
         contentItem.put("Obj", link);
-        parentTree.addToNums(structParent, structureTreeElement);
+        parentTree.addToNums(structParent, refer(structureTreeElement));
         structureTreeElement.addKid(contentItem);
     }
 
@@ -46,6 +46,7 @@ import org.apache.fop.fonts.LazyFont;
 import org.apache.fop.fonts.SingleByteFont;
 import org.apache.fop.fonts.Typeface;
 import org.apache.fop.pdf.PDFArray;
+import org.apache.fop.pdf.PDFContentWriter;
 import org.apache.fop.pdf.PDFDictionary;
 import org.apache.fop.pdf.PDFName;
 import org.apache.fop.pdf.PDFNumber;
@@ -71,6 +72,9 @@ import org.apache.fop.util.CharUtilities;
  */
 public class PDFPainter extends AbstractIFPainter<PDFDocumentHandler> {
 
+    private static final byte[] RECTANGLE = PDFContentWriter.encode(" re");
+    private static final byte[] FILL = PDFContentWriter.encode(" f");
+
     /** The current content generator */
     protected PDFContentGenerator generator;
 
@@ -257,11 +261,7 @@ public class PDFPainter extends AbstractIFPainter<PDFDocumentHandler> {
      */
     private void placeImage(Rectangle rect, PDFXObject xobj) {
         generator.saveGraphicsState();
-        generator.add(format(rect.width) + " 0 0 "
-                          + format(-rect.height) + " "
-                          + format(rect.x) + " "
-                          + format(rect.y + rect.height)
-                          + " cm " + xobj.getName() + " Do\n");
+        writeImagePlacement(rect, xobj);
         generator.restoreGraphicsState();
     }
     /**
@@ -271,14 +271,19 @@ public class PDFPainter extends AbstractIFPainter<PDFDocumentHandler> {
      */
     private void placeImageAccess(Rectangle rect, PDFXObject xobj) {
         generator.saveGraphicsState(imageMCI.tag, imageMCI.mcid);
-        generator.add(format(rect.width) + " 0 0 "
-                          + format(-rect.height) + " "
-                          + format(rect.x) + " "
-                          + format(rect.y + rect.height)
-                          + " cm " + xobj.getName() + " Do\n");
+        writeImagePlacement(rect, xobj);
         generator.restoreGraphicsStateAccess();
     }
 
+    private void writeImagePlacement(Rectangle rect, PDFXObject xobj) {
+        generator.getContentWriter()
+                .writeOperand(rect.width / 1000f).write("0 0 ")
+                .writeOperand(-rect.height / 1000f)
+                .writeOperand(rect.x / 1000f)
+                .writeNumber((rect.y + rect.height) / 1000f)
+                .write(" cm ").write(xobj.getName().toString()).write(" Do\n");
+    }
+
     /** {@inheritDoc} */
     public void drawImage(Document doc, Rectangle rect) throws IFException {
         if (accessEnabled) {
@@ -347,20 +352,20 @@ public class PDFPainter extends AbstractIFPainter<PDFDocumentHandler> {
                     throw new UnsupportedOperationException("Non-Color paints NYI");
                 }
             }
-            StringBuffer sb = new StringBuffer();
-            sb.append(format(rect.x)).append(' ');
-            sb.append(format(rect.y)).append(' ');
-            sb.append(format(rect.width)).append(' ');
-            sb.append(format(rect.height)).append(" re");
+            PDFContentWriter writer = generator.getContentWriter();
+            writer.writeOperand(rect.x / 1000f)
+                    .writeOperand(rect.y / 1000f)
+                    .writeOperand(rect.width / 1000f)
+                    .writeNumber(rect.height / 1000f)
+                    .write(RECTANGLE);
             if (fill != null) {
-                sb.append(" f");
+                writer.write(FILL);
             }
             /* Removed from method signature as it is currently not used
             if (stroke != null) {
-                sb.append(" S");
+                writer.write(" S");
             }*/
-            sb.append('\n');
-            generator.add(sb.toString());
+            writer.write('\n');
             if (accessEnabled && getUserAgent().isPdfUAEnabled()) {
                 generator.endMarkedContentSequence();
             }
@@ -37,10 +37,12 @@ import static org.apache.fop.render.pdf.PDFRendererOption.FORM_XOBJECT;
 import static org.apache.fop.render.pdf.PDFRendererOption.LINEARIZATION;
 import static org.apache.fop.render.pdf.PDFRendererOption.MERGE_FONTS;
 import static org.apache.fop.render.pdf.PDFRendererOption.OUTPUT_PROFILE;
+import static org.apache.fop.render.pdf.PDFRendererOption.PARALLEL_PAGE_ENCODING;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_A_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_UA_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_VT_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_X_MODE;
+import static org.apache.fop.render.pdf.PDFRendererOption.STRUCTURE_TREE_STREAMING;
 import static org.apache.fop.render.pdf.PDFRendererOption.VERSION;
 
 /**
@@ -147,4 +149,12 @@ public final class PDFRendererOptionsConfig {
     public Boolean getFormXObjectEnabled() {
         return (Boolean)properties.get(FORM_XOBJECT);
     }
+
+    public Boolean getStructureTreeStreamingEnabled() {
+        return (Boolean)properties.get(STRUCTURE_TREE_STREAMING);
+    }
+
+    public Boolean getParallelPageEncodingEnabled() {
+        return (Boolean)properties.get(PARALLEL_PAGE_ENCODING);
+    }
 }
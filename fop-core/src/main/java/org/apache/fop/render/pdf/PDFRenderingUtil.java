@@ -75,6 +75,7 @@ import org.apache.fop.pdf.PDFReference;
 import org.apache.fop.pdf.PDFSetOCGStateAction;
 import org.apache.fop.pdf.PDFTransitionAction;
 import org.apache.fop.pdf.PDFXMode;
+import org.apache.fop.pdf.StreamCacheFactory;
 import org.apache.fop.pdf.Version;
 import org.apache.fop.pdf.VersionController;
 import org.apache.fop.render.pdf.extensions.PDFActionExtension;
@@ -592,6 +593,11 @@ class PDFRenderingUtil {
                     = VersionController.getFixedVersionController(maxPDFVersion);
             this.pdfDoc = new PDFDocument(producer, controller);
         }
+        if (userAgent.getStreamCacheMemoryLimit() >= 0) {
+            pdfDoc.setStreamCacheFactory(
+                    StreamCacheFactory.newSegmentedInstance(userAgent.getStreamCacheMemoryLimit()));
+        }
+        pdfDoc.setFontSubsetCache(userAgent.getFontSubsetCache());
         updateInfo();
         updatePDFProfiles();
         pdfDoc.setFilterMap(rendererConfig.getFilterMap());
@@ -621,6 +627,8 @@ class PDFRenderingUtil {
         pdfDoc.setMergeFontsEnabled(rendererConfig.getMergeFontsEnabled());
         pdfDoc.setLinearizationEnabled(rendererConfig.getLinearizationEnabled());
         pdfDoc.setFormXObjectEnabled(rendererConfig.getFormXObjectEnabled());
+        pdfDoc.setStructureTreeStreamingEnabled(rendererConfig.getStructureTreeStreamingEnabled());
+        pdfDoc.setParallelPageEncodingEnabled(rendererConfig.getParallelPageEncodingEnabled());
 
         return this.pdfDoc;
     }
@@ -343,6 +343,9 @@ public class PDFStructureTreeBuilder implements StructureTreeEventHandler {
 
     private PDFStructElem rootStructureElement;
 
+    /** The elements of the page-sequences whose pages are still being rendered. */
+    private final LinkedList<PDFStructElem> pageSequences = new LinkedList<PDFStructElem>();
+
     void setPdfFactory(PDFFactory pdfFactory) {
         this.pdfFactory = pdfFactory;
     }
@@ -383,11 +386,26 @@ public class PDFStructureTreeBuilder implements StructureTreeEventHandler {
             structElem.setLanguage(language);
         }
         ancestors.add(structElem);
+        if (pdfFactory.getDocument().isStructureTreeStreamingEnabled()) {
+            pageSequences.add(structElem);
+        }
     }
 
     public void endPageSequence() {
     }
 
+    /**
+     * Notifies this builder that the pages of the oldest page-sequence still open have all
+     * been rendered. Its part of the structure tree is then complete and is written out if
+     * the structure tree is streamed.
+     */
+    void pageSequenceRendered() {
+        PDFStructElem pageSequence = pageSequences.poll();
+        if (pageSequence != null) {
+            pdfFactory.getDocument().outputStructureElements(pageSequence);
+        }
+    }
+
     public StructureTreeElement startNode(String name, Attributes attributes, StructureTreeElement parent) {
         if (!isPDFA1Safe(name)) {
             return null;
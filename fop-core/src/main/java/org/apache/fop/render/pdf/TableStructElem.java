@@ -46,4 +46,10 @@ class TableStructElem extends PDFStructElem {
         return super.attachKids();
     }
 
+    @Override
+    protected void releaseKids() {
+        super.releaseKids();
+        tableFooter = null;
+    }
+
 }
@@ -23,11 +23,16 @@ package org.apache.fop.render.rtf;
 import java.awt.Dimension;
 import java.awt.Rectangle;
 import java.awt.geom.Point2D;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -48,6 +53,7 @@ import org.apache.xmlgraphics.image.loader.ImageSize;
 import org.apache.xmlgraphics.image.loader.impl.ImageRawStream;
 import org.apache.xmlgraphics.image.loader.impl.ImageXMLDOM;
 import org.apache.xmlgraphics.image.loader.util.ImageUtil;
+import org.apache.xmlgraphics.io.TempResourceURIGenerator;
 
 import org.apache.fop.ResourceEventProducer;
 import org.apache.fop.apps.FOPException;
@@ -102,6 +108,7 @@ import org.apache.fop.render.rtf.rtflib.exceptions.RtfException;
 import org.apache.fop.render.rtf.rtflib.rtfdoc.IRtfAfterContainer;
 import org.apache.fop.render.rtf.rtflib.rtfdoc.IRtfBeforeContainer;
 import org.apache.fop.render.rtf.rtflib.rtfdoc.IRtfListContainer;
+import org.apache.fop.render.rtf.rtflib.rtfdoc.IRtfStreamedContent;
 import org.apache.fop.render.rtf.rtflib.rtfdoc.IRtfTableContainer;
 import org.apache.fop.render.rtf.rtflib.rtfdoc.IRtfTextrunContainer;
 import org.apache.fop.render.rtf.rtflib.rtfdoc.ITableAttributes;
@@ -134,6 +141,16 @@ import org.apache.fop.render.rtf.rtflib.tools.TableContext;
  */
 public class RTFHandler extends FOEventHandler {
 
+    /**
+     * Renderer option (Boolean) which enables streaming output: completed sections,
+     * paragraphs and table rows are written to a temporary file and released from
+     * memory, instead of keeping the whole RTF document tree until the end.
+     */
+    public static final String STREAMING = "rtf-streaming";
+
+    private static final TempResourceURIGenerator TEMP_URI_GENERATOR
+            = new TempResourceURIGenerator("rtf-streaming");
+
     private RtfFile rtfFile;
     private final OutputStream os;
     private static Log log = LogFactory.getLog(RTFHandler.class);
@@ -187,13 +204,53 @@ public class RTFHandler extends FOEventHandler {
         // TODO sections should be created
         try {
             rtfFile = new RtfFile(new OutputStreamWriter(os));
-            docArea = rtfFile.startDocumentArea();
+            if (isStreaming()) {
+                docArea = rtfFile.startDocumentArea(new TempStreamedContent());
+            } else {
+                docArea = rtfFile.startDocumentArea();
+            }
         } catch (IOException ioe) {
             // TODO could we throw Exception in all FOEventHandler events?
             throw new SAXException(ioe);
         }
     }
 
+    private boolean isStreaming() {
+        Object streaming = getUserAgent().getRendererOptions().get(STREAMING);
+        return Boolean.TRUE.equals(streaming) || "true".equals(streaming);
+    }
+
+    /**
+     * Keeps the streamed RTF document area in a temporary resource until the RTF header
+     * has been written.
+     */
+    private final class TempStreamedContent implements IRtfStreamedContent {
+
+        private final URI tempURI;
+        private final Writer writer;
+
+        private TempStreamedContent() throws IOException {
+            tempURI = TEMP_URI_GENERATOR.generate();
+            writer = new BufferedWriter(new OutputStreamWriter(
+                    getUserAgent().getResourceResolver().getOutputStream(tempURI), "UTF-8"));
+        }
+
+        public Writer getWriter() {
+            return writer;
+        }
+
+        public void writeTo(Writer out) throws IOException {
+            writer.close();
+            Reader in = new InputStreamReader(
+                    getUserAgent().getResourceResolver().getResource(tempURI), "UTF-8");
+            try {
+                IOUtils.copy(in, out);
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     public void endDocument() throws SAXException {
         try {
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+package org.apache.fop.render.rtf.rtflib.rtfdoc;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * <p>Temporary store for the document area of an RtfFile written in streaming mode.
+ * Completed sections, paragraphs and table rows are written to it as soon as they
+ * are final, while the header (font, color and list tables) can only be written once
+ * the whole document has been seen.</p>
+ */
+public interface IRtfStreamedContent {
+
+    /**
+     * @return the writer receiving the streamed document area content
+     */
+    Writer getWriter();
+
+    /**
+     * Copies all content written so far to the given writer. Called once, after the
+     * RTF header has been written and the document area is complete.
+     * @param out the writer to copy to
+     * @throws IOException for I/O problems
+     */
+    void writeTo(Writer out) throws IOException;
+}
@@ -43,6 +43,7 @@ public class RtfContainer extends RtfElement {
     private LinkedList children;  // 'final' removed by Boris Poudérous on 07/22/2002
     private RtfOptions options = new RtfOptions();
     private RtfElement lastChild;
+    private boolean hasStreamedChildren;
 
     /** Create an RTF container as a child of given container */
     RtfContainer(RtfContainer parent, Writer w) throws IOException {
@@ -162,6 +163,95 @@ public class RtfContainer extends RtfElement {
         }
     }
 
+    /**
+     * Indicates whether this container may write and release completed children before
+     * it is complete itself. Only containers whose RTF output does not depend on
+     * children added later may return true.
+     * @return false by default
+     */
+    protected boolean canStreamChildren() {
+        return false;
+    }
+
+    /**
+     * @return true if this container is part of a document area written in streaming
+     * mode and it, as well as all its ancestors up to the document area, can stream
+     * their children
+     */
+    boolean isStreaming() {
+        for (RtfContainer c = this; c != null; c = c.parent) {
+            if (!c.canStreamChildren()) {
+                return false;
+            } else if (c instanceof RtfDocumentArea) {
+                return ((RtfDocumentArea) c).isStreaming();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * In streaming mode, writes and releases all children preceding the given child.
+     * Nothing is written unless at least one of those children would generate useful
+     * RTF content, since an empty container would not be written at all.
+     * @param child the first child to keep
+     * @return true if children have been streamed
+     * @throws IOException for I/O problems
+     */
+    protected boolean streamChildrenBefore(RtfElement child) throws IOException {
+        if (!isStreaming()) {
+            return false;
+        }
+        boolean hasContent = false;
+        for (Object o : children) {
+            final RtfElement e = (RtfElement) o;
+            if (e == child) {
+                break;
+            } else if (!e.isEmpty()) {
+                hasContent = true;
+                break;
+            }
+        }
+        if (!hasContent) {
+            return false;
+        }
+        startStreaming();
+        writeChildrenBefore(child);
+        return true;
+    }
+
+    /**
+     * Writes the prefix of this container, after streaming the prefixes of its ancestors
+     * and all its preceding siblings.
+     */
+    private void startStreaming() throws IOException {
+        if (!isPrefixWritten()) {
+            if (!(this instanceof RtfDocumentArea)) {
+                parent.startStreaming();
+                parent.writeChildrenBefore(this);
+            }
+            writeRtfPrefixEarly();
+        }
+    }
+
+    private void writeChildrenBefore(RtfElement child) throws IOException {
+        while (!children.isEmpty() && children.getFirst() != child) {
+            // write before removing, some elements look at their siblings
+            final RtfElement e = (RtfElement) children.getFirst();
+            writeStreamedChild(e);
+            children.removeFirst();
+            hasStreamedChildren = true;
+        }
+    }
+
+    /**
+     * Writes a child which is being streamed ahead of the rest of this container.
+     * @param child the child to write
+     * @throws IOException for I/O problems
+     */
+    protected void writeStreamedChild(RtfElement child) throws IOException {
+        child.writeRtf();
+    }
+
     /** return our options */
     RtfOptions getOptions() {
         return options;
@@ -220,6 +310,9 @@ public class RtfContainer extends RtfElement {
      * i.e. (for RtfContainer) true if it has no children where isEmpty() is false
      */
     public boolean isEmpty() {
+        if (hasStreamedChildren) {
+            return false;
+        }
         boolean result = true;
         for (Object aChildren : children) {
             final RtfElement e = (RtfElement) aChildren;
@@ -38,10 +38,18 @@ import java.io.Writer;
 public class RtfDocumentArea
 extends RtfContainer {
     private RtfSection currentSection;
+    private final IRtfStreamedContent streamedContent;
 
     /** Create an RTF element as a child of given container */
     RtfDocumentArea(RtfFile f, Writer w) throws IOException {
         super(f, w);
+        streamedContent = null;
+    }
+
+    /** Create an RTF document area which streams its content to the given store */
+    RtfDocumentArea(RtfFile f, IRtfStreamedContent streamedContent) throws IOException {
+        super(f, streamedContent.getWriter());
+        this.streamedContent = streamedContent;
     }
 
     /**
@@ -54,6 +62,30 @@ extends RtfContainer {
             currentSection.close();
         }
         currentSection = new RtfSection(this, writer);
+        // all previous sections are complete now
+        streamChildrenBefore(currentSection);
         return currentSection;
     }
+
+    /** @return true if this document area streams its content */
+    boolean isStreaming() {
+        return streamedContent != null;
+    }
+
+    /** {@inheritDoc} */
+    protected boolean canStreamChildren() {
+        return true;
+    }
+
+    /**
+     * In streaming mode, copies the streamed content to the writer of the RtfFile,
+     * right after the header.
+     * @throws IOException for I/O problems
+     */
+    protected void writeRtfSuffix() throws IOException {
+        if (streamedContent != null) {
+            writer.flush();
+            streamedContent.writeTo(parent.writer);
+        }
+    }
 }
@@ -44,6 +44,7 @@ public abstract class RtfElement {
     /** attributes of the element */
     protected final RtfAttributes attrib;
     private boolean written;
+    private boolean prefixWritten;
     private boolean closed;
     private final int id;
     private static int idCounter;
@@ -82,7 +83,11 @@ public abstract class RtfElement {
     public final void writeRtf() throws IOException {
         if (!written) {
             written = true;
-            if (okToWriteRtf()) {
+            if (prefixWritten) {
+                // prefix and part of the content have already been streamed
+                writeRtfContent();
+                writeRtfSuffix();
+            } else if (okToWriteRtf()) {
                 writeRtfPrefix();
                 writeRtfContent();
                 writeRtfSuffix();
@@ -90,6 +95,24 @@ public abstract class RtfElement {
         }
     }
 
+    /**
+     * Writes the RTF prefix of this element ahead of its content, so that completed
+     * children can be streamed before this element is complete. The rest of the element
+     * is written by {@link #writeRtf()} as usual.
+     * @throws IOException for I/O problems
+     */
+    final void writeRtfPrefixEarly() throws IOException {
+        if (!prefixWritten && !written) {
+            prefixWritten = true;
+            writeRtfPrefix();
+        }
+    }
+
+    /** true if the prefix of this element has already been written */
+    final boolean isPrefixWritten() {
+        return prefixWritten;
+    }
+
     /**
      * Starts a new line in the RTF file being written. This is only to format
      * the RTF file itself (for easier debugging), not its content.
@@ -182,6 +182,32 @@ extends RtfContainer {
     }
 
 
+    /**
+     * Closes the RtfHeader if not done yet, and starts a document area in streaming
+     * mode: completed sections, paragraphs and table rows are written to the given
+     * store as soon as they are final and released from memory. The store is copied
+     * to the output after the header on {@link #flush()}.
+     * Must be called once only, instead of {@link #startDocumentArea()}.
+     * @param streamedContent the store receiving the document area content
+     * @return the RtfDocumentArea
+     * @throws IOException for I/O problems
+     * @throws RtfStructureException for illegal RTF structure
+     */
+    public RtfDocumentArea startDocumentArea(IRtfStreamedContent streamedContent)
+        throws IOException, RtfStructureException {
+        if (docArea != null) {
+            throw new RtfStructureException("startDocumentArea called more than once");
+        }
+        // create an empty header if there was none
+        if (header == null) {
+            startHeader();
+        }
+        header.close();
+        docArea = new RtfDocumentArea(this, streamedContent);
+        addChild(docArea);
+        return docArea;
+    }
+
 
     /**
      * Call startDocumentArea if needed and return the document area object.
@@ -69,6 +69,7 @@ implements
     public RtfExternalGraphic newImage() throws IOException {
         closeAll();
         externalGraphic = new RtfExternalGraphic(this, writer);
+        streamChildrenBefore(externalGraphic);
         return externalGraphic;
     }
 
@@ -81,6 +82,7 @@ implements
     public RtfParagraph newParagraph(RtfAttributes attrs) throws IOException {
         closeAll();
         paragraph = new RtfParagraph(this, writer, attrs);
+        streamChildrenBefore(paragraph);
         return paragraph;
     }
 
@@ -112,6 +114,7 @@ implements
     public RtfTable newTable(ITableColumnsInfo tc) throws IOException {
         closeAll();
         table = new RtfTable(this, writer, tc);
+        streamChildrenBefore(table);
         return table;
     }
 
@@ -126,6 +129,7 @@ implements
     public RtfTable newTable(RtfAttributes attrs, ITableColumnsInfo tc) throws IOException {
         closeAll();
         table = new RtfTable(this, writer, attrs, tc);
+        streamChildrenBefore(table);
         return table;
     }
 
@@ -138,6 +142,7 @@ implements
     public RtfList newList(RtfAttributes attrs) throws IOException {
         closeAll();
         list = new RtfList(this, writer, attrs);
+        streamChildrenBefore(list);
         return list;
     }
 
@@ -150,6 +155,7 @@ implements
     public RtfBefore newBefore(RtfAttributes attrs) throws IOException {
         closeAll();
         before = new RtfBefore(this, writer, attrs);
+        streamChildrenBefore(before);
         return before;
     }
 
@@ -162,6 +168,7 @@ implements
     public RtfAfter newAfter(RtfAttributes attrs) throws IOException {
         closeAll();
         after = new RtfAfter(this, writer, attrs);
+        streamChildrenBefore(after);
         return after;
     }
 
@@ -246,6 +253,17 @@ implements
      */
     public RtfTextrun getTextrun()
     throws IOException {
-        return RtfTextrun.getTextrun(this, writer, null);
+        RtfTextrun textrun = RtfTextrun.getTextrun(this, writer, null);
+        streamChildrenBefore(textrun);
+        return textrun;
+    }
+
+    /**
+     * A section is complete up to its last child: all earlier children are closed
+     * once a new child has been started.
+     * @return true
+     */
+    protected boolean canStreamChildren() {
+        return true;
     }
 }
@@ -102,6 +102,13 @@ public class RtfSpaceManager {
         }
     }
 
+    /**
+     * @return true if there are block attributes which have not been popped yet
+     */
+    public boolean hasOpenBlocks() {
+        return !blockAttributes.isEmpty();
+    }
+
     /**
      * Pushes inline attributes to inline-level stack.
      *
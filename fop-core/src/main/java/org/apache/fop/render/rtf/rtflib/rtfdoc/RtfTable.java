@@ -80,6 +80,8 @@ public class RtfTable extends RtfContainer {
 
         highestRow++;
         row = new RtfTableRow(this, writer, attrib, highestRow);
+        // previous rows are no longer the highest row, so they are final now
+        streamChildrenBefore(row);
         return row;
     }
 
@@ -108,6 +110,8 @@ public class RtfTable extends RtfContainer {
         highestRow++;
 
         row = new RtfTableRow(this, writer, attr, highestRow);
+        // previous rows are no longer the highest row, so they are final now
+        streamChildrenBefore(row);
         return row;
     }
 
@@ -137,6 +141,15 @@ public class RtfTable extends RtfContainer {
         }
     }
 
+    /**
+     * Rows of a table which is not nested can be streamed once they are followed by
+     * another row.
+     * @return true if this is not a nested table
+     */
+    protected boolean canStreamChildren() {
+        return !isNestedTable();
+    }
+
     /**
      *
      * @param id row to check (??)
@@ -52,6 +52,11 @@ public class RtfTextrun extends RtfContainer {
     private boolean bSuppressLastPar;
     private RtfListItem rtfListItem;
 
+    /** State of writing the children, kept across streamed and final writing */
+    private boolean bPrevPar;
+    private boolean bBookmark;
+    private boolean bFirst = true;
+
     /**
      * logging instance
      */
@@ -202,6 +207,7 @@ public class RtfTextrun extends RtfContainer {
       rtfSpaceManager.popRtfSpaceSplitter();
       rtfSpaceManager.stopUpdatingSpaceBefore();
       addCloseGroupMark(breakType);
+      streamCompletedBlocks();
   }
 
     /**
@@ -389,6 +395,19 @@ public class RtfTextrun extends RtfContainer {
         bSuppressLastPar = bSuppress;
     }
 
+    /**
+     * Writes attributes which apply to the whole textrun.
+     * @throws IOException for I/O problems
+     */
+    protected void writeRtfPrefix() throws IOException {
+        //may contain for example \intbl
+        writeAttributes(attrib, null);
+
+        if (rtfListItem != null) {
+            rtfListItem.getRtfListStyle().writeParagraphPrefix(this);
+        }
+    }
+
     /**
      * write RTF code of all our children
      * @throws IOException for I/O problems
@@ -438,68 +457,15 @@ public class RtfTextrun extends RtfContainer {
             }
         }
 
-        //may contain for example \intbl
-        writeAttributes(attrib, null);
-
-        if (rtfListItem != null) {
-            rtfListItem.getRtfListStyle().writeParagraphPrefix(this);
-        }
-
         //write all children
-        boolean bPrevPar = false;
-        boolean bBookmark = false;
-        boolean bFirst = true;
         for (Object o : getChildren()) {
             final RtfElement e = (RtfElement) o;
-            final boolean bRtfParagraphBreak = (e instanceof RtfParagraphBreak);
 
             if (bHasTableCellParent) {
                 attrBlockLevel.set(e.getRtfAttributes());
             }
 
-
-            /**
-             * -Write RtfParagraphBreak only, if the previous visible child
-             * was't also a RtfParagraphBreak.
-             * -Write RtfParagraphBreak only, if it is not the first visible
-             * child.
-             * -If the RtfTextrun is the last child of its parent, write a
-             * RtfParagraphBreak only, if it is not the last child.
-             * -If the RtfParagraphBreak can not be hidden (e.g. a table cell requires it)
-             * it is also written
-             */
-            boolean bHide = false;
-            bHide = bRtfParagraphBreak;
-            bHide = bHide
-                    && (bPrevPar
-                    || bFirst
-                    || (bSuppressLastPar && bLast && lastParagraphBreak != null
-                    && e == lastParagraphBreak)
-                    || bBookmark)
-                    && ((RtfParagraphBreak) e).canHide();
-
-            if (!bHide) {
-                newLine();
-                e.writeRtf();
-
-                if (rtfListItem != null && e instanceof RtfParagraphBreak) {
-                    rtfListItem.getRtfListStyle().writeParagraphPrefix(this);
-                }
-            }
-
-            if (e instanceof RtfParagraphBreak) {
-                bPrevPar = true;
-            } else if (e instanceof RtfBookmark) {
-                bBookmark = true;
-            } else if (e instanceof RtfCloseGroupMark) {
-                //do nothing
-            } else if (e instanceof RtfOpenGroupMark) {
-                //do nothing
-            } else {
-                bPrevPar = bPrevPar && e.isEmpty();
-                bFirst = bFirst && e.isEmpty();
-                bBookmark = false;
-            }
+            writeChild(e, bLast ? lastParagraphBreak : null);
         } //for (Iterator it = ...)
 
         //
@@ -509,6 +475,110 @@ public class RtfTextrun extends RtfContainer {
 
     }
 
+    /**
+     * Writes one child, hiding paragraph breaks where needed.
+     * @param e the child to write
+     * @param lastParagraphBreak the paragraph break to be suppressed, if any
+     * @throws IOException for I/O problems
+     */
+    private void writeChild(RtfElement e, RtfParagraphBreak lastParagraphBreak)
+            throws IOException {
+        final boolean bRtfParagraphBreak = (e instanceof RtfParagraphBreak);
+
+        /**
+         * -Write RtfParagraphBreak only, if the previous visible child
+         * was't also a RtfParagraphBreak.
+         * -Write RtfParagraphBreak only, if it is not the first visible
+         * child.
+         * -If the RtfTextrun is the last child of its parent, write a
+         * RtfParagraphBreak only, if it is not the last child.
+         * -If the RtfParagraphBreak can not be hidden (e.g. a table cell requires it)
+         * it is also written
+         */
+        boolean bHide = false;
+        bHide = bRtfParagraphBreak;
+        bHide = bHide
+                && (bPrevPar
+                || bFirst
+                || (bSuppressLastPar && lastParagraphBreak != null
+                && e == lastParagraphBreak)
+                || bBookmark)
+                && ((RtfParagraphBreak) e).canHide();
+
+        if (!bHide) {
+            newLine();
+            e.writeRtf();
+
+            if (rtfListItem != null && e instanceof RtfParagraphBreak) {
+                rtfListItem.getRtfListStyle().writeParagraphPrefix(this);
+            }
+        }
+
+        if (e instanceof RtfParagraphBreak) {
+            bPrevPar = true;
+        } else if (e instanceof RtfBookmark) {
+            bBookmark = true;
+        } else if (e instanceof RtfCloseGroupMark) {
+            //do nothing
+        } else if (e instanceof RtfOpenGroupMark) {
+            //do nothing
+        } else {
+            bPrevPar = bPrevPar && e.isEmpty();
+            bFirst = bFirst && e.isEmpty();
+            bBookmark = false;
+        }
+    }
+
+    /** {@inheritDoc} */
+    protected void writeStreamedChild(RtfElement child) throws IOException {
+        // a streamed child can never be the last paragraph break, see streamCompletedBlocks()
+        writeChild(child, null);
+    }
+
+    /**
+     * A textrun directly contained in a section can stream the content of completed
+     * outermost blocks.
+     * @return true if this textrun is not part of a list item
+     */
+    protected boolean canStreamChildren() {
+        return rtfListItem == null;
+    }
+
+    /**
+     * Streams the children of the completed outermost blocks. Space-before and space-after
+     * may still be applied to attributes of children of open blocks, the candidate for the
+     * last paragraph break may still be hidden and trailing close group marks may still be
+     * moved by {@link #addParagraphBreak()}, so these children are kept.
+     */
+    private void streamCompletedBlocks() throws IOException {
+        if (rtfSpaceManager.hasOpenBlocks() || !isStreaming()) {
+            return;
+        }
+        List children = getChildren();
+        int keep = children.size();
+        while (keep > 0 && children.get(keep - 1) instanceof RtfCloseGroupMark) {
+            keep--;
+        }
+        //keep the last paragraph break which may become the last visible one
+        int lastCandidate = -1;
+        RtfElement aBefore = null;
+        for (int i = 0; i < keep; i++) {
+            final RtfElement e = (RtfElement) children.get(i);
+            if (e instanceof RtfParagraphBreak
+                    && !(aBefore instanceof RtfParagraphBreak)
+                    && !(aBefore instanceof RtfBookmark)) {
+                lastCandidate = i;
+            }
+            aBefore = e;
+        }
+        if (lastCandidate >= 0) {
+            keep = lastCandidate;
+        }
+        if (keep > 0 && keep < children.size()) {
+            streamChildrenBefore((RtfElement) children.get(keep));
+        }
+    }
+
     /**
      * Set the parent list-item of the textrun.
      *
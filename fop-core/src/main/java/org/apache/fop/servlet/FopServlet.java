@@ -19,12 +19,14 @@
 
 package org.apache.fop.servlet;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.URI;
 import java.net.URL;
+import java.util.concurrent.Semaphore;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -32,6 +34,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -70,7 +73,21 @@ import org.apache.fop.apps.MimeConstants;
  * <br>
  * For this to work with Internet Explorer, you might need to append "ext=.pdf"
  * to the URL.
- * (todo) Ev. add caching mechanism for Templates objects
+ * <br>
+ * Init params are:
+ * <ul>
+ *   <li>streaming: "true" to write the PDF to the response while it is being rendered
+ *   instead of buffering the whole document first (default: false)</li>
+ *   <li>max-concurrent-renders: the maximum number of documents rendered at the same time,
+ *   0 for no limit (default: 0)</li>
+ *   <li>max-queued-renders: the maximum number of requests waiting for one of the renders
+ *   above to finish; further requests are rejected with status 503 (default: 0)</li>
+ *   <li>templates-cache-size: the maximum number of compiled XSLT stylesheets kept,
+ *   0 to compile the stylesheet for every request (default: 32)</li>
+ * </ul>
+ * The FopFactory and the compiled XSLT stylesheets are shared by all requests. Stylesheets
+ * are cached by their resolved system ID; one read from a file is compiled again when the
+ * file changes, others when they are removed with {@link #invalidateTemplates(String)}.
  */
 public class FopServlet extends HttpServlet {
 
@@ -83,12 +100,33 @@ public class FopServlet extends HttpServlet {
     /** Name of the parameter used for the XSLT file */
     protected static final String XSLT_REQUEST_PARAM = "xslt";
 
+    /** Name of the init param enabling streaming of the output */
+    protected static final String STREAMING_INIT_PARAM = "streaming";
+    /** Name of the init param for the maximum number of concurrent renders */
+    protected static final String MAX_CONCURRENT_RENDERS_INIT_PARAM = "max-concurrent-renders";
+    /** Name of the init param for the maximum number of requests waiting to be rendered */
+    protected static final String MAX_QUEUED_RENDERS_INIT_PARAM = "max-queued-renders";
+    /** Name of the init param for the maximum number of cached stylesheets */
+    protected static final String TEMPLATES_CACHE_SIZE_INIT_PARAM = "templates-cache-size";
+
+    /** Default maximum number of cached stylesheets */
+    private static final int DEFAULT_TEMPLATES_CACHE_SIZE = 32;
+
     /** The TransformerFactory used to create Transformer instances */
     protected TransformerFactory transFactory;
     /** The FopFactory used to create Fop instances */
     protected FopFactory fopFactory;
     /** URIResolver for use by this servlet */
     protected transient URIResolver uriResolver;
+    /** True if the output is written to the response while it is being rendered */
+    protected boolean streaming;
+
+    /** The compiled stylesheets by system ID */
+    private transient TemplatesCache templatesCache;
+    /** Permits for renders that are running or waiting, null if there is no limit */
+    private transient Semaphore admissions;
+    /** Permits for running renders, null if there is no limit */
+    private transient Semaphore renders;
 
     /**
      * {@inheritDoc}
@@ -114,6 +152,28 @@ public class FopServlet extends HttpServlet {
         FopFactoryBuilder builder = new FopFactoryBuilder(new File(".").toURI(), resolver);
         configureFopFactory(builder);
         fopFactory = builder.build();
+
+        this.templatesCache = new TemplatesCache(getIntInitParameter(
+                TEMPLATES_CACHE_SIZE_INIT_PARAM, DEFAULT_TEMPLATES_CACHE_SIZE));
+        this.streaming = "true".equalsIgnoreCase(getInitParameter(STREAMING_INIT_PARAM));
+        int maxRenders = getIntInitParameter(MAX_CONCURRENT_RENDERS_INIT_PARAM, 0);
+        if (maxRenders > 0) {
+            this.renders = new Semaphore(maxRenders, true);
+            this.admissions = new Semaphore(
+                    maxRenders + getIntInitParameter(MAX_QUEUED_RENDERS_INIT_PARAM, 0));
+        }
+    }
+
+    private int getIntInitParameter(String name, int defaultValue) throws ServletException {
+        String value = getInitParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            throw new ServletException("Invalid value for init param " + name + ": " + value);
+        }
     }
 
     /**
@@ -136,10 +196,22 @@ public class FopServlet extends HttpServlet {
             String xsltParam = request.getParameter(XSLT_REQUEST_PARAM);
 
             //Analyze parameters and decide with method to use
-            if (foParam != null) {
-                renderFO(foParam, response);
-            } else if ((xmlParam != null) && (xsltParam != null)) {
-                renderXML(xmlParam, xsltParam, response);
+            if (foParam != null || ((xmlParam != null) && (xsltParam != null))) {
+                if (!acquireRender()) {
+                    response.setHeader("Retry-After", "1");
+                    response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                            "Too many concurrent requests");
+                    return;
+                }
+                try {
+                    if (foParam != null) {
+                        renderFO(foParam, response);
+                    } else {
+                        renderXML(xmlParam, xsltParam, response);
+                    }
+                } finally {
+                    releaseRender();
+                }
             } else {
                 response.setContentType("text/html");
                 PrintWriter out = response.getWriter();
@@ -152,6 +224,63 @@ public class FopServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Waits until a document may be rendered. Returns immediately with false if the
+     * maximum number of renders are running and the maximum number of requests are already
+     * waiting.
+     * @return true if the document may be rendered, false if the request must be rejected
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private boolean acquireRender() throws InterruptedException {
+        if (admissions == null) {
+            return true;
+        }
+        if (!admissions.tryAcquire()) {
+            return false;
+        }
+        try {
+            renders.acquire();
+        } catch (InterruptedException e) {
+            admissions.release();
+            throw e;
+        }
+        return true;
+    }
+
+    private void releaseRender() {
+        if (admissions != null) {
+            renders.release();
+            admissions.release();
+        }
+    }
+
+    /**
+     * Returns the compiled form of a stylesheet. Stylesheets are compiled once and shared by
+     * all requests unless caching is disabled.
+     * @param xslt the XSLT parameter
+     * @return the compiled stylesheet
+     * @throws TransformerException if the stylesheet cannot be compiled
+     */
+    protected Templates getTemplates(String xslt) throws TransformerException {
+        return templatesCache.getTemplates(convertString2Source(xslt), transFactory);
+    }
+
+    /**
+     * Removes a compiled stylesheet from the cache, so it is compiled again when it is next
+     * used.
+     * @param systemId the resolved system ID of the stylesheet
+     */
+    protected void invalidateTemplates(String systemId) {
+        templatesCache.invalidate(systemId);
+    }
+
+    /**
+     * Removes all compiled stylesheets from the cache.
+     */
+    protected void clearTemplatesCache() {
+        templatesCache.clear();
+    }
+
     /**
      * Converts a String parameter to a JAXP Source object.
      * @param param a String parameter
@@ -196,7 +325,10 @@ public class FopServlet extends HttpServlet {
         Source foSrc = convertString2Source(fo);
 
         //Setup the identity transformation
-        Transformer transformer = this.transFactory.newTransformer();
+        Transformer transformer;
+        synchronized (transFactory) {
+            transformer = this.transFactory.newTransformer();
+        }
         transformer.setURIResolver(this.uriResolver);
 
         //Start transformation and rendering process
@@ -221,10 +353,9 @@ public class FopServlet extends HttpServlet {
 
         //Setup sources
         Source xmlSrc = convertString2Source(xml);
-        Source xsltSrc = convertString2Source(xslt);
 
         //Setup the XSL transformation
-        Transformer transformer = this.transFactory.newTransformer(xsltSrc);
+        Transformer transformer = getTemplates(xslt).newTransformer();
         transformer.setURIResolver(this.uriResolver);
 
         //Start transformation and rendering process
@@ -236,7 +367,8 @@ public class FopServlet extends HttpServlet {
      * transformer given to optionally transform the input document to XSL-FO.
      * The transformer may be an identity transformer in which case the input
      * must already be XSL-FO. The PDF is written to a byte array that is
-     * returned as the method's result.
+     * returned as the method's result, or directly to the response if streaming
+     * is enabled.
      * @param src Input XML or XSL-FO
      * @param transformer Transformer to use for optional transformation
      * @param response HTTP response object
@@ -251,6 +383,16 @@ public class FopServlet extends HttpServlet {
 
         FOUserAgent foUserAgent = getFOUserAgent();
 
+        if (streaming) {
+            //Write the pages to the client as they are finished
+            response.setContentType("application/pdf");
+            OutputStream out = new BufferedOutputStream(response.getOutputStream());
+            Fop fop = fopFactory.newFop(MimeConstants.MIME_PDF, foUserAgent, out);
+            transformer.transform(src, new SAXResult(fop.getDefaultHandler()));
+            out.flush();
+            return;
+        }
+
         //Setup output
         ByteArrayOutputStream out = new ByteArrayOutputStream();
 
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.servlet;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Cache of compiled stylesheets used by {@link FopServlet}. Stylesheets are keyed by
+ * their resolved system ID, and the least recently used ones are dropped once the cache
+ * holds its maximum number of stylesheets. A stylesheet read from a file is compiled
+ * again when the file has been modified. Stylesheets without a system ID are never
+ * cached. This class is thread-safe.
+ */
+class TemplatesCache {
+
+    private final int maxSize;
+
+    private final Map<String, CachedTemplates> entries;
+
+    /**
+     * Creates a new cache.
+     * @param maxSize the maximum number of cached stylesheets, 0 to disable caching
+     */
+    TemplatesCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<String, CachedTemplates>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(Map.Entry<String, CachedTemplates> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled form of a stylesheet, compiling it if it is not cached or if
+     * its file has been modified since it was compiled.
+     * @param source the stylesheet
+     * @param factory the factory used to compile the stylesheet
+     * @return the compiled stylesheet
+     * @throws TransformerException if the stylesheet cannot be compiled
+     */
+    Templates getTemplates(Source source, TransformerFactory factory)
+            throws TransformerException {
+        String systemId = source.getSystemId();
+        if (maxSize <= 0 || systemId == null) {
+            return compile(source, factory);
+        }
+        long lastModified = getLastModified(systemId);
+        synchronized (this) {
+            CachedTemplates cached = entries.get(systemId);
+            if (cached != null && cached.lastModified == lastModified) {
+                close(source);
+                return cached.templates;
+            }
+        }
+        Templates templates = compile(source, factory);
+        synchronized (this) {
+            entries.put(systemId, new CachedTemplates(templates, lastModified));
+        }
+        return templates;
+    }
+
+    /**
+     * Removes a stylesheet from the cache, so it is compiled again when it is next used.
+     * @param systemId the system ID of the stylesheet
+     */
+    synchronized void invalidate(String systemId) {
+        entries.remove(systemId);
+    }
+
+    /** Removes all stylesheets from the cache. */
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of cached stylesheets.
+     * @return the number of stylesheets
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static Templates compile(Source source, TransformerFactory factory)
+            throws TransformerException {
+        synchronized (factory) {
+            return factory.newTemplates(source);
+        }
+    }
+
+    private static long getLastModified(String systemId) {
+        if (systemId.startsWith("file:")) {
+            try {
+                return new File(new URI(systemId)).lastModified();
+            } catch (URISyntaxException e) {
+                //modifications are not detected
+            } catch (IllegalArgumentException e) {
+                //not a hierarchical file URI, so modifications are not detected
+            }
+        }
+        return 0;
+    }
+
+    private static void close(Source source) {
+        if (source instanceof StreamSource) {
+            IOUtils.closeQuietly(((StreamSource) source).getInputStream());
+            IOUtils.closeQuietly(((StreamSource) source).getReader());
+        }
+    }
+
+    private static final class CachedTemplates {
+
+        private final Templates templates;
+        private final long lastModified;
+
+        CachedTemplates(Templates templates, long lastModified) {
+            this.templates = templates;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -374,12 +374,29 @@ public class PDFGraphics2D extends AbstractGraphics2D implements NativeImageHand
     }*/
 
     private void concatMatrix(double[] matrix) {
-        currentStream.write(PDFNumber.doubleOut(matrix[0], DEC) + " "
-                + PDFNumber.doubleOut(matrix[1], DEC) + " "
-                + PDFNumber.doubleOut(matrix[2], DEC) + " "
-                + PDFNumber.doubleOut(matrix[3], DEC) + " "
-                + PDFNumber.doubleOut(matrix[4], DEC) + " "
-                + PDFNumber.doubleOut(matrix[5], DEC) + " cm\n");
+        writeOperands(matrix, 0, 6);
+        currentStream.write("cm\n");
+    }
+
+    /**
+     * Appends numbers, each followed by a space, directly to the buffer of the current
+     * stream, without creating intermediate strings.
+     * @param values the values
+     * @param off the index of the first value to write
+     * @param len the number of values to write
+     */
+    private void writeOperands(double[] values, int off, int len) {
+        StringBuffer sb = currentStream.getBuffer();
+        for (int i = off; i < off + len; i++) {
+            PDFNumber.doubleOut(values[i], DEC, sb);
+            sb.append(' ');
+        }
+    }
+
+    private void writeOperand(double value, int dec) {
+        StringBuffer sb = currentStream.getBuffer();
+        PDFNumber.doubleOut(value, dec, sb);
+        sb.append(' ');
     }
 
     private void concatMatrix(AffineTransform transform) {
@@ -789,9 +806,7 @@ public class PDFGraphics2D extends AbstractGraphics2D implements NativeImageHand
             }
         }
         if (doWrite) {
-            StringBuffer sb = new StringBuffer();
-            colorHandler.establishColor(sb, col, fill);
-            currentStream.write(sb.toString());
+            colorHandler.establishColor(currentStream.getBuffer(), col, fill);
         }
     }
 
@@ -1118,14 +1133,15 @@ public class PDFGraphics2D extends AbstractGraphics2D implements NativeImageHand
             if (da != null) {
                 currentStream.write("[");
                 for (int count = 0; count < da.length; count++) {
-                    currentStream.write(PDFNumber.doubleOut(da[count]));
+                    PDFNumber.doubleOut(da[count], 6, currentStream.getBuffer());
                     if (count < da.length - 1) {
                         currentStream.write(" ");
                     }
                 }
                 currentStream.write("] ");
                 float offset = bs.getDashPhase();
-                currentStream.write(PDFNumber.doubleOut(offset) + " d\n");
+                writeOperand(offset, 6);
+                currentStream.write("d\n");
             } else {
                 currentStream.write("[] 0 d\n");
             }
@@ -1159,10 +1175,12 @@ public class PDFGraphics2D extends AbstractGraphics2D implements NativeImageHand
                 break;
             }
             float lw = bs.getLineWidth();
-            currentStream.write(PDFNumber.doubleOut(lw) + " w\n");
+            writeOperand(lw, 6);
+            currentStream.write("w\n");
 
             float ml = Math.max(1.0f, bs.getMiterLimit());
-            currentStream.write(PDFNumber.doubleOut(ml) + " M\n");
+            writeOperand(ml, 6);
+            currentStream.write("M\n");
         }
     }
 
@@ -1582,10 +1600,11 @@ public class PDFGraphics2D extends AbstractGraphics2D implements NativeImageHand
 
         if (s instanceof Rectangle2D) {
             Rectangle2D rect = (Rectangle2D)s;
-            currentStream.write(PDFNumber.doubleOut(rect.getMinX(), DEC) + " "
-                    + PDFNumber.doubleOut(rect.getMinY(), DEC) + " ");
-            currentStream.write(PDFNumber.doubleOut(rect.getWidth(), DEC) + " "
-                    + PDFNumber.doubleOut(rect.getHeight(), DEC) + " re ");
+            writeOperand(rect.getMinX(), DEC);
+            writeOperand(rect.getMinY(), DEC);
+            writeOperand(rect.getWidth(), DEC);
+            writeOperand(rect.getHeight(), DEC);
+            currentStream.write("re ");
             doDrawing(true, false, false);
         } else {
             PathIterator iter = s.getPathIterator(IDENTITY_TRANSFORM);
@@ -1620,43 +1639,39 @@ public class PDFGraphics2D extends AbstractGraphics2D implements NativeImageHand
     public void processPathIterator(PathIterator iter) {
         double lastX = 0.0;
         double lastY = 0.0;
+        double[] vals = new double[6];
         while (!iter.isDone()) {
-            double[] vals = new double[6];
             int type = iter.currentSegment(vals);
             switch (type) {
             case PathIterator.SEG_CUBICTO:
                 lastX = vals[4];
                 lastY = vals[5];
-                currentStream.write(PDFNumber.doubleOut(vals[0], DEC) + " "
-                                    + PDFNumber.doubleOut(vals[1], DEC) + " "
-                                    + PDFNumber.doubleOut(vals[2], DEC) + " "
-                                    + PDFNumber.doubleOut(vals[3], DEC) + " "
-                                    + PDFNumber.doubleOut(vals[4], DEC) + " "
-                                    + PDFNumber.doubleOut(vals[5], DEC) + " c\n");
+                writeOperands(vals, 0, 6);
+                currentStream.write("c\n");
                 break;
             case PathIterator.SEG_LINETO:
                 lastX = vals[0];
                 lastY = vals[1];
-                currentStream.write(PDFNumber.doubleOut(vals[0], DEC) + " "
-                                    + PDFNumber.doubleOut(vals[1], DEC) + " l\n");
+                writeOperands(vals, 0, 2);
+                currentStream.write("l\n");
                 break;
             case PathIterator.SEG_MOVETO:
                 lastX = vals[0];
                 lastY = vals[1];
-                currentStream.write(PDFNumber.doubleOut(vals[0], DEC) + " "
-                                    + PDFNumber.doubleOut(vals[1], DEC) + " m\n");
+                writeOperands(vals, 0, 2);
+                currentStream.write("m\n");
                 break;
             case PathIterator.SEG_QUADTO:
                 double controlPointAX = lastX + ((2.0 / 3.0) * (vals[0] - lastX));
                 double controlPointAY = lastY + ((2.0 / 3.0) * (vals[1] - lastY));
                 double controlPointBX = vals[2] + ((2.0 / 3.0) * (vals[0] - vals[2]));
                 double controlPointBY = vals[3] + ((2.0 / 3.0) * (vals[1] - vals[3]));
-                currentStream.write(PDFNumber.doubleOut(controlPointAX, DEC) + " "
-                        + PDFNumber.doubleOut(controlPointAY, DEC) + " "
-                        + PDFNumber.doubleOut(controlPointBX, DEC) + " "
-                        + PDFNumber.doubleOut(controlPointBY, DEC) + " "
-                        + PDFNumber.doubleOut(vals[2], DEC) + " "
-                        + PDFNumber.doubleOut(vals[3], DEC) + " c\n");
+                writeOperand(controlPointAX, DEC);
+                writeOperand(controlPointAY, DEC);
+                writeOperand(controlPointBX, DEC);
+                writeOperand(controlPointBY, DEC);
+                writeOperands(vals, 2, 2);
+                currentStream.write("c\n");
                 lastX = vals[2];
                 lastY = vals[3];
                 break;
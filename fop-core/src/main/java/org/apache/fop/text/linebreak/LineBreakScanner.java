@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.text.linebreak;
+
+import java.nio.CharBuffer;
+
+/**
+ * Bulk counterpart of {@link LineBreakStatus}: classifies a whole run of characters
+ * in a single pass and stores the break action before each character into a
+ * reusable array. The break actions are identical to the ones obtained by feeding
+ * the same characters one by one into a freshly created {@link LineBreakStatus}.
+ * <p>
+ * Line breaking classes for the Basic Latin block are resolved once and looked up
+ * from a flat table; all other characters go through {@link LineBreakUtils}.
+ * Once the internal array has grown to the size of the largest run, scanning
+ * a character sequence does not allocate. Instances are not thread-safe; the
+ * layout of a page-sequence shares one instance between all its text, see
+ * {@link org.apache.fop.layoutmgr.PageSequenceLayoutManager#getLineBreakScanner()}.
+ */
+public final class LineBreakScanner {
+
+    private static final byte[] ASCII_CLASSES = new byte[128];
+
+    static {
+        for (char c = 0; c < ASCII_CLASSES.length; c++) {
+            ASCII_CLASSES[c] = LineBreakStatus.resolveLineBreakClass(c);
+        }
+    }
+
+    private final LineBreakStatus status = new LineBreakStatus();
+
+    private byte[] breakActions = new byte[16];
+
+    /**
+     * Computes the break actions for the characters in the interval [start,end)
+     * of the given array.
+     *
+     * @param text the characters to scan
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return an array holding the break action before the character at
+     *          <code>start + i</code> at index <code>i</code>; the array is owned by
+     *          this scanner and only valid until the next call to a scan method
+     */
+    public byte[] scan(char[] text, int start, int end) {
+        return scan(CharBuffer.wrap(text), start, end);
+    }
+
+    /**
+     * Computes the break actions for the characters in the interval [start,end)
+     * of the given character sequence.
+     *
+     * @param text the characters to scan
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return an array holding the break action before the character at
+     *          <code>start + i</code> at index <code>i</code>; the array is owned by
+     *          this scanner and only valid until the next call to a scan method
+     * @see #scan(char[], int, int)
+     */
+    public byte[] scan(CharSequence text, int start, int end) {
+        byte[] actions = ensureCapacity(end - start);
+        status.reset();
+        for (int i = start, j = 0; i < end; i++, j++) {
+            char c = text.charAt(i);
+            byte lineBreakClass = (c < ASCII_CLASSES.length)
+                    ? ASCII_CLASSES[c]
+                    : LineBreakStatus.resolveLineBreakClass(c);
+            actions[j] = status.nextLineBreakClass(lineBreakClass);
+        }
+        return actions;
+    }
+
+    private byte[] ensureCapacity(int length) {
+        if (breakActions.length < length) {
+            int newLength = breakActions.length * 2;
+            breakActions = new byte[(newLength < length) ? length : newLength];
+        }
+        return breakActions;
+    }
+
+}
@@ -82,6 +82,18 @@ public class LineBreakStatus {
      *                  {@link #EXPLICIT_BREAK}
      */
     public byte nextChar(char c) {
+        return nextLineBreakClass(resolveLineBreakClass(c));
+    }
+
+    /**
+     * Resolves the line breaking class of the given character, applying the
+     * initial conversions of rule LB 1 for the classes AI, SA, SG and XX as
+     * well as for unassigned code points.
+     *
+     * @param c the character to classify
+     * @return the resolved line breaking class
+     */
+    static byte resolveLineBreakClass(char c) {
 
         byte currentClass = LineBreakUtils.getLineBreakProperty(c);
 
@@ -116,6 +128,17 @@ public class LineBreakStatus {
             default:
                 //nop
         }
+        return currentClass;
+    }
+
+    /**
+     * Advances the pair-table state machine by one character whose line breaking
+     * class has already been resolved through {@link #resolveLineBreakClass(char)}.
+     *
+     * @param currentClass the resolved line breaking class of the next character
+     * @return the break action to be taken before that character
+     */
+    byte nextLineBreakClass(byte currentClass) {
 
         /* Check 1: First character or initial character after a reset/mandatory break? */
         switch (leftClass) {
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of daemon threads that the documents created by a
+ * {@link org.apache.fop.apps.FopFactory} share for work done in parallel, such as the
+ * encoding of page content streams or of large images. However many documents are rendered
+ * at once, no more than the given number of threads is used. The threads are started when
+ * they are first needed and end after a second without work, so an unused pool holds no
+ * threads and need not be shut down.
+ */
+public final class WorkerPool {
+
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    private final int threadCount;
+
+    private ExecutorService executor;
+
+    /**
+     * Creates a new pool.
+     * @param threadCount the maximum number of threads
+     */
+    public WorkerPool(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("threadCount must be at least 1: " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Returns the maximum number of threads of the pool.
+     * @return the number of threads
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Returns the executor that runs tasks on the threads of the pool. Tasks are queued while
+     * all threads are busy. The executor must not be shut down.
+     * @return the executor
+     */
+    public synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final String prefix = "FOPWorker-" + POOL_COUNT.incrementAndGet() + "-";
+            final AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threadCount, threadCount,
+                    1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, prefix + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+}
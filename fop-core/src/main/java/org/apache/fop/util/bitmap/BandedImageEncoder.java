@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.util.bitmap;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encodes the pixels of an image as 24 bit RGB or as 1, 4 or 8 bit grayscale samples, row
+ * by row and without padding other than at the end of each row. The result is the same as
+ * that of {@code ImageEncodingHelper.encodeRenderedImageAsRGB()} followed by
+ * {@code ImageEncodingHelper.encodeRGBAsGrayScale()} for grayscale, but no intermediate
+ * RGB image is created.
+ * <p>
+ * The image is processed in bands of rows. Pixels of the common image types are read in
+ * bulk from the raster and converted in simple array loops. By default, all bands are
+ * converted on the calling thread. If an executor is set, the bands of large
+ * {@link BufferedImage}s are also converted by tasks run on the executor, each band being
+ * written to its own part of the result. Other images are always converted on the calling
+ * thread since computing their pixels may not be thread-safe.
+ */
+public final class BandedImageEncoder {
+
+    /** The number of rows converted at once. */
+    private static final int BAND_HEIGHT = 32;
+
+    /** The minimum number of pixels for which the executor is used. */
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private final RenderedImage image;
+    private final int width;
+    private final int height;
+    private Executor executor;
+    private int parallelism = 1;
+
+    /**
+     * Creates a new encoder.
+     * @param image the image to encode
+     */
+    public BandedImageEncoder(RenderedImage image) {
+        this.image = image;
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+    }
+
+    /**
+     * Sets the executor that helps the calling thread encode large images. The executor
+     * should be bounded and shared, like the {@link org.apache.fop.util.WorkerPool} of the
+     * {@link org.apache.fop.apps.FopFactory}. The calling thread does not wait for tasks
+     * that have not started by the time it has converted the remaining bands itself.
+     * @param executor the executor, or null to encode on the calling thread only
+     * @param parallelism the maximum number of threads encoding an image at once, including
+     *          the calling thread
+     */
+    public void setExecutor(Executor executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Encodes the image as 8 bit RGB samples.
+     * @return the encoded image
+     */
+    public byte[] encodeAsRGB() {
+        return encode(24);
+    }
+
+    /**
+     * Encodes the image as grayscale samples. Gray values are computed from the RGB values
+     * of the pixels. With 1 bit per pixel, 1 is black.
+     * @param bitsPerPixel the number of bits per pixel (1, 4 or 8)
+     * @return the encoded image
+     */
+    public byte[] encodeAsGrayscale(int bitsPerPixel) {
+        if (bitsPerPixel != 1 && bitsPerPixel != 4 && bitsPerPixel != 8) {
+            throw new UnsupportedOperationException(
+                    "Unsupported bits per pixel: " + bitsPerPixel);
+        }
+        return encode(bitsPerPixel);
+    }
+
+    private byte[] encode(final int bitsPerPixel) {
+        final int rowBytes = (width * bitsPerPixel + 7) / 8;
+        final byte[] out = new byte[rowBytes * height];
+        final int bands = (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+        int threads = 1;
+        if (executor != null && image instanceof BufferedImage
+                && (long) width * height >= PARALLEL_THRESHOLD) {
+            threads = Math.min(parallelism, bands);
+        }
+        final AtomicInteger nextBand = new AtomicInteger();
+        final Helpers helpers = new Helpers();
+        Runnable worker = new Runnable() {
+            public void run() {
+                if (!helpers.start()) {
+                    return;
+                }
+                try {
+                    BandConverter converter = new BandConverter(bitsPerPixel, rowBytes, out);
+                    for (int band = nextBand.getAndIncrement(); band < bands;
+                            band = nextBand.getAndIncrement()) {
+                        int y = band * BAND_HEIGHT;
+                        converter.convert(y, Math.min(BAND_HEIGHT, height - y));
+                    }
+                } catch (RuntimeException e) {
+                    helpers.fail(e);
+                    nextBand.set(bands);
+                } finally {
+                    helpers.end();
+                }
+            }
+        };
+        try {
+            for (int i = 1; i < threads; i++) {
+                executor.execute(worker);
+            }
+        } catch (RejectedExecutionException ree) {
+            //the calling thread converts the bands left
+        }
+        worker.run();
+        helpers.await();
+        return out;
+    }
+
+    /**
+     * Tracks the threads converting bands of an image, so that the calling thread only waits
+     * for the tasks that have started once it is done itself.
+     */
+    private static final class Helpers {
+
+        private int running;
+        private boolean closed;
+        private RuntimeException failure;
+
+        synchronized boolean start() {
+            if (closed) {
+                return false;
+            }
+            running++;
+            return true;
+        }
+
+        synchronized void end() {
+            running--;
+            notifyAll();
+        }
+
+        synchronized void fail(RuntimeException e) {
+            failure = e;
+        }
+
+        /** Waits for the started tasks to end and lets the others return at once. */
+        synchronized void await() {
+            closed = true;
+            boolean interrupted = false;
+            while (running > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Converts bands of rows. Each thread uses its own instance, so the buffers can be
+     * reused from band to band.
+     */
+    private final class BandConverter {
+
+        private final int bitsPerPixel;
+        private final int rowBytes;
+        private final byte[] out;
+        private final ColorModel colorModel;
+        /** The RGB values of all sample values for single band images, null otherwise. */
+        private final int[] lookup;
+        private final boolean direct;
+        private final boolean component;
+        private int[] samples;
+        private int[] rgb = new int[width];
+        private Object pixel;
+
+        BandConverter(int bitsPerPixel, int rowBytes, byte[] out) {
+            this.bitsPerPixel = bitsPerPixel;
+            this.rowBytes = rowBytes;
+            this.out = out;
+            this.colorModel = image.getColorModel();
+            int[] sampleSizes = image.getSampleModel().getSampleSize();
+            if (sampleSizes.length == 1 && sampleSizes[0] <= 8) {
+                lookup = new int[1 << sampleSizes[0]];
+                WritableRaster sample = Raster.createWritableRaster(
+                        image.getSampleModel().createCompatibleSampleModel(1, 1), null);
+                for (int i = 0; i < lookup.length; i++) {
+                    sample.setSample(0, 0, 0, i);
+                    pixel = sample.getDataElements(0, 0, pixel);
+                    lookup[i] = colorModel.getRGB(pixel);
+                }
+            } else {
+                lookup = null;
+            }
+            direct = lookup == null && isDirectRGB();
+            component = lookup == null && !direct && isComponentRGB();
+        }
+
+        private boolean isDirectRGB() {
+            if (!(colorModel instanceof DirectColorModel)
+                    || !(image.getSampleModel() instanceof SinglePixelPackedSampleModel)
+                    || image.getSampleModel().getTransferType() != DataBuffer.TYPE_INT) {
+                return false;
+            }
+            DirectColorModel cm = (DirectColorModel) colorModel;
+            return cm.getColorSpace().isCS_sRGB() && !cm.isAlphaPremultiplied()
+                    && cm.getRedMask() == 0xff0000 && cm.getGreenMask() == 0xff00
+                    && cm.getBlueMask() == 0xff;
+        }
+
+        private boolean isComponentRGB() {
+            if (!(colorModel instanceof ComponentColorModel)
+                    || colorModel.getTransferType() != DataBuffer.TYPE_BYTE
+                    || !colorModel.getColorSpace().isCS_sRGB()
+                    || colorModel.isAlphaPremultiplied()
+                    || image.getSampleModel().getNumBands() != colorModel.getNumComponents()) {
+                return false;
+            }
+            for (int size : colorModel.getComponentSize()) {
+                if (size != 8) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void convert(int y, int rows) {
+            Raster raster = getRaster(y, rows);
+            int x0 = raster.getMinX();
+            int y0 = raster.getMinY() + (image instanceof BufferedImage ? y : 0);
+            for (int row = 0; row < rows; row++) {
+                readRGB(raster, x0, y0 + row);
+                int offset = (y + row) * rowBytes;
+                switch (bitsPerPixel) {
+                case 24:
+                    writeRGB(offset);
+                    break;
+                case 8:
+                    writeGray8(offset);
+                    break;
+                case 4:
+                    writeGray4(offset);
+                    break;
+                default:
+                    writeGray1(offset);
+                }
+            }
+        }
+
+        private Raster getRaster(int y, int rows) {
+            if (image instanceof BufferedImage) {
+                return ((BufferedImage) image).getRaster();
+            }
+            return image.getData(new Rectangle(image.getMinX(), image.getMinY() + y,
+                    width, rows));
+        }
+
+        private void readRGB(Raster raster, int x0, int y) {
+            if (lookup != null) {
+                samples = raster.getSamples(x0, y, width, 1, 0, samples);
+                for (int x = 0; x < width; x++) {
+                    rgb[x] = lookup[samples[x]];
+                }
+            } else if (direct) {
+                rgb = (int[]) raster.getDataElements(x0, y, width, 1, rgb);
+            } else if (component) {
+                int bands = raster.getNumBands();
+                samples = raster.getPixels(x0, y, width, 1, samples);
+                for (int x = 0, i = 0; x < width; x++, i += bands) {
+                    rgb[x] = (samples[i] << 16) | (samples[i + 1] << 8) | samples[i + 2];
+                }
+            } else {
+                for (int x = 0; x < width; x++) {
+                    pixel = raster.getDataElements(x0 + x, y, pixel);
+                    rgb[x] = colorModel.getRGB(pixel);
+                }
+            }
+        }
+
+        private void writeRGB(int offset) {
+            for (int x = 0, i = offset; x < width; x++, i += 3) {
+                int c = rgb[x];
+                out[i] = (byte) (c >> 16);
+                out[i + 1] = (byte) (c >> 8);
+                out[i + 2] = (byte) c;
+            }
+        }
+
+        // see http://www.jguru.com/faq/view.jsp?EID=221919
+        private double gray(int c) {
+            return 0.212671d * ((c >> 16) & 0xff) + 0.715160d * ((c >> 8) & 0xff)
+                    + 0.072169d * (c & 0xff);
+        }
+
+        private void writeGray8(int offset) {
+            for (int x = 0; x < width; x++) {
+                out[offset + x] = (byte) gray(rgb[x]);
+            }
+        }
+
+        private void writeGray4(int offset) {
+            for (int x = 0; x < width; x++) {
+                int nibble = (int) (gray(rgb[x]) / 16);
+                out[offset + (x >> 1)] |= (byte) (nibble << ((1 - (x & 1)) * 4));
+            }
+        }
+
+        private void writeGray1(int offset) {
+            int full = width & ~7;
+            for (int x = 0; x < full; x += 8) {
+                int b = 0;
+                for (int bit = 0; bit < 8; bit++) {
+                    if (gray(rgb[x + bit]) < 128) {
+                        b |= 0x80 >> bit;
+                    }
+                }
+                out[offset + (x >> 3)] = (byte) b;
+            }
+            if (full < width) {
+                int b = 0;
+                for (int x = full; x < width; x++) {
+                    if (gray(rgb[x]) < 128) {
+                        b |= 0x80 >> (x - full);
+                    }
+                }
+                out[offset + (full >> 3)] = (byte) b;
+            }
+        }
+    }
+}
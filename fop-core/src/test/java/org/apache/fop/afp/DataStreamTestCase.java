@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.afp;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.fop.afp.modca.AbstractAFPObject.Category;
+import org.apache.fop.afp.modca.AbstractAFPObject.Type;
+import org.apache.fop.afp.modca.TagLogicalElement;
+
+/**
+ * Tests {@link DataStream}.
+ */
+public class DataStreamTestCase {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private final DataStream dataStream = new Factory().createDataStream(
+            new AFPPaintingState(), out);
+
+    /**
+     * Pages are written as soon as they end, even if the page group or document they belong
+     * to has tag logical elements or medium map invocations.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testPagesAreWrittenWhenEnded() throws Exception {
+        dataStream.startDocument();
+        dataStream.startPageGroup();
+        dataStream.createPageGroupTagLogicalElement(new TagLogicalElement.State[] {
+                new TagLogicalElement.State("key", "value")});
+        dataStream.createInvokeMediumMap("MEDIUM01");
+        for (int i = 1; i <= 3; i++) {
+            dataStream.startPage(100, 100, 0, 240, 240);
+            dataStream.endPage();
+            assertEquals(i, countStructuredFields(Type.END, Category.PAGE));
+        }
+        assertEquals(0, countStructuredFields(Type.END, Category.PAGE_GROUP));
+
+        dataStream.startPageGroup();
+        dataStream.startPage(100, 100, 0, 240, 240);
+        dataStream.endPage();
+        assertEquals(1, countStructuredFields(Type.END, Category.PAGE_GROUP));
+        assertEquals(4, countStructuredFields(Type.END, Category.PAGE));
+
+        dataStream.endDocument();
+        assertEquals(2, countStructuredFields(Type.END, Category.PAGE_GROUP));
+        assertEquals(1, countStructuredFields(Type.END, Category.DOCUMENT));
+    }
+
+    private int countStructuredFields(byte type, byte category) {
+        byte[] data = out.toByteArray();
+        int count = 0;
+        for (int i = 0; i + 5 < data.length; i++) {
+            if (data[i] == 0x5A && data[i + 3] == (byte) 0xD3
+                    && data[i + 4] == type && data[i + 5] == category) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
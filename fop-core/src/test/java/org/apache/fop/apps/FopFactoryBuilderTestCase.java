@@ -29,6 +29,7 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -279,6 +280,29 @@ public class FopFactoryBuilderTestCase {
         });
     }
 
+    @Test
+    public void testGetSetFontSubsetCacheSize() {
+        assertNotNull(new FopFactoryBuilder(URI.create(".")).build().getFontSubsetCache());
+        runSetterTest(new Runnable() {
+            public void run() {
+                defaultBuilder.setFontSubsetCacheSize(0);
+                assertNull(buildFopFactory().getFontSubsetCache());
+            }
+        });
+    }
+
+    @Test
+    public void testGetSetWorkerThreadCount() {
+        assertEquals(FopFactoryConfig.DEFAULT_WORKER_THREAD_COUNT,
+                new FopFactoryBuilder(URI.create(".")).build().getWorkerPool().getThreadCount());
+        runSetterTest(new Runnable() {
+            public void run() {
+                defaultBuilder.setWorkerThreadCount(0);
+                assertNull(buildFopFactory().getWorkerPool());
+            }
+        });
+    }
+
     private void runSetterTest(Runnable setterTest) {
         setterTest.run();
         try {
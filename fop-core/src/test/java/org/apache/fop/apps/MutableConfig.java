@@ -97,6 +97,18 @@ public final class MutableConfig implements FopFactoryConfig {
         return delegate.getTargetResolution();
     }
 
+    public long getStreamCacheMemoryLimit() {
+        return delegate.getStreamCacheMemoryLimit();
+    }
+
+    public int getFontSubsetCacheSize() {
+        return delegate.getFontSubsetCacheSize();
+    }
+
+    public int getWorkerThreadCount() {
+        return delegate.getWorkerThreadCount();
+    }
+
     public String getPageHeight() {
         return delegate.getPageHeight();
     }
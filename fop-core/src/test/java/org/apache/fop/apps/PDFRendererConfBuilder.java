@@ -33,8 +33,10 @@ import static org.apache.fop.render.pdf.PDFRendererOption.DISABLE_SRGB_COLORSPAC
 import static org.apache.fop.render.pdf.PDFRendererOption.FILTER_LIST;
 import static org.apache.fop.render.pdf.PDFRendererOption.FORM_XOBJECT;
 import static org.apache.fop.render.pdf.PDFRendererOption.OUTPUT_PROFILE;
+import static org.apache.fop.render.pdf.PDFRendererOption.PARALLEL_PAGE_ENCODING;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_A_MODE;
 import static org.apache.fop.render.pdf.PDFRendererOption.PDF_X_MODE;
+import static org.apache.fop.render.pdf.PDFRendererOption.STRUCTURE_TREE_STREAMING;
 import static org.apache.fop.render.pdf.PDFRendererOption.VERSION;
 
 /**
@@ -99,6 +101,16 @@ public final class PDFRendererConfBuilder extends RendererConfBuilder {
         return this;
     }
 
+    public PDFRendererConfBuilder setStructureTreeStreamingEnabled(boolean b) {
+        createTextElement(STRUCTURE_TREE_STREAMING, String.valueOf(b));
+        return this;
+    }
+
+    public PDFRendererConfBuilder setParallelPageEncodingEnabled(boolean b) {
+        createTextElement(PARALLEL_PAGE_ENCODING, String.valueOf(b));
+        return this;
+    }
+
     public final class EncryptionParamsBuilder {
         private final Element el;
 
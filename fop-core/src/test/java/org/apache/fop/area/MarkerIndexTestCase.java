@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.area;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+import org.apache.fop.fo.flow.Marker;
+
+/**
+ * Tests {@link MarkerIndex}.
+ */
+public class MarkerIndexTestCase {
+
+    /**
+     * The last marker of a class is found, unless its page is before the first page to
+     * consider.
+     */
+    @Test
+    public void testLastEnding() {
+        MarkerIndex index = new MarkerIndex();
+        Marker a1 = mock(Marker.class);
+        Marker a2 = mock(Marker.class);
+        Marker b1 = mock(Marker.class);
+        Map<String, Marker> page0 = new HashMap<String, Marker>();
+        page0.put("A", a1);
+        page0.put("B", b1);
+        index.addPage(0, page0);
+        index.addPage(1, Collections.<String, Marker>emptyMap());
+        index.addPage(2, Collections.singletonMap("A", a2));
+        index.addPage(3, Collections.<String, Marker>emptyMap());
+
+        assertEquals(a2, index.getLastEnding("A", 0));
+        assertEquals(a2, index.getLastEnding("A", 2));
+        assertNull(index.getLastEnding("A", 3));
+        assertEquals(b1, index.getLastEnding("B", 0));
+        assertNull(index.getLastEnding("B", 1));
+        assertNull(index.getLastEnding("C", 0));
+    }
+}
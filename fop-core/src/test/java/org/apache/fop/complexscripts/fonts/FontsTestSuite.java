@@ -33,7 +33,9 @@ import org.apache.fop.complexscripts.fonts.ttx.TTXFileTestCase;
     TTXFileTestCase.class,
     GDEFTestCase.class,
     GSUBTestCase.class,
-    GPOSTestCase.class
+    GPOSTestCase.class,
+    GlyphSubstitutionStateTestCase.class,
+    OTFAdvancedTypographicTableReaderTestCase.class
 })
 public class FontsTestSuite {
 }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+package org.apache.fop.complexscripts.fonts;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.apache.fop.complexscripts.util.CharAssociation;
+import org.apache.fop.complexscripts.util.GlyphSequence;
+
+/**
+ * Test case for {@link GlyphSubstitutionState}.
+ */
+public class GlyphSubstitutionStateTestCase {
+
+    @Test
+    public void testUnchangedOutput() {
+        GlyphSequence igs = makeSequence(new int[] {10, 11, 12, 13});
+        GlyphSubstitutionState ss = new GlyphSubstitutionState();
+        GlyphSequence ogs = substitute(ss.reset(igs, "latn", "dflt", "liga", null), -1, 0);
+        assertArrayEquals(new int[] {10, 11, 12, 13}, ogs.getGlyphArray(true));
+        assertAssociations(igs, ogs, 0, 1, 2, 3);
+    }
+
+    @Test
+    public void testChangedOutput() {
+        GlyphSequence igs = makeSequence(new int[] {10, 11, 12, 13});
+        GlyphSubstitutionState ss = new GlyphSubstitutionState();
+        GlyphSequence ogs = substitute(ss.reset(igs, "latn", "dflt", "liga", null), 2, 99);
+        assertArrayEquals(new int[] {10, 11, 99, 13}, ogs.getGlyphArray(true));
+        assertAssociations(igs, ogs, 0, 1, 2, 3);
+    }
+
+    @Test
+    public void testDeletedGlyph() {
+        GlyphSequence igs = makeSequence(new int[] {10, 11, 65535, 13});
+        GlyphSubstitutionState ss = new GlyphSubstitutionState();
+        GlyphSequence ogs = substitute(ss.reset(igs, "latn", "dflt", "liga", null), -1, 0);
+        assertArrayEquals(new int[] {10, 11, 13}, ogs.getGlyphArray(true));
+        assertAssociations(igs, ogs, 0, 1, 3);
+    }
+
+    @Test
+    public void testEmptyMultipleSubstitution() {
+        List<Integer> coverage = new ArrayList<Integer>();
+        coverage.add(12);
+        List<int[][]> entries = new ArrayList<int[][]>();
+        entries.add(new int[][] {new int[0]});
+        GlyphSubstitutionSubtable st = (GlyphSubstitutionSubtable) GlyphSubstitutionTable.createSubtable(
+                GlyphSubstitutionTable.GSUB_LOOKUP_TYPE_MULTIPLE, "lu0", 0, 0, 1, coverage, entries);
+        GlyphSequence igs = makeSequence(new int[] {10, 11, 12, 13});
+        GlyphSequence ogs = GlyphSubstitutionSubtable.substitute(igs, "latn", "dflt", "ccmp",
+                new GlyphSubstitutionSubtable[] {st}, null);
+        assertArrayEquals(new int[] {10, 11, 13}, ogs.getGlyphArray(true));
+        assertAssociations(igs, ogs, 0, 1, 3);
+        igs = makeSequence(new int[] {12, 13});
+        ogs = GlyphSubstitutionSubtable.substitute(igs, "latn", "dflt", "ccmp",
+                new GlyphSubstitutionSubtable[] {st}, null);
+        assertArrayEquals(new int[] {13}, ogs.getGlyphArray(true));
+    }
+
+    @Test
+    public void testReusedState() {
+        GlyphSubstitutionState ss = new GlyphSubstitutionState();
+        GlyphSequence first = substitute(ss.reset(makeSequence(new int[] {10, 11, 12}),
+                "latn", "dflt", "liga", null), 0, 98);
+        GlyphSequence second = substitute(ss.reset(makeSequence(new int[] {20, 21, 22}),
+                "latn", "dflt", "liga", null), 1, 99);
+        GlyphSequence third = substitute(ss.reset(makeSequence(new int[] {30, 31, 32}),
+                "latn", "dflt", "liga", null), -1, 0);
+        assertArrayEquals(new int[] {98, 11, 12}, first.getGlyphArray(true));
+        assertArrayEquals(new int[] {20, 99, 22}, second.getGlyphArray(true));
+        assertArrayEquals(new int[] {30, 31, 32}, third.getGlyphArray(true));
+    }
+
+    private static GlyphSequence makeSequence(int[] glyphs) {
+        IntBuffer characters = IntBuffer.allocate(glyphs.length);
+        for (int i = 0; i < glyphs.length; i++) {
+            characters.put('a' + i);
+        }
+        characters.flip();
+        return new GlyphSequence(characters, IntBuffer.wrap(glyphs), null);
+    }
+
+    /**
+     * Substitute the glyph at the given index with the given glyph, and copy all
+     * other glyphs, the way a single substitution subtable would.
+     */
+    private static GlyphSequence substitute(GlyphSubstitutionState ss, int at, int glyph) {
+        while (ss.hasNext()) {
+            if (ss.getPosition() == at) {
+                ss.putGlyph(glyph, ss.getAssociation(), null);
+                ss.consume(1);
+            } else {
+                ss.applyDefault();
+            }
+            ss.next();
+        }
+        return ss.getOutput();
+    }
+
+    private static void assertAssociations(GlyphSequence igs, GlyphSequence ogs, int... indices) {
+        assertEquals(indices.length, ogs.getGlyphCount());
+        for (int i = 0; i < indices.length; i++) {
+            CharAssociation a = ogs.getAssociation(i);
+            assertSame(igs.getAssociation(indices[i]), a);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.complexscripts.fonts;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.io.IOUtils;
+
+import org.apache.fop.complexscripts.fonts.GlyphTable.LookupSpec;
+import org.apache.fop.complexscripts.fonts.GlyphTable.LookupTable;
+import org.apache.fop.fonts.truetype.FontFileReader;
+import org.apache.fop.fonts.truetype.OFFontLoader;
+import org.apache.fop.fonts.truetype.OTFFile;
+import org.apache.fop.fonts.truetype.OpenFont;
+import org.apache.fop.fonts.truetype.TTFFile;
+
+/**
+ * Tests reading the advanced typographic tables of a font with
+ * {@link OTFAdvancedTypographicTableReader}.
+ */
+public class OTFAdvancedTypographicTableReaderTestCase {
+
+    private static OpenFont readFont(OpenFont font, String fileName) throws IOException {
+        InputStream stream = new FileInputStream(fileName);
+        try {
+            FontFileReader reader = new FontFileReader(stream);
+            font.readFont(reader, OFFontLoader.readHeader(reader));
+            return font;
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * Lookup tables are read once, when they are first obtained.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testLookupTablesReadOnDemand() throws IOException {
+        OpenFont ttfFile = readFont(new TTFFile(true, true),
+                "test/resources/fonts/ttf/DejaVuLGCSerif.ttf");
+        GlyphSubstitutionTable gsub = ttfFile.getGSUB();
+        assertNotNull(gsub);
+        assertNotNull(ttfFile.getGPOS());
+        LookupTable lt = gsub.getLookupTable("lu0");
+        assertNotNull(lt);
+        assertTrue(lt.performsSubstitution());
+        assertSame(lt, gsub.getLookupTable("lu0"));
+        assertNull(gsub.getLookupTable("lu65535"));
+        List<LookupTable> all = gsub.getLookupTables();
+        assertFalse(all.isEmpty());
+        assertSame(lt, all.get(0));
+        assertEquals(all, gsub.getLookupTables());
+    }
+
+    /**
+     * Matching lookups for a script, language and feature reads the lookup tables of
+     * that feature.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testMatchLookups() throws IOException {
+        OpenFont ttfFile = readFont(new TTFFile(true, true),
+                "test/resources/fonts/ttf/DejaVuLGCSerif.ttf");
+        GlyphPositioningTable gpos = ttfFile.getGPOS();
+        Map<LookupSpec, List<LookupTable>> lookups = gpos.matchLookups("latn", "dflt", "kern");
+        assertFalse(lookups.isEmpty());
+        for (List<LookupTable> ltl : lookups.values()) {
+            assertFalse(ltl.isEmpty());
+            for (LookupTable lt : ltl) {
+                assertTrue(lt.performsPositioning());
+                assertTrue(lt.getSubtables().length > 0);
+                assertSame(lt, gpos.getLookupTable(lt.getSubtables()[0].getLookupId()));
+            }
+        }
+        assertTrue(gpos.hasFeature("latn", "dflt", "kern"));
+    }
+
+    /**
+     * Contextual lookups resolve their references to other lookup tables, which are
+     * read when the referencing lookup table is read.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testLookupReferencesResolved() throws IOException {
+        OpenFont otfFile = readFont(new OTFFile(true, true),
+                "test/resources/fonts/otf/SourceSansProBold.otf");
+        for (GlyphTable table : new GlyphTable[] {otfFile.getGSUB(), otfFile.getGPOS()}) {
+            for (LookupTable lt : table.getLookupTables()) {
+                for (GlyphSubtable st : lt.getSubtables()) {
+                    if (st instanceof GlyphSubstitutionSubtable || st instanceof GlyphPositioningSubtable) {
+                        for (Object entry : st.getEntries()) {
+                            if (entry instanceof GlyphTable.RuleSet) {
+                                assertResolved((GlyphTable.RuleSet) entry);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertResolved(GlyphTable.RuleSet rs) {
+        for (GlyphTable.Rule r : rs.getRules()) {
+            GlyphTable.RuleLookup[] rla = r.getLookups();
+            if (rla != null) {
+                for (GlyphTable.RuleLookup rl : rla) {
+                    assertNotNull(rl.toString(), rl.getLookup());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fo.expr;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.apache.fop.fo.properties.FixedLength;
+import org.apache.fop.fo.properties.ListProperty;
+import org.apache.fop.fo.properties.Property;
+
+/**
+ * Tests {@link PropertyParser}.
+ */
+public class PropertyParserTestCase {
+
+    @Test
+    public void testContextFreeExpressions() throws PropertyException {
+        PropertyInfo propInfo = mock(PropertyInfo.class);
+        Property sum = PropertyParser.parse("2pt + 3pt", propInfo);
+        assertEquals(5000, sum.getLength().getValue());
+        assertSame(sum, PropertyParser.parse("2pt + 3pt", propInfo));
+        assertEquals(4000, PropertyParser.parse("max(1pt, 2pt) * 2", propInfo)
+                .getLength().getValue());
+        assertEquals(-2, PropertyParser.parse("-(7 mod 3) * 2", propInfo)
+                .getNumber().intValue());
+        verifyZeroInteractions(propInfo);
+    }
+
+    @Test
+    public void testContextDependentExpressions() throws PropertyException {
+        PropertyInfo propInfo = mock(PropertyInfo.class);
+        when(propInfo.currentFontSize()).thenReturn(FixedLength.getInstance(10, "pt"));
+        assertEquals(17000, PropertyParser.parse("1.5em + 2pt", propInfo)
+                .getLength().getValue());
+        when(propInfo.currentFontSize()).thenReturn(FixedLength.getInstance(20, "pt"));
+        assertEquals(32000, PropertyParser.parse("1.5em + 2pt", propInfo)
+                .getLength().getValue());
+        assertEquals(0.5, PropertyParser.parse("50%", propInfo).getNumber().doubleValue(), 0);
+    }
+
+    @Test
+    public void testLists() throws PropertyException {
+        PropertyInfo propInfo = mock(PropertyInfo.class);
+        Property list = PropertyParser.parse("Arial, 'Times New Roman'", propInfo);
+        assertTrue(list instanceof ListProperty);
+        assertEquals(2, list.getList().size());
+        assertNotSame(list, PropertyParser.parse("Arial, 'Times New Roman'", propInfo));
+    }
+
+    @Test
+    public void testErrorsAreReportedEveryTime() {
+        PropertyInfo propInfo = mock(PropertyInfo.class, RETURNS_DEEP_STUBS);
+        for (int i = 0; i < 2; i++) {
+            try {
+                PropertyParser.parse("1pt + 'x'", propInfo);
+                fail("PropertyException expected");
+            } catch (PropertyException e) {
+                // expected
+            }
+        }
+    }
+}
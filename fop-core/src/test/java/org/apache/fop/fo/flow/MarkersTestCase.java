@@ -19,6 +19,7 @@
 
 package org.apache.fop.fo.flow;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -121,4 +122,16 @@ public class MarkersTestCase {
             // do nothing
         }
     }
+
+    @Test
+    public void testGetLastEndingMarkers() {
+        Marker marker1 = mock(Marker.class);
+        Marker marker2 = mock(Marker.class);
+        Markers markers = new Markers();
+        markers.register(Collections.singletonMap("A", marker1), false, false, true);
+        markers.register(Collections.singletonMap("A", marker2), false, false, false);
+        markers.register(Collections.singletonMap("B", marker2), true, true, true);
+        // is-last has priority, and starting areas do not count
+        assertEquals(Collections.singletonMap("A", marker1), markers.getLastEndingMarkers());
+    }
 }
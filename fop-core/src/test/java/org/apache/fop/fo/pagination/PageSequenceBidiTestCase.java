@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fo.pagination;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.fo.FODocumentParser;
+import org.apache.fop.fo.FODocumentParser.FOEventHandlerFactory;
+import org.apache.fop.fo.FOEventHandler;
+
+/**
+ * Tests that page-sequences record whether they require bidirectional processing.
+ */
+public class PageSequenceBidiTestCase {
+
+    private final List<Boolean> bidiRequired = new ArrayList<Boolean>();
+
+    private class BidiRequiredRecorder extends FOEventHandler {
+
+        BidiRequiredRecorder(FOUserAgent userAgent) {
+            super(userAgent);
+        }
+
+        @Override
+        public void endPageSequence(PageSequence pageSeq) {
+            super.endPageSequence(pageSeq);
+            bidiRequired.add(pageSeq.isBidiRequired());
+        }
+    }
+
+    @Test
+    public void testLeftToRight() throws Exception {
+        assertBidiRequired(false, "<fo:block>Left to right, 1 2 3 &#x2022;</fo:block>");
+        assertBidiRequired(false, "<fo:block><fo:bidi-override direction='ltr'"
+                + " unicode-bidi='bidi-override'>Left to right</fo:bidi-override></fo:block>");
+        assertBidiRequired(false, "<fo:block><fo:character character='&#x20AC;'/></fo:block>");
+    }
+
+    @Test
+    public void testRightToLeftText() throws Exception {
+        assertBidiRequired(true, "<fo:block>Hebrew &#x05D0;&#x05D1;</fo:block>");
+        assertBidiRequired(true, "<fo:block>Arabic &#x0627;&#x0644;</fo:block>");
+        assertBidiRequired(true, "<fo:block>Arabic digits &#x0661;&#x0662;</fo:block>");
+        assertBidiRequired(true, "<fo:block>Embedding &#x202B;ab&#x202C;</fo:block>");
+        assertBidiRequired(true, "<fo:block><fo:character character='&#x05D0;'/></fo:block>");
+    }
+
+    @Test
+    public void testRightToLeftDirection() throws Exception {
+        assertBidiRequired(true, "<fo:block><fo:bidi-override direction='rtl'"
+                + " unicode-bidi='bidi-override'>Overridden</fo:bidi-override></fo:block>");
+        assertBidiRequired(true, "<fo:block-container writing-mode='rl-tb'>"
+                + "<fo:block>Text</fo:block></fo:block-container>");
+        assertBidiRequired(true, "<fo:table writing-mode='rl-tb'><fo:table-body><fo:table-row>"
+                + "<fo:table-cell><fo:block>Text</fo:block></fo:table-cell>"
+                + "</fo:table-row></fo:table-body></fo:table>");
+    }
+
+    private void assertBidiRequired(boolean expected, String flowContent) throws Exception {
+        String fo = "<fo:root xmlns:fo='http://www.w3.org/1999/XSL/Format'>"
+                + "<fo:layout-master-set><fo:simple-page-master master-name='page'>"
+                + "<fo:region-body/></fo:simple-page-master></fo:layout-master-set>"
+                + "<fo:page-sequence master-reference='page'>"
+                + "<fo:flow flow-name='xsl-region-body'><fo:block>Plain</fo:block></fo:flow>"
+                + "</fo:page-sequence>"
+                + "<fo:page-sequence master-reference='page'>"
+                + "<fo:flow flow-name='xsl-region-body'>" + flowContent + "</fo:flow>"
+                + "</fo:page-sequence></fo:root>";
+        bidiRequired.clear();
+        FODocumentParser.newInstance(new FOEventHandlerFactory() {
+            public FOEventHandler newFOEventHandler(FOUserAgent foUserAgent) {
+                return new BidiRequiredRecorder(foUserAgent);
+            }
+        }).parse(new ByteArrayInputStream(fo.getBytes("UTF-8")));
+        assertEquals(flowContent, 2, bidiRequired.size());
+        assertEquals(flowContent, false, bidiRequired.get(0));
+        assertEquals(flowContent, expected, bidiRequired.get(1));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fo.properties;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link PropertyCache}.
+ */
+public class PropertyCacheTestCase {
+
+    /** A value whose instances all have the same hash code. */
+    private static final class Value {
+
+        private final String name;
+
+        Value(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Value && ((Value) obj).name.equals(name);
+        }
+    }
+
+    @Test
+    public void testCollisions() {
+        PropertyCache<Value> cache = new PropertyCache<Value>(Value.class);
+        Value a = new Value("a");
+        Value b = new Value("b");
+        assertSame(a, cache.fetch(a));
+        assertSame(b, cache.fetch(b));
+        assertSame(a, cache.fetch(new Value("a")));
+        assertSame(b, cache.fetch(new Value("b")));
+        assertEquals(2, cache.getSize());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.getCollisions());
+        assertEquals(Value.class.getName(), cache.getType());
+    }
+
+    @Test
+    public void testMaxSize() {
+        PropertyCache<Value> cache = new PropertyCache<Value>(Value.class);
+        cache.setMaxSize(1);
+        Value a = new Value("a");
+        assertSame(a, cache.fetch(a));
+        Value b = new Value("b");
+        assertSame(b, cache.fetch(b));
+        assertNotSame(b, cache.fetch(new Value("b")));
+        assertSame(a, cache.fetch(new Value("a")));
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    public void testCaches() {
+        PropertyCache<Value> cache = new PropertyCache<Value>();
+        cache.fetch(new Value("a"));
+        assertEquals(Value.class.getName(), cache.getType());
+        assertTrue(PropertyCache.getCaches().contains(cache));
+    }
+
+    @Test
+    public void testRegisterMBeans() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        PropertyCache.registerMBeans(server);
+        ObjectName name = new ObjectName("org.apache.fop:type=PropertyCache,name="
+                + ObjectName.quote(FixedLength.class.getName()));
+        FixedLength.getInstance(12, "pt");
+        assertTrue(server.isRegistered(name));
+        assertTrue(((Number) server.getAttribute(name, "Size")).intValue() > 0);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the measurement of text by {@link Font}.
+ */
+public class FontTestCase {
+
+    private static final int FONT_SIZE = 10000;
+
+    private FontMetrics metrics;
+    private Map<Integer, Map<Integer, Integer>> kerning;
+    private Font font;
+
+    @Before
+    public void setUp() {
+        metrics = mock(FontMetrics.class);
+        when(metrics.getWidth(anyInt(), anyInt())).thenAnswer(new Answer<Integer>() {
+            public Integer answer(InvocationOnMock invocation) {
+                Object[] args = invocation.getArguments();
+                return (Integer) args[0] * (Integer) args[1];
+            }
+        });
+        kerning = new HashMap<Integer, Map<Integer, Integer>>();
+        when(metrics.hasKerningInfo()).thenReturn(true);
+        when(metrics.getKerningInfo()).thenReturn(kerning);
+        font = new Font("F1", null, metrics, FONT_SIZE);
+    }
+
+    @Test
+    public void testCharWidthsAreCached() {
+        assertEquals('A' * FONT_SIZE / 1000, font.getCharWidth('A'));
+        assertEquals('A' * FONT_SIZE / 1000, font.getCharWidth('A'));
+        verify(metrics, times(1)).getWidth('A', FONT_SIZE);
+    }
+
+    @Test
+    public void testMeasure() {
+        String text = "xAVy";
+        int expected = font.getCharWidth('A') + font.getCharWidth('V');
+        assertEquals(expected, font.measure(text, 1, 3));
+        assertEquals(font.getWordWidth(text), font.measure(text, 0, text.length()));
+        assertEquals(0, font.measure(text, 2, 2));
+    }
+
+    @Test
+    public void testKernValues() {
+        for (int ch1 = 'A'; ch1 <= 'Z'; ch1++) {
+            Map<Integer, Integer> pairs = new HashMap<Integer, Integer>();
+            for (int ch2 = 'a'; ch2 <= 'z'; ch2++) {
+                pairs.put(ch2, -(ch1 + ch2));
+            }
+            kerning.put(ch1, pairs);
+        }
+        for (int ch1 = 'A'; ch1 <= 'Z'; ch1++) {
+            for (int ch2 = 'a'; ch2 <= 'z'; ch2++) {
+                assertEquals(-(ch1 + ch2) * FONT_SIZE / 1000, font.getKernValue(ch1, ch2));
+            }
+            assertEquals(0, font.getKernValue(ch1, 'A'));
+        }
+        assertEquals(0, font.getKernValue('a', 'A'));
+        assertEquals(0, font.getKernValue(0xD800, 'a'));
+    }
+
+    @Test
+    public void testNoKerning() {
+        assertEquals(0, font.getKernValue('A', 'V'));
+    }
+}
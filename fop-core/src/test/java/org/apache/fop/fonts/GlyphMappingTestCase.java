@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import org.apache.fop.complexscripts.fonts.Substitutable;
+import org.apache.fop.traits.MinOptMax;
+
+/**
+ * Tests the reuse of word mappings by {@link GlyphMapping}.
+ */
+public class GlyphMappingTestCase {
+
+    private static final String TEXT = "Total EUR Total";
+
+    private FontMetrics metrics;
+    private Font font;
+    private TextFragment text;
+
+    @Before
+    public void setUp() {
+        metrics = mock(FontMetrics.class, withSettings().extraInterfaces(Substitutable.class));
+        when(metrics.getWidth(anyInt(), anyInt())).thenReturn(500000);
+        Substitutable substitutable = (Substitutable) metrics;
+        when(substitutable.performsSubstitution()).thenReturn(true);
+        when(substitutable.performSubstitution(any(CharSequence.class), anyString(), anyString(),
+                any(List.class), anyBoolean())).thenAnswer(new Answer<CharSequence>() {
+                    public CharSequence answer(InvocationOnMock invocation) {
+                        // a ligature: "Tot" -> "T"
+                        String word = invocation.getArguments()[0].toString();
+                        return word.replace("Tot", "T");
+                    }
+                });
+        when(substitutable.reorderCombiningMarks(any(CharSequence.class), any(int[][].class),
+                anyString(), anyString(), any(List.class))).thenAnswer(new Answer<CharSequence>() {
+                    public CharSequence answer(InvocationOnMock invocation) {
+                        return (CharSequence) invocation.getArguments()[0];
+                    }
+                });
+        font = new Font("F1", null, metrics, 10000);
+        text = mock(TextFragment.class);
+        when(text.getScript()).thenReturn("latn");
+        when(text.getLanguage()).thenReturn("none");
+        when(text.subSequence(anyInt(), anyInt())).thenAnswer(new Answer<CharSequence>() {
+            public CharSequence answer(InvocationOnMock invocation) {
+                Object[] args = invocation.getArguments();
+                return TEXT.subSequence((Integer) args[0], (Integer) args[1]);
+            }
+        });
+    }
+
+    private GlyphMapping map(int start, int end, boolean retainAssociations) {
+        return GlyphMapping.doGlyphMapping(text, start, end, font, MinOptMax.ZERO,
+                new MinOptMax[TEXT.length() + 1], '\0', ' ', false, 0, false,
+                retainAssociations, false);
+    }
+
+    @Test
+    public void testRepeatedWordIsMappedOnce() {
+        GlyphMapping first = map(0, 5, false);
+        GlyphMapping second = map(10, 15, false);
+        verify((Substitutable) metrics, times(1)).performSubstitution(any(CharSequence.class),
+                anyString(), anyString(), any(List.class), anyBoolean());
+        assertEquals("Tal", first.mapping);
+        assertEquals(first.mapping, second.mapping);
+        assertEquals(first.areaIPD, second.areaIPD);
+        assertEquals(10, second.startIndex);
+        assertEquals(15, second.endIndex);
+        assertTrue(second.breakOppAfter);
+
+        GlyphMapping other = map(6, 9, false);
+        assertEquals(null, other.mapping);
+        verify((Substitutable) metrics, times(2)).performSubstitution(any(CharSequence.class),
+                anyString(), anyString(), any(List.class), anyBoolean());
+    }
+
+    @Test
+    public void testAssociationsAreNotCached() {
+        map(0, 5, false);
+        GlyphMapping mapping = map(10, 15, true);
+        assertNotNull(mapping.associations);
+        verify((Substitutable) metrics, times(2)).performSubstitution(any(CharSequence.class),
+                anyString(), anyString(), any(List.class), anyBoolean());
+        assertFalse(mapping.isSpace);
+    }
+}
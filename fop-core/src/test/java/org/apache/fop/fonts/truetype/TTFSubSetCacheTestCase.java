@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.fonts.truetype;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Tests {@link TTFSubSetCache}.
+ */
+public class TTFSubSetCacheTestCase extends TTFFileTestCase {
+
+    private static final URI FONT_URI = URI.create("http://example.org/DejaVuLGCSerif.ttf");
+
+    public TTFSubSetCacheTestCase() throws IOException {
+        super();
+    }
+
+    private static Map<Integer, Integer> glyphs(int... originalIndexes) {
+        Map<Integer, Integer> glyphs = new HashMap<Integer, Integer>();
+        for (int i = 0; i < originalIndexes.length; i++) {
+            glyphs.put(originalIndexes[i], i);
+        }
+        return glyphs;
+    }
+
+    private byte[] subset(TTFSubSetCache cache, Map<Integer, Integer> glyphs) throws IOException {
+        String header = OFFontLoader.readHeader(dejavuReader);
+        return cache.getFontSubset(FONT_URI, dejavuReader, "DejaVu", header, glyphs);
+    }
+
+    /**
+     * The same glyph mapping returns the cached subset, which equals a freshly created one.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testSameMappingIsCached() throws IOException {
+        TTFSubSetCache cache = new TTFSubSetCache(TTFSubSetCache.DEFAULT_MAX_SIZE);
+        byte[] first = subset(cache, glyphs(0, 36, 37, 38));
+        byte[] second = subset(cache, glyphs(0, 36, 37, 38));
+        assertSame(first, second);
+        assertEquals(1, cache.getSubsetCount());
+
+        TTFSubSetFile subsetFile = new TTFSubSetFile();
+        subsetFile.readFont(dejavuReader, "DejaVu", OFFontLoader.readHeader(dejavuReader),
+                glyphs(0, 36, 37, 38));
+        assertArrayEquals(subsetFile.getFontSubset(), first);
+    }
+
+    /**
+     * The same glyphs with different subset indexes give a different subset.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testDifferentMappingIsNotShared() throws IOException {
+        TTFSubSetCache cache = new TTFSubSetCache(TTFSubSetCache.DEFAULT_MAX_SIZE);
+        byte[] first = subset(cache, glyphs(0, 36, 37, 38));
+        byte[] second = subset(cache, glyphs(0, 38, 37, 36));
+        assertNotSame(first, second);
+        assertEquals(2, cache.getSubsetCount());
+    }
+
+    /**
+     * The least recently used subsets are evicted once the maximum size is exceeded.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testEviction() throws IOException {
+        int size = subset(new TTFSubSetCache(TTFSubSetCache.DEFAULT_MAX_SIZE),
+                glyphs(0, 36)).length;
+        TTFSubSetCache cache = new TTFSubSetCache(size * 2 + size / 2);
+        byte[] first = subset(cache, glyphs(0, 36));
+        subset(cache, glyphs(0, 37));
+        subset(cache, glyphs(0, 36));
+        subset(cache, glyphs(0, 38));
+        assertEquals(2, cache.getSubsetCount());
+        assertSame(first, subset(cache, glyphs(0, 36)));
+
+        TTFSubSetCache tiny = new TTFSubSetCache(10);
+        subset(tiny, glyphs(0, 36));
+        assertEquals(0, tiny.getSubsetCount());
+    }
+
+    /**
+     * Fonts that are not local files are keyed by their content.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testChangedContentIsNotShared() throws IOException {
+        TTFSubSetCache cache = new TTFSubSetCache(TTFSubSetCache.DEFAULT_MAX_SIZE);
+        subset(cache, glyphs(0, 36));
+        cache.getFontSubset(FONT_URI, droidmonoReader, "DejaVu",
+                OFFontLoader.readHeader(droidmonoReader), glyphs(0, 36));
+        assertEquals(2, cache.getSubsetCount());
+        assertNull(cache.getCachedSubset(FONT_URI, "DejaVu", glyphs(0, 36)));
+    }
+
+    /**
+     * The subset of a local font file is found without reading the file, unless the file
+     * has been modified.
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testLocalFileLookup() throws IOException {
+        File fontFile = File.createTempFile("TTFSubSetCacheTestCase", ".ttf");
+        try {
+            FileUtils.copyFile(new File("test/resources/fonts/ttf/DejaVuLGCSerif.ttf"), fontFile);
+            URI fontURI = fontFile.toURI();
+            TTFSubSetCache cache = new TTFSubSetCache(TTFSubSetCache.DEFAULT_MAX_SIZE);
+            assertNull(cache.getCachedSubset(fontURI, "DejaVu", glyphs(0, 36)));
+            byte[] subset = cache.getFontSubset(fontURI, dejavuReader, "DejaVu",
+                    OFFontLoader.readHeader(dejavuReader), glyphs(0, 36));
+            assertSame(subset, cache.getCachedSubset(fontURI, "DejaVu", glyphs(0, 36)));
+            fontFile.setLastModified(fontFile.lastModified() - 10000);
+            assertNull(cache.getCachedSubset(fontURI, "DejaVu", glyphs(0, 36)));
+        } finally {
+            fontFile.delete();
+        }
+    }
+}
@@ -34,9 +34,12 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import org.apache.commons.io.IOUtils;
+
 import org.apache.xmlgraphics.fonts.Glyphs;
 
 import org.apache.fop.fonts.SingleByteFont;
@@ -57,6 +60,26 @@ public class Type1SubsetFileTestCase {
         compareCharStringData(TEST_FONT_A, createFontASubset(in, TEST_FONT_A));
     }
 
+    @Test
+    public void testSubsetReusesParsedFont() throws IOException {
+        ParsedType1Font.clearCache();
+        byte[] first = createFontASubset(new FileInputStream(TEST_FONT_A), TEST_FONT_A);
+        assertEquals(1, ParsedType1Font.getCacheCount());
+        byte[] second = createFontASubset(new FileInputStream(TEST_FONT_A), TEST_FONT_A);
+        assertEquals(1, ParsedType1Font.getCacheCount());
+        assertArrayEquals(first, second);
+        compareCharStringData(TEST_FONT_A, second);
+
+        ParsedType1Font parsedFont = ParsedType1Font.getInstance(
+                IOUtils.toByteArray(new FileInputStream(TEST_FONT_A)));
+        PSFixedArray subrs = (PSFixedArray) findElement(parsedFont.getMainSection(), "/Subrs");
+        int[] position = subrs.getBinaryEntryByIndex(0);
+        byte[] subr = parsedFont.getDecryptedEntry(position, 4);
+        assertSame(subr, parsedFont.getDecryptedEntry(position, 4));
+        byte[] encrypted = new Type1SubsetFile().getBinaryEntry(position, parsedFont.getDecodedMainSection());
+        assertArrayEquals(BinaryCoder.decodeBytes(encrypted, 4330, 4), subr);
+    }
+
     @Test
     public void testStitchFont() throws IOException {
         ByteArrayOutputStream baosHeader = new ByteArrayOutputStream();
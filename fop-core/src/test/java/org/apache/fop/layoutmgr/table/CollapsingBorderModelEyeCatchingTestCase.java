@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.layoutmgr.table;
+
+import java.awt.Color;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.fop.fo.Constants;
+import org.apache.fop.fo.flow.table.BorderSpecification;
+import org.apache.fop.fo.properties.CommonBorderPaddingBackground.BorderInfo;
+import org.apache.fop.fo.properties.CondLengthProperty;
+
+/**
+ * Tests the resolution of shared border specifications by
+ * {@link CollapsingBorderModelEyeCatching}.
+ */
+public class CollapsingBorderModelEyeCatchingTestCase {
+
+    private final CollapsingBorderModel model
+            = CollapsingBorderModel.getBorderModelFor(Constants.EN_COLLAPSE);
+
+    private BorderInfo createBorderInfo(int width, boolean discard) {
+        CondLengthProperty clp = mock(CondLengthProperty.class);
+        when(clp.getLengthValue()).thenReturn(width);
+        when(clp.isDiscard()).thenReturn(discard);
+        return BorderInfo.getInstance(Constants.EN_SOLID, clp, Color.BLACK, clp, clp);
+    }
+
+    @Test
+    public void testSharedSpecifications() {
+        BorderInfo bi = createBorderInfo(1000, false);
+        BorderSpecification cellBorder = BorderSpecification.getInstance(bi,
+                Constants.FO_TABLE_CELL);
+        assertSame(cellBorder, BorderSpecification.getInstance(bi, Constants.FO_TABLE_CELL));
+        BorderSpecification rowBorder = BorderSpecification.getInstance(bi,
+                Constants.FO_TABLE_ROW);
+        assertNotSame(cellBorder, rowBorder);
+        assertEquals(cellBorder, new BorderSpecification(bi, Constants.FO_TABLE_CELL));
+        // Rule 4: the cell wins over the row
+        assertSame(cellBorder, model.determineWinner(rowBorder, cellBorder));
+    }
+
+    @Test
+    public void testIdenticalBorders() {
+        BorderSpecification border = BorderSpecification.getInstance(
+                createBorderInfo(2000, false), Constants.FO_TABLE_CELL);
+        assertSame(border, model.determineWinner(border, border));
+        assertSame(border, model.determineWinner(border, border, true));
+    }
+
+    @Test
+    public void testDiscardedBorders() {
+        BorderSpecification border = BorderSpecification.getInstance(
+                createBorderInfo(3000, true), Constants.FO_TABLE_CELL);
+        BorderSpecification winner = model.determineWinner(border, border, true);
+        assertNotSame(border, winner);
+        assertEquals(Constants.EN_NONE, winner.getBorderInfo().getStyle());
+        assertSame(winner, model.determineWinner(border, border, true));
+        assertSame(border, model.determineWinner(border, border, false));
+    }
+}
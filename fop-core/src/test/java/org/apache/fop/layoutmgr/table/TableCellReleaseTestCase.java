@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.layoutmgr.table;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.apps.Fop;
+import org.apache.fop.apps.FopFactory;
+import org.apache.fop.apps.MimeConstants;
+import org.apache.fop.area.AreaTreeHandler;
+import org.apache.fop.fo.flow.table.PrimaryGridUnit;
+import org.apache.fop.fo.flow.table.Table;
+import org.apache.fop.fo.flow.table.TableBody;
+import org.apache.fop.fo.flow.table.TablePart;
+
+/**
+ * Checks that the layout managers and element lists of table cells are released once
+ * their areas have been added, except for headers and footers which are repeated.
+ */
+public class TableCellReleaseTestCase {
+
+    @Test
+    public void testBodyCellsAreReleased() throws Exception {
+        StringBuilder fo = new StringBuilder("<fo:root xmlns:fo=\"http://www.w3.org/1999/XSL/Format\">"
+                + "<fo:layout-master-set><fo:simple-page-master master-name=\"page\""
+                + " page-height=\"100pt\" page-width=\"200pt\">"
+                + "<fo:region-body/></fo:simple-page-master></fo:layout-master-set>"
+                + "<fo:page-sequence master-reference=\"page\"><fo:flow flow-name=\"xsl-region-body\">"
+                + "<fo:table width=\"100%\" table-layout=\"fixed\">"
+                + "<fo:table-header><fo:table-row><fo:table-cell><fo:block>Header</fo:block>"
+                + "</fo:table-cell></fo:table-row></fo:table-header><fo:table-body>");
+        for (int i = 0; i < 40; i++) {
+            fo.append("<fo:table-row><fo:table-cell><fo:block>Row ").append(i)
+                    .append("</fo:block><fo:block>second line</fo:block></fo:table-cell></fo:table-row>");
+        }
+        fo.append("</fo:table-body></fo:table></fo:flow></fo:page-sequence></fo:root>");
+
+        final List<Table> tables = new ArrayList<Table>();
+        FopFactory fopFactory = FopFactory.newInstance(new File(".").toURI());
+        FOUserAgent userAgent = fopFactory.newFOUserAgent();
+        OutputStream out = new ByteArrayOutputStream();
+        userAgent.setFOEventHandlerOverride(
+                new AreaTreeHandler(userAgent, MimeConstants.MIME_PDF, out) {
+                    public void endTable(Table table) {
+                        super.endTable(table);
+                        tables.add(table);
+                    }
+                });
+        Fop fop = fopFactory.newFop(MimeConstants.MIME_PDF, userAgent, out);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.transform(new StreamSource(new StringReader(fo.toString())),
+                new SAXResult(fop.getDefaultHandler()));
+
+        assertEquals(1, tables.size());
+        Table table = tables.get(0);
+        assertEquals(1, getPrimaryGridUnits(table.getTableHeader()).size());
+        for (PrimaryGridUnit pgu : getPrimaryGridUnits(table.getTableHeader())) {
+            assertNotNull(pgu.getCellLM());
+            assertNotNull(pgu.getElements());
+        }
+        TableBody body = null;
+        for (Iterator it = table.getChildNodes(); it.hasNext();) {
+            Object child = it.next();
+            if (child instanceof TableBody) {
+                body = (TableBody) child;
+            }
+        }
+        assertEquals(40, getPrimaryGridUnits(body).size());
+        for (PrimaryGridUnit pgu : getPrimaryGridUnits(body)) {
+            assertNull(pgu.getElements());
+        }
+    }
+
+    private List<PrimaryGridUnit> getPrimaryGridUnits(TablePart part) {
+        List<PrimaryGridUnit> pgus = new ArrayList<PrimaryGridUnit>();
+        for (Object rowGroup : part.getRowGroups()) {
+            for (Object row : (List) rowGroup) {
+                for (Object gu : (List) row) {
+                    if (gu instanceof PrimaryGridUnit) {
+                        pgus.add((PrimaryGridUnit) gu);
+                    }
+                }
+            }
+        }
+        return pgus;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.xmlgraphics.util.DoubleFormatUtil;
+
+/**
+ * Tests {@link PDFContentWriter}.
+ */
+public class PDFContentWriterTestCase {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private final PDFContentWriter writer = new PDFContentWriter(out);
+
+    private String written() throws Exception {
+        writer.flush();
+        String s = out.toString(PDFDocument.ENCODING);
+        out.reset();
+        return s;
+    }
+
+    /**
+     * Numbers are formatted like {@link DoubleFormatUtil}, which is used for the values the
+     * fast path cannot handle.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testNumbersMatchDoubleFormatUtil() throws Exception {
+        double[] values = {0, -0.0, 1, -1, 0.5, 0.0000005, 0.0000004999, 1.0000005, 2.5,
+                100.12345611111111f, 99.99999999999999999999999f, 5.7220458984375E-6,
+                7.272727272727, 0.31543, 1e-20, 123456789.123456789, 1e12, -1e15,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.MAX_VALUE};
+        for (double value : values) {
+            for (int dec = 0; dec <= 10; dec++) {
+                assertNumber(value, dec);
+            }
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 4);
+            assertNumber(value, 6);
+            assertNumber(value, 4);
+            assertNumber(value / 1000f, 6);
+            assertNumber((float) value, 8);
+            assertNumber(Math.round(value * 1000) / 1000f, 6);
+        }
+    }
+
+    private void assertNumber(double value, int dec) throws Exception {
+        StringBuffer expected = new StringBuffer();
+        DoubleFormatUtil.formatDouble(value, dec, dec, expected);
+        writer.writeNumber(value, dec);
+        assertEquals(value + " @" + dec, expected.toString(), written());
+        assertEquals(value + " @" + dec, expected.toString(), PDFNumber.doubleOut(value, dec));
+    }
+
+    /**
+     * Tests writing text, operators and integers.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testWrite() throws Exception {
+        writer.writeOperand(1.5f).writeInt(-20).write(' ')
+                .write(PDFContentWriter.encode("m")).write('\n');
+        writer.write(new StringBuffer("(\u00E9\u20AC)")).write("\uD83D\uDE00");
+        assertEquals("1.5 -20 m\n(\u00E9?)?", written());
+    }
+
+    /**
+     * Content larger than the internal buffer is written completely and in order.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testLargeContent() throws Exception {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            writer.writeOperand(i / 7.0).write("l\n");
+            expected.append(PDFNumber.doubleOut(i / 7.0)).append(" l\n");
+        }
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            large.append((char) ('a' + i % 26));
+        }
+        writer.write(PDFContentWriter.encode(large.toString()));
+        expected.append(large);
+        assertEquals(expected.toString(), written());
+    }
+}
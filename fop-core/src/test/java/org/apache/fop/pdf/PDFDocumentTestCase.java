@@ -21,10 +21,13 @@ package org.apache.fop.pdf;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test case for {@link PDFDocument}
@@ -59,4 +62,42 @@ public class PDFDocumentTestCase {
         PDFDocument.flushTextBuffer(textBuffer, out);
         assertEquals(fullString, out.toString());
     }
+
+    /**
+     * With structure tree streaming, only the elements of the finished page-sequence are
+     * handed over for output.
+     */
+    @Test
+    public void testOutputStructureElementsOfPageSequence() {
+        PDFDocument doc = new PDFDocument("test");
+        doc.setStructureTreeStreamingEnabled(true);
+        PDFStructTreeRoot structTreeRoot = doc.makeStructTreeRoot(new PDFParentTree());
+        PDFStructElem root = register(doc, structTreeRoot);
+        PDFStructElem first = register(doc, root);
+        PDFStructElem paragraph = register(doc, register(doc, first));
+        PDFStructElem second = register(doc, root);
+        PDFStructElem span = register(doc, register(doc, second));
+        assertEquals(Arrays.asList(root), doc.getStructureTreeElements());
+        int objectCount = doc.objects.size();
+
+        doc.outputStructureElements(first);
+        assertEquals(objectCount + 3, doc.objects.size());
+        assertTrue(doc.objects.contains(first));
+        assertTrue(doc.objects.contains(paragraph));
+        assertFalse(doc.objects.contains(span));
+
+        doc.outputStructureElements(first);
+        assertEquals(objectCount + 3, doc.objects.size());
+        doc.outputStructureElements(second);
+        assertEquals(objectCount + 6, doc.objects.size());
+        assertTrue(doc.objects.contains(span));
+        assertEquals(Arrays.asList(root), doc.getStructureTreeElements());
+    }
+
+    private PDFStructElem register(PDFDocument doc, PDFObject parent) {
+        PDFStructElem structElem = new PDFStructElem(parent,
+                StandardStructureTypes.Grouping.PART);
+        doc.registerStructureElement(structElem);
+        return structElem;
+    }
 }
@@ -51,13 +51,31 @@ public class PDFLinearizationTestCase {
     @Test
     public void testPDF() throws IOException {
         PDFDocument doc = new PDFDocument("");
+        checkPDF(createLinearizedPDF(doc, 2), 5);
+    }
+
+    @Test
+    public void testManyPagesWithStreamCacheLimit() throws IOException {
+        PDFDocument doc = new PDFDocument("");
+        StreamCacheFactory streamCacheFactory = StreamCacheFactory.newSegmentedInstance(0);
+        doc.setStreamCacheFactory(streamCacheFactory);
+        try {
+            //The page tree is numbered after the three objects of each page
+            checkPDF(createLinearizedPDF(doc, 500), 3 * 500 - 1);
+        } finally {
+            streamCacheFactory.close();
+        }
+    }
+
+    private byte[] createLinearizedPDF(PDFDocument doc, int pageCount) throws IOException {
         doc.setLinearizationEnabled(true);
         PDFResources resources = new PDFResources(doc);
         PDFResourceContext context = new PDFResourceContext(resources);
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         PDFContentGenerator gen = null;
-        for (int i = 0; i < 2; i++) {
+        for (int i = 0; i < pageCount; i++) {
             gen = new PDFContentGenerator(doc, out, context);
+            gen.add("0 0 m " + i + " 10 l S\n");
             Rectangle2D.Float f = new Rectangle2D.Float();
             PDFPage page = new PDFPage(resources, i, f, f, f, f);
             doc.registerObject(page);
@@ -65,8 +83,7 @@ public class PDFLinearizationTestCase {
             page.setContents(new PDFReference(gen.getStream()));
         }
         gen.flushPDFDoc();
-        byte[] data = out.toByteArray();
-        checkPDF(data);
+        return out.toByteArray();
     }
 
     @Test
@@ -94,7 +111,7 @@ public class PDFLinearizationTestCase {
         Assert.assertTrue(out.toString().contains("/Subtype /Image"));
     }
 
-    private void checkPDF(byte[] data) throws IOException {
+    private void checkPDF(byte[] data, int pagesObjNumber) throws IOException {
         checkHintTable(data);
         InputStream is = new ByteArrayInputStream(data);
         Map<String, StringBuilder> objs = readObjs(is);
@@ -120,7 +137,7 @@ public class PDFLinearizationTestCase {
         Assert.assertTrue(firstObj.endsWith("startxref0%%EOF"));
         int pageObjNumber = getValue("/O", firstObj);
         Assert.assertTrue(objs.get(pageObjNumber + " 0 obj").toString().contains("/Type /Page"));
-        Assert.assertTrue(objs.get("5 0 obj").toString().contains("/Type /Pages"));
+        Assert.assertTrue(objs.get(pagesObjNumber + " 0 obj").toString().contains("/Type /Pages"));
 
         int total = 0;
         for (int i : objects) {
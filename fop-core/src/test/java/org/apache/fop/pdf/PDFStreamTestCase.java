@@ -21,6 +21,8 @@ package org.apache.fop.pdf;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -108,6 +110,27 @@ public class PDFStreamTestCase {
         assertArrayEquals(createSampleStreamData(), actual.toByteArray());
     }
 
+    @Test
+    public void testEncodeAhead() throws IOException {
+        PDFStream expected = new PDFStream(false);
+        expected.setObjectNumber(1);
+        expected.setDocument(stream.getDocument());
+        expected.add("0 0 m 100 100 l S\n");
+        stream.add("0 0 m 100 100 l S\n");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            stream.encodeAhead(executor);
+        } finally {
+            executor.shutdown();
+        }
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        stream.output(actual);
+        ByteArrayOutputStream serial = new ByteArrayOutputStream();
+        expected.output(serial);
+        assertArrayEquals(serial.toByteArray(), actual.toByteArray());
+        assertTrue(stream.getFilterList().isInitialized());
+    }
+
     private byte[] createSampleData() {
         byte[] bytes = new byte[10];
         for (int i = 0; i < 10; i++) {
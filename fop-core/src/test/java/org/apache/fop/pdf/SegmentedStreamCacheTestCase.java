@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SegmentedStreamCacheTestCase {
+
+    private static final int MEMORY_LIMIT = 4 * SegmentPool.SEGMENT_SIZE;
+
+    private SegmentPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new SegmentPool(MEMORY_LIMIT);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        pool.close();
+    }
+
+    @Test
+    public void testSmallStream() throws IOException {
+        SegmentedStreamCache cache = new SegmentedStreamCache(pool, 0);
+        byte[] data = createData(1000, 1);
+        cache.getOutputStream().write(data, 0, 10);
+        cache.getOutputStream().write(data[10]);
+        cache.getOutputStream().write(data, 11, data.length - 11);
+        assertEquals(data.length, cache.getSize());
+        assertContents(data, cache);
+        //the heap buffer counts against the limit from the start
+        assertEquals(1024, pool.getMemoryUsed());
+        assertEquals(0, pool.getSpillLength());
+        cache.clear();
+        assertEquals(0, pool.getMemoryUsed());
+    }
+
+    @Test
+    public void testSpilling() throws IOException {
+        SegmentedStreamCache[] caches = new SegmentedStreamCache[3];
+        byte[][] data = new byte[caches.length][];
+        for (int i = 0; i < caches.length; i++) {
+            caches[i] = new SegmentedStreamCache(pool, 0);
+            data[i] = createData(5 * SegmentPool.SEGMENT_SIZE + 123 * i, i);
+        }
+        //Interleave the writes so the segments of the caches are mixed in the spill file
+        for (int offset = 0; offset < data[2].length; offset += 1000) {
+            for (int i = 0; i < caches.length; i++) {
+                int length = Math.min(1000, data[i].length - offset);
+                if (length > 0) {
+                    caches[i].write(copy(data[i], offset, length));
+                }
+            }
+            assertTrue(pool.getMemoryUsed() <= MEMORY_LIMIT + SegmentPool.SEGMENT_SIZE);
+        }
+        assertTrue(pool.getSpillLength() > 0);
+        for (int i = 0; i < caches.length; i++) {
+            assertEquals(data[i].length, caches[i].getSize());
+            assertContents(data[i], caches[i]);
+            //Contents can be output several times
+            assertContents(data[i], caches[i]);
+        }
+        for (SegmentedStreamCache cache : caches) {
+            cache.clear();
+        }
+        assertEquals(0, pool.getMemoryUsed());
+    }
+
+    @Test
+    public void testWriteAfterClear() throws IOException {
+        SegmentedStreamCache cache = new SegmentedStreamCache(pool, 0);
+        cache.write(createData(3 * SegmentPool.SEGMENT_SIZE, 1));
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        byte[] data = createData(500, 2);
+        cache.write(data);
+        assertContents(data, cache);
+    }
+
+    @Test
+    public void testCloseDeletesSpillFile() throws IOException {
+        SegmentedStreamCache cache = new SegmentedStreamCache(pool, 0);
+        cache.write(createData(6 * SegmentPool.SEGMENT_SIZE, 4));
+        File spillFile = pool.getSpillFile();
+        assertTrue(spillFile.exists());
+        pool.close();
+        assertFalse(spillFile.exists());
+        assertNull(pool.getSpillFile());
+        pool.close();
+    }
+
+    @Test
+    public void testAbandonedSpillFileIsDeleted() throws Exception {
+        File spillFile = spillAndAbandon();
+        assertTrue(spillFile.exists());
+        for (int i = 0; i < 50 && spillFile.exists(); i++) {
+            System.gc();
+            Thread.sleep(20);
+            SegmentPool.deleteAbandonedSpillFiles();
+        }
+        assertFalse(spillFile.exists());
+    }
+
+    private File spillAndAbandon() throws IOException {
+        SegmentPool abandoned = new SegmentPool(MEMORY_LIMIT);
+        new SegmentedStreamCache(abandoned, 0).write(createData(6 * SegmentPool.SEGMENT_SIZE, 5));
+        return abandoned.getSpillFile();
+    }
+
+    @Test
+    public void testStreamMovesToDocumentCache() throws IOException {
+        StreamCacheFactory factory = StreamCacheFactory.newSegmentedInstance(MEMORY_LIMIT);
+        try {
+            PDFDocument doc = new PDFDocument("Apache FOP");
+            doc.setStreamCacheFactory(factory);
+            PDFStream stream = new PDFStream();
+            stream.getFilterList().addFilter("null");
+            stream.add("0 0 m ");
+            byte[] data = createData(2 * SegmentPool.SEGMENT_SIZE, 3);
+            stream.getBufferOutputStream().write(data);
+            doc.registerObject(stream);
+            assertTrue(stream.data instanceof SegmentedStreamCache);
+            stream.getBufferOutputStream().write(data);
+            stream.add("S");
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            expected.write("0 0 m ".getBytes("US-ASCII"));
+            expected.write(data);
+            expected.write(data);
+            expected.write('S');
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            stream.outputRawStreamData(actual);
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+        } finally {
+            factory.close();
+        }
+    }
+
+    private void assertContents(byte[] expected, StreamCache cache) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(expected.length, cache.outputContents(out));
+        assertArrayEquals(expected, out.toByteArray());
+    }
+
+    private static byte[] createData(int length, long seed) {
+        byte[] data = new byte[length];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static byte[] copy(byte[] data, int offset, int length) {
+        byte[] copy = new byte[length];
+        System.arraycopy(data, offset, copy, 0, length);
+        return copy;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.intermediate.util;
+
+import java.io.File;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.fop.apps.FopFactory;
+import org.apache.fop.apps.FopFactoryBuilder;
+import org.apache.fop.render.intermediate.IFContext;
+import org.apache.fop.render.intermediate.IFException;
+import org.apache.fop.render.intermediate.IFSerializer;
+
+/**
+ * Tests {@link IFConcatenator}.
+ */
+public class IFConcatenatorTestCase {
+
+    private static final String IF_DOCUMENT
+            = "<document xmlns='http://xmlgraphics.apache.org/fop/intermediate'"
+            + " xmlns:nav='http://xmlgraphics.apache.org/fop/intermediate/document-navigation'"
+            + " version='2.0'>"
+            + "<header/>"
+            + "<page-sequence>"
+            + page(0, "<nav:link rect='0 0 1000 1000'>"
+                    + "<nav:goto-xy id='link' page-index='1' x='0' y='0'/></nav:link>")
+            + page(1, "")
+            + "</page-sequence>"
+            + "<trailer>"
+            + "<nav:named-destination name='dest'>"
+            + "<nav:goto-xy id='dest' page-index='1' x='0' y='0'/></nav:named-destination>"
+            + "<nav:bookmark-tree><nav:bookmark title='Chapter' starting-state='show'>"
+            + "<nav:goto-xy id='bookmark' page-index='1' x='0' y='0'/>"
+            + "</nav:bookmark></nav:bookmark-tree>"
+            + "</trailer>"
+            + "</document>";
+
+    private static String page(int index, String content) {
+        return "<page index='" + index + "' name='" + (index + 1) + "' page-master-name='m'"
+                + " width='100000' height='100000'>"
+                + "<page-header/><content>" + content + "</content><page-trailer/></page>";
+    }
+
+    /**
+     * Pages and navigation of all documents end up in the output with rebased page indices
+     * and IDs, and with a single bookmark tree.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testNavigationIsMerged() throws Exception {
+        String result = concatenate(3, 3);
+        assertEquals(6, count(result, "<page "));
+        assertEquals(1, count(result, "<nav:bookmark-tree>"));
+        assertEquals(3, count(result, "<nav:bookmark "));
+        assertEquals(1, count(result, "<nav:named-destination "));
+        for (int i = 0; i < 3; i++) {
+            String pageIndex = "page-index=\"" + (2 * i + 1) + "\"";
+            assertEquals(1, count(result, "id=\"d" + i + ":link\" " + pageIndex));
+            assertEquals(1, count(result, "id=\"d" + i + ":bookmark\" " + pageIndex));
+        }
+        assertEquals(1, count(result, "id=\"d0:dest\" page-index=\"1\""));
+    }
+
+    /**
+     * Parsing the documents in parallel gives the same result as parsing them one by one.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testParallelParsing() throws Exception {
+        assertEquals(concatenate(4, 1), concatenate(4, 4));
+    }
+
+    /**
+     * No more documents are parsed ahead than may be buffered.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testBufferedDocumentsAreLimited() throws Exception {
+        CountingSerializer serializer = concatenate(6, 2, 4);
+        assertEquals(6, serializer.opened.get());
+        assertTrue(serializer.maxBuffered <= 2);
+    }
+
+    private String concatenate(int documents, int maxBuffered) throws Exception {
+        return concatenate(documents, maxBuffered, 4).writer.toString();
+    }
+
+    private CountingSerializer concatenate(int documents, int maxBuffered, int workerThreads)
+            throws Exception {
+        FopFactory fopFactory = new FopFactoryBuilder(new File(".").toURI())
+                .setWorkerThreadCount(workerThreads).build();
+        final CountingSerializer serializer
+                = new CountingSerializer(new IFContext(fopFactory.newFOUserAgent()));
+        IFConcatenator concatenator = new IFConcatenator(serializer, null);
+        concatenator.setMaxBufferedDocuments(maxBuffered);
+        List<Source> sources = new ArrayList<Source>();
+        for (int i = 0; i < documents; i++) {
+            sources.add(new StreamSource() {
+                private Reader reader;
+
+                public synchronized Reader getReader() {
+                    if (reader == null) {
+                        serializer.opened.incrementAndGet();
+                        reader = new StringReader(IF_DOCUMENT);
+                    }
+                    return reader;
+                }
+            });
+        }
+        concatenator.appendDocuments(sources);
+        concatenator.finish();
+        return serializer;
+    }
+
+    /** Records how many documents were opened but not yet appended at most. */
+    private static final class CountingSerializer extends IFSerializer {
+
+        private final StringWriter writer = new StringWriter();
+        private final AtomicInteger opened = new AtomicInteger();
+        private int appended;
+        private int maxBuffered;
+
+        CountingSerializer(IFContext context) throws IFException {
+            super(context);
+            setResult(new StreamResult(writer));
+        }
+
+        @Override
+        public void startPageSequence(String id) throws IFException {
+            maxBuffered = Math.max(maxBuffered, opened.get() - appended);
+            appended++;
+            super.startPageSequence(id);
+        }
+    }
+
+    private static int count(String s, String part) {
+        int count = 0;
+        for (int i = s.indexOf(part); i >= 0; i = s.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
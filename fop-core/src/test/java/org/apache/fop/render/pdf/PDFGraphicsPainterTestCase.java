@@ -19,18 +19,20 @@
 
 package org.apache.fop.render.pdf;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import org.junit.Before;
 import org.junit.Test;
 
-import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.endsWith;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import org.apache.fop.fo.Constants;
+import org.apache.fop.pdf.PDFContentWriter;
+import org.apache.fop.pdf.PDFDocument;
 import org.apache.fop.pdf.PDFNumber;
 
 public class PDFGraphicsPainterTestCase {
@@ -39,26 +41,38 @@ public class PDFGraphicsPainterTestCase {
 
     private PDFContentGenerator generator;
 
+    private ByteArrayOutputStream out;
+
+    private PDFContentWriter writer;
+
     @Before
     public void setup() {
         generator = mock(PDFContentGenerator.class);
+        out = new ByteArrayOutputStream();
+        writer = new PDFContentWriter(out);
+        when(generator.getContentWriter()).thenReturn(writer);
         sut = new PDFGraphicsPainter(generator);
     }
 
+    private String written() throws IOException {
+        writer.flush();
+        return out.toString(PDFDocument.ENCODING);
+    }
+
     @Test
-    public void moveTo() {
+    public void moveTo() throws IOException {
         int x = 10;
         int y = 20;
         sut.moveTo(x, y);
-        verify(generator).add(op("m", x, y));
+        assertEquals(op("m", x, y), written());
     }
 
     @Test
-    public void lineTo() {
+    public void lineTo() throws IOException {
         int x = 10;
         int y = 20;
         sut.lineTo(x, y);
-        verify(generator).add(op("l", x, y));
+        assertEquals(op("l", x, y), written());
     }
 
     @Test
@@ -71,31 +85,31 @@ public class PDFGraphicsPainterTestCase {
         double endAngle = Math.PI / 2;
         sut.arcTo(startAngle, endAngle, x, y, width, height);
         //TODO stricter verification
-        verify(generator).add(endsWith(" c "));
+        assertTrue(written().endsWith(" c "));
     }
 
     @Test
-    public void closePath() {
+    public void closePath() throws IOException {
         sut.closePath();
-        verify(generator).add(op("h"));
+        assertEquals(op("h"), written());
     }
 
     @Test
-    public void clip() {
+    public void clip() throws IOException {
         sut.clip();
-        verify(generator).add(opln("W\nn"));
+        assertEquals(opln("W\nn"), written());
     }
 
     @Test
-    public void saveGraphicsState() {
+    public void saveGraphicsState() throws IOException {
         sut.saveGraphicsState();
-        verify(generator).add(opln("q"));
+        assertEquals(opln("q"), written());
     }
 
     @Test
-    public void restoreGraphicsState() {
+    public void restoreGraphicsState() throws IOException {
         sut.restoreGraphicsState();
-        verify(generator).add(opln("Q"));
+        assertEquals(opln("Q"), written());
     }
 
     @Test
@@ -124,24 +138,24 @@ public class PDFGraphicsPainterTestCase {
     }
 
     @Test
-    public void cubicBezierTo() {
+    public void cubicBezierTo() throws IOException {
         int[] args = new int[]{1, 2, 3, 4, 5, 6};
         sut.cubicBezierTo(args[0], args[1], args[2], args[3], args[4], args[5]);
-        verify(generator).add(op("c", args));
+        assertEquals(op("c", args), written());
     }
 
     @Test
-    public void testDrawBorderLineDashed() {
+    public void testDrawBorderLineDashed() throws IOException {
         sut.drawBorderLine(0, 0, 0, 0, true, true, Constants.EN_DASHED, null);
-        verify(generator, never()).add(any(String.class));
+        assertEquals("", written());
     }
 
-    private void testTransformCoordinatesF(float... args) {
-        verify(generator).add(opf("cm", args));
+    private void testTransformCoordinatesF(float... args) throws IOException {
+        assertEquals(opf("cm", args), written());
     }
 
-    private void testTransformCoordinates(int... args) {
-        verify(generator).add(op("cm", args));
+    private void testTransformCoordinates(int... args) throws IOException {
+        assertEquals(op("cm", args), written());
     }
 
     private String opf(String op, float... args) {
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.pdf;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Collections;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.stream.StreamResult;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import org.apache.batik.anim.dom.SVGDOMImplementation;
+
+import org.apache.xmlgraphics.image.loader.ImageInfo;
+import org.apache.xmlgraphics.image.loader.impl.ImageXMLDOM;
+
+import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.apps.FopFactory;
+import org.apache.fop.fonts.FontInfo;
+import org.apache.fop.pdf.PDFFilterList;
+import org.apache.fop.render.intermediate.IFContext;
+import org.apache.fop.render.intermediate.IFPainter;
+
+/**
+ * Tests {@link PDFImageHandlerSVG}.
+ */
+public class PDFImageHandlerSVGTestCase {
+
+    /**
+     * An SVG painted several times at the same size is painted into a single form XObject.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testRepeatedSVGIsPaintedOnce() throws Exception {
+        FopFactory fopFactory = FopFactory.newInstance(new File(".").toURI());
+        FOUserAgent userAgent = fopFactory.newFOUserAgent();
+        PDFDocumentHandler documentHandler = new PDFDocumentHandler(new IFContext(userAgent));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        documentHandler.setResult(new StreamResult(out));
+        documentHandler.setFontInfo(new FontInfo());
+        documentHandler.startDocument();
+        documentHandler.getPDFDocument().setFilterMap(Collections.singletonMap(
+                PDFFilterList.DEFAULT_FILTER, Collections.singletonList("null")));
+        documentHandler.startPage(0, "", "", new Dimension(100000, 100000));
+        IFPainter painter = documentHandler.startPageContent();
+        String uri = "test/resources/images/circles.svg";
+        painter.drawImage(uri, new Rectangle(0, 0, 20000, 20000));
+        painter.drawImage(uri, new Rectangle(30000, 0, 20000, 20000));
+        painter.drawImage(uri, new Rectangle(0, 30000, 40000, 40000));
+        documentHandler.endPageContent();
+        documentHandler.endPage();
+        documentHandler.endDocument();
+
+        String pdf = out.toString("ISO-8859-1");
+        assertEquals(2, count(pdf, "/Subtype /Form"));
+        assertEquals(3, count(pdf, " Do\n"));
+        assertEquals(2, count(pdf, "/Form1 Do\n"));
+    }
+
+    /**
+     * SVGs without a URI are identified by their content.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testFormXObjectKeyOfInstreamSVG() throws Exception {
+        Rectangle pos = new Rectangle(0, 0, 10000, 10000);
+        String key = PDFImageHandlerSVG.getFormXObjectKey(createSVG("red"), pos);
+        assertNotNull(key);
+        assertEquals(key, PDFImageHandlerSVG.getFormXObjectKey(createSVG("red"), pos));
+        assertFalse(key.equals(PDFImageHandlerSVG.getFormXObjectKey(createSVG("blue"), pos)));
+        assertFalse(key.equals(PDFImageHandlerSVG.getFormXObjectKey(createSVG("red"),
+                new Rectangle(0, 0, 20000, 10000))));
+    }
+
+    private ImageXMLDOM createSVG(String fill) throws Exception {
+        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        dbf.setNamespaceAware(true);
+        Document doc = dbf.newDocumentBuilder().newDocument();
+        String ns = SVGDOMImplementation.SVG_NAMESPACE_URI;
+        Element svg = doc.createElementNS(ns, "svg");
+        svg.setAttribute("width", "10");
+        svg.setAttribute("height", "10");
+        doc.appendChild(svg);
+        Element rect = doc.createElementNS(ns, "rect");
+        rect.setAttribute("width", "10");
+        rect.setAttribute("height", "10");
+        rect.setAttribute("fill", fill);
+        svg.appendChild(rect);
+        return new ImageXMLDOM(new ImageInfo(null, "image/svg+xml"), doc, ns);
+    }
+
+    private static int count(String s, String part) {
+        int count = 0;
+        for (int i = s.indexOf(part); i >= 0; i = s.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+
+import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.apps.Fop;
+import org.apache.fop.apps.FopConfBuilder;
+import org.apache.fop.apps.FopConfParser;
+import org.apache.fop.apps.FopFactory;
+import org.apache.fop.apps.MimeConstants;
+import org.apache.fop.apps.PDFRendererConfBuilder;
+
+/**
+ * Tests that encoding page content streams on worker threads gives the same pages.
+ */
+public class PDFParallelPageEncodingTestCase {
+
+    private static final String FO;
+
+    static {
+        StringBuilder sb = new StringBuilder("<fo:root xmlns:fo='http://www.w3.org/1999/XSL/Format'>"
+                + "<fo:layout-master-set>"
+                + "<fo:simple-page-master master-name='page' page-height='100pt' page-width='200pt'>"
+                + "<fo:region-body/>"
+                + "</fo:simple-page-master>"
+                + "</fo:layout-master-set>"
+                + "<fo:page-sequence master-reference='page'>"
+                + "<fo:flow flow-name='xsl-region-body'>");
+        for (int i = 0; i < 300; i++) {
+            sb.append("<fo:block border='0.5pt solid red'>Paragraph ").append(i).append("</fo:block>");
+        }
+        FO = sb.append("</fo:flow></fo:page-sequence></fo:root>").toString();
+    }
+
+    /**
+     * The pages have the same content, in the same order.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testParallelPageEncoding() throws Exception {
+        List<String> pages = getPageContents(render(false, 4));
+        assertEquals(pages, getPageContents(render(true, 4)));
+        assertEquals(pages, getPageContents(render(true, 1)));
+    }
+
+    /**
+     * Without a worker pool, pages are encoded as they are written.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testWithoutWorkerPool() throws Exception {
+        assertEquals(getPageContents(render(false, 4)), getPageContents(render(true, 0)));
+    }
+
+    private byte[] render(boolean parallel, int workerThreads) throws Exception {
+        InputStream conf = new FopConfBuilder()
+                .startRendererConfig(PDFRendererConfBuilder.class)
+                    .setParallelPageEncodingEnabled(parallel)
+                .endRendererConfig().build();
+        FopFactory fopFactory = new FopConfParser(conf, new File(".").toURI())
+                .getFopFactoryBuilder().setWorkerThreadCount(workerThreads).build();
+        FOUserAgent userAgent = fopFactory.newFOUserAgent();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Fop fop = fopFactory.newFop(MimeConstants.MIME_PDF, userAgent, out);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.transform(new StreamSource(new StringReader(FO)),
+                new SAXResult(fop.getDefaultHandler()));
+        return out.toByteArray();
+    }
+
+    private List<String> getPageContents(byte[] pdf) throws Exception {
+        PDDocument doc = PDDocument.load(pdf);
+        try {
+            List<String> pages = new ArrayList<String>();
+            for (PDPage page : doc.getPages()) {
+                InputStream in = page.getContents();
+                try {
+                    pages.add(IOUtils.toString(in, "ISO-8859-1"));
+                } finally {
+                    in.close();
+                }
+            }
+            assertEquals(50, pages.size());
+            return pages;
+        } finally {
+            doc.close();
+        }
+    }
+}
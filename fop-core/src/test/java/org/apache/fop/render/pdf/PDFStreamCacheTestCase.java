@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.apps.Fop;
+import org.apache.fop.apps.FopFactory;
+import org.apache.fop.apps.FopFactoryBuilder;
+import org.apache.fop.apps.MimeConstants;
+import org.apache.fop.pdf.StreamCache;
+import org.apache.fop.pdf.StreamCacheFactory;
+
+/**
+ * Tests that limiting the memory used by stream data gives the same PDF.
+ */
+public class PDFStreamCacheTestCase {
+
+    private static final String FO;
+
+    static {
+        StringBuilder sb = new StringBuilder("<fo:root xmlns:fo='http://www.w3.org/1999/XSL/Format'>"
+                + "<fo:layout-master-set>"
+                + "<fo:simple-page-master master-name='page' page-height='3000pt' page-width='200pt'>"
+                + "<fo:region-body/>"
+                + "</fo:simple-page-master>"
+                + "</fo:layout-master-set>"
+                + "<fo:page-sequence master-reference='page'>"
+                + "<fo:flow flow-name='xsl-region-body' font-size='2pt'>");
+        //Each page content stream is larger than a segment of the stream cache
+        for (int i = 0; i < 1500; i++) {
+            sb.append("<fo:block>Paragraph ").append(i).append("</fo:block>");
+        }
+        FO = sb.append("</fo:flow></fo:page-sequence></fo:root>").toString();
+    }
+
+    /**
+     * Stream data that is spilled to disk is written to the PDF unchanged.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testMemoryLimit() throws Exception {
+        byte[] pdf = render(-1);
+        assertEquals(toString(pdf), toString(render(0)));
+        assertEquals(toString(pdf), toString(render(64 * 1024)));
+        PDDocument doc = PDDocument.load(pdf);
+        try {
+            assertEquals(2, doc.getNumberOfPages());
+        } finally {
+            doc.close();
+        }
+    }
+
+    /**
+     * Streams smaller than a segment count against the limit and are spilled once their
+     * output stream is closed.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testSmallStreamsAreSpilled() throws Exception {
+        StreamCacheFactory factory = StreamCacheFactory.newSegmentedInstance(16 * 1024);
+        try {
+            List<StreamCache> caches = new ArrayList<StreamCache>();
+            for (int i = 0; i < 100; i++) {
+                StreamCache cache = factory.createStreamCache();
+                OutputStream out = cache.getOutputStream();
+                out.write(data(i));
+                out.close();
+                caches.add(cache);
+            }
+            assertTrue(factory.getSpillLength() >= 100 * 1000 - 16 * 1024);
+            for (int i = 0; i < caches.size(); i++) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                assertEquals(1000, caches.get(i).outputContents(out));
+                assertArrayEquals(data(i), out.toByteArray());
+            }
+        } finally {
+            factory.close();
+        }
+    }
+
+    private static byte[] data(int seed) {
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (seed + i);
+        }
+        return data;
+    }
+
+    private String toString(byte[] pdf) throws Exception {
+        //The metadata date and the file ID change from run to run, but not their length
+        return new String(pdf, "ISO-8859-1")
+                .replaceAll("<xmp:MetadataDate>[^<]*</xmp:MetadataDate>", "")
+                .replaceAll("/ID \\[[^\\]]*\\]", "");
+    }
+
+    private byte[] render(long memoryLimit) throws Exception {
+        FopFactory fopFactory = new FopFactoryBuilder(new File(".").toURI())
+                .setStreamCacheMemoryLimit(memoryLimit).build();
+        FOUserAgent userAgent = fopFactory.newFOUserAgent();
+        userAgent.setCreationDate(new Date(0));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Fop fop = fopFactory.newFop(MimeConstants.MIME_PDF, userAgent, out);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.transform(new StreamSource(new StringReader(FO)),
+                new SAXResult(fop.getDefaultHandler()));
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.StringReader;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.documentinterchange.logicalstructure.PDStructureElement;
+import org.apache.pdfbox.pdmodel.documentinterchange.logicalstructure.PDStructureNode;
+import org.apache.pdfbox.pdmodel.documentinterchange.logicalstructure.PDStructureTreeRoot;
+import org.apache.pdfbox.pdmodel.documentinterchange.markedcontent.PDMarkedContent;
+
+import org.apache.fop.apps.FOUserAgent;
+import org.apache.fop.apps.Fop;
+import org.apache.fop.apps.FopConfBuilder;
+import org.apache.fop.apps.FopConfParser;
+import org.apache.fop.apps.FopFactory;
+import org.apache.fop.apps.MimeConstants;
+import org.apache.fop.apps.PDFRendererConfBuilder;
+
+/**
+ * Tests that streaming the structure tree gives the same structure tree as writing it with
+ * the trailer.
+ */
+public class PDFStructureTreeStreamingTestCase {
+
+    private static final String FO = "<fo:root xmlns:fo='http://www.w3.org/1999/XSL/Format'>"
+            + "<fo:layout-master-set>"
+            + "<fo:simple-page-master master-name='page' page-height='100pt' page-width='200pt'>"
+            + "<fo:region-body margin-top='20pt'/><fo:region-before extent='20pt'/>"
+            + "</fo:simple-page-master>"
+            + "</fo:layout-master-set>"
+            + pageSequence() + pageSequence() + pageSequence()
+            + "</fo:root>";
+
+    private static String pageSequence() {
+        StringBuilder sb = new StringBuilder("<fo:page-sequence master-reference='page'>"
+                + "<fo:static-content flow-name='xsl-region-before'>"
+                + "<fo:block>Header <fo:page-number/></fo:block></fo:static-content>"
+                + "<fo:flow flow-name='xsl-region-body'>");
+        for (int i = 0; i < 12; i++) {
+            sb.append("<fo:block>Paragraph ").append(i).append(" with a <fo:basic-link"
+                    + " external-destination='http://xmlgraphics.apache.org/'>link</fo:basic-link>"
+                    + "</fo:block>");
+        }
+        sb.append("<fo:table><fo:table-body><fo:table-row><fo:table-cell><fo:block>Cell"
+                + "</fo:block></fo:table-cell></fo:table-row></fo:table-body></fo:table>");
+        return sb.append("</fo:flow></fo:page-sequence>").toString();
+    }
+
+    /**
+     * The structure tree is the same, but written before the last page.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testStreamedStructureTree() throws Exception {
+        testStreamedStructureTree("1.4");
+    }
+
+    /**
+     * The same with the structure elements in object streams.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testStreamedCompressedStructureTree() throws Exception {
+        testStreamedStructureTree("1.5");
+    }
+
+    private void testStreamedStructureTree(String version) throws Exception {
+        byte[] pdf = render(version, false);
+        byte[] streamedPDF = render(version, true);
+        assertEquals(dumpStructureTree(pdf), dumpStructureTree(streamedPDF));
+        if ("1.4".equals(version)) {
+            String s = new String(pdf, "ISO-8859-1");
+            assertTrue(s.indexOf("/S /Part") > s.lastIndexOf("/Type /Page\n"));
+            s = new String(streamedPDF, "ISO-8859-1");
+            assertTrue(s.indexOf("/S /Part") < s.lastIndexOf("/Type /Page\n"));
+        }
+    }
+
+    private byte[] render(String version, boolean streaming) throws Exception {
+        InputStream conf = new FopConfBuilder().setAccessibility(true, false)
+                .startRendererConfig(PDFRendererConfBuilder.class)
+                    .setPDFVersion(version)
+                    .setStructureTreeStreamingEnabled(streaming)
+                .endRendererConfig().build();
+        FopFactory fopFactory = new FopConfParser(conf, new File(".").toURI())
+                .getFopFactoryBuilder().build();
+        FOUserAgent userAgent = fopFactory.newFOUserAgent();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Fop fop = fopFactory.newFop(MimeConstants.MIME_PDF, userAgent, out);
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.transform(new StreamSource(new StringReader(FO)),
+                new SAXResult(fop.getDefaultHandler()));
+        return out.toByteArray();
+    }
+
+    private String dumpStructureTree(byte[] pdf) throws Exception {
+        PDDocument doc = PDDocument.load(pdf);
+        try {
+            PDStructureTreeRoot root = doc.getDocumentCatalog().getStructureTreeRoot();
+            StringBuilder sb = new StringBuilder();
+            dump(root, sb);
+            sb.append('\n');
+            dumpParentTree((COSDictionary) root.getCOSObject().getDictionaryObject(
+                    COSName.PARENT_TREE), doc, sb);
+            return sb.toString();
+        } finally {
+            doc.close();
+        }
+    }
+
+    private void dump(PDStructureNode node, StringBuilder sb) {
+        sb.append('(');
+        if (node instanceof PDStructureElement) {
+            sb.append(((PDStructureElement) node).getStructureType());
+        }
+        for (Object kid : node.getKids()) {
+            sb.append(' ');
+            if (kid instanceof PDStructureNode) {
+                dump((PDStructureNode) kid, sb);
+            } else if (kid instanceof PDMarkedContent) {
+                sb.append("mc").append(((PDMarkedContent) kid).getMCID());
+            } else {
+                sb.append(kid.getClass().getSimpleName());
+            }
+        }
+        sb.append(')');
+    }
+
+    private void dumpParentTree(COSDictionary node, PDDocument doc, StringBuilder sb) {
+        COSArray kids = (COSArray) node.getDictionaryObject(COSName.KIDS);
+        if (kids != null) {
+            for (int i = 0; i < kids.size(); i++) {
+                dumpParentTree((COSDictionary) kids.getObject(i), doc, sb);
+            }
+        }
+        COSArray nums = (COSArray) node.getDictionaryObject(COSName.NUMS);
+        if (nums != null) {
+            for (int i = 0; i < nums.size(); i += 2) {
+                sb.append(nums.getObject(i)).append(':');
+                COSBase value = nums.getObject(i + 1);
+                if (value instanceof COSArray) {
+                    COSArray array = (COSArray) value;
+                    for (int j = 0; j < array.size(); j++) {
+                        sb.append(getStructureType(array.getObject(j))).append(',');
+                    }
+                } else {
+                    sb.append(getStructureType(value));
+                }
+                sb.append('\n');
+            }
+        }
+    }
+
+    private String getStructureType(COSBase base) {
+        if (base instanceof COSObject) {
+            base = ((COSObject) base).getObject();
+        }
+        return ((COSDictionary) base).getNameAsString(COSName.S);
+    }
+}
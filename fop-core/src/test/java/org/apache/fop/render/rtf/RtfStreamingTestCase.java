@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.render.rtf;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.fop.fo.Constants;
+import org.apache.fop.render.rtf.rtflib.rtfdoc.IRtfStreamedContent;
+import org.apache.fop.render.rtf.rtflib.rtfdoc.RtfAttributes;
+import org.apache.fop.render.rtf.rtflib.rtfdoc.RtfDocumentArea;
+import org.apache.fop.render.rtf.rtflib.rtfdoc.RtfFile;
+import org.apache.fop.render.rtf.rtflib.rtfdoc.RtfSection;
+import org.apache.fop.render.rtf.rtflib.rtfdoc.RtfTable;
+import org.apache.fop.render.rtf.rtflib.rtfdoc.RtfTableRow;
+import org.apache.fop.render.rtf.rtflib.rtfdoc.RtfTextrun;
+
+/**
+ * Tests that streaming RTF output produces the same document as the buffered output
+ * while releasing completed content.
+ */
+public class RtfStreamingTestCase {
+
+    /**
+     * Generates the same document with and without streaming and compares the output.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testStreamedOutputMatchesBuffered() throws Exception {
+        StringWriter buffered = new StringWriter();
+        RtfFile bufferedFile = new RtfFile(buffered);
+        createDocument(bufferedFile.startDocumentArea());
+        bufferedFile.flush();
+
+        StringWriter streamed = new StringWriter();
+        RtfFile streamedFile = new RtfFile(streamed);
+        RtfDocumentArea docArea = streamedFile.startDocumentArea(new StringStreamedContent());
+        createDocument(docArea);
+        assertEquals(1, docArea.getChildCount());
+        streamedFile.flush();
+
+        assertEquals(buffered.toString(), streamed.toString());
+    }
+
+    /**
+     * Completed table rows are written and released when the next row starts.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testTableRowsAreReleased() throws Exception {
+        RtfFile file = new RtfFile(new StringWriter());
+        RtfDocumentArea docArea = file.startDocumentArea(new StringStreamedContent());
+        RtfTable table = docArea.newSection().newTable(null);
+        for (int i = 0; i < 5; i++) {
+            RtfTableRow row = table.newTableRow();
+            row.newTableCell(2000).newParagraph().newText("row " + i);
+        }
+        assertEquals(1, table.getChildCount());
+    }
+
+    /**
+     * The content of completed outermost blocks is written and released.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testCompletedBlocksAreReleased() throws Exception {
+        RtfFile file = new RtfFile(new StringWriter());
+        RtfDocumentArea docArea = file.startDocumentArea(new StringStreamedContent());
+        RtfTextrun textrun = docArea.newSection().getTextrun();
+        textrun.pushBlockAttributes(new RtfAttributes());
+        addText(textrun, "first");
+        textrun.popBlockAttributes(Constants.EN_AUTO);
+        int childCount = textrun.getChildCount();
+        for (int i = 0; i < 10; i++) {
+            textrun.pushBlockAttributes(new RtfAttributes());
+            addText(textrun, "block " + i);
+            textrun.popBlockAttributes(Constants.EN_AUTO);
+        }
+        assertEquals(childCount, textrun.getChildCount());
+    }
+
+    private static void createDocument(RtfDocumentArea docArea) throws IOException {
+        for (int s = 0; s < 3; s++) {
+            RtfSection section = docArea.newSection();
+            RtfTextrun textrun = section.getTextrun();
+            for (int b = 0; b < 4; b++) {
+                textrun.pushBlockAttributes(new RtfAttributes());
+                addText(textrun, "Section " + s + ", block " + b);
+                textrun.pushBlockAttributes(new RtfAttributes());
+                addText(textrun, "nested");
+                textrun.popBlockAttributes(Constants.EN_AUTO);
+                textrun.popBlockAttributes(Constants.EN_AUTO);
+            }
+            RtfTable table = section.newTable(null);
+            for (int r = 0; r < 3; r++) {
+                RtfTableRow row = table.newTableRow();
+                row.newTableCell(2000).newParagraph().newText("cell " + r + ".1");
+                row.newTableCell(5000).newParagraph().newText("cell " + r + ".2");
+                row.close();
+            }
+            table.close();
+            textrun = section.getTextrun();
+            textrun.pushBlockAttributes(new RtfAttributes());
+            addText(textrun, "After the table");
+            textrun.popBlockAttributes(Constants.EN_AUTO);
+            section.close();
+        }
+    }
+
+    private static void addText(RtfTextrun textrun, String text) throws IOException {
+        textrun.pushInlineAttributes(new RtfAttributes());
+        textrun.addString(text);
+        textrun.popInlineAttributes();
+    }
+
+    private static class StringStreamedContent implements IRtfStreamedContent {
+
+        private final StringWriter writer = new StringWriter();
+
+        public Writer getWriter() {
+            return writer;
+        }
+
+        public void writeTo(Writer out) throws IOException {
+            out.write(writer.toString());
+        }
+    }
+}
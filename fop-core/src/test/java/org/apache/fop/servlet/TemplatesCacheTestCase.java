@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.servlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Tests {@link TemplatesCache}.
+ */
+public class TemplatesCacheTestCase {
+
+    private static final String STYLESHEET = "<xsl:stylesheet version=\"1.0\""
+            + " xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\"/>";
+
+    private TransformerFactory factory = TransformerFactory.newInstance();
+
+    private File[] files = new File[3];
+
+    @Before
+    public void setUp() throws IOException {
+        for (int i = 0; i < files.length; i++) {
+            files[i] = File.createTempFile("TemplatesCacheTestCase", ".xsl");
+            FileUtils.writeStringToFile(files[i], STYLESHEET, "UTF-8");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCachedBySystemId() throws Exception {
+        TemplatesCache cache = new TemplatesCache(2);
+        Templates templates = cache.getTemplates(new StreamSource(files[0]), factory);
+        assertSame(templates, cache.getTemplates(new StreamSource(files[0]), factory));
+        assertSame(templates, cache.getTemplates(
+                new StreamSource(files[0].toURI().toString()), factory));
+        assertEquals(1, cache.size());
+        cache.invalidate(new StreamSource(files[0]).getSystemId());
+        assertNotSame(templates, cache.getTemplates(new StreamSource(files[0]), factory));
+    }
+
+    @Test
+    public void testModifiedFileIsCompiledAgain() throws Exception {
+        TemplatesCache cache = new TemplatesCache(2);
+        Templates templates = cache.getTemplates(new StreamSource(files[0]), factory);
+        files[0].setLastModified(files[0].lastModified() - 10000);
+        assertNotSame(templates, cache.getTemplates(new StreamSource(files[0]), factory));
+    }
+
+    @Test
+    public void testSizeIsBounded() throws Exception {
+        TemplatesCache cache = new TemplatesCache(2);
+        Templates first = cache.getTemplates(new StreamSource(files[0]), factory);
+        cache.getTemplates(new StreamSource(files[1]), factory);
+        cache.getTemplates(new StreamSource(files[2]), factory);
+        assertEquals(2, cache.size());
+        assertNotSame(first, cache.getTemplates(new StreamSource(files[0]), factory));
+    }
+
+    @Test
+    public void testCachingDisabled() throws Exception {
+        TemplatesCache cache = new TemplatesCache(0);
+        Templates templates = cache.getTemplates(new StreamSource(files[0]), factory);
+        assertNotSame(templates, cache.getTemplates(new StreamSource(files[0]), factory));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testNoSystemId() throws Exception {
+        TemplatesCache cache = new TemplatesCache(2);
+        cache.getTemplates(new StreamSource(new StringReader(STYLESHEET)), factory);
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.text.linebreak;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that {@link LineBreakScanner} yields the same break actions as
+ * {@link LineBreakStatus}.
+ */
+public class LineBreakScannerTestCase {
+
+    private static final String[] PARAGRAPHS = {
+        "Nobreak",
+        "Thin Space\u2009break",
+        "Shy\u00ADbreak",
+        "Line\nFeed\r\nand CR\rbreak",
+        "(Parenthesis) [brackets] {braces} 1,234.56 $12 12% a-b c/d",
+        "\u0E01\u0E34\u0E19\u0E02\u0E49\u0E32\u0E27 Thai",
+        "\u3042\u3044\u3046\u3048\u304A \u4E00\u4E8C\u4E09",
+        "No\u1F7Ebreak \u200Bzero\u2060width",
+        "  leading and trailing spaces  "
+    };
+
+    /** Compares the bulk scan with the character-by-character algorithm. */
+    @Test
+    public void testScanMatchesNextChar() {
+        LineBreakScanner scanner = new LineBreakScanner();
+        for (String paragraph : PARAGRAPHS) {
+            byte[] fromSequence = scanner.scan(paragraph, 0, paragraph.length()).clone();
+            byte[] fromArray = scanner.scan(paragraph.toCharArray(), 0, paragraph.length());
+            LineBreakStatus lbs = new LineBreakStatus();
+            for (int i = 0; i < paragraph.length(); i++) {
+                byte expected = lbs.nextChar(paragraph.charAt(i));
+                assertEquals(paragraph + " @" + i, expected, fromSequence[i]);
+                assertEquals(paragraph + " @" + i, expected, fromArray[i]);
+            }
+        }
+    }
+
+    /** Scanning an interval starts from a fresh state at the start of that interval. */
+    @Test
+    public void testScanInterval() {
+        String text = "one two three";
+        LineBreakScanner scanner = new LineBreakScanner();
+        byte[] actions = scanner.scan(text.toCharArray(), 4, text.length());
+        assertEquals(LineBreakStatus.PROHIBITED_BREAK, actions[0]);
+        assertEquals(LineBreakStatus.INDIRECT_BREAK, actions[4]);
+    }
+}
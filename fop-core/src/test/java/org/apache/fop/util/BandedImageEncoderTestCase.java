@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/* $Id$ */
+
+package org.apache.fop.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.apache.xmlgraphics.image.rendered.BufferedImageCachableRed;
+import org.apache.xmlgraphics.ps.ImageEncodingHelper;
+
+import org.apache.fop.util.bitmap.BandedImageEncoder;
+
+/**
+ * Tests {@link BandedImageEncoder}.
+ */
+public class BandedImageEncoderTestCase {
+
+    private static final int[] IMAGE_TYPES = {
+        BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+        BufferedImage.TYPE_INT_ARGB_PRE, BufferedImage.TYPE_INT_BGR,
+        BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR,
+        BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_USHORT_GRAY,
+        BufferedImage.TYPE_BYTE_BINARY, BufferedImage.TYPE_BYTE_INDEXED,
+        BufferedImage.TYPE_USHORT_565_RGB
+    };
+
+    /**
+     * The encoded samples are the same as those created by {@link ImageEncodingHelper}.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testSameAsImageEncodingHelper() throws Exception {
+        for (int type : IMAGE_TYPES) {
+            BufferedImage image = createImage(type, 203, 77);
+            assertEncoding(image, new BandedImageEncoder(image));
+            RenderedImage red = new BufferedImageCachableRed(image);
+            assertEncoding(red, new BandedImageEncoder(red));
+        }
+    }
+
+    /**
+     * Large images are encoded on several threads with the same result.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testParallelEncoding() throws Exception {
+        BufferedImage image = createImage(BufferedImage.TYPE_INT_RGB, 1201, 1001);
+        BandedImageEncoder encoder = new BandedImageEncoder(image);
+        encoder.setExecutor(new WorkerPool(3).getExecutor(), 4);
+        assertEncoding(image, encoder);
+    }
+
+    /**
+     * The calling thread does not wait for helper tasks that cannot start because the
+     * executor is busy.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testBusyExecutor() throws Exception {
+        WorkerPool pool = new WorkerPool(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        pool.getExecutor().execute(new Runnable() {
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        try {
+            BufferedImage image = createImage(BufferedImage.TYPE_INT_RGB, 1201, 1001);
+            BandedImageEncoder encoder = new BandedImageEncoder(image);
+            encoder.setExecutor(pool.getExecutor(), 4);
+            assertEncoding(image, encoder);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private void assertEncoding(RenderedImage image, BandedImageEncoder encoder)
+            throws Exception {
+        ByteArrayOutputStream rgb = new ByteArrayOutputStream();
+        ImageEncodingHelper.encodeRenderedImageAsRGB(image, rgb);
+        String type = "type " + image.getColorModel();
+        assertArrayEquals(type, rgb.toByteArray(), encoder.encodeAsRGB());
+        for (int bitsPerPixel : new int[] {1, 4, 8}) {
+            ByteArrayOutputStream gray = new ByteArrayOutputStream();
+            ImageEncodingHelper.encodeRGBAsGrayScale(rgb.toByteArray(),
+                    image.getWidth(), image.getHeight(), bitsPerPixel, gray);
+            assertArrayEquals(type + " @" + bitsPerPixel, gray.toByteArray(),
+                    encoder.encodeAsGrayscale(bitsPerPixel));
+        }
+    }
+
+    private BufferedImage createImage(int type, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+}
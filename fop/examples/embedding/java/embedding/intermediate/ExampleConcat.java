@@ -22,6 +22,8 @@ package embedding.intermediate;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -159,11 +161,12 @@ public class ExampleConcat {
 
             IFConcatenator concatenator = new IFConcatenator(targetHandler, null);
 
-            //Iterate over all intermediate files
+            //Parse all intermediate files and append them in order
+            List<Source> sources = new ArrayList<Source>();
             for (File file : files) {
-                Source src = new StreamSource(file);
-                concatenator.appendDocument(src);
+                sources.add(new StreamSource(file));
             }
+            concatenator.appendDocuments(sources);
 
             //Signal the end of the processing so the target file can be finalized properly.
             concatenator.finish();